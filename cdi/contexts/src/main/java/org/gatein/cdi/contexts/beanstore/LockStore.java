@@ -21,55 +21,91 @@
  */
 package org.gatein.cdi.contexts.beanstore;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Taken from weld and incorporated with custom portlet scopes.
+ * <p/>
+ * The locks are reference counted and kept in a concurrent map, a lock is removed from the map when its count drops to
+ * zero. Acquiring or releasing the lock of a key never blocks the threads using other keys.
  *
  * @author <a href="mailto:nscavell@redhat.com">Nick Scavelli</a>
  */
 public class LockStore {
     static final String SESSION_KEY = LockStore.class.getName();
 
-    private transient volatile Map<String, ReferenceCountedLock> locks = new HashMap<String, ReferenceCountedLock>();
+    @SuppressWarnings("rawtypes")
+    private static final AtomicIntegerFieldUpdater<ReferenceCountedLock> COUNT = (AtomicIntegerFieldUpdater) AtomicIntegerFieldUpdater
+            .newUpdater(ReferenceCountedLock.class, "count");
+
+    private final transient ConcurrentMap<String, ReferenceCountedLock> locks = new ConcurrentHashMap<String, ReferenceCountedLock>();
 
     public LockedBean lock(String id) {
         ReferenceCountedLock refLock;
-        synchronized (locks) {
-            if (locks == null) {
-                locks = new HashMap<String, ReferenceCountedLock>();
-            }
+        while (true) {
             refLock = locks.get(id);
-            if (refLock != null) {
-                refLock.count++;
-            } else {
+            if (refLock == null) {
                 refLock = new ReferenceCountedLock(id);
-                locks.put(id, refLock);
+                ReferenceCountedLock existing = locks.putIfAbsent(id, refLock);
+                if (existing == null) {
+                    break;
+                }
+                refLock = existing;
             }
+            if (refLock.retain()) {
+                break;
+            }
+            // The lock was released concurrently, help to remove it before retrying
+            locks.remove(id, refLock);
         }
-        refLock.lock.lock();
+        refLock.lock();
         return refLock;
     }
 
-    private class ReferenceCountedLock implements LockedBean {
+    /**
+     * Returns the number of locks currently held or awaited.
+     */
+    int size() {
+        return locks.size();
+    }
+
+    /**
+     * The reference is the lock itself and its count is updated with a field updater to avoid allocating a lock and a
+     * counter for each acquisition.
+     */
+    private class ReferenceCountedLock extends ReentrantLock implements LockedBean {
         private final String key;
-        int count = 1;
-        final ReentrantLock lock = new ReentrantLock();
+        volatile int count = 1;
 
         private ReferenceCountedLock(final String key) {
             this.key = key;
         }
 
-        public void unlock() {
-            synchronized (locks) {
-                lock.unlock();
-                --count;
-                if (count == 0) {
-                    locks.remove(key);
+        /**
+         * Increments the count unless it already dropped to zero, a lock with a zero count is discarded and cannot be
+         * reused.
+         */
+        boolean retain() {
+            while (true) {
+                int current = count;
+                if (current == 0) {
+                    return false;
+                }
+                if (COUNT.compareAndSet(this, current, current + 1)) {
+                    return true;
                 }
             }
         }
+
+        @Override
+        public void unlock() {
+            super.unlock();
+            if (COUNT.decrementAndGet(this) == 0) {
+                locks.remove(key, this);
+            }
+        }
     }
 }
@@ -0,0 +1,140 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2013, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.gatein.cdi.contexts.beanstore;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import junit.framework.TestCase;
+
+/**
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
+public class TestLockStore extends TestCase {
+
+    public void testReentrant() {
+        LockStore store = new LockStore();
+        LockedBean first = store.lock("foo");
+        LockedBean second = store.lock("foo");
+        assertEquals(1, store.size());
+        second.unlock();
+        assertEquals(1, store.size());
+        first.unlock();
+        assertEquals(0, store.size());
+    }
+
+    public void testDistinctKeysDoNotBlock() throws Exception {
+        final LockStore store = new LockStore();
+        LockedBean foo = store.lock("foo");
+        final CountDownLatch locked = new CountDownLatch(1);
+        Thread thread = new Thread() {
+            @Override
+            public void run() {
+                store.lock("bar").unlock();
+                locked.countDown();
+            }
+        };
+        thread.start();
+        assertTrue(locked.await(10, TimeUnit.SECONDS));
+        foo.unlock();
+        thread.join();
+        assertEquals(0, store.size());
+    }
+
+    public void testSameKeyBlocks() throws Exception {
+        final LockStore store = new LockStore();
+        LockedBean foo = store.lock("foo");
+        final CountDownLatch locked = new CountDownLatch(1);
+        Thread thread = new Thread() {
+            @Override
+            public void run() {
+                LockedBean bean = store.lock("foo");
+                locked.countDown();
+                bean.unlock();
+            }
+        };
+        thread.start();
+        assertFalse(locked.await(100, TimeUnit.MILLISECONDS));
+        foo.unlock();
+        assertTrue(locked.await(10, TimeUnit.SECONDS));
+        thread.join();
+        assertEquals(0, store.size());
+    }
+
+    public void testContention() throws Exception {
+        final LockStore store = new LockStore();
+        final int threadCount = 8;
+        final int iterations = 10000;
+        final String[] keys = { "a", "b", "c" };
+        final int[] counters = new int[keys.length];
+        final AtomicInteger[] holders = new AtomicInteger[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            holders[i] = new AtomicInteger();
+        }
+        final AtomicReference<String> failure = new AtomicReference<String>();
+        final CyclicBarrier barrier = new CyclicBarrier(threadCount);
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int t = 0; t < threadCount; t++) {
+            final int offset = t;
+            Thread thread = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        barrier.await();
+                        for (int i = 0; i < iterations; i++) {
+                            int index = (i + offset) % keys.length;
+                            LockedBean bean = store.lock(keys[index]);
+                            try {
+                                if (holders[index].incrementAndGet() != 1) {
+                                    failure.set("Key " + keys[index] + " locked by several threads");
+                                }
+                                counters[index]++;
+                                holders[index].decrementAndGet();
+                            } finally {
+                                bean.unlock();
+                            }
+                        }
+                    } catch (Exception e) {
+                        failure.set(e.toString());
+                    }
+                }
+            };
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertNull(failure.get(), failure.get());
+        int total = 0;
+        for (int counter : counters) {
+            total += counter;
+        }
+        assertEquals(threadCount * iterations, total);
+        assertEquals(0, store.size());
+    }
+}
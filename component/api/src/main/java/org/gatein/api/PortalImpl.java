@@ -85,7 +85,6 @@ import org.gatein.common.logging.LoggerFactory;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
@@ -171,66 +170,150 @@ public class PortalImpl implements Portal {
     public List<Site> findSites(SiteQuery query) {
         Parameters.requireNonNull(query, "query");
 
+        Comparator<PortalConfig> comparator = Comparators.site(query.getSorting());
         Pagination pagination = query.getPagination();
-        if (pagination != null && query.getSiteTypes().size() > 1) {
-            pagination = null; // set it to null so the internal DataStorage doesn't use it, and we manually page later
-            log.warn("Pagination is not supported internally for SiteQuery's with multiple site types. Therefore this query has the possibility to perform poorly.");
-        }
-        boolean includeAll = query.isIncludeEmptySites();
-
-        List<Site> sites = new ArrayList<Site>();
-        for (SiteType type : query.getSiteTypes()) {
-            List<Site> sitesFound;
-            switch (type) {
-                case SITE:
-                    sitesFound = findSites(pagination, SITES, Comparators.site(query.getSorting()), includeAll);
-                    break;
-                case SPACE:
-                    sitesFound = findSites(pagination, SPACES, Comparators.site(query.getSorting()), includeAll);
-                    break;
-                case DASHBOARD:
-                    sitesFound = findSites(pagination, DASHBOARDS, Comparators.site(query.getSorting()), includeAll);
-                    break;
-                default:
-                    throw new AssertionError();
-            }
+        int offset = pagination != null ? pagination.getOffset() : 0;
+        int limit = pagination != null ? pagination.getLimit() : Integer.MAX_VALUE;
 
-            sites.addAll(sitesFound);
+        try {
+            List<SiteCursor> cursors = new ArrayList<SiteCursor>();
+            for (SiteType type : query.getSiteTypes()) {
+                Query<PortalConfig> siteQuery;
+                switch (type) {
+                    case SITE:
+                        siteQuery = SITES;
+                        break;
+                    case SPACE:
+                        siteQuery = SPACES;
+                        break;
+                    case DASHBOARD:
+                        siteQuery = DASHBOARDS;
+                        break;
+                    default:
+                        throw new AssertionError();
+                }
+                cursors.add(new SiteCursor(dataStorage.find2(siteQuery, comparator), query.isIncludeEmptySites(),
+                        query.getFilter(), limit));
+            }
 
-            // No reason to fetch anymore
-            if (pagination != null && sites.size() >= pagination.getLimit()) {
-                break;
+            // Merge the sites of each type, the sites are consumed until the page is complete
+            List<Site> sites = new ArrayList<Site>();
+            while (sites.size() < limit) {
+                SiteCursor next = null;
+                for (SiteCursor cursor : cursors) {
+                    if (cursor.hasNext()) {
+                        if (comparator == null) {
+                            next = cursor;
+                            break;
+                        } else if (next == null || comparator.compare(cursor.peek(), next.peek()) < 0) {
+                            next = cursor;
+                        }
+                    }
+                }
+                if (next == null) {
+                    break;
+                }
+                Site site = next.next();
+                if (offset > 0) {
+                    offset--;
+                } else {
+                    sites.add(site);
+                }
             }
+            return sites;
+        } catch (ApiException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new ApiException("Failed to query for sites", e);
         }
+    }
 
-        filter(sites, query.getFilter());
+    /**
+     * Iterates over the sites of a type in the storage order, the sites are loaded by batch and only the sites that match
+     * the query are retained. The navigation of a site is only loaded when the empty sites must be excluded.
+     */
+    private class SiteCursor {
 
-        // Manually do paging for multiple site types.
-        if (query.getSiteTypes().size() > 1) {
-            sites = paginate(sites, query.getPagination());
-        }
+        /** . */
+        private final ListAccess<PortalConfig> access;
 
-        return sites;
-    }
+        /** . */
+        private final boolean includeEmptySites;
 
-    private List<Site> findSites(Pagination pagination, Query<PortalConfig> query, Comparator<PortalConfig> comparator, boolean includeAllSites) {
-        try {
-            if (pagination != null) {
-                ListAccess<PortalConfig> access = dataStorage.find2(query, comparator);
-                int size = access.getSize();
-                int offset = pagination.getOffset();
-                int limit = pagination.getLimit();
-                if (offset >= size) {
-                    return Collections.emptyList();
+        /** . */
+        private final Filter<Site> filter;
+
+        /** . */
+        private final int batchSize;
+
+        /** . */
+        private final int size;
+
+        /** The index of the next site to load. */
+        private int index;
+
+        /** . */
+        private PortalConfig[] batch;
+
+        /** The index in the batch. */
+        private int batchIndex;
+
+        /** . */
+        private PortalConfig nextConfig;
+
+        /** . */
+        private Site nextSite;
+
+        private SiteCursor(ListAccess<PortalConfig> access, boolean includeEmptySites, Filter<Site> filter, int limit)
+                throws Exception {
+            this.access = access;
+            this.includeEmptySites = includeEmptySites;
+            this.filter = filter;
+            this.batchSize = Math.max(10, Math.min(limit, 100));
+            this.size = access.getSize();
+        }
+
+        private boolean hasNext() throws Exception {
+            while (nextConfig == null) {
+                if (batch == null || batchIndex >= batch.length) {
+                    if (index >= size) {
+                        return false;
+                    }
+                    int length = Math.min(batchSize, size - index);
+                    batch = access.load(index, length);
+                    batchIndex = 0;
+                    index += length;
+                }
+                PortalConfig config = batch[batchIndex];
+                batch[batchIndex++] = null;
+                if (config != null && (includeEmptySites || hasNavigation(config))) {
+                    Site site = new SiteImpl(config);
+                    if (filter == null || filter.accept(site)) {
+                        nextConfig = config;
+                        nextSite = site;
+                    }
                 }
+            }
+            return true;
+        }
 
-                PortalConfig[] sites = loadSites(includeAllSites, access, size, offset, limit);
-                return fromList(Arrays.asList(sites).subList(pagination.getOffset(), sites.length));
-            } else {
-                return fromList(dataStorage.find(query, comparator).getAll());
+        private PortalConfig peek() {
+            return nextConfig;
+        }
+
+        private Site next() {
+            Site site = nextSite;
+            nextConfig = null;
+            nextSite = null;
+            return site;
+        }
+
+        private boolean hasNavigation(PortalConfig config) {
+            try {
+                return navigationService.loadNavigation(new SiteKey(config.getType(), config.getName())) != null;
+            } catch (Throwable t) {
+                throw new ApiException("Failed to find sites", t);
             }
-        } catch (Throwable e) {
-            throw new ApiException("Failed to query for sites", e);
         }
     }
 
@@ -702,82 +785,4 @@ public class PortalImpl implements Portal {
             }
         }
     }
-
-    private static <T> List<T> paginate(List<T> list, Pagination pagination) {
-        if (pagination == null)
-            return list;
-        if (pagination.getOffset() >= list.size())
-            return Collections.emptyList();
-
-        if (pagination.getOffset() + pagination.getLimit() > list.size()) {
-            return new ArrayList<T>(list.subList(pagination.getOffset(), list.size()));
-        } else {
-            return new ArrayList<T>(list.subList(pagination.getOffset(), pagination.getOffset() + pagination.getLimit()));
-        }
-    }
-
-    private static List<Site> fromList(List<PortalConfig> internalSites) {
-        List<Site> sites = new ArrayList<Site>(internalSites.size());
-        for (PortalConfig internalSite : internalSites) {
-            if (internalSite == null) continue;
-
-            sites.add(new SiteImpl(internalSite));
-        }
-        return sites;
-    }
-
-    private PortalConfig[] loadSites(boolean includeAllSites, ListAccess<PortalConfig> access, int size, int offset, int limit) throws Exception {
-        PortalConfig[] sites = new PortalConfig[Math.min(limit + offset, size)];
-        PortalConfig[] loaded;
-        int loadIndex = 0;
-        int loadLength = sites.length;
-        int index = 0;
-        int length = 0;
-        while (index < sites.length && loadIndex < size) {
-            // Load sites from backend filtering empty sites if needed (includeAllSites=false)
-            loaded = load(access, loadIndex, loadLength, includeAllSites);
-
-            // Copy contents to sites array
-            int copyLength = Math.min(loaded.length, sites.length - index);
-            System.arraycopy(loaded, 0, sites, index, copyLength);
-
-            // Update what has been copied
-            index = index + loaded.length;
-            length = length + copyLength;
-            if (length == sites.length) {
-                break;
-            }
-
-            // Update what has been loaded
-            loadIndex = loadIndex + sites.length;
-            loadLength = loadLength + limit;
-            if (loadLength + loadIndex > size) {
-                loadLength = size - loadIndex;
-            }
-        }
-        return sites;
-    }
-
-    private PortalConfig[] load(ListAccess<PortalConfig> access, int start, int end, boolean includeAllSites) throws Exception {
-        PortalConfig[] loaded = access.load(start, end);
-        List<PortalConfig> list = new ArrayList<PortalConfig>(loaded.length);
-        for (PortalConfig pc : loaded) {
-            if (pc == null) continue;
-
-            NavigationContext ctx = null;
-            if (!includeAllSites) {
-                try {
-                    ctx = navigationService.loadNavigation(new SiteKey(pc.getType(), pc.getName()));
-                } catch (Throwable t) {
-                    throw new ApiException("Failed to find sites", t);
-                }
-            }
-
-            if (includeAllSites || ctx != null) {
-                list.add(pc);
-            }
-        }
-
-        return list.toArray(new PortalConfig[list.size()]);
-    }
 }
@@ -22,7 +22,13 @@
 
 package org.gatein.api.navigation;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.ResourceBundle;
 
 import org.exoplatform.commons.utils.ExpressionUtil;
@@ -44,6 +50,12 @@ public class Navigation18NResolver {
     private final Locale siteLocale;
     private final SiteId siteId;
 
+    /** The resolved descriptions, an entry with a null value is a node without description. */
+    private Map<String, Described.State> descriptions;
+
+    /** The locales of the resolved descriptions. */
+    private List<Locale> descriptionLocales;
+
     public Navigation18NResolver(DescriptionService service, ResourceBundleManager bundleManager, Locale siteLocale,
             SiteId siteId) {
         this.service = service;
@@ -72,10 +84,53 @@ public class Navigation18NResolver {
     }
 
     public String resolveName(String string, String descriptionId, String defaultValue) {
-        return resolve(string, descriptionId, defaultValue, true);
+        return resolve(string, descriptionId, defaultValue, true, null);
+    }
+
+    /**
+     * Resolves a name, the descriptions of the <code>siblingIds</code> argument are resolved at the same time in a single
+     * pass and are retained for the next resolutions.
+     *
+     * @param string the label
+     * @param descriptionId the description id
+     * @param defaultValue the default value
+     * @param siblingIds the ids of the descriptions likely to be resolved next
+     * @return the resolved name
+     */
+    public String resolveName(String string, String descriptionId, String defaultValue, Collection<String> siblingIds) {
+        return resolve(string, descriptionId, defaultValue, true, siblingIds);
+    }
+
+    void invalidateDescriptions() {
+        descriptions = null;
+    }
+
+    private Described.State resolveDescription(String descriptionId, Collection<String> siblingIds) {
+        List<Locale> locales = Arrays.asList(getUserLocale(), siteLocale);
+        if (descriptions == null || !locales.equals(descriptionLocales)) {
+            descriptions = new HashMap<String, Described.State>();
+            descriptionLocales = locales;
+        }
+        if (!descriptions.containsKey(descriptionId)) {
+            List<String> ids = new ArrayList<String>();
+            ids.add(descriptionId);
+            if (siblingIds != null) {
+                for (String siblingId : siblingIds) {
+                    if (siblingId != null && !descriptions.containsKey(siblingId)) {
+                        ids.add(siblingId);
+                    }
+                }
+            }
+            Map<String, Described.State> resolved = service.resolveDescriptions(ids, locales);
+            for (String id : ids) {
+                descriptions.put(id, resolved.get(id));
+            }
+        }
+        return descriptions.get(descriptionId);
     }
 
-    private String resolve(String string, String descriptionId, String defaultValue, boolean nameFlag) {
+    private String resolve(String string, String descriptionId, String defaultValue, boolean nameFlag,
+            Collection<String> siblingIds) {
         String resolved = null;
 
         if (string != null) {
@@ -85,14 +140,9 @@ public class Navigation18NResolver {
                 resolved = string;
             }
         } else if (descriptionId != null) {
-            Locale userLocale = getUserLocale();
             Described.State described;
             try {
-                if (userLocale != null) {
-                    described = service.resolveDescription(descriptionId, siteLocale, userLocale);
-                } else {
-                    described = service.resolveDescription(descriptionId, siteLocale);
-                }
+                described = resolveDescription(descriptionId, siblingIds);
             } catch (Throwable t) {
                 throw new ApiException("Failed to resolve description", t);
             }
@@ -21,6 +21,8 @@
  */
 package org.gatein.api.navigation;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 
@@ -194,7 +196,19 @@ public class NavigationImpl implements Navigation {
             i18nResolver = new Navigation18NResolver(descriptionService, bundleManager, site.getLocale(), siteId);
         }
 
-        return i18nResolver.resolveName(ctx.getState().getLabel(), ctx.getId(), ctx.getName());
+        // The siblings are usually displayed together, their descriptions are resolved in the same pass
+        List<String> siblingIds = null;
+        ApiNode parent = ctx.getParentNode();
+        if (parent != null) {
+            siblingIds = new ArrayList<String>();
+            for (ApiNode sibling : parent.context.getNodes()) {
+                if (sibling.context.getState().getLabel() == null) {
+                    siblingIds.add(sibling.context.getId());
+                }
+            }
+        }
+
+        return i18nResolver.resolveName(ctx.getState().getLabel(), ctx.getId(), ctx.getName(), siblingIds);
     }
 
     NodeContext<ApiNode> getNodeContext(NodePath nodePath, NodeVisitor visitor) {
@@ -266,6 +280,9 @@ public class NavigationImpl implements Navigation {
     private void setDescriptions(String id, Map<Locale, Described.State> descriptions) {
         try {
             descriptionService.setDescriptions(id, descriptions);
+            if (i18nResolver != null) {
+                i18nResolver.invalidateDescriptions();
+            }
         } catch (Throwable t) {
             throw new ApiException("Failed to set descriptions", t);
         }
@@ -284,6 +284,36 @@ public class PortalImplTest extends AbstractApiTest {
         assertEquals("b", site.getId().getName());
     }
 
+    @Test
+    public void findSites_FilteredPagedWithMultipleSiteTypes() {
+        for (int i = 0; i < 6; i++) {
+            createSite(new SiteId("site" + i));
+            createSite(new SiteId(new Group("/group" + i)));
+        }
+        createSite(new SiteId("empty"), false);
+
+        SiteQuery query = new SiteQuery.Builder().withAllSiteTypes().withPagination(1, 3).withFilter(new Filter<Site>() {
+            @Override
+            public boolean accept(Site site) {
+                return !site.getName().endsWith("0");
+            }
+        }).build();
+        List<Site> sites = portal.findSites(query);
+        assertEquals(3, sites.size());
+        assertEquals("site2", sites.get(0).getName());
+        assertEquals("site3", sites.get(1).getName());
+        assertEquals("site4", sites.get(2).getName());
+
+        sites = portal.findSites(query.nextPage());
+        assertEquals(3, sites.size());
+        assertEquals("site5", sites.get(0).getName());
+        assertEquals(SiteType.SPACE, sites.get(1).getId().getType());
+        assertEquals(SiteType.SPACE, sites.get(2).getId().getType());
+
+        sites = portal.findSites(query.nextPage().nextPage());
+        assertEquals(3, sites.size());
+    }
+
     @Test
     public void findSites_NaturalOrdering() {
         createSite(new SiteId("z"));
@@ -99,6 +99,15 @@ public interface GadgetRegistryService {
 
     String getHostName();
 
+    /**
+     * Returns a version that changes each time a gadget is deployed, saved or removed or when the source of a local gadget
+     * is saved. It allows to invalidate the data derived from the gadget definitions such as the gadget metadata. The
+     * version is shared by the nodes of a cluster, a modification made on a node changes the version seen by the others.
+     *
+     * @return the version
+     */
+    String getVersion();
+
     /**
      * Get the URL of gadget from gadget definition. There are 2 kind of gadget:
      * <p>
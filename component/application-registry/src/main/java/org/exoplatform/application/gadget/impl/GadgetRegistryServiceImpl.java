@@ -34,6 +34,7 @@ import org.exoplatform.application.gadget.Gadget;
 import org.exoplatform.application.gadget.GadgetImporter;
 import org.exoplatform.application.gadget.GadgetRegistryService;
 import org.exoplatform.application.registry.impl.ApplicationRegistryChromatticLifeCycle;
+import org.exoplatform.commons.cache.ClusterVersion;
 import org.exoplatform.commons.chromattic.ChromatticLifeCycle;
 import org.exoplatform.commons.chromattic.ChromatticManager;
 import org.exoplatform.commons.utils.PropertyManager;
@@ -41,6 +42,7 @@ import org.exoplatform.container.PortalContainer;
 import org.exoplatform.container.xml.InitParams;
 import org.exoplatform.container.xml.PropertiesParam;
 import org.exoplatform.container.xml.ValueParam;
+import org.exoplatform.services.cache.CacheService;
 import org.gatein.common.logging.Logger;
 import org.gatein.common.logging.LoggerFactory;
 
@@ -71,7 +73,10 @@ public class GadgetRegistryServiceImpl implements GadgetRegistryService {
     /** . */
     private String hostName;
 
-    public GadgetRegistryServiceImpl(ChromatticManager chromatticManager, InitParams params) {
+    /** . */
+    private final ClusterVersion version;
+
+    public GadgetRegistryServiceImpl(ChromatticManager chromatticManager, CacheService cacheService, InitParams params) {
         ApplicationRegistryChromatticLifeCycle lifeCycle = (ApplicationRegistryChromatticLifeCycle) chromatticManager
                 .getLifeCycle("app");
 
@@ -105,6 +110,7 @@ public class GadgetRegistryServiceImpl implements GadgetRegistryService {
         this.moduleId = moduleId;
         this.hostName = hostName;
         this.chromatticLifeCycle = lifeCycle;
+        this.version = new ClusterVersion(cacheService, GadgetRegistryService.class.getName());
     }
 
     public GadgetRegistry getRegistry() {
@@ -127,6 +133,9 @@ public class GadgetRegistryServiceImpl implements GadgetRegistryService {
                 log.error("Could not process gadget file " + importer, e);
             }
         }
+
+        //
+        modified();
     }
 
     public Gadget getGadget(String name) {
@@ -191,6 +200,9 @@ public class GadgetRegistryServiceImpl implements GadgetRegistryService {
             def.setTitle(gadget.getTitle());
             def.setThumbnail(gadget.getThumbnail());
         }
+
+        //
+        modified();
     }
 
     public void removeGadget(String name) {
@@ -209,6 +221,9 @@ public class GadgetRegistryServiceImpl implements GadgetRegistryService {
 
         //
         registry.removeGadget(name);
+
+        //
+        modified();
     }
 
     public String getGadgetURL(String gadgetName) {
@@ -297,6 +312,14 @@ public class GadgetRegistryServiceImpl implements GadgetRegistryService {
         return hostName;
     }
 
+    public String getVersion() {
+        return version.get();
+    }
+
+    void modified() {
+        version.stamp();
+    }
+
     private class DeployTask implements Callable<Boolean> {
 
         /** . */
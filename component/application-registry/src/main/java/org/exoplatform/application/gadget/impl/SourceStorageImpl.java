@@ -85,6 +85,7 @@ public class SourceStorageImpl implements SourceStorage {
         if (data instanceof LocalGadgetData) {
             LocalGadgetData localData = (LocalGadgetData) data;
             localData.setSource(source.getTextContent());
+            gadgetRegistryService.modified();
         } else {
             throw new IllegalArgumentException("The provided gadget is remote");
         }
@@ -30,9 +30,12 @@ public interface ApplicationRegistryService {
     String REMOTE_DISPLAY_NAME_SUFFIX = " (remote)";
 
     /**
-     * Return list of ApplicationCatgory (and applications in each category)
+     * Return list of ApplicationCatgory (and applications in each category). When an access user is provided, only the
+     * categories whose access permissions are granted to the memberships of this user are returned, the applications of a
+     * returned category are not filtered. The memberships are the ones of the current conversation state when it is the
+     * access user, otherwise the ones of the identity registered or created for the access user.
      *
-     * @param accessUser
+     * @param accessUser the user accessing the categories
      * @param appTypes - array of ApplicationType, used to filter applications in each application category
      */
     List<ApplicationCategory> getApplicationCategories(String accessUser, ApplicationType<?>... appTypes) throws Exception;
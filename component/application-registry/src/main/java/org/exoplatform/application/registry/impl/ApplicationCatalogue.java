@@ -0,0 +1,193 @@
+/**
+ * Copyright (C) 2013 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.exoplatform.application.registry.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.exoplatform.application.registry.Application;
+import org.exoplatform.application.registry.ApplicationCategory;
+import org.exoplatform.portal.config.UserACL;
+import org.exoplatform.portal.config.model.ApplicationType;
+import org.exoplatform.services.security.Identity;
+import org.exoplatform.services.security.IdentityConstants;
+import org.exoplatform.services.security.MembershipEntry;
+
+/**
+ * <p>
+ * An immutable snapshot of the application registry. The snapshot is never exposed, the categories and applications
+ * returned to the callers are copies since they are mutable and are often sorted or modified by the callers.
+ * </p>
+ *
+ * <p>
+ * The categories visible by an identity only depend on its memberships, the visible categories are computed once per
+ * membership set and shared by all the identities having the same memberships.
+ * </p>
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
+class ApplicationCatalogue {
+
+    /** The maximum number of memoized views, the views are cleared when it is reached. */
+    static final int MAX_VIEWS = 1000;
+
+    /** The key of the super user view. */
+    private static final Set<String> SUPER_USER_KEY = Collections.singleton("*:superuser");
+
+    /** The cluster version of the registry the snapshot was built from. */
+    private final String version;
+
+    /** . */
+    private final List<ApplicationCategory> categories;
+
+    /** . */
+    private final ConcurrentMap<Set<String>, List<ApplicationCategory>> views;
+
+    ApplicationCatalogue(String version, List<ApplicationCategory> categories) {
+        this.version = version;
+        this.categories = categories;
+        this.views = new ConcurrentHashMap<Set<String>, List<ApplicationCategory>>();
+    }
+
+    String getVersion() {
+        return version;
+    }
+
+    /**
+     * Returns a copy of all the categories.
+     *
+     * @param appTypes the application types to retain, all the types are retained when no type is provided
+     * @return the categories
+     */
+    List<ApplicationCategory> getCategories(ApplicationType<?>... appTypes) {
+        return copy(categories, appTypes);
+    }
+
+    /**
+     * Returns a copy of the categories visible by an identity.
+     *
+     * @param acl the acl
+     * @param identity the identity
+     * @param appTypes the application types to retain, all the types are retained when no type is provided
+     * @return the categories
+     */
+    List<ApplicationCategory> getCategories(UserACL acl, Identity identity, ApplicationType<?>... appTypes) {
+        Set<String> key = getKey(acl, identity);
+        List<ApplicationCategory> view = views.get(key);
+        if (view == null) {
+            view = new ArrayList<ApplicationCategory>();
+            for (ApplicationCategory category : categories) {
+                for (String permission : category.getAccessPermissions()) {
+                    if (acl.hasPermission(identity, permission)) {
+                        view.add(category);
+                        break;
+                    }
+                }
+            }
+            if (views.size() >= MAX_VIEWS) {
+                views.clear();
+            }
+            views.put(key, view);
+        }
+        return copy(view, appTypes);
+    }
+
+    int getViewCount() {
+        return views.size();
+    }
+
+    /**
+     * The permission check only depends on the memberships, except for the super user and for the anonymous user that
+     * are accounted in the key.
+     */
+    private static Set<String> getKey(UserACL acl, Identity identity) {
+        String userId = identity.getUserId();
+        if (acl.getSuperUser().equals(userId)) {
+            return SUPER_USER_KEY;
+        }
+        Set<String> key = new HashSet<String>();
+        if (userId == null || userId.equals(IdentityConstants.ANONIM)) {
+            key.add("*:anonymous");
+        }
+        for (MembershipEntry membership : identity.getMemberships()) {
+            key.add(membership.getMembershipType() + ":" + membership.getGroup());
+        }
+        return key;
+    }
+
+    private static List<ApplicationCategory> copy(List<ApplicationCategory> categories, ApplicationType<?>... appTypes) {
+        List<ApplicationCategory> copies = new ArrayList<ApplicationCategory>(categories.size());
+        for (ApplicationCategory category : categories) {
+            ApplicationCategory copy = new ApplicationCategory();
+            copy.setName(category.getName());
+            copy.setDisplayName(category.getDisplayName());
+            copy.setDescription(category.getDescription());
+            copy.setAccessPermissions(new ArrayList<String>(category.getAccessPermissions()));
+            copy.setCreatedDate(copy(category.getCreatedDate()));
+            copy.setModifiedDate(copy(category.getModifiedDate()));
+            for (Application application : category.getApplications()) {
+                if (isApplicationType(application, appTypes)) {
+                    copy.getApplications().add(copy(application));
+                }
+            }
+            copies.add(copy);
+        }
+        return copies;
+    }
+
+    private static Application copy(Application application) {
+        Application copy = new Application();
+        copy.setId(application.getId());
+        copy.setCategoryName(application.getCategoryName());
+        copy.setType(application.getType());
+        copy.setApplicationName(application.getApplicationName());
+        copy.setIconURL(application.getIconURL());
+        copy.setDisplayName(application.getDisplayName());
+        copy.setDescription(application.getDescription());
+        copy.setAccessPermissions(new ArrayList<String>(application.getAccessPermissions()));
+        copy.setCreatedDate(copy(application.getCreatedDate()));
+        copy.setModifiedDate(copy(application.getModifiedDate()));
+        copy.setStorageId(application.getStorageId());
+        copy.setContentId(application.getContentId());
+        return copy;
+    }
+
+    private static Date copy(Date date) {
+        return date != null ? (Date) date.clone() : null;
+    }
+
+    private static boolean isApplicationType(Application app, ApplicationType<?>... appTypes) {
+        if (appTypes == null || appTypes.length == 0) {
+            return true;
+        }
+        for (ApplicationType<?> appType : appTypes) {
+            if (appType.equals(app.getType())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -24,6 +24,7 @@ import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.chromattic.api.ChromatticSession;
 import org.exoplatform.application.gadget.Gadget;
@@ -32,8 +33,12 @@ import org.exoplatform.application.registry.Application;
 import org.exoplatform.application.registry.ApplicationCategoriesPlugins;
 import org.exoplatform.application.registry.ApplicationCategory;
 import org.exoplatform.application.registry.ApplicationRegistryService;
+import org.exoplatform.commons.cache.ClusterVersion;
 import org.exoplatform.commons.chromattic.ChromatticLifeCycle;
 import org.exoplatform.commons.chromattic.ChromatticManager;
+import org.exoplatform.commons.chromattic.SessionContext;
+import org.exoplatform.commons.chromattic.SynchronizationListener;
+import org.exoplatform.commons.chromattic.SynchronizationStatus;
 import org.exoplatform.container.ExoContainer;
 import org.exoplatform.container.ExoContainerContext;
 import org.exoplatform.container.component.ComponentPlugin;
@@ -43,6 +48,11 @@ import org.exoplatform.portal.config.model.ApplicationType;
 import org.exoplatform.portal.pom.config.POMSessionManager;
 import org.exoplatform.portal.pom.spi.portlet.Portlet;
 import org.exoplatform.portal.pom.spi.wsrp.WSRP;
+import org.exoplatform.services.cache.CacheService;
+import org.exoplatform.services.security.Authenticator;
+import org.exoplatform.services.security.ConversationState;
+import org.exoplatform.services.security.Identity;
+import org.exoplatform.services.security.IdentityRegistry;
 import org.gatein.common.i18n.LocalizedString;
 import org.gatein.common.logging.Logger;
 import org.gatein.common.logging.LoggerFactory;
@@ -68,6 +78,9 @@ public class ApplicationRegistryServiceImpl implements ApplicationRegistryServic
     /** . */
     private static final String REMOTE_CATEGORY_NAME = "remote";
 
+    /** The session context attachment set when the session modifies the registry. */
+    private static final String MODIFIED_ATTACHMENT = "appregistry.modified";
+
     /** . */
     private List<ApplicationCategoriesPlugins> plugins;
 
@@ -83,11 +96,21 @@ public class ApplicationRegistryServiceImpl implements ApplicationRegistryServic
     /** . */
     final POMSessionManager mopManager;
 
+    /** The current snapshot of the registry or null when it must be rebuilt. */
+    private volatile ApplicationCatalogue catalogue;
+
+    /** Incremented by each invalidation of the snapshot. */
+    private final AtomicLong version = new AtomicLong();
+
+    /** The version of the registry shared by the nodes of a cluster, the snapshot is rebuilt when it changes. */
+    private final ClusterVersion clusterVersion;
+
     /** Should match WSRPPortletInfo.PRODUCER_NAME_META_INFO_KEY */
     private static final String PRODUCER_NAME_META_INFO_KEY = "producer-name";
     public static final String PRODUCER_CATEGORY_NAME_SUFFIX = " Producer";
 
-    public ApplicationRegistryServiceImpl(ChromatticManager manager, POMSessionManager mopManager) {
+    public ApplicationRegistryServiceImpl(ChromatticManager manager, POMSessionManager mopManager,
+            CacheService cacheService) {
         ApplicationRegistryChromatticLifeCycle lifeCycle = (ApplicationRegistryChromatticLifeCycle) manager.getLifeCycle("app");
         lifeCycle.registry = this;
 
@@ -95,6 +118,7 @@ public class ApplicationRegistryServiceImpl implements ApplicationRegistryServic
         this.manager = manager;
         this.lifeCycle = lifeCycle;
         this.mopManager = mopManager;
+        this.clusterVersion = new ClusterVersion(cacheService, ApplicationRegistryService.class.getName());
     }
 
     public ContentRegistry getContentRegistry() {
@@ -117,15 +141,16 @@ public class ApplicationRegistryServiceImpl implements ApplicationRegistryServic
 
     public List<ApplicationCategory> getApplicationCategories(final Comparator<ApplicationCategory> sortComparator,
             String accessUser, final ApplicationType<?>... appTypes) {
-        final List<ApplicationCategory> categories = new ArrayList<ApplicationCategory>();
-
-        //
-        ContentRegistry registry = getContentRegistry();
+        ApplicationCatalogue catalogue = getCatalogue();
 
         //
-        for (CategoryDefinition categoryDef : registry.getCategoryList()) {
-            ApplicationCategory category = load(categoryDef, appTypes);
-            categories.add(category);
+        final List<ApplicationCategory> categories;
+        Identity identity = getIdentity(accessUser);
+        UserACL acl = identity != null ? getUserACL() : null;
+        if (acl != null) {
+            categories = catalogue.getCategories(acl, identity, appTypes);
+        } else {
+            categories = catalogue.getCategories(appTypes);
         }
 
         //
@@ -182,11 +207,17 @@ public class ApplicationRegistryServiceImpl implements ApplicationRegistryServic
         categoryDef.setLastModificationDate(category.getModifiedDate());
         categoryDef.setDescription(category.getDescription());
         categoryDef.setAccessPermissions(category.getAccessPermissions());
+
+        //
+        modified();
     }
 
     public void remove(final ApplicationCategory category) {
         ContentRegistry registry = getContentRegistry();
         registry.getCategoryMap().remove(category.getName());
+
+        //
+        modified();
     }
 
     public List<Application> getApplications(ApplicationCategory category, ApplicationType<?>... appTypes) throws Exception {
@@ -214,7 +245,7 @@ public class ApplicationRegistryServiceImpl implements ApplicationRegistryServic
         List<Application> applications = new ArrayList<Application>();
         List<ApplicationCategory> categories = getApplicationCategories();
         for (ApplicationCategory category : categories) {
-            applications.addAll(getApplications(category));
+            applications.addAll(category.getApplications());
         }
         return applications;
     }
@@ -282,6 +313,9 @@ public class ApplicationRegistryServiceImpl implements ApplicationRegistryServic
 
         // Update state
         save(application, contentDef);
+
+        //
+        modified();
     }
 
     public void update(final Application application) {
@@ -302,6 +336,9 @@ public class ApplicationRegistryServiceImpl implements ApplicationRegistryServic
 
         // Update state
         save(application, contentDef);
+
+        //
+        modified();
     }
 
     public void remove(final Application app) {
@@ -322,11 +359,17 @@ public class ApplicationRegistryServiceImpl implements ApplicationRegistryServic
             String contentName = app.getApplicationName();
             categoryDef.getContentMap().remove(contentName);
         }
+
+        //
+        modified();
     }
 
     public void importExoGadgets() throws Exception {
         ContentRegistry registry = getContentRegistry();
 
+        //
+        modified();
+
         //
         ExoContainer container = ExoContainerContext.getCurrentContainer();
         GadgetRegistryService gadgetService = (GadgetRegistryService) container
@@ -365,6 +408,9 @@ public class ApplicationRegistryServiceImpl implements ApplicationRegistryServic
     public void importAllPortlets() throws Exception {
         ContentRegistry registry = getContentRegistry();
 
+        //
+        modified();
+
         //
         log.info("About to import portlets in application registry");
 
@@ -481,6 +527,103 @@ public class ApplicationRegistryServiceImpl implements ApplicationRegistryServic
         }
     }
 
+    /**
+     * Returns the current snapshot of the registry, the snapshot is rebuilt when it was invalidated on this node or when
+     * the cluster version changed. A snapshot built by a session that modified the registry is not retained since it
+     * contains changes that are not yet saved, likewise a snapshot is not retained when an invalidation happened while it
+     * was built.
+     *
+     * @return the snapshot
+     */
+    private ApplicationCatalogue getCatalogue() {
+        ApplicationCatalogue catalogue = this.catalogue;
+        String clusterVersion = this.clusterVersion.get();
+        if (catalogue == null || !catalogue.getVersion().equals(clusterVersion)) {
+            long version = this.version.get();
+            List<ApplicationCategory> categories = new ArrayList<ApplicationCategory>();
+            for (CategoryDefinition categoryDef : getContentRegistry().getCategoryList()) {
+                categories.add(load(categoryDef));
+            }
+            catalogue = new ApplicationCatalogue(clusterVersion, categories);
+
+            //
+            SessionContext context = lifeCycle.getContext(true);
+            if (context == null || context.getAttachment(MODIFIED_ATTACHMENT) == null) {
+                synchronized (this.version) {
+                    if (this.version.get() == version) {
+                        this.catalogue = catalogue;
+                    }
+                }
+            }
+        }
+        return catalogue;
+    }
+
+    /**
+     * Invalidates the snapshot now and once again when the current session is synchronized, so a snapshot built by
+     * another session or another node before the changes are saved is not retained.
+     */
+    private void modified() {
+        invalidate();
+        SessionContext context = lifeCycle.getContext(true);
+        if (context != null && context.getAttachment(MODIFIED_ATTACHMENT) == null) {
+            context.setAttachment(MODIFIED_ATTACHMENT, Boolean.TRUE);
+            context.addSynchronizationListener(new SynchronizationListener() {
+                public void beforeSynchronization() {
+                }
+
+                public void afterSynchronization(SynchronizationStatus status) {
+                    invalidate();
+                }
+            });
+        }
+    }
+
+    private void invalidate() {
+        synchronized (version) {
+            version.incrementAndGet();
+            catalogue = null;
+        }
+        clusterVersion.stamp();
+    }
+
+    /**
+     * Returns the identity of the access user: the identity of the current conversation when it is the access user, the
+     * identity registered for the access user or else an identity created by the authenticator. An access user which
+     * memberships cannot be determined gets an identity without memberships.
+     */
+    private Identity getIdentity(String accessUser) {
+        if (accessUser == null) {
+            return null;
+        }
+        ConversationState state = ConversationState.getCurrent();
+        if (state != null) {
+            Identity identity = state.getIdentity();
+            if (identity != null && accessUser.equals(identity.getUserId())) {
+                return identity;
+            }
+        }
+        ExoContainer container = ExoContainerContext.getCurrentContainer();
+        IdentityRegistry identityRegistry = (IdentityRegistry) container.getComponentInstanceOfType(IdentityRegistry.class);
+        Identity identity = identityRegistry != null ? identityRegistry.getIdentity(accessUser) : null;
+        if (identity == null) {
+            Authenticator authenticator = (Authenticator) container.getComponentInstanceOfType(Authenticator.class);
+            if (authenticator != null) {
+                try {
+                    identity = authenticator.createIdentity(accessUser);
+                } catch (Exception e) {
+                    log.error("Could not create the identity of " + accessUser, e);
+                }
+            }
+        }
+        return identity != null ? identity : new Identity(accessUser);
+    }
+
+    private static UserACL getUserACL() {
+        ExoContainer container = ExoContainerContext.getCurrentContainer();
+        return container != null ? (UserACL) container.getComponentInstanceOfType(UserACL.class) : null;
+    }
+
     private boolean isApplicationType(Application app, ApplicationType<?>... appTypes) {
         if (appTypes == null || appTypes.length == 0) {
             return true;
@@ -32,9 +32,11 @@ import org.exoplatform.application.gadget.impl.GadgetDefinition;
 import org.exoplatform.application.gadget.impl.GadgetRegistryServiceImpl;
 import org.exoplatform.application.gadget.impl.LocalGadgetData;
 import org.exoplatform.application.gadget.impl.RemoteGadgetData;
+import org.exoplatform.commons.cache.ClusterVersion;
 import org.exoplatform.commons.chromattic.ChromatticManager;
 import org.exoplatform.container.PortalContainer;
 import org.exoplatform.container.configuration.ConfigurationManager;
+import org.exoplatform.services.cache.CacheService;
 import org.gatein.common.io.IOTools;
 import org.gatein.common.logging.Logger;
 import org.gatein.common.logging.LoggerFactory;
@@ -51,11 +53,14 @@ public class TestGadgetRegistryService extends AbstractApplicationRegistryTest {
 
     private ConfigurationManager configurationManager;
 
+    private CacheService cacheService;
+
     public void setUp() throws Exception {
         PortalContainer container = PortalContainer.getInstance();
         service_ = (GadgetRegistryServiceImpl) container.getComponentInstanceOfType(GadgetRegistryService.class);
         chromatticManager = (ChromatticManager) container.getComponentInstanceOfType(ChromatticManager.class);
         configurationManager = (ConfigurationManager) container.getComponentInstanceOfType(ConfigurationManager.class);
+        cacheService = (CacheService) container.getComponentInstanceOfType(CacheService.class);
         begin();
     }
 
@@ -103,6 +108,30 @@ public class TestGadgetRegistryService extends AbstractApplicationRegistryTest {
         assertNull(service_.getGadget(gadgetName));
     }
 
+    public void testVersion() throws Exception {
+        String version = service_.getVersion();
+        assertNotNull(version);
+        assertEquals(version, service_.getVersion());
+
+        //
+        Gadget gadget = new Gadget();
+        gadget.setName("version_test");
+        gadget.setUrl("http://www.labpixies.com/campaigns/weather/weather.xml");
+        gadget.setLocal(false);
+        service_.saveGadget(gadget);
+        String saved = service_.getVersion();
+        assertFalse(version.equals(saved));
+
+        //
+        service_.removeGadget("version_test");
+        String removed = service_.getVersion();
+        assertFalse(saved.equals(removed));
+
+        // A gadget modified on another node stamps the shared version
+        new ClusterVersion(cacheService, GadgetRegistryService.class.getName()).stamp();
+        assertFalse(removed.equals(service_.getVersion()));
+    }
+
     class TestGadgetImporter extends GadgetImporter {
         /** . */
         private final Logger log = LoggerFactory.getLogger(TestGadgetImporter.class);
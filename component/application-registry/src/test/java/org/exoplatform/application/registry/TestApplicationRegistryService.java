@@ -20,16 +20,26 @@
 package org.exoplatform.application.registry;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import org.exoplatform.application.AbstractApplicationRegistryTest;
+import org.exoplatform.application.registry.impl.ApplicationRegistryServiceImpl;
+import org.exoplatform.commons.cache.ClusterVersion;
 import org.exoplatform.commons.chromattic.ChromatticManager;
 import org.exoplatform.container.PortalContainer;
+import org.exoplatform.portal.config.UserACL;
 import org.exoplatform.portal.config.model.ApplicationType;
+import org.exoplatform.services.cache.CacheService;
 import org.exoplatform.services.organization.Group;
 import org.exoplatform.services.organization.MembershipType;
 import org.exoplatform.services.organization.OrganizationService;
 import org.exoplatform.services.organization.User;
+import org.exoplatform.services.security.ConversationState;
+import org.exoplatform.services.security.Identity;
+import org.exoplatform.services.security.IdentityRegistry;
+import org.exoplatform.services.security.MembershipEntry;
 
 /**
  * Created by The eXo Platform SARL Author : Tung Pham thanhtungty@gmail.com Nov 27, 2007
@@ -60,6 +70,8 @@ public class TestApplicationRegistryService extends AbstractApplicationRegistryT
 
     protected OrganizationService orgService;
 
+    protected IdentityRegistry identityRegistry;
+
     protected ChromatticManager chromatticManager;
 
     @Override
@@ -68,6 +80,7 @@ public class TestApplicationRegistryService extends AbstractApplicationRegistryT
         chromatticManager = (ChromatticManager) portalContainer.getComponentInstanceOfType(ChromatticManager.class);
         service_ = (ApplicationRegistryService) portalContainer.getComponentInstanceOfType(ApplicationRegistryService.class);
         orgService = (OrganizationService) portalContainer.getComponentInstanceOfType(OrganizationService.class);
+        identityRegistry = (IdentityRegistry) portalContainer.getComponentInstanceOfType(IdentityRegistry.class);
         begin();
     }
 
@@ -114,6 +127,7 @@ public class TestApplicationRegistryService extends AbstractApplicationRegistryT
     public void testAppCategoryGetByAccessUser() throws Exception {
         String officeCategoryName = "Office";
         ApplicationCategory officeCategory = createAppCategory(officeCategoryName, "None");
+        officeCategory.setAccessPermissions(Arrays.asList(UserACL.EVERYONE));
         service_.save(officeCategory);
         String[] officeApps = { "MSOffice", "OpenOffice" };
         Application msApp = createApplication(officeApps[0], officeCategoryName);
@@ -126,6 +140,7 @@ public class TestApplicationRegistryService extends AbstractApplicationRegistryT
 
         String gameCategoryName = "Game";
         ApplicationCategory gameCategory = createAppCategory(gameCategoryName, "None");
+        gameCategory.setAccessPermissions(Arrays.asList(UserACL.EVERYONE));
         service_.save(gameCategory);
         String[] gameApps = { "HaftLife", "Chess" };
         Application haftlifeApp = createApplication(gameApps[0], gameCategoryName);
@@ -143,6 +158,91 @@ public class TestApplicationRegistryService extends AbstractApplicationRegistryT
         assertEquals(2, returnCategories.get(1).getApplications().size());
     }
 
+    public void testAppCategoryFilteredByMemberships() throws Exception {
+        ApplicationCategory usersCategory = createAppCategory("Users", "None");
+        usersCategory.setAccessPermissions(Arrays.asList("member:/users"));
+        service_.save(usersCategory);
+        service_.save(usersCategory, createApplication("UsersApp", "Users"));
+        Application adminApp = createApplication("AdminApp", "Users");
+        adminApp.setAccessPermissions(new ArrayList<String>(Arrays.asList("manager:/platform/administrators")));
+        service_.save(usersCategory, adminApp);
+        ApplicationCategory adminCategory = createAppCategory("Admin", "None");
+        adminCategory.setAccessPermissions(Arrays.asList("manager:/platform/administrators"));
+        service_.save(adminCategory);
+
+        //
+        ConversationState.setCurrent(new ConversationState(new Identity(username1, Collections.singleton(new MembershipEntry(
+                "/users", "member")))));
+        try {
+            List<ApplicationCategory> categories = service_.getApplicationCategories(username1);
+            assertEquals(1, categories.size());
+            assertEquals("Users", categories.get(0).getName());
+
+            // The applications of a visible category are not filtered
+            assertEquals(2, categories.get(0).getApplications().size());
+
+            // The returned categories are copies
+            categories.get(0).getApplications().clear();
+            categories = service_.getApplicationCategories(username1);
+            assertEquals(2, categories.get(0).getApplications().size());
+
+            // Another user is filtered with its own memberships
+            assertEquals(0, service_.getApplicationCategories(username2).size());
+            identityRegistry.register(new Identity(username2, Collections.singleton(new MembershipEntry(
+                    "/platform/administrators", "manager"))));
+            categories = service_.getApplicationCategories(username2);
+            assertEquals(1, categories.size());
+            assertEquals("Admin", categories.get(0).getName());
+
+            // No user is not filtered
+            assertEquals(2, service_.getApplicationCategories((String) null).size());
+            assertEquals(2, service_.getApplicationCategories().size());
+        } finally {
+            identityRegistry.unregister(username2);
+            ConversationState.setCurrent(null);
+        }
+    }
+
+    public void testAppCategoryFilteredWithoutConversation() throws Exception {
+        ApplicationCategory usersCategory = createAppCategory("Users", "None");
+        usersCategory.setAccessPermissions(Arrays.asList("member:/users"));
+        service_.save(usersCategory);
+
+        // The access user is filtered even when no conversation is associated with the current thread
+        identityRegistry.register(new Identity(username1, Collections.singleton(new MembershipEntry("/users", "member"))));
+        try {
+            assertEquals(1, service_.getApplicationCategories(username1).size());
+        } finally {
+            identityRegistry.unregister(username1);
+        }
+        assertEquals(0, service_.getApplicationCategories(username1).size());
+    }
+
+    public void testAppCategoryModifiedByAnotherNode() throws Exception {
+        service_.save(createAppCategory("Office", "None"));
+        chromatticManager.getSynchronization().setSaveOnClose(true);
+        end();
+        begin();
+        try {
+            assertEquals("Office", service_.getApplicationCategories().get(0).getDisplayName());
+
+            // Modify the registry without notifying the service as another node would do
+            ((ApplicationRegistryServiceImpl) service_).getContentRegistry().getCategory("Office").setDisplayName("Bureau");
+            assertEquals("Office", service_.getApplicationCategories().get(0).getDisplayName());
+
+            // The other node stamps a new version
+            CacheService cacheService = (CacheService) PortalContainer.getInstance().getComponentInstanceOfType(
+                    CacheService.class);
+            new ClusterVersion(cacheService, ApplicationRegistryService.class.getName()).stamp();
+            assertEquals("Bureau", service_.getApplicationCategories().get(0).getDisplayName());
+        } finally {
+            service_.remove(service_.getApplicationCategory("Office"));
+            chromatticManager.getSynchronization().setSaveOnClose(true);
+            end();
+            begin();
+        }
+    }
+
     private ApplicationCategory createAppCategory(String categoryName, String categoryDes) {
         ApplicationCategory category = new ApplicationCategory();
         category.setName(categoryName);
@@ -0,0 +1,87 @@
+/*
+ * Copyright (C) 2013 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.exoplatform.portal.benchmark;
+
+import org.exoplatform.commons.chromattic.ChromatticManager;
+import org.exoplatform.component.test.KernelBootstrap;
+import org.exoplatform.container.PortalContainer;
+import org.exoplatform.container.component.RequestLifeCycle;
+
+/**
+ * An embedded kernel booted with the configuration units declared by the {@link org.exoplatform.component.test.ConfiguredBy}
+ * annotation of a benchmark class, the same way the kernel of the unit tests is booted. Each benchmark fork boots its own
+ * kernel in a fresh directory so the fixtures are created from scratch.
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
+public class BenchmarkKernel {
+
+    /** . */
+    private final KernelBootstrap bootstrap;
+
+    /** . */
+    private PortalContainer container;
+
+    public BenchmarkKernel(Class<?> benchmark) {
+        KernelBootstrap bootstrap = new KernelBootstrap(Thread.currentThread().getContextClassLoader());
+        bootstrap.addConfiguration(benchmark);
+
+        //
+        this.bootstrap = bootstrap;
+    }
+
+    public void boot() {
+        bootstrap.boot();
+        container = bootstrap.getContainer();
+    }
+
+    public PortalContainer getContainer() {
+        return container;
+    }
+
+    public <T> T getComponent(Class<T> type) {
+        return type.cast(container.getComponentInstanceOfType(type));
+    }
+
+    /**
+     * Begins a request on the current thread.
+     */
+    public void begin() {
+        RequestLifeCycle.begin(container);
+    }
+
+    /**
+     * Ends the request of the current thread.
+     *
+     * @param save whether the changes done during the request are saved
+     */
+    public void end(boolean save) {
+        ChromatticManager manager = getComponent(ChromatticManager.class);
+        if (manager != null && manager.getSynchronization() != null) {
+            manager.getSynchronization().setSaveOnClose(save);
+        }
+        RequestLifeCycle.end();
+    }
+
+    public void dispose() {
+        bootstrap.dispose();
+        container = null;
+    }
+}
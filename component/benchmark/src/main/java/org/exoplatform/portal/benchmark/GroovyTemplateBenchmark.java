@@ -0,0 +1,124 @@
+/*
+ * Copyright (C) 2013 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.exoplatform.portal.benchmark;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.exoplatform.commons.utils.CharsetTextEncoder;
+import org.exoplatform.commons.utils.OutputStreamPrinter;
+import org.exoplatform.groovyscript.GroovyTemplate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures the rendering of a compiled {@link GroovyTemplate} mixing static text, expressions and scriptlets, in the UTF-8
+ * encoded output stream used by the portal.
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class GroovyTemplateBenchmark {
+
+    /** . */
+    private static final String TEMPLATE = "<div class=\"UINavigation\" id=\"${id}\">\n"
+            + "  <h1><%= title %></h1>\n"
+            + "  <ul>\n"
+            + "  <% for (node in nodes) { %>\n"
+            + "    <li class=\"<%= node.selected ? 'SelectedItem' : 'Item' %>\">\n"
+            + "      <a href=\"<%= node.uri %>\" title=\"${node.label}\"><%= node.label %></a>\n"
+            + "      <% if (node.children > 0) { %><span class=\"Arrow\">${node.children}</span><% } %>\n"
+            + "    </li>\n"
+            + "  <% } %>\n"
+            + "  </ul>\n"
+            + "</div>\n";
+
+    /** The number of nodes iterated by the template. */
+    @Param({ "10", "100" })
+    public int nodes;
+
+    /** . */
+    private GroovyTemplate template;
+
+    /** . */
+    private Map<String, Object> binding;
+
+    @Setup
+    public void setUp() throws Exception {
+        List<Map<String, Object>> list = new ArrayList<Map<String, Object>>();
+        for (int i = 0; i < nodes; i++) {
+            Map<String, Object> node = new HashMap<String, Object>();
+            node.put("uri", "/portal/classic/node" + i);
+            node.put("label", "Node " + i);
+            node.put("selected", i == 0);
+            node.put("children", i % 3);
+            list.add(node);
+        }
+
+        //
+        binding = new HashMap<String, Object>();
+        binding.put("id", "UINavigation-" + nodes);
+        binding.put("title", "Navigation");
+        binding.put("nodes", list);
+        template = new GroovyTemplate("benchmark", "benchmark.gtmpl", TEMPLATE);
+    }
+
+    @Benchmark
+    public int render() throws Exception {
+        CountingOutputStream out = new CountingOutputStream();
+        OutputStreamPrinter printer = new OutputStreamPrinter(CharsetTextEncoder.getUTF8(), out);
+        template.render(printer, binding, Locale.ENGLISH);
+        printer.close();
+        return out.count;
+    }
+
+    /**
+     * Counts the written bytes instead of retaining them.
+     */
+    private static class CountingOutputStream extends OutputStream {
+
+        /** . */
+        private int count;
+
+        @Override
+        public void write(int b) throws IOException {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2013 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.exoplatform.portal.benchmark;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.concurrent.TimeUnit;
+
+import org.exoplatform.commons.utils.HTMLEntityEncoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures the {@link HTMLEntityEncoder} on the values rendered by the portal: a label with nothing to escape, a text with
+ * markup characters and a text with non ASCII characters. The writer variants encode into a reused writer.
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class HTMLEntityEncoderBenchmark {
+
+    /** The kind of value to encode. */
+    @Param({ "plain", "markup", "accented" })
+    public String value;
+
+    /** . */
+    private HTMLEntityEncoder encoder;
+
+    /** . */
+    private String input;
+
+    /** . */
+    private StringWriter writer;
+
+    @Setup
+    public void setUp() {
+        encoder = HTMLEntityEncoder.getInstance();
+        if ("plain".equals(value)) {
+            input = "Application Registry Portlet";
+        } else if ("markup".equals(value)) {
+            input = "<a href=\"/portal/classic/home?lang=en&theme=default\">Home & 'Welcome'</a>";
+        } else if ("accented".equals(value)) {
+            input = "D\u00e9marrer l'\u00e9diteur de pages \u00e0 partir de l'\u00e9cran d'accueil";
+        } else {
+            throw new IllegalArgumentException("Unknown value " + value);
+        }
+        writer = new StringWriter(256);
+    }
+
+    @Benchmark
+    public String encodeHTML() {
+        return encoder.encodeHTML(input);
+    }
+
+    @Benchmark
+    public String encodeHTMLAttribute() {
+        return encoder.encodeHTMLAttribute(input);
+    }
+
+    @Benchmark
+    public StringWriter encodeHTMLToWriter() throws IOException {
+        writer.getBuffer().setLength(0);
+        encoder.encodeHTML(input, writer);
+        return writer;
+    }
+
+    @Benchmark
+    public StringWriter encodeHTMLAttributeToWriter() throws IOException {
+        writer.getBuffer().setLength(0);
+        encoder.encodeHTMLAttribute(input, writer);
+        return writer;
+    }
+}
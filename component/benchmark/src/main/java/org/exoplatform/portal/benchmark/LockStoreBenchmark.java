@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2013 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.exoplatform.portal.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.gatein.cdi.contexts.beanstore.LockStore;
+import org.gatein.cdi.contexts.beanstore.LockedBean;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures the throughput of the {@link LockStore} acquiring and releasing the lock of a bean, the store is shared by the
+ * benchmark threads. Each thread cycles over its own keys or over the keys shared by all the threads, the contention
+ * shows up when the benchmark is executed with several threads, for instance with -Dbenchmark.threads=8.
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class LockStoreBenchmark {
+
+    /** The number of keys used by a thread. */
+    @Param({ "1", "16" })
+    public int keys;
+
+    /** When true the threads use the same keys, otherwise each thread has its own keys. */
+    @Param({ "true", "false" })
+    public boolean shared;
+
+    /** . */
+    private LockStore store;
+
+    /** . */
+    private final AtomicInteger threads = new AtomicInteger();
+
+    @Setup
+    public void setUp() {
+        store = new LockStore();
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadKeys {
+
+        /** . */
+        private String[] keys;
+
+        /** . */
+        private int index;
+
+        @Setup
+        public void setUp(LockStoreBenchmark benchmark) {
+            String prefix = benchmark.shared ? "bean" : "bean" + benchmark.threads.getAndIncrement() + "-";
+            keys = new String[benchmark.keys];
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = prefix + i;
+            }
+        }
+
+        String next() {
+            String key = keys[index];
+            index = (index + 1) % keys.length;
+            return key;
+        }
+    }
+
+    @Benchmark
+    public void lockUnlock(ThreadKeys keys) {
+        LockedBean bean = store.lock(keys.next());
+        bean.unlock();
+    }
+
+    @Benchmark
+    public void lockReentrant(ThreadKeys keys) {
+        String key = keys.next();
+        LockedBean outer = store.lock(key);
+        LockedBean inner = store.lock(key);
+        inner.unlock();
+        outer.unlock();
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright (C) 2013 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.exoplatform.portal.benchmark;
+
+import java.lang.annotation.ElementType;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.exoplatform.management.invocation.GetterInvoker;
+import org.exoplatform.management.invocation.MethodInvoker;
+import org.exoplatform.management.invocation.SimpleMethodInvoker;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures the invokers of the REST management layer as a monitoring tool polling a managed bean would use them: reading
+ * an attribute, invoking an operation with string parameters and invoking an operation with typed parameters converted
+ * from the request parameters.
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ManagementInvokerBenchmark {
+
+    public static class Bean {
+
+        public long getHits() {
+            return 10;
+        }
+
+        public String getStatistic(String name, String phase) {
+            return name;
+        }
+
+        public int count(int limit, ElementType type, List<Long> values) {
+            return limit + type.ordinal() + values.size();
+        }
+    }
+
+    /** . */
+    private Bean bean;
+
+    /** . */
+    private MethodInvoker getter;
+
+    /** . */
+    private MethodInvoker stringOperation;
+
+    /** . */
+    private MethodInvoker typedOperation;
+
+    /** . */
+    private Map<String, List<String>> noParameters;
+
+    /** . */
+    private Map<String, List<String>> stringParameters;
+
+    /** . */
+    private Map<String, List<String>> typedParameters;
+
+    @Setup
+    public void setUp() throws Exception {
+        bean = new Bean();
+        getter = new GetterInvoker(Bean.class.getMethod("getHits"));
+        stringOperation = invoker(Bean.class.getMethod("getStatistic", String.class, String.class), "name", "phase");
+        typedOperation = invoker(Bean.class.getMethod("count", int.class, ElementType.class, List.class), "limit", "type",
+                "values");
+
+        //
+        noParameters = Collections.emptyMap();
+        stringParameters = new HashMap<String, List<String>>();
+        stringParameters.put("name", Arrays.asList("web/BannerPortlet"));
+        stringParameters.put("phase", Arrays.asList("RENDER_PHASE"));
+        typedParameters = new HashMap<String, List<String>>();
+        typedParameters.put("limit", Arrays.asList("10"));
+        typedParameters.put("type", Arrays.asList("METHOD"));
+        typedParameters.put("values", Arrays.asList("1", "2", "3"));
+    }
+
+    private static MethodInvoker invoker(Method method, final String... names) {
+        return new SimpleMethodInvoker(method) {
+            @Override
+            protected String getArgumentName(int index) {
+                return names[index];
+            }
+        };
+    }
+
+    @Benchmark
+    public Object getAttribute() throws Exception {
+        return getter.invoke(bean, noParameters);
+    }
+
+    @Benchmark
+    public Object invokeStringOperation() throws Exception {
+        return stringOperation.invoke(bean, stringParameters);
+    }
+
+    @Benchmark
+    public Object invokeTypedOperation() throws Exception {
+        return typedOperation.invoke(bean, typedParameters);
+    }
+}
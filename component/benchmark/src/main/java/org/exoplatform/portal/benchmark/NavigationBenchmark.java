@@ -0,0 +1,146 @@
+/*
+ * Copyright (C) 2013 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.exoplatform.portal.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.exoplatform.component.test.ConfigurationUnit;
+import org.exoplatform.component.test.ConfiguredBy;
+import org.exoplatform.component.test.ContainerScope;
+import org.exoplatform.portal.mop.navigation.NavigationContext;
+import org.exoplatform.portal.mop.navigation.NavigationServiceImpl;
+import org.exoplatform.portal.mop.navigation.NodeContext;
+import org.exoplatform.portal.mop.navigation.NodeModel;
+import org.exoplatform.portal.mop.navigation.Scope;
+import org.exoplatform.portal.pom.config.POMSessionManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Measures the {@link NavigationServiceImpl#loadNode} method on a generated site stored in the embedded JCR repository,
+ * each invocation loads the nodes during its own request.
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
+@ConfiguredBy({
+        @ConfigurationUnit(scope = ContainerScope.PORTAL, path = "conf/exo.portal.component.test.jcr-configuration.xml"),
+        @ConfigurationUnit(scope = ContainerScope.PORTAL, path = "conf/exo.portal.component.identity-configuration.xml"),
+        @ConfigurationUnit(scope = ContainerScope.PORTAL, path = "conf/exo.portal.component.portal-configuration.xml") })
+@State(org.openjdk.jmh.annotations.Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class NavigationBenchmark {
+
+    /** The number of children of a node. */
+    @Param({ "5", "10" })
+    public int fanout;
+
+    /** The number of levels of the navigation. */
+    @Param({ "3" })
+    public int depth;
+
+    /** When false, the cache of the navigation service is cleared before each invocation. */
+    @Param({ "true", "false" })
+    public boolean cached;
+
+    /** . */
+    private BenchmarkKernel kernel;
+
+    /** . */
+    private NavigationServiceImpl service;
+
+    /** . */
+    private NavigationContext navigation;
+
+    @Setup
+    public void setUp() throws Exception {
+        kernel = new BenchmarkKernel(NavigationBenchmark.class);
+        kernel.boot();
+        SiteFixture site = new SiteFixture("navigation", fanout, depth, 20);
+        site.create(kernel);
+
+        //
+        service = new NavigationServiceImpl(kernel.getComponent(POMSessionManager.class));
+        kernel.begin();
+        try {
+            navigation = service.loadNavigation(site.getKey());
+            if (navigation == null) {
+                throw new AssertionError("No navigation for site " + site.getKey());
+            }
+            int count = count(service.loadNode(NodeModel.SELF_MODEL, navigation, Scope.ALL, null)) - 1;
+            if (count != site.getNodeCount()) {
+                throw new AssertionError("Was expecting " + site.getNodeCount() + " nodes instead of " + count);
+            }
+        } finally {
+            kernel.end(false);
+        }
+    }
+
+    private static int count(NodeContext<?> context) {
+        int count = 1;
+        for (NodeContext<?> child = context.getFirst(); child != null; child = child.getNext()) {
+            count += count(child);
+        }
+        return count;
+    }
+
+    @Setup(Level.Invocation)
+    public void clearCache() {
+        if (!cached) {
+            service.clearCache();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        kernel.dispose();
+    }
+
+    @Benchmark
+    public NodeContext<NodeContext<?>> loadAll() {
+        return load(Scope.ALL);
+    }
+
+    @Benchmark
+    public NodeContext<NodeContext<?>> loadChildren() {
+        return load(Scope.CHILDREN);
+    }
+
+    @Benchmark
+    public NodeContext<NodeContext<?>> loadGrandChildren() {
+        return load(Scope.GRANDCHILDREN);
+    }
+
+    private NodeContext<NodeContext<?>> load(Scope scope) {
+        kernel.begin();
+        try {
+            return service.loadNode(NodeModel.SELF_MODEL, navigation, scope, null);
+        } finally {
+            kernel.end(false);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright (C) 2013 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.exoplatform.portal.benchmark;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.concurrent.TimeUnit;
+
+import org.exoplatform.commons.utils.CharsetTextEncoder;
+import org.exoplatform.commons.utils.GrowingOutputStream;
+import org.exoplatform.commons.utils.OutputStreamPrinter;
+import org.exoplatform.commons.utils.Text;
+import org.exoplatform.commons.utils.TextEncoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures the buffering of a page of about 100 KiB by a growing {@link OutputStreamPrinter}: 3000 template strings and six
+ * portlet fragments of 8 KiB written then flushed to a stream discarding the bytes. The <code>growing</code> buffer is the
+ * former {@link GrowingOutputStream}, the <code>chunked</code> buffer is the pooled chunks the printer now uses. The
+ * allocation per page is reported by the gc profiler as <code>gc.alloc.rate.norm</code>.
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class OutputStreamPrinterBenchmark {
+
+    /** . */
+    private static final OutputStream NULL = new OutputStream() {
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    };
+
+    /** The page buffer. */
+    @Param({ "growing", "chunked" })
+    public String buffer;
+
+    /** . */
+    private TextEncoder encoder;
+
+    /** . */
+    private String[] strings;
+
+    /** . */
+    private Text[] fragments;
+
+    @Setup
+    public void setUp() throws Exception {
+        if (!"growing".equals(buffer) && !"chunked".equals(buffer)) {
+            throw new IllegalArgumentException("Unknown buffer " + buffer);
+        }
+        encoder = CharsetTextEncoder.getUTF8();
+        Charset charset = encoder.getCharset();
+        strings = new String[3000];
+        for (int i = 0; i < strings.length; i++) {
+            strings[i] = "<span id=\"c" + i + "\">label " + i + "</span>";
+        }
+        fragments = new Text[6];
+        for (int i = 0; i < fragments.length; i++) {
+            StringBuilder sb = new StringBuilder();
+            while (sb.length() < 8000) {
+                sb.append("<div class=\"portlet\">fragment content \u00e9</div>\n");
+            }
+            fragments[i] = Text.create(sb.toString().getBytes(charset), charset);
+        }
+    }
+
+    @SuppressWarnings("deprecation")
+    private OutputStreamPrinter createPrinter() {
+        if ("growing".equals(buffer)) {
+            return new OutputStreamPrinter(encoder, new GrowingOutputStream(NULL, 25000), true, 0);
+        } else {
+            return new OutputStreamPrinter(encoder, NULL, true, 25000, true);
+        }
+    }
+
+    @Benchmark
+    public OutputStreamPrinter renderPage() throws IOException {
+        OutputStreamPrinter printer = createPrinter();
+        for (int i = 0; i < strings.length; i++) {
+            printer.write(strings[i]);
+            if (i % 500 == 0) {
+                fragments[i / 500].writeTo(printer);
+            }
+        }
+        printer.flushOutputStream();
+        return printer;
+    }
+}
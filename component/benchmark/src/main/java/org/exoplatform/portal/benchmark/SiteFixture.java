@@ -0,0 +1,190 @@
+/*
+ * Copyright (C) 2013 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.exoplatform.portal.benchmark;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.exoplatform.portal.config.DataStorage;
+import org.exoplatform.portal.config.UserACL;
+import org.exoplatform.portal.config.model.PortalConfig;
+import org.exoplatform.portal.mop.SiteKey;
+import org.exoplatform.portal.mop.Visibility;
+import org.exoplatform.portal.mop.navigation.NavigationContext;
+import org.exoplatform.portal.mop.navigation.NavigationService;
+import org.exoplatform.portal.mop.navigation.NavigationState;
+import org.exoplatform.portal.mop.navigation.NodeContext;
+import org.exoplatform.portal.mop.navigation.NodeModel;
+import org.exoplatform.portal.mop.navigation.NodeState;
+import org.exoplatform.portal.mop.navigation.Scope;
+import org.exoplatform.portal.mop.page.PageContext;
+import org.exoplatform.portal.mop.page.PageKey;
+import org.exoplatform.portal.mop.page.PageService;
+import org.exoplatform.portal.mop.page.PageState;
+
+/**
+ * <p>
+ * Generates a portal site with a navigation tree of <code>fanout</code> children per node on <code>depth</code> levels and a
+ * pool of pages referenced by the nodes in turn. The generation is deterministic: the same arguments always produce the same
+ * site, which makes the results of several runs comparable.
+ * </p>
+ *
+ * <p>
+ * The pages are protected by different access permissions and some nodes are hidden or system nodes so the node filter has
+ * to check the visibility and the permissions of the nodes.
+ * </p>
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
+public class SiteFixture {
+
+    /** The access permissions assigned to the pages in turn. */
+    private static final String[] ACCESS_PERMISSIONS = { UserACL.EVERYONE, "*:/platform/users",
+            "*:/platform/administrators", "manager:/organization/management/executive-board", "*:/platform/guests" };
+
+    /** . */
+    private static final String EDIT_PERMISSION = "manager:/platform/administrators";
+
+    /** . */
+    private final SiteKey key;
+
+    /** . */
+    private final int fanout;
+
+    /** . */
+    private final int depth;
+
+    /** . */
+    private final int pages;
+
+    public SiteFixture(String name, int fanout, int depth, int pages) {
+        if (fanout < 1 || depth < 1 || pages < 1) {
+            throw new IllegalArgumentException("Invalid site dimensions " + fanout + "x" + depth + " with " + pages + " pages");
+        }
+
+        //
+        this.key = SiteKey.portal(name);
+        this.fanout = fanout;
+        this.depth = depth;
+        this.pages = pages;
+    }
+
+    public SiteKey getKey() {
+        return key;
+    }
+
+    /**
+     * Returns the number of nodes of the navigation, the root node excluded.
+     *
+     * @return the node count
+     */
+    public int getNodeCount() {
+        int count = 0;
+        for (int level = 1, size = fanout; level <= depth; level++, size *= fanout) {
+            count += size;
+        }
+        return count;
+    }
+
+    /**
+     * Returns the path of the deepest node reached by following the last child of each level.
+     *
+     * @return the path
+     */
+    public String getLastPath() {
+        StringBuilder path = new StringBuilder();
+        for (int level = 0; level < depth; level++) {
+            if (level > 0) {
+                path.append('/');
+            }
+            path.append("node").append(fanout - 1);
+        }
+        return path.toString();
+    }
+
+    /**
+     * Create the site, its pages and its navigation.
+     *
+     * @param kernel the kernel
+     * @throws Exception any exception
+     */
+    public void create(BenchmarkKernel kernel) throws Exception {
+        kernel.begin();
+        try {
+            PortalConfig portal = new PortalConfig(PortalConfig.PORTAL_TYPE, key.getName());
+            portal.setAccessPermissions(new String[] { UserACL.EVERYONE });
+            portal.setEditPermission(EDIT_PERMISSION);
+            kernel.getComponent(DataStorage.class).create(portal);
+        } finally {
+            kernel.end(true);
+        }
+
+        //
+        kernel.begin();
+        try {
+            PageService pageService = kernel.getComponent(PageService.class);
+            for (int i = 0; i < pages; i++) {
+                List<String> accessPermissions = Collections.singletonList(ACCESS_PERMISSIONS[i % ACCESS_PERMISSIONS.length]);
+                pageService.savePage(new PageContext(getPageKey(i), new PageState("Page " + i, "", false, null,
+                        accessPermissions, EDIT_PERMISSION, accessPermissions, accessPermissions)));
+            }
+
+            //
+            NavigationService navigationService = kernel.getComponent(NavigationService.class);
+            NavigationContext navigation = navigationService.loadNavigation(key);
+            if (navigation == null) {
+                navigation = new NavigationContext(key, new NavigationState(1));
+                navigationService.saveNavigation(navigation);
+            }
+            NodeContext<NodeContext<?>> root = navigationService.loadNode(NodeModel.SELF_MODEL, navigation, Scope.ALL, null);
+            populate(root, 1, 0);
+            navigationService.saveNode(root, null);
+        } finally {
+            kernel.end(true);
+        }
+    }
+
+    private int populate(NodeContext<NodeContext<?>> parent, int level, int count) {
+        for (int i = 0; i < fanout; i++) {
+            int index = count++;
+            NodeContext<NodeContext<?>> child = parent.add(null, "node" + i);
+            child.setState(new NodeState.Builder().label("Node " + index).pageRef(getPageKey(index % pages))
+                    .visibility(getVisibility(index)).build());
+            if (level < depth) {
+                count = populate(child, level + 1, count);
+            }
+        }
+        return count;
+    }
+
+    private PageKey getPageKey(int index) {
+        return key.page("page" + index);
+    }
+
+    private static Visibility getVisibility(int index) {
+        if (index % 17 == 16) {
+            return Visibility.SYSTEM;
+        } else if (index % 13 == 12) {
+            return Visibility.HIDDEN;
+        } else {
+            return Visibility.DISPLAYED;
+        }
+    }
+}
@@ -0,0 +1,241 @@
+/*
+ * Copyright (C) 2013 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.exoplatform.portal.benchmark;
+
+import static org.exoplatform.web.controller.metadata.DescriptorBuilder.*;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.net.URL;
+import java.nio.charset.Charset;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.exoplatform.commons.utils.BinaryOutput;
+import org.exoplatform.component.test.ConfigurationUnit;
+import org.exoplatform.component.test.ConfiguredBy;
+import org.exoplatform.component.test.ContainerScope;
+import org.exoplatform.portal.resource.Resource;
+import org.exoplatform.portal.resource.ResourceRenderer;
+import org.exoplatform.portal.resource.ResourceResolver;
+import org.exoplatform.portal.resource.SkinService;
+import org.exoplatform.test.mocks.servlet.MockServletRequest;
+import org.exoplatform.web.ControllerContext;
+import org.exoplatform.web.controller.QualifiedName;
+import org.exoplatform.web.controller.router.Router;
+import org.gatein.portal.controller.resource.ResourceRequestHandler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Measures the CSS processing of the {@link SkinService}: the orientation filtering, the URL rewriting and the import
+ * handling of a stylesheet importing a set of module stylesheets served from memory.
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
+@ConfiguredBy({ @ConfigurationUnit(scope = ContainerScope.PORTAL, path = "conf/benchmark/skin-configuration.xml") })
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SkinServiceBenchmark {
+
+    /** . */
+    private static final String STYLESHEET = "/benchmark/skin/Stylesheet.css";
+
+    /** . */
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    /** The number of stylesheets imported by the main stylesheet. */
+    @Param({ "10", "50" })
+    public int modules;
+
+    /** The number of rules of each imported stylesheet. */
+    @Param({ "100" })
+    public int rules;
+
+    /** . */
+    @Param({ "lt", "rt" })
+    public String orientation;
+
+    /** . */
+    private BenchmarkKernel kernel;
+
+    /** . */
+    private SkinService skinService;
+
+    /** . */
+    private Router router;
+
+    /** . */
+    private MockServletRequest request;
+
+    /** . */
+    private Map<QualifiedName, String> parameters;
+
+    @Setup
+    public void setUp() throws Exception {
+        kernel = new BenchmarkKernel(SkinServiceBenchmark.class);
+        kernel.boot();
+        skinService = kernel.getComponent(SkinService.class);
+        skinService.addResourceResolver(new StylesheetResolver(modules, rules));
+
+        //
+        router = router().add(
+                route("/skins/{gtn:version}/{gtn:resource}{gtn:compress}{gtn:orientation}.css")
+                        .with(routeParam("gtn:handler").withValue("skin"))
+                        .with(pathParam("gtn:version").matchedBy("[^/]*").preservePath())
+                        .with(pathParam("gtn:orientation").matchedBy("-(lt)|-(rt)|").captureGroup(true))
+                        .with(pathParam("gtn:compress").matchedBy("-(min)|").captureGroup(true))
+                        .with(pathParam("gtn:resource").matchedBy(".+?").preservePath())).build();
+        request = new MockServletRequest(null, new URL("http://localhost/portal"), "/portal", null, false);
+        parameters = new HashMap<QualifiedName, String>();
+        parameters.put(ResourceRequestHandler.RESOURCE_QN, STYLESHEET.substring(1, STYLESHEET.length() - ".css".length()));
+        parameters.put(ResourceRequestHandler.ORIENTATION_QN, orientation);
+    }
+
+    @TearDown
+    public void tearDown() {
+        kernel.dispose();
+    }
+
+    /**
+     * The stylesheet is processed and the imports are rewritten as URLs, as done in developing mode.
+     */
+    @Benchmark
+    public int render() throws Exception {
+        return render(false);
+    }
+
+    /**
+     * The stylesheet and its imports are processed and merged, as done when the cache misses.
+     */
+    @Benchmark
+    public int merge() throws Exception {
+        skinService.invalidateCachedSkin(STYLESHEET);
+        return render(true);
+    }
+
+    /**
+     * The merged stylesheet is served from the cache.
+     */
+    @Benchmark
+    public int cached() throws Exception {
+        return render(true);
+    }
+
+    private int render(boolean compress) throws Exception {
+        CountingRenderer renderer = new CountingRenderer();
+        if (!skinService.renderCSS(new ControllerContext(null, router, request, null, parameters), renderer, compress)) {
+            throw new AssertionError("Stylesheet " + STYLESHEET + " not rendered");
+        }
+        return renderer.count;
+    }
+
+    /**
+     * Serves a main stylesheet importing the module stylesheets, the content only depends on the dimensions.
+     */
+    private static class StylesheetResolver implements ResourceResolver {
+
+        /** . */
+        private final Map<String, String> stylesheets = new HashMap<String, String>();
+
+        private StylesheetResolver(int modules, int rules) {
+            StringBuilder main = new StringBuilder();
+            for (int module = 0; module < modules; module++) {
+                main.append("@import url(module").append(module).append("/Stylesheet.css);\n");
+                StringBuilder css = new StringBuilder();
+                css.append("@font-face {\n");
+                css.append("  font-family: 'Module").append(module).append("';\n");
+                css.append("  src: url('fonts/module.eot');\n");
+                css.append("  src: local('Module'), url('fonts/module.woff') format('woff'), url(fonts/module.ttf) format('truetype');\n");
+                css.append("}\n");
+                for (int rule = 0; rule < rules; rule++) {
+                    css.append(".Module").append(module).append(" .Rule").append(rule).append(" {\n");
+                    css.append("  background: #fff url('images/background").append(rule).append(".png') no-repeat left top; /* orientation=lt */\n");
+                    css.append("  background: #fff url('images/background").append(rule).append("-rt.png') no-repeat right top; /* orientation=rt */\n");
+                    css.append("  float: left; /* orientation=lt */\n");
+                    css.append("  float: right; /* orientation=rt */\n");
+                    css.append("  background-image: url(/images/shared.png);\n");
+                    css.append("  padding: 2px 4px;\n");
+                    css.append("}\n");
+                }
+                stylesheets.put("/benchmark/skin/module" + module + "/Stylesheet.css", css.toString());
+            }
+            stylesheets.put(STYLESHEET, main.toString());
+        }
+
+        public Resource resolve(String path) throws NullPointerException {
+            if (path == null) {
+                throw new NullPointerException("No null path is accepted");
+            }
+            final String css = stylesheets.get(path);
+            if (css != null) {
+                return new Resource(path) {
+                    @Override
+                    public Reader read() {
+                        return new StringReader(css);
+                    }
+                };
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Counts the rendered bytes instead of retaining them.
+     */
+    private static class CountingRenderer implements ResourceRenderer, BinaryOutput {
+
+        /** . */
+        private int count;
+
+        public BinaryOutput getOutput() {
+            return this;
+        }
+
+        public void setExpiration(long seconds) {
+        }
+
+        public Charset getCharset() {
+            return UTF_8;
+        }
+
+        public void write(byte b) throws IOException {
+            count++;
+        }
+
+        public void write(byte[] bytes) throws IOException {
+            count += bytes.length;
+        }
+
+        public void write(byte[] bytes, int off, int len) throws IOException {
+            count += len;
+        }
+    }
+}
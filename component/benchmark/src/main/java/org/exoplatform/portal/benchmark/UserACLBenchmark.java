@@ -0,0 +1,145 @@
+/*
+ * Copyright (C) 2013 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.exoplatform.portal.benchmark;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.exoplatform.portal.config.UserACL;
+import org.exoplatform.portal.config.UserACLMetaData;
+import org.exoplatform.portal.mop.SiteKey;
+import org.exoplatform.portal.mop.page.PageContext;
+import org.exoplatform.portal.mop.page.PageState;
+import org.exoplatform.services.security.ConversationState;
+import org.exoplatform.services.security.Identity;
+import org.exoplatform.services.security.MembershipEntry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Measures the permission checks of the {@link UserACL} for an identity having a configurable number of memberships. The
+ * conversation state is thread local, the state is kept per thread.
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class UserACLBenchmark {
+
+    /** The number of memberships of the identity. */
+    @Param({ "10", "100" })
+    public int memberships;
+
+    /** . */
+    private UserACL acl;
+
+    /** . */
+    private Identity identity;
+
+    /** . */
+    private String granted;
+
+    /** . */
+    private String wildcard;
+
+    /** . */
+    private String denied;
+
+    /** . */
+    private PageContext page;
+
+    @Setup
+    public void setUp() {
+        UserACLMetaData md = new UserACLMetaData();
+        md.setSuperUser("root");
+        md.setGuestsGroups("/platform/guests");
+        md.setPortalCreateGroups("*:/platform/administrators,*:/organization/management/executive-board");
+        md.setNavigationCreatorMembershipType("manager");
+        md.setUserImpersonateGroups("manager:/platform/administrators");
+        acl = new UserACL(md);
+
+        //
+        Set<MembershipEntry> entries = new HashSet<MembershipEntry>();
+        for (int i = 0; i < memberships; i++) {
+            entries.add(new MembershipEntry("/organization/group" + i, i % 2 == 0 ? "member" : "manager"));
+        }
+        identity = new Identity("john", entries, Collections.<String> emptySet());
+
+        //
+        int last = memberships - 1;
+        granted = (last % 2 == 0 ? "member" : "manager") + ":/organization/group" + last;
+        wildcard = "*:/organization/group" + last;
+        denied = "manager:/platform/administrators";
+
+        // The granting permission comes last
+        List<String> accessPermissions = Arrays.asList("*:/platform/administrators",
+                "manager:/organization/management/executive-board", "*:/platform/guests", wildcard);
+        page = new PageContext(SiteKey.portal("classic").page("benchmark"), new PageState("Benchmark", "", false, null,
+                accessPermissions, "manager:/platform/administrators", accessPermissions, accessPermissions));
+    }
+
+    @Setup(Level.Iteration)
+    public void begin() {
+        ConversationState.setCurrent(new ConversationState(identity));
+    }
+
+    @TearDown(Level.Iteration)
+    public void end() {
+        ConversationState.setCurrent(null);
+    }
+
+    @Benchmark
+    public boolean hasPermissionGranted() {
+        return acl.hasPermission(identity, granted);
+    }
+
+    @Benchmark
+    public boolean hasPermissionWildcard() {
+        return acl.hasPermission(identity, wildcard);
+    }
+
+    @Benchmark
+    public boolean hasPermissionDenied() {
+        return acl.hasPermission(identity, denied);
+    }
+
+    @Benchmark
+    public boolean hasPermissionEveryone() {
+        return acl.hasPermission(identity, UserACL.EVERYONE);
+    }
+
+    @Benchmark
+    public boolean hasPagePermission() {
+        return acl.hasPermission(page);
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright (C) 2013 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.exoplatform.portal.benchmark;
+
+import java.util.Locale;
+import java.util.ResourceBundle;
+import java.util.concurrent.TimeUnit;
+
+import org.exoplatform.component.test.ConfigurationUnit;
+import org.exoplatform.component.test.ConfiguredBy;
+import org.exoplatform.component.test.ContainerScope;
+import org.exoplatform.portal.config.UserPortalConfig;
+import org.exoplatform.portal.config.UserPortalConfigService;
+import org.exoplatform.portal.mop.Visibility;
+import org.exoplatform.portal.mop.navigation.Scope;
+import org.exoplatform.portal.mop.user.UserNavigation;
+import org.exoplatform.portal.mop.user.UserNode;
+import org.exoplatform.portal.mop.user.UserNodeFilterConfig;
+import org.exoplatform.portal.mop.user.UserPortal;
+import org.exoplatform.portal.mop.user.UserPortalContext;
+import org.exoplatform.services.security.Authenticator;
+import org.exoplatform.services.security.ConversationState;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Measures the node filtering of the user portal on a generated site: the visibility, the publication date and the page
+ * permissions of each node are checked for the user, each invocation runs during its own request.
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
+@ConfiguredBy({
+        @ConfigurationUnit(scope = ContainerScope.PORTAL, path = "conf/exo.portal.component.test.jcr-configuration.xml"),
+        @ConfigurationUnit(scope = ContainerScope.PORTAL, path = "conf/exo.portal.component.identity-configuration.xml"),
+        @ConfigurationUnit(scope = ContainerScope.PORTAL, path = "conf/exo.portal.component.portal-configuration.xml") })
+@State(org.openjdk.jmh.annotations.Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class UserPortalBenchmark {
+
+    /** . */
+    private static final String ANONYMOUS = "anonymous";
+
+    /** . */
+    private static final UserPortalContext CONTEXT = new UserPortalContext() {
+        public ResourceBundle getBundle(UserNavigation navigation) {
+            return null;
+        }
+
+        public Locale getUserLocale() {
+            return Locale.ENGLISH;
+        }
+    };
+
+    /** The number of children of a node. */
+    @Param({ "5", "10" })
+    public int fanout;
+
+    /** The number of levels of the navigation. */
+    @Param({ "3" })
+    public int depth;
+
+    /** The user browsing the site, the root user is the super user. */
+    @Param({ "john", "root", ANONYMOUS })
+    public String user;
+
+    /** . */
+    private BenchmarkKernel kernel;
+
+    /** . */
+    private SiteFixture site;
+
+    /** . */
+    private ConversationState state;
+
+    /** . */
+    private UserPortal userPortal;
+
+    /** . */
+    private UserNavigation navigation;
+
+    /** The filter used by the portal navigation portlets. */
+    private UserNodeFilterConfig filterConfig;
+
+    @Setup
+    public void setUp() throws Exception {
+        kernel = new BenchmarkKernel(UserPortalBenchmark.class);
+        kernel.boot();
+        site = new SiteFixture("userportal", fanout, depth, 20);
+        site.create(kernel);
+
+        //
+        String userId = ANONYMOUS.equals(user) ? null : user;
+        if (userId != null) {
+            state = new ConversationState(kernel.getComponent(Authenticator.class).createIdentity(userId));
+        }
+        filterConfig = UserNodeFilterConfig.builder().withReadCheck()
+                .withVisibility(Visibility.DISPLAYED, Visibility.TEMPORAL).withTemporalCheck().build();
+
+        //
+        begin();
+        try {
+            UserPortalConfig config = kernel.getComponent(UserPortalConfigService.class).getUserPortalConfig(
+                    site.getKey().getName(), userId, CONTEXT);
+            if (config == null) {
+                throw new AssertionError("Site " + site.getKey() + " not accessible to " + user);
+            }
+            userPortal = config.getUserPortal();
+            navigation = userPortal.getNavigation(site.getKey());
+        } finally {
+            end();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        kernel.dispose();
+    }
+
+    @Benchmark
+    public UserNode getNode() throws Exception {
+        begin();
+        try {
+            return userPortal.getNode(navigation, Scope.ALL, filterConfig, null);
+        } finally {
+            end();
+        }
+    }
+
+    @Benchmark
+    public UserNode resolvePath() throws Exception {
+        begin();
+        try {
+            return userPortal.resolvePath(navigation, filterConfig, site.getLastPath());
+        } finally {
+            end();
+        }
+    }
+
+    private void begin() {
+        kernel.begin();
+        ConversationState.setCurrent(state);
+    }
+
+    private void end() {
+        ConversationState.setCurrent(null);
+        kernel.end(false);
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2013 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.exoplatform.commons.cache;
+
+import java.util.UUID;
+
+import org.exoplatform.services.cache.CacheService;
+import org.exoplatform.services.cache.ExoCache;
+
+/**
+ * <p>
+ * The version of a state that each node of a cluster keeps a local copy of, such as a compiled registry. The node that
+ * modifies the state stamps a new version, the nodes compare the version their copy was built with to the current version
+ * and build it again when they differ.
+ * </p>
+ *
+ * <p>
+ * The versions are kept in the {@link #CACHE_NAME} cache which is replicated in a cluster, so a version stamped on a node
+ * is seen by the other nodes. A version removed from the cache by its eviction policy is replaced by a new version and the
+ * copies are then built again, the cache is therefore configured without expiration and with enough entries for all the
+ * keys.
+ * </p>
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
+public class ClusterVersion {
+
+    /** The name of the cache holding the versions. */
+    public static final String CACHE_NAME = "ClusterVersion";
+
+    /** . */
+    private final ExoCache<String, String> versions;
+
+    /** . */
+    private final String key;
+
+    public ClusterVersion(CacheService cacheService, String key) {
+        this(cacheService.<String, String> getCacheInstance(CACHE_NAME), key);
+    }
+
+    public ClusterVersion(ExoCache<String, String> versions, String key) {
+        if (versions == null) {
+            throw new NullPointerException("No null versions accepted");
+        }
+        if (key == null) {
+            throw new NullPointerException("No null key accepted");
+        }
+        this.versions = versions;
+        this.key = key;
+    }
+
+    /**
+     * Returns the current version, a version is stamped when there is none.
+     *
+     * @return the current version
+     */
+    public String get() {
+        String version = versions.get(key);
+        if (version == null) {
+            version = stamp();
+        }
+        return version;
+    }
+
+    /**
+     * Stamps a new version.
+     *
+     * @return the new version
+     */
+    public String stamp() {
+        String version = UUID.randomUUID().toString();
+        versions.put(key, version);
+        return version;
+    }
+}
@@ -19,9 +19,14 @@
 
 package org.exoplatform.commons.cache.future;
 
+import java.util.Iterator;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.gatein.common.logging.Logger;
 import org.gatein.common.logging.LoggerFactory;
@@ -49,6 +54,13 @@ import org.gatein.common.logging.LoggerFactory;
  * is to decouple the cache from the object source.
  * </p>
  *
+ * <p>
+ * The refresh ahead can be enabled with {@link #setRefreshAhead(long, TimeUnit, Executor)}: a value found in the cache
+ * after the refresh delay is returned as is and reloaded in the background, so a frequently accessed value is replaced
+ * before it expires from the cache and no caller waits for its reload. The background retrieval uses the context of the
+ * lookup that triggered it, therefore it should be enabled only when the context remains usable after the lookup.
+ * </p>
+ *
  * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
  * @version $Revision$
  * @param <K> the key type parameter
@@ -63,12 +75,141 @@ public abstract class FutureCache<K, V, C> {
     /** . */
     private final ConcurrentMap<K, Retrieval<K, V, C>> futureEntries;
 
+    /** . */
+    final FutureCacheStatistics statistics;
+
+    /** The default maximum number of load times kept for the refresh ahead. */
+    public static final int DEFAULT_MAX_LOAD_TIMES = 10000;
+
+    /** The time a value was retrieved, maintained only when the refresh ahead is enabled. */
+    private final ConcurrentMap<K, Long> loadTimes;
+
+    /** Whether a thread prunes the load times. */
+    private final AtomicBoolean pruning;
+
+    /** The refresh ahead configuration or null when it is disabled. */
+    private volatile RefreshAhead refreshAhead;
+
     /** . */
     private final Logger log = LoggerFactory.getLogger(FutureCache.class);
 
     public FutureCache(Loader<K, V, C> loader) {
         this.loader = loader;
         this.futureEntries = new ConcurrentHashMap<K, Retrieval<K, V, C>>();
+        this.statistics = new FutureCacheStatistics();
+        this.loadTimes = new ConcurrentHashMap<K, Long>();
+        this.pruning = new AtomicBoolean();
+    }
+
+    /**
+     * Returns the statistics of this cache.
+     *
+     * @return the statistics
+     */
+    public FutureCacheStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Enables the refresh ahead of the values, a value found in the cache after the refresh delay is reloaded with the
+     * executor while the current value keeps being returned. The delay should be shorter than the time a value lives in
+     * the cache. A null executor disables the refresh ahead.
+     *
+     * @param delay the refresh delay
+     * @param unit the delay unit
+     * @param executor the executor of the background retrievals
+     * @throws IllegalArgumentException if the delay is negative
+     */
+    public void setRefreshAhead(long delay, TimeUnit unit, Executor executor) throws IllegalArgumentException {
+        setRefreshAhead(delay, unit, executor, DEFAULT_MAX_LOAD_TIMES);
+    }
+
+    /**
+     * Enables the refresh ahead of the values and bounds the number of load times it keeps. The load times of the keys
+     * that left the cache are pruned when the bound is reached, when the cache still holds more keys than the bound the
+     * load times of some keys are forgotten and these keys are refreshed after a new delay.
+     *
+     * @param delay the refresh delay
+     * @param unit the delay unit
+     * @param executor the executor of the background retrievals
+     * @param maxLoadTimes the maximum number of load times
+     * @throws IllegalArgumentException if the delay is negative or the maximum is not positive
+     */
+    public void setRefreshAhead(long delay, TimeUnit unit, Executor executor, int maxLoadTimes)
+            throws IllegalArgumentException {
+        if (delay < 0) {
+            throw new IllegalArgumentException("No negative refresh delay");
+        }
+        if (maxLoadTimes <= 0) {
+            throw new IllegalArgumentException("The maximum number of load times must be positive");
+        }
+        if (executor == null) {
+            refreshAhead = null;
+            loadTimes.clear();
+        } else {
+            refreshAhead = new RefreshAhead(unit.toNanos(delay), executor, maxLoadTimes);
+        }
+    }
+
+    /**
+     * Forgets the load time of a key, subclasses should call it when a key is removed from the cache.
+     *
+     * @param key the key
+     */
+    protected final void removed(K key) {
+        loadTimes.remove(key);
+    }
+
+    /**
+     * Forgets the load time of the keys, subclasses should call it when the cache is cleared.
+     */
+    protected final void cleared() {
+        loadTimes.clear();
+    }
+
+    /**
+     * Records that a value was retrieved and put in the cache.
+     *
+     * @param key the key
+     */
+    void loaded(K key) {
+        RefreshAhead refreshAhead = this.refreshAhead;
+        if (refreshAhead != null) {
+            loadTimes.put(key, System.nanoTime());
+            prune(refreshAhead);
+        }
+    }
+
+    /**
+     * Returns the number of load times kept for the refresh ahead.
+     *
+     * @return the number of load times
+     */
+    int getLoadTimeCount() {
+        return loadTimes.size();
+    }
+
+    /**
+     * Keeps the load times under the bound, a key that was evicted or expired from the cache without being removed
+     * through the future cache would otherwise keep its load time forever.
+     */
+    private void prune(RefreshAhead refreshAhead) {
+        if (loadTimes.size() > refreshAhead.maxLoadTimes && pruning.compareAndSet(false, true)) {
+            try {
+                for (Iterator<K> i = loadTimes.keySet().iterator(); i.hasNext();) {
+                    if (get(i.next()) == null) {
+                        i.remove();
+                    }
+                }
+                Iterator<K> i = loadTimes.keySet().iterator();
+                while (loadTimes.size() > refreshAhead.maxLoadTimes && i.hasNext()) {
+                    i.next();
+                    i.remove();
+                }
+            } finally {
+                pruning.set(false);
+            }
+        }
     }
 
     /**
@@ -100,9 +241,20 @@ public abstract class FutureCache<K, V, C> {
         // First we try a simple cache get
         V value = get(key);
 
-        // If it does not succeed then we go through a process that will avoid to load
-        // the same resource concurrently
-        if (value == null) {
+        if (value != null) {
+            statistics.hits.incrementAndGet();
+
+            // Reload the value in the background when it is old enough
+            RefreshAhead refreshAhead = this.refreshAhead;
+            if (refreshAhead != null) {
+                refreshIfNeeded(refreshAhead, context, key);
+            }
+        } else {
+            statistics.misses.incrementAndGet();
+
+            // If it does not succeed then we go through a process that will avoid to load
+            // the same resource concurrently
+
             // Create our future
             Retrieval<K, V, C> retrieval = new Retrieval<K, V, C>(context, key, this);
 
@@ -117,6 +269,7 @@ public abstract class FutureCache<K, V, C> {
                 if (phantom != null) {
                     retrieval = phantom;
                     inserted = false;
+                    statistics.waits.incrementAndGet();
                 } else {
                     try {
                         retrieval.current = Thread.currentThread();
@@ -153,4 +306,73 @@ public abstract class FutureCache<K, V, C> {
         //
         return value;
     }
+
+    private void refreshIfNeeded(RefreshAhead refreshAhead, C context, final K key) {
+        long now = System.nanoTime();
+        Long loadTime = loadTimes.get(key);
+        if (loadTime == null) {
+            // The value was retrieved before the refresh ahead was enabled or its load time was pruned
+            if (loadTimes.putIfAbsent(key, now) == null) {
+                prune(refreshAhead);
+            }
+        } else if (now - loadTime >= refreshAhead.delay) {
+            final Retrieval<K, V, C> retrieval = new Retrieval<K, V, C>(context, key, this);
+            if (futureEntries.putIfAbsent(key, retrieval) == null) {
+                statistics.refreshes.incrementAndGet();
+                try {
+                    refreshAhead.executor.execute(new Runnable() {
+                        public void run() {
+                            refresh(retrieval, key);
+                        }
+                    });
+                } catch (RejectedExecutionException e) {
+                    futureEntries.remove(key, retrieval);
+                    log.error("Could not schedule the refresh of resource " + key, e);
+                }
+            }
+        }
+    }
+
+    private void refresh(Retrieval<K, V, C> retrieval, K key) {
+        try {
+            retrieval.current = Thread.currentThread();
+            retrieval.future.run();
+            if (retrieval.future.get() == null) {
+                log.debug("Refresh of resource " + key + " returned no value, the current value is kept");
+            }
+        } catch (ExecutionException e) {
+            log.error("Refresh of resource " + key + " threw an exception, the current value is kept", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            retrieval.current = null;
+
+            // The next refresh happens after a new delay, even when this one failed
+            if (refreshAhead != null) {
+                loadTimes.put(key, System.nanoTime());
+            }
+            futureEntries.remove(key, retrieval);
+        }
+    }
+
+    /**
+     * The refresh ahead configuration.
+     */
+    private static class RefreshAhead {
+
+        /** The delay in nanoseconds. */
+        private final long delay;
+
+        /** . */
+        private final Executor executor;
+
+        /** . */
+        private final int maxLoadTimes;
+
+        private RefreshAhead(long delay, Executor executor, int maxLoadTimes) {
+            this.delay = delay;
+            this.executor = executor;
+            this.maxLoadTimes = maxLoadTimes;
+        }
+    }
 }
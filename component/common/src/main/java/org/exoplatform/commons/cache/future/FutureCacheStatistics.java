@@ -0,0 +1,141 @@
+/*
+ * Copyright (C) 2013 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.exoplatform.commons.cache.future;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.exoplatform.management.annotations.Impact;
+import org.exoplatform.management.annotations.ImpactType;
+import org.exoplatform.management.annotations.Managed;
+import org.exoplatform.management.annotations.ManagedDescription;
+import org.exoplatform.management.jmx.annotations.NameTemplate;
+import org.exoplatform.management.jmx.annotations.Property;
+
+/**
+ * The statistics of a {@link FutureCache}, it can be registered in the management layer by the service owning the cache.
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
+@Managed
+@NameTemplate({ @Property(key = "view", value = "portal"), @Property(key = "service", value = "futurecache"),
+        @Property(key = "name", value = "{Name}") })
+@ManagedDescription("Future cache statistics")
+public class FutureCacheStatistics {
+
+    /** . */
+    private volatile String name;
+
+    /** . */
+    final AtomicLong hits = new AtomicLong();
+
+    /** . */
+    final AtomicLong misses = new AtomicLong();
+
+    /** . */
+    final AtomicLong loads = new AtomicLong();
+
+    /** . */
+    final AtomicLong loadFailures = new AtomicLong();
+
+    /** . */
+    final AtomicLong loadTime = new AtomicLong();
+
+    /** . */
+    final AtomicLong waits = new AtomicLong();
+
+    /** . */
+    final AtomicLong refreshes = new AtomicLong();
+
+    FutureCacheStatistics() {
+    }
+
+    @Managed
+    @ManagedDescription("The cache name")
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    @Managed
+    @ManagedDescription("The number of lookups that found a value")
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    @Managed
+    @ManagedDescription("The number of lookups that did not find a value")
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    @Managed
+    @ManagedDescription("The number of values retrieved from the loader, including the refreshes")
+    public long getLoadCount() {
+        return loads.get();
+    }
+
+    @Managed
+    @ManagedDescription("The number of retrievals that failed")
+    public long getLoadFailureCount() {
+        return loadFailures.get();
+    }
+
+    @Managed
+    @ManagedDescription("The total time spent in retrievals in milliseconds")
+    public long getTotalLoadTime() {
+        return TimeUnit.NANOSECONDS.toMillis(loadTime.get());
+    }
+
+    @Managed
+    @ManagedDescription("The average time of a retrieval in milliseconds")
+    public double getAverageLoadTime() {
+        long count = loads.get() + loadFailures.get();
+        return count == 0 ? 0 : loadTime.get() / (count * 1000000D);
+    }
+
+    @Managed
+    @ManagedDescription("The number of lookups that waited for a retrieval done by another thread")
+    public long getWaitCount() {
+        return waits.get();
+    }
+
+    @Managed
+    @ManagedDescription("The number of background refreshes")
+    public long getRefreshCount() {
+        return refreshes.get();
+    }
+
+    @Managed
+    @ManagedDescription("Reset the statistics")
+    @Impact(ImpactType.WRITE)
+    public void reset() {
+        hits.set(0);
+        misses.set(0);
+        loads.set(0);
+        loadFailures.set(0);
+        loadTime.set(0);
+        waits.set(0);
+        refreshes.set(0);
+    }
+}
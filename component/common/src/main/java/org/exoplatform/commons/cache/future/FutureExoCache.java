@@ -41,10 +41,12 @@ public class FutureExoCache<K extends Serializable, V, C> extends FutureCache<K,
 
     public void clear() {
         cache.clearCache();
+        cleared();
     }
 
     public void remove(K key) {
         cache.remove(key);
+        removed(key);
     }
 
     @Override
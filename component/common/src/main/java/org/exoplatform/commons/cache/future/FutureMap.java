@@ -42,10 +42,12 @@ public class FutureMap<K extends Serializable, V, C> extends FutureCache<K, V, C
 
     public void clear() {
         data.clear();
+        cleared();
     }
 
     public void remove(K key) {
         data.remove(key);
+        removed(key);
     }
 
     @Override
@@ -32,12 +32,24 @@ class Retrieval<K, V, C> implements Callable<V> {
 
     public V call() throws Exception {
         // Retrieve the value from the loader
-        V value = cache.loader.retrieve(context, key);
+        V value;
+        long start = System.nanoTime();
+        try {
+            value = cache.loader.retrieve(context, key);
+        } catch (Exception e) {
+            cache.statistics.loadFailures.incrementAndGet();
+            throw e;
+        } finally {
+            cache.statistics.loadTime.addAndGet(System.nanoTime() - start);
+        }
 
         //
         if (value != null) {
+            cache.statistics.loads.incrementAndGet();
+
             // Cache it, it is made available to other threads (unless someone removes it)
             cache.put(key, value);
+            cache.loaded(key);
 
             // Return value
             return value;
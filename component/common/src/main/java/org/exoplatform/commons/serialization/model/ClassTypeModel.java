@@ -19,8 +19,10 @@
 
 package org.exoplatform.commons.serialization.model;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 
 
@@ -42,6 +44,9 @@ public final class ClassTypeModel<O> extends TypeModel<O> {
     /** . */
     private final SerializationMode serializationMode;
 
+    /** The non transient fields of the type and its super types, computed on first use. */
+    private volatile List<FieldModel<? super O, ?>> serializedFields;
+
     ClassTypeModel(Class<O> type, ClassTypeModel<? super O> superType, Map<String, FieldModel<O, ?>> fields,
             SerializationMode serializationMode) {
         super(type, superType);
@@ -70,4 +75,29 @@ public final class ClassTypeModel<O> extends TypeModel<O> {
         return immutableFields;
     }
 
+    /**
+     * Returns the non transient fields of this type followed by the non transient fields of its super types, in the order
+     * they are serialized. The list is computed once, when the type and its field types are fully built since a type
+     * is built before its fields.
+     *
+     * @return the serialized fields
+     */
+    public List<FieldModel<? super O, ?>> getSerializedFields() {
+        List<FieldModel<? super O, ?>> serializedFields = this.serializedFields;
+        if (serializedFields == null) {
+            serializedFields = new ArrayList<FieldModel<? super O, ?>>();
+            for (FieldModel<O, ?> field : fields.values()) {
+                if (!field.isTransient()) {
+                    serializedFields.add(field);
+                }
+            }
+            if (superType != null) {
+                serializedFields.addAll(superType.getSerializedFields());
+            }
+            serializedFields = Collections.unmodifiableList(serializedFields);
+            this.serializedFields = serializedFields;
+        }
+        return serializedFields;
+    }
+
 }
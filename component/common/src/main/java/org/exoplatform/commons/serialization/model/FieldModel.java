@@ -38,6 +38,9 @@ public final class FieldModel<O, V> {
     /** . */
     private final TypeModel<V> type;
 
+    /** . */
+    private final Class<V> valueType;
+
     /** . */
     private boolean _transient;
 
@@ -45,6 +48,7 @@ public final class FieldModel<O, V> {
         this.owner = owner;
         this.field = field;
         this.type = type;
+        this.valueType = type.getJavaType();
         this._transient = Modifier.isTransient(field.getModifiers());
     }
 
@@ -67,16 +71,12 @@ public final class FieldModel<O, V> {
     public V get(Object o) {
         try {
             Object value = field.get(o);
-            if (value == null) {
-                return null;
+            if (value == null || valueType.isInstance(value)) {
+                // Cast OK
+                return (V) value;
             } else {
-                Class<V> valueType = type.getJavaType();
-                if (valueType.isInstance(value)) {
-                    return valueType.cast(value);
-                } else {
-                    throw new ClassCastException("Cannot cast value " + value + " with type " + value.getClass().getName()
-                            + " to type " + valueType.getName());
-                }
+                throw new ClassCastException("Cannot cast value " + value + " with type " + value.getClass().getName()
+                        + " to type " + valueType.getName());
             }
         } catch (IllegalAccessException e) {
             throw new AssertionError(e);
@@ -84,7 +84,7 @@ public final class FieldModel<O, V> {
     }
 
     public void castAndSet(Object o, Object value) {
-        V v = type.getJavaType().cast(value);
+        V v = valueType.cast(value);
         set(o, v);
     }
 
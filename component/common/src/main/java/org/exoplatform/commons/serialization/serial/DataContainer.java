@@ -23,8 +23,10 @@ import java.io.Externalizable;
 import java.io.IOException;
 import java.io.ObjectInput;
 import java.io.ObjectOutput;
+import java.io.StreamCorruptedException;
 import java.util.LinkedList;
 
+import org.exoplatform.commons.serialization.model.TypeModel;
 
 /**
  * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
@@ -32,6 +34,24 @@ import java.util.LinkedList;
  */
 public class DataContainer implements Externalizable {
 
+    /** The serial version computed for the former format, so that its streams can still be read. */
+    private static final long serialVersionUID = -245310240553209731L;
+
+    /** . */
+    private static final int INT = 0;
+
+    /** . */
+    private static final int TYPE = 1;
+
+    /** . */
+    private static final int OBJECT = 2;
+
+    /** The small ints are written as a single byte added to this value, like the data kinds and the first object ids. */
+    private static final int SMALL_INT = 3;
+
+    /** . */
+    private static final int MAX_SMALL_INT = Byte.MAX_VALUE - SMALL_INT;
+
     /** . */
     private final LinkedList<Object> structure;
 
@@ -47,6 +67,10 @@ public class DataContainer implements Externalizable {
         structure.add(o);
     }
 
+    public void writeType(TypeModel<?> typeModel) {
+        structure.add(typeModel);
+    }
+
     public int readInt() {
         return (Integer) structure.removeFirst();
     }
@@ -55,17 +79,63 @@ public class DataContainer implements Externalizable {
         return structure.removeFirst();
     }
 
+    public TypeModel<?> readType() {
+        return (TypeModel<?>) structure.removeFirst();
+    }
+
+    /**
+     * The ints are written as primitives, in a single byte when they are small, and the types are written with the type table of the {@link ObjectWriter} instead
+     * of being written as objects.
+     */
     public void writeExternal(ObjectOutput out) throws IOException {
         out.writeInt(structure.size());
         for (Object o : structure) {
-            out.writeObject(o);
+            if (o instanceof Integer) {
+                int i = (Integer) o;
+                if (i >= 0 && i <= MAX_SMALL_INT) {
+                    out.writeByte(SMALL_INT + i);
+                } else {
+                    out.writeByte(INT);
+                    out.writeInt(i);
+                }
+            } else if (o instanceof TypeModel<?>) {
+                out.writeByte(TYPE);
+                ((ObjectWriter) out).writeType((TypeModel<?>) o);
+            } else {
+                out.writeByte(OBJECT);
+                out.writeObject(o);
+            }
         }
     }
 
     public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
         int size = in.readInt();
+        if (((ObjectReader) in).getFormatVersion() == 0) {
+            // The former format wrote each int, type and object with writeObject
+            while (size-- > 0) {
+                structure.addLast(in.readObject());
+            }
+            return;
+        }
         while (size-- > 0) {
-            structure.addLast(in.readObject());
+            int kind = in.readByte();
+            switch (kind) {
+                case INT:
+                    structure.addLast(in.readInt());
+                    break;
+                case TYPE:
+                    structure.addLast(((ObjectReader) in).readType());
+                    break;
+                case OBJECT:
+                    structure.addLast(in.readObject());
+                    break;
+                default:
+                    if (kind < SMALL_INT) {
+                        throw new StreamCorruptedException("Unrecognized data " + kind);
+                    }
+                    structure.addLast(kind - SMALL_INT);
+                    break;
+            }
         }
     }
 
@@ -25,6 +25,7 @@ import java.io.InvalidClassException;
 import java.io.InvalidObjectException;
 import java.io.ObjectInputStream;
 import java.io.ObjectStreamClass;
+import java.io.PushbackInputStream;
 import java.io.StreamCorruptedException;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -37,6 +38,7 @@ import org.exoplatform.commons.serialization.api.factory.ObjectFactory;
 import org.exoplatform.commons.serialization.model.ClassTypeModel;
 import org.exoplatform.commons.serialization.model.ConvertedTypeModel;
 import org.exoplatform.commons.serialization.model.FieldModel;
+import org.exoplatform.commons.serialization.model.TypeModel;
 
 /**
  * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
@@ -53,9 +55,34 @@ public class ObjectReader extends ObjectInputStream {
     /** . */
     private final Map<Integer, List<FutureFieldUpdate<?>>> idToResolutions;
 
+    /** The types read from the stream indexed by their id. */
+    private final List<TypeModel<?>> idToType;
+
+    /** The version of the format of the stream, see {@link ObjectWriter#FORMAT_VERSION}. */
+    private final int formatVersion;
+
     public ObjectReader(SerializationContext context, InputStream in) throws IOException {
+        this(context, new PushbackInputStream(in));
+    }
+
+    private ObjectReader(SerializationContext context, PushbackInputStream in) throws IOException {
         super(in);
 
+        // The stream header was read and nothing else was buffered, a stream of the former format continues
+        // with a type code that we push back
+        int marker = in.read();
+        if (marker == ObjectWriter.FORMAT_MARKER) {
+            formatVersion = in.read();
+            if (formatVersion < 1 || formatVersion > ObjectWriter.FORMAT_VERSION) {
+                throw new StreamCorruptedException("Unsupported format version " + formatVersion);
+            }
+        } else {
+            if (marker != -1) {
+                in.unread(marker);
+            }
+            formatVersion = 0;
+        }
+
         //
         enableResolveObject(true);
 
@@ -63,6 +90,64 @@ public class ObjectReader extends ObjectInputStream {
         this.context = context;
         this.idToObject = new HashMap<Integer, Object>();
         this.idToResolutions = new HashMap<Integer, List<FutureFieldUpdate<?>>>();
+        this.idToType = new ArrayList<TypeModel<?>>();
+    }
+
+    /**
+     * Returns the version of the format of the stream, 0 for a stream of the former format.
+     *
+     * @return the format version
+     */
+    int getFormatVersion() {
+        return formatVersion;
+    }
+
+    /**
+     * Reads a type written by {@link ObjectWriter#writeType(TypeModel)}.
+     *
+     * @return the type
+     * @throws IOException any io exception
+     */
+    TypeModel<?> readType() throws IOException {
+        int typeId = readInt();
+        if (typeId < idToType.size()) {
+            return idToType.get(typeId);
+        } else if (typeId == idToType.size()) {
+            String typeName = readUTF();
+            TypeModel<?> typeModel = context.getTypeDomain().getTypeModel(typeName);
+            if (typeModel == null) {
+                try {
+                    typeModel = context.getTypeDomain().getTypeModel(loadClass(typeName));
+                } catch (ClassNotFoundException e) {
+                    InvalidClassException ice = new InvalidClassException(typeName, "Cannot load class");
+                    ice.initCause(e);
+                    throw ice;
+                }
+                if (typeModel == null) {
+                    throw new InvalidClassException(typeName, "Type is not described");
+                }
+            }
+            idToType.add(typeModel);
+            return typeModel;
+        } else {
+            throw new StreamCorruptedException("Unrecognized type id " + typeId);
+        }
+    }
+
+    /**
+     * Loads a class with the context class loader and falls back on the class loader of this class as
+     * {@link #resolveClass(ObjectStreamClass)} does.
+     *
+     * @param name the class name
+     * @return the class
+     * @throws ClassNotFoundException when the class cannot be loaded
+     */
+    private Class<?> loadClass(String name) throws ClassNotFoundException {
+        try {
+            return Class.forName(name, false, Thread.currentThread().getContextClassLoader());
+        } catch (ClassNotFoundException e) {
+            return Class.forName(name, false, ObjectReader.class.getClassLoader());
+        }
     }
 
     private <O> O instantiate(ClassTypeModel<O> typeModel, Map<FieldModel<? super O, ?>, ?> state) throws InvalidClassException {
@@ -80,35 +165,29 @@ public class ObjectReader extends ObjectInputStream {
     }
 
     protected <O> O instantiate(int id, DataContainer container, ClassTypeModel<O> typeModel) throws IOException {
-        Map<FieldModel<? super O, ?>, Object> state = new HashMap<FieldModel<? super O, ?>, Object>();
-        ClassTypeModel<? super O> currentTypeModel = typeModel;
+        List<FieldModel<? super O, ?>> fieldModels = typeModel.getSerializedFields();
+        Map<FieldModel<? super O, ?>, Object> state = new HashMap<FieldModel<? super O, ?>, Object>(
+                fieldModels.size() * 4 / 3 + 1);
         List<FieldUpdate<O>> sets = new ArrayList<FieldUpdate<O>>();
-        while (currentTypeModel != null) {
-            if (currentTypeModel instanceof ClassTypeModel) {
-                for (FieldModel<? super O, ?> fieldModel : currentTypeModel.getFields()) {
-                    if (!fieldModel.isTransient()) {
-                        switch (container.readInt()) {
-                            case DataKind.NULL_VALUE:
-                                state.put(fieldModel, null);
-                                break;
-                            case DataKind.OBJECT_REF:
-                                int refId = container.readInt();
-                                Object refO = idToObject.get(refId);
-                                if (refO != null) {
-                                    state.put(fieldModel, refO);
-                                } else {
-                                    sets.add(new FieldUpdate<O>(refId, fieldModel));
-                                }
-                                break;
-                            case DataKind.OBJECT:
-                                Object o = container.readObject();
-                                state.put(fieldModel, o);
-                                break;
-                        }
+        for (FieldModel<? super O, ?> fieldModel : fieldModels) {
+            switch (container.readInt()) {
+                case DataKind.NULL_VALUE:
+                    state.put(fieldModel, null);
+                    break;
+                case DataKind.OBJECT_REF:
+                    int refId = container.readInt();
+                    Object refO = idToObject.get(refId);
+                    if (refO != null) {
+                        state.put(fieldModel, refO);
+                    } else {
+                        sets.add(new FieldUpdate<O>(refId, fieldModel));
                     }
-                }
+                    break;
+                case DataKind.OBJECT:
+                    Object o = container.readObject();
+                    state.put(fieldModel, o);
+                    break;
             }
-            currentTypeModel = currentTypeModel.getSuperType();
         }
 
         //
@@ -178,13 +257,11 @@ public class ObjectReader extends ObjectInputStream {
             }
             case DataKind.OBJECT: {
                 int id = container.readInt();
-                Class<?> clazz = (Class) container.readObject();
-                ClassTypeModel<?> typeModel = (ClassTypeModel<?>) context.getTypeDomain().getTypeModel(clazz);
+                ClassTypeModel<?> typeModel = (ClassTypeModel<?>) readType(container);
                 return instantiate(id, container, typeModel);
             }
             case DataKind.CONVERTED_OBJECT: {
-                Class<?> tclazz = (Class<?>) container.readObject();
-                ConvertedTypeModel<?, ?> ctm = (ConvertedTypeModel<?, ?>) context.getTypeDomain().getTypeModel(tclazz);
+                ConvertedTypeModel<?, ?> ctm = (ConvertedTypeModel<?, ?>) readType(container);
                 return convertObject(container, ctm);
             }
             case DataKind.SERIALIZED_OBJECT:
@@ -194,6 +271,27 @@ public class ObjectReader extends ObjectInputStream {
         }
     }
 
+    /**
+     * Reads a type from a container, the former format wrote the class of the type instead of the type.
+     *
+     * @param container the container
+     * @return the type
+     * @throws IOException any io exception
+     */
+    private TypeModel<?> readType(DataContainer container) throws IOException {
+        Object type = container.readObject();
+        if (type instanceof Class<?>) {
+            Class<?> clazz = (Class<?>) type;
+            TypeModel<?> typeModel = context.getTypeDomain().getTypeModel(clazz);
+            if (typeModel == null) {
+                throw new InvalidClassException(clazz.getName(), "Type is not described");
+            }
+            return typeModel;
+        } else {
+            return (TypeModel<?>) type;
+        }
+    }
+
     private <O, T> O convertObject(DataContainer container, ConvertedTypeModel<O, T> convertedType) throws IOException {
         Object inner = resolveObject(container);
         T t = convertedType.getTargetType().getJavaType().cast(inner);
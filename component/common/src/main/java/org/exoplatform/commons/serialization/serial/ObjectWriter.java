@@ -34,8 +34,6 @@ import org.exoplatform.commons.serialization.model.ConvertedTypeModel;
 import org.exoplatform.commons.serialization.model.FieldModel;
 import org.exoplatform.commons.serialization.model.SerializationMode;
 import org.exoplatform.commons.serialization.model.TypeModel;
-import org.gatein.common.logging.Logger;
-import org.gatein.common.logging.LoggerFactory;
 
 /**
  * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
@@ -43,8 +41,17 @@ import org.gatein.common.logging.LoggerFactory;
  */
 public class ObjectWriter extends ObjectOutputStream {
 
-    /** . */
-    private static final Logger log = LoggerFactory.getLogger(ObjectWriter.class);
+    /**
+     * The marker written after the stream header, it is not a valid type code of the serialization protocol and
+     * distinguishes the versioned streams from the streams of the former format.
+     */
+    static final int FORMAT_MARKER = 0x47;
+
+    /**
+     * The version of the format of the stream: the version 1 writes the types with the type table of the stream, the
+     * former format (version 0) wrote the types as class objects and had no marker.
+     */
+    static final int FORMAT_VERSION = 1;
 
     /** . */
     private final SerializationContext context;
@@ -52,6 +59,9 @@ public class ObjectWriter extends ObjectOutputStream {
     /** . */
     private final IdentityHashMap<Object, Integer> objectToId;
 
+    /** The ids of the types already written in the stream. */
+    private final IdentityHashMap<TypeModel<?>, Integer> typeToId;
+
     public ObjectWriter(SerializationContext context, OutputStream out) throws IOException {
         super(out);
 
@@ -61,6 +71,14 @@ public class ObjectWriter extends ObjectOutputStream {
         //
         this.context = context;
         this.objectToId = new IdentityHashMap<Object, Integer>();
+        this.typeToId = new IdentityHashMap<TypeModel<?>, Integer>();
+    }
+
+    @Override
+    protected void writeStreamHeader() throws IOException {
+        super.writeStreamHeader();
+        writeByte(FORMAT_MARKER);
+        writeByte(FORMAT_VERSION);
     }
 
     private int register(Object o) {
@@ -69,6 +87,25 @@ public class ObjectWriter extends ObjectOutputStream {
         return nextId;
     }
 
+    /**
+     * Writes a type, a type is written with its name the first time it occurs in the stream and then only with the id it
+     * was assigned.
+     *
+     * @param typeModel the type
+     * @throws IOException any io exception
+     */
+    void writeType(TypeModel<?> typeModel) throws IOException {
+        Integer typeId = typeToId.get(typeModel);
+        if (typeId == null) {
+            typeId = typeToId.size();
+            typeToId.put(typeModel, typeId);
+            writeInt(typeId);
+            writeUTF(typeModel.getName());
+        } else {
+            writeInt(typeId);
+        }
+    }
+
     private void write(Object obj, DataContainer output) throws IOException {
         Class objClass = obj.getClass();
         TypeModel typeModel = context.getTypeDomain().getTypeModel(objClass);
@@ -114,7 +151,7 @@ public class ObjectWriter extends ObjectOutputStream {
 
         //
         output.writeInt(DataKind.CONVERTED_OBJECT);
-        output.writeObject(typeModel.getJavaType());
+        output.writeType(typeModel);
         write(target, output);
     }
 
@@ -123,57 +160,24 @@ public class ObjectWriter extends ObjectOutputStream {
             //
             output.writeInt(DataKind.OBJECT);
             output.writeInt(register(obj));
-            output.writeObject(typeModel.getJavaType());
+            output.writeType(typeModel);
 
             //
-            SerializationStatus status = SerializationStatus.NONE;
-            for (ClassTypeModel<? super O> currentTypeModel = typeModel; currentTypeModel != null; currentTypeModel = currentTypeModel
-                    .getSuperType()) {
-                if (currentTypeModel instanceof ClassTypeModel<?>) {
-                    for (FieldModel<?, ?> fieldModel : currentTypeModel.getFields()) {
-                        if (!fieldModel.isTransient()) {
-                            // System.out.println("About to serialize field " + fieldModel + " of type " + currentTypeModel);
-                            Object fieldValue = fieldModel.get(obj);
-                            if (fieldValue == null) {
-                                output.writeObject(DataKind.NULL_VALUE);
-                            } else {
-                                Integer fieldValueId = objectToId.get(fieldValue);
-                                if (fieldValueId != null) {
-                                    output.writeObject(DataKind.OBJECT_REF);
-                                    output.writeInt(fieldValueId);
-                                } else {
-                                    output.writeObject(DataKind.OBJECT);
-                                    output.writeObject(fieldValue);
-                                }
-                            }
-                        }
-                    }
-                    switch (status) {
-                        case NONE:
-                            status = SerializationStatus.FULL;
-                            break;
-                    }
+            for (FieldModel<? super O, ?> fieldModel : typeModel.getSerializedFields()) {
+                Object fieldValue = fieldModel.get(obj);
+                if (fieldValue == null) {
+                    output.writeInt(DataKind.NULL_VALUE);
                 } else {
-                    if (!currentTypeModel.getFields().isEmpty()) {
-                        switch (status) {
-                            case FULL:
-                                status = SerializationStatus.PARTIAL;
-                                break;
-                        }
+                    Integer fieldValueId = objectToId.get(fieldValue);
+                    if (fieldValueId != null) {
+                        output.writeInt(DataKind.OBJECT_REF);
+                        output.writeInt(fieldValueId);
+                    } else {
+                        output.writeInt(DataKind.OBJECT);
+                        output.writeObject(fieldValue);
                     }
                 }
             }
-
-            //
-            switch (status) {
-                case FULL:
-                    break;
-                case PARTIAL:
-                    log.debug("Partial serialization of object " + obj);
-                    break;
-                case NONE:
-                    throw new NotSerializableException("Type " + typeModel + " is not serializable");
-            }
         } else if (typeModel.getSerializationMode() == SerializationMode.SERIALIZABLE) {
             output.writeInt(DataKind.SERIALIZED_OBJECT);
             output.writeObject(obj);
@@ -197,9 +201,8 @@ public class ObjectWriter extends ObjectOutputStream {
         //
         Integer id = objectToId.get(obj);
         if (id != null) {
-            output = new DataContainer();
             output.writeInt(DataKind.OBJECT_REF);
-            output.writeObject(id);
+            output.writeInt(id);
         } else {
             write(obj, output);
         }
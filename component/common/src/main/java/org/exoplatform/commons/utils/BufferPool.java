@@ -0,0 +1,113 @@
+/**
+ * Copyright (C) 2013 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.exoplatform.commons.utils;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A thread safe pool of byte arrays of the same size. The pool is bounded, a released chunk is discarded when the pool is
+ * full and a new chunk is allocated when the pool is empty. A chunk that is not released is simply garbage collected.
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
+public class BufferPool {
+
+    /** The default pool with 8 KiB chunks retaining at most 4 MiB. */
+    private static final BufferPool instance = new BufferPool(8192, 512);
+
+    public static BufferPool getInstance() {
+        return instance;
+    }
+
+    /** . */
+    private final int chunkSize;
+
+    /** . */
+    private final int maxChunks;
+
+    /** . */
+    private final ConcurrentLinkedQueue<byte[]> chunks;
+
+    /** . */
+    private final AtomicInteger size;
+
+    public BufferPool(int chunkSize, int maxChunks) throws IllegalArgumentException {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("No chunk size under 1");
+        }
+        if (maxChunks < 0) {
+            throw new IllegalArgumentException("No negative max chunks");
+        }
+        this.chunkSize = chunkSize;
+        this.maxChunks = maxChunks;
+        this.chunks = new ConcurrentLinkedQueue<byte[]>();
+        this.size = new AtomicInteger();
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public int getMaxChunks() {
+        return maxChunks;
+    }
+
+    /**
+     * Returns the number of chunks available in the pool.
+     *
+     * @return the pool size
+     */
+    public int getSize() {
+        return size.get();
+    }
+
+    /**
+     * Acquires a chunk, the content of the chunk is undefined.
+     *
+     * @return a chunk
+     */
+    public byte[] acquire() {
+        byte[] chunk = chunks.poll();
+        if (chunk != null) {
+            size.decrementAndGet();
+            return chunk;
+        }
+        return new byte[chunkSize];
+    }
+
+    /**
+     * Releases a chunk to the pool, the chunk must not be used by the caller anymore.
+     *
+     * @param chunk the chunk
+     * @throws IllegalArgumentException if the chunk was not acquired from this pool
+     */
+    public void release(byte[] chunk) throws IllegalArgumentException {
+        if (chunk.length != chunkSize) {
+            throw new IllegalArgumentException("Chunk size " + chunk.length + " does not match the pool chunk size "
+                    + chunkSize);
+        }
+        if (size.incrementAndGet() <= maxChunks) {
+            chunks.offer(chunk);
+        } else {
+            size.decrementAndGet();
+        }
+    }
+}
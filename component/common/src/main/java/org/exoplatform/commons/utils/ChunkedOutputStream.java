@@ -0,0 +1,234 @@
+/**
+ * Copyright (C) 2013 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.exoplatform.commons.utils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * <p>
+ * A stream that retains all the written data until it is flushed or closed, the data is kept in a chain of segments. A
+ * segment is either a chunk acquired from a {@link BufferPool} or a slice of an array appended with
+ * {@link #append(byte[], int, int)} which is retained without being copied. The data never needs to be copied to a larger
+ * buffer when it grows.
+ * </p>
+ *
+ * <p>
+ * When the stream is flushed the segments are written in order to the delegate output stream and the chunks are released
+ * to the pool.
+ * </p>
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
+public class ChunkedOutputStream extends OutputStream {
+
+    /** The slices under this length are copied. */
+    static final int MIN_SLICE_LENGTH = 256;
+
+    /** . */
+    private final OutputStream out;
+
+    /** . */
+    private final BufferPool pool;
+
+    /** . */
+    private byte[][] arrays;
+
+    /** . */
+    private int[] offsets;
+
+    /** . */
+    private int[] lengths;
+
+    /** . */
+    private boolean[] pooled;
+
+    /** . */
+    private int count;
+
+    /** The last segment chunk when it can still be written. */
+    private byte[] current;
+
+    /** . */
+    private int size;
+
+    /** . */
+    private boolean open;
+
+    public ChunkedOutputStream(OutputStream out) {
+        this(out, BufferPool.getInstance());
+    }
+
+    public ChunkedOutputStream(OutputStream out, BufferPool pool) {
+        if (out == null) {
+            throw new NullPointerException("No null output stream");
+        }
+        if (pool == null) {
+            throw new NullPointerException("No null pool");
+        }
+        this.out = out;
+        this.pool = pool;
+        this.arrays = new byte[8][];
+        this.offsets = new int[8];
+        this.lengths = new int[8];
+        this.pooled = new boolean[8];
+        this.open = true;
+    }
+
+    /**
+     * Returns the number of bytes retained by the stream.
+     *
+     * @return the size
+     */
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        if (!open) {
+            throw new IOException("closed");
+        }
+        int last = count - 1;
+        if (current == null || lengths[last] == current.length) {
+            last = addSegment(pool.acquire(), 0, 0, true);
+            current = arrays[last];
+        }
+        current[lengths[last]++] = (byte) b;
+        size++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (!open) {
+            throw new IOException("closed");
+        }
+        if (off < 0 || len < 0 || off + len > b.length) {
+            throw new IndexOutOfBoundsException();
+        }
+        while (len > 0) {
+            int last = count - 1;
+            if (current == null || lengths[last] == current.length) {
+                last = addSegment(pool.acquire(), 0, 0, true);
+                current = arrays[last];
+            }
+            int amount = Math.min(len, current.length - lengths[last]);
+            System.arraycopy(b, off, current, lengths[last], amount);
+            lengths[last] += amount;
+            size += amount;
+            off += amount;
+            len -= amount;
+        }
+    }
+
+    /**
+     * Appends a slice of an array, the slice is retained until the stream is flushed and therefore it must not be modified
+     * by the caller. A short slice is copied instead.
+     *
+     * @param b the array
+     * @param off the slice offset
+     * @param len the slice length
+     * @throws IOException if the stream is closed
+     */
+    public void append(byte[] b, int off, int len) throws IOException {
+        if (len < MIN_SLICE_LENGTH) {
+            write(b, off, len);
+        } else {
+            if (!open) {
+                throw new IOException("closed");
+            }
+            if (off < 0 || off + len > b.length) {
+                throw new IndexOutOfBoundsException();
+            }
+            addSegment(b, off, len, false);
+            current = null;
+            size += len;
+        }
+    }
+
+    private int addSegment(byte[] array, int off, int len, boolean chunk) {
+        if (count == arrays.length) {
+            int capacity = count * 2;
+            byte[][] arrays = new byte[capacity][];
+            int[] offsets = new int[capacity];
+            int[] lengths = new int[capacity];
+            boolean[] pooled = new boolean[capacity];
+            System.arraycopy(this.arrays, 0, arrays, 0, count);
+            System.arraycopy(this.offsets, 0, offsets, 0, count);
+            System.arraycopy(this.lengths, 0, lengths, 0, count);
+            System.arraycopy(this.pooled, 0, pooled, 0, count);
+            this.arrays = arrays;
+            this.offsets = offsets;
+            this.lengths = lengths;
+            this.pooled = pooled;
+        }
+        arrays[count] = array;
+        offsets[count] = off;
+        lengths[count] = len;
+        pooled[count] = chunk;
+        return count++;
+    }
+
+    /**
+     * Writes the segments to the delegate stream and releases the chunks, the segments are released even when the delegate
+     * stream fails.
+     */
+    private void drain() throws IOException {
+        try {
+            for (int i = 0; i < count; i++) {
+                if (lengths[i] > 0) {
+                    out.write(arrays[i], offsets[i], lengths[i]);
+                }
+            }
+        } finally {
+            for (int i = 0; i < count; i++) {
+                if (pooled[i]) {
+                    pool.release(arrays[i]);
+                }
+                arrays[i] = null;
+            }
+            count = 0;
+            current = null;
+            size = 0;
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (!open) {
+            throw new IOException("closed");
+        }
+        drain();
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!open) {
+            throw new IOException("closed");
+        }
+        try {
+            drain();
+        } finally {
+            open = false;
+        }
+        out.close();
+    }
+}
@@ -4,7 +4,13 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 
-
+/**
+ * A stream that retains all the written data in a growing byte array until it is flushed or closed.
+ *
+ * @deprecated the growing {@link OutputStreamPrinter} uses a {@link ChunkedOutputStream} that does not copy the data when it
+ *             grows, this class is kept for the code that still creates it.
+ */
+@Deprecated
 public class GrowingOutputStream extends OutputStream {
 
     private final OutputStream out;
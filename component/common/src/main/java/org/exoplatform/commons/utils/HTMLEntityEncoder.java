@@ -18,10 +18,9 @@
  */
 package org.exoplatform.commons.utils;
 
-import java.io.StringWriter;
+import java.io.IOException;
 import java.io.Writer;
 
-import org.gatein.common.io.WriterCharWriter;
 import org.gatein.common.text.CharWriter;
 import org.gatein.common.text.EncodingException;
 import org.gatein.common.text.EntityEncoder;
@@ -60,6 +59,12 @@ public class HTMLEntityEncoder extends EntityEncoder {
      */
     private static final char[] IMMUNE_HTMLATTR = { ',', '.', '-', '_' };
 
+    /** The replacement of each char under 256 in HTML, the chars with a null replacement are not encoded. */
+    private final String[] htmlReplacements = buildReplacements(IMMUNE_HTML);
+
+    /** The replacement of each char under 256 in HTML attributes, the chars with a null replacement are not encoded. */
+    private final String[] htmlAttributeReplacements = buildReplacements(IMMUNE_HTMLATTR);
+
     public String encodeIfNotEncoded(String input) {
         ParameterValidation.throwIllegalArgExceptionIfNull(input, "String");
         if (!isEncoded(input)) {
@@ -115,7 +120,19 @@ public class HTMLEntityEncoder extends EntityEncoder {
      * @return input encoded for HTML
      */
     public String encodeHTML(String input) {
-        return encode(input, IMMUNE_HTML);
+        return encode(input, htmlReplacements);
+    }
+
+    /**
+     * Encode data for use in HTML and write it to a writer, the data is written without being copied when it does not
+     * need to be encoded.
+     *
+     * @param input the string to encode for HTML
+     * @param writer the writer
+     * @throws IOException any io exception
+     */
+    public void encodeHTML(String input, Writer writer) throws IOException {
+        encode(input, htmlReplacements, writer);
     }
 
     /**
@@ -125,23 +142,23 @@ public class HTMLEntityEncoder extends EntityEncoder {
      * @return input encoded for use as value of a HTML attribute
      */
     public String encodeHTMLAttribute(String input) {
-        return encode(input, IMMUNE_HTMLATTR);
-    }
-
-    @Override
-    public void safeEncode(char[] chars, int off, int len, CharWriter writer) throws EncodingException {
-        safeEncode(chars, off, len, writer, IMMUNE_HTML);
+        return encode(input, htmlAttributeReplacements);
     }
 
     /**
-     * @param chars the array to encode
-     * @param off the offset in the chars array
-     * @param len the length of chars to encode
-     * @param writer the writer to use
-     * @param immune the characters array are immune from encoding
-     * @throws EncodingException
+     * Encode data for use in HTML attributes and write it to a writer, the data is written without being copied when it
+     * does not need to be encoded.
+     *
+     * @param input the string to encode for a HTML attribute
+     * @param writer the writer
+     * @throws IOException any io exception
      */
-    private void safeEncode(char[] chars, int off, int len, CharWriter writer, char[] immune) throws EncodingException {
+    public void encodeHTMLAttribute(String input, Writer writer) throws IOException {
+        encode(input, htmlAttributeReplacements, writer);
+    }
+
+    @Override
+    public void safeEncode(char[] chars, int off, int len, CharWriter writer) throws EncodingException {
 
         // The index of the last copied char
         int previous = off;
@@ -151,37 +168,13 @@ public class HTMLEntityEncoder extends EntityEncoder {
 
         // Perform lookup char by char
         for (int current = off; current < to; current++) {
-            char c = chars[current];
-
-            // Lookup
-            if (isImmutable(immune, c)) {
-                continue;
-            }
-
-            String replacement;
-
-            String hex;
-
-            // Do we have a replacement
-            if ((replacement = lookupEntityName(c)) != null) {
-                // We lazy create the result
-
+            String replacement = lookupReplacement(chars[current], htmlReplacements);
+            if (replacement != null) {
                 // Append the previous chars if any
                 writer.append(chars, previous, current - previous);
 
                 // Append the replaced entity
-                writer.append('&').append(replacement).append(';');
-
-                // Update the previous pointer
-                previous = current + 1;
-            } else if ((hex = lookupHexEntityNumber(c)) != null) {
-                // We lazy create the result
-
-                // Append the previous chars if any
-                writer.append(chars, previous, current - previous);
-
-                // Append the replaced entity
-                writer.append("&#x").append(hex).append(';');
+                writer.append(replacement);
 
                 // Update the previous pointer
                 previous = current + 1;
@@ -189,7 +182,7 @@ public class HTMLEntityEncoder extends EntityEncoder {
         }
 
         //
-        writer.append(chars, previous, chars.length - previous);
+        writer.append(chars, previous, to - previous);
     }
 
     public final String lookupEntityName(char c) {
@@ -204,22 +197,107 @@ public class HTMLEntityEncoder extends EntityEncoder {
         return Integer.toHexString(c);
     }
 
-    private boolean isImmutable(char[] array, char c) {
-        for (char ch : array) {
-            if (c == ch) {
-                return true;
+    /**
+     * Returns the replacement of a char or null when the char is not encoded.
+     */
+    private String lookupReplacement(char c, String[] replacements) {
+        if (c < replacements.length) {
+            return replacements[c];
+        }
+        String name = lookupEntityName(c);
+        if (name != null) {
+            return "&" + name + ";";
+        }
+        return "&#x" + Integer.toHexString(c) + ";";
+    }
+
+    /**
+     * Returns the index of the first char to encode or -1 when the string does not need to be encoded.
+     */
+    private static int indexOfEncoded(String input, String[] replacements) {
+        for (int i = 0, len = input.length(); i < len; i++) {
+            char c = input.charAt(i);
+            if (c >= replacements.length || replacements[c] != null) {
+                return i;
             }
         }
-        return false;
+        return -1;
     }
 
-    private String encode(String input, char[] immutable) {
+    private String encode(String input, String[] replacements) {
         ParameterValidation.throwIllegalArgExceptionIfNull(input, "String");
 
-        Writer sw = new StringWriter();
-        CharWriter charWriter = new WriterCharWriter(sw);
-        safeEncode(input.toCharArray(), 0, input.length(), charWriter, immutable);
-        return sw.toString();
+        // Most of the strings do not need to be encoded
+        int first = indexOfEncoded(input, replacements);
+        if (first == -1) {
+            return input;
+        }
+
+        //
+        int len = input.length();
+        StringBuilder sb = new StringBuilder(len + 16);
+        sb.append(input, 0, first);
+        for (int current = first; current < len; current++) {
+            char c = input.charAt(current);
+            String replacement = lookupReplacement(c, replacements);
+            if (replacement != null) {
+                sb.append(replacement);
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    private void encode(String input, String[] replacements, Writer writer) throws IOException {
+        ParameterValidation.throwIllegalArgExceptionIfNull(input, "String");
+
+        //
+        int previous = 0;
+        int first = indexOfEncoded(input, replacements);
+        if (first != -1) {
+            for (int current = first, len = input.length(); current < len; current++) {
+                String replacement = lookupReplacement(input.charAt(current), replacements);
+                if (replacement != null) {
+                    writer.write(input, previous, current - previous);
+                    writer.write(replacement);
+                    previous = current + 1;
+                }
+            }
+        }
+        writer.write(input, previous, input.length() - previous);
+    }
+
+    /**
+     * Build the replacements of the chars under 256, the replacement is the entity name when the char has one or the hex
+     * entity number otherwise. A char is not replaced when it is immune or when it has no hex entity number.
+     *
+     * @param immune the characters immune from encoding
+     * @return the replacements
+     */
+    private String[] buildReplacements(char[] immune) {
+        String[] replacements = new String[256];
+        for (char c = 0; c < replacements.length; c++) {
+            String name;
+            String hex;
+            if (isImmune(immune, c)) {
+                replacements[c] = null;
+            } else if ((name = lookupEntityName(c)) != null) {
+                replacements[c] = "&" + name + ";";
+            } else if ((hex = lookupHexEntityNumber(c)) != null) {
+                replacements[c] = "&#x" + hex + ";";
+            }
+        }
+        return replacements;
+    }
+
+    private static boolean isImmune(char[] immune, char c) {
+        for (char ch : immune) {
+            if (c == ch) {
+                return true;
+            }
+        }
+        return false;
     }
 
     /**
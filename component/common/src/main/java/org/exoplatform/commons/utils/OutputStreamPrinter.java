@@ -106,8 +106,8 @@ public class OutputStreamPrinter extends Printer implements BinaryOutput {
      * @param encoder the encoder
      * @param out the output
      * @param flushOnClose flush when stream is closed
-     * @param bufferSize the initial size of the buffer
-     * @param growing if the buffer should grow in size once full
+     * @param bufferSize the size of the buffer, it is ignored when the buffer grows
+     * @param growing if the buffer should grow in size once full, the buffer is then made of pooled chunks
      * @throws IllegalArgumentException if any argument is null
      */
     public OutputStreamPrinter(TextEncoder encoder, OutputStream out, boolean flushOnClose, int bufferSize, boolean growing)
@@ -162,7 +162,7 @@ public class OutputStreamPrinter extends Printer implements BinaryOutput {
         if (bufferSize > 0 && !growing) {
             out = new BufferingOutputStream(out, bufferSize);
         } else if (growing) {
-            out = new GrowingOutputStream(out, bufferSize);
+            out = new ChunkedOutputStream(out);
         }
 
         //
@@ -232,6 +232,29 @@ public class OutputStreamPrinter extends Printer implements BinaryOutput {
         }
     }
 
+    /**
+     * Writes bytes that are never modified afterwards, the bytes may be retained by the printer until it is flushed instead
+     * of being copied.
+     *
+     * @param bytes the bytes
+     * @param off the offset
+     * @param len the length
+     * @throws IOException any io exception
+     */
+    public final void writeUnmodifiable(byte[] bytes, int off, int len) throws IOException {
+        if (!failed) {
+            try {
+                if (out instanceof ChunkedOutputStream) {
+                    ((ChunkedOutputStream) out).append(bytes, off, len);
+                } else {
+                    out.write(bytes, off, len);
+                }
+            } catch (IOException e) {
+                handle(e);
+            }
+        }
+    }
+
     //
 
     @Override
@@ -64,7 +64,10 @@ public abstract class Text {
      * @throws IllegalArgumentException if the string is null
      */
     public static Text create(String s) throws IllegalArgumentException {
-        return new Chars(s.toCharArray());
+        if (s == null) {
+            throw new IllegalArgumentException("No null string accepted");
+        }
+        return new Str(s);
     }
 
     public abstract void writeTo(Writer writer) throws IOException;
@@ -86,7 +89,14 @@ public abstract class Text {
         }
 
         public void writeTo(Writer writer) throws IOException {
-            if (writer instanceof BinaryOutput) {
+            if (writer instanceof OutputStreamPrinter) {
+                // The bytes are never modified and can be retained by the printer
+                OutputStreamPrinter osp = (OutputStreamPrinter) writer;
+                if (charset.equals(osp.getCharset())) {
+                    osp.writeUnmodifiable(bytes, 0, bytes.length);
+                    return;
+                }
+            } else if (writer instanceof BinaryOutput) {
                 BinaryOutput osw = (BinaryOutput) writer;
                 if (charset.equals(osw.getCharset())) {
                     osw.write(bytes);
@@ -100,6 +110,25 @@ public abstract class Text {
         }
     }
 
+    private static class Str extends Text {
+
+        /** . */
+        private final String s;
+
+        private Str(String s) {
+            this.s = s;
+        }
+
+        public void writeTo(Writer writer) throws IOException {
+            writer.write(s);
+        }
+
+        @Override
+        public String toString() {
+            return s;
+        }
+    }
+
     private static class Chars extends Text {
 
         /** Inclusive from index. */
@@ -0,0 +1,60 @@
+/*
+ * Copyright (C) 2013 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.exoplatform.commons.cache;
+
+import junit.framework.TestCase;
+
+import org.exoplatform.services.cache.ExoCache;
+import org.exoplatform.services.cache.concurrent.ConcurrentFIFOExoCache;
+
+/**
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
+public class ClusterVersionTestCase extends TestCase {
+
+    public void testStamp() {
+        // Two versions sharing a cache behave as two nodes of a cluster
+        ExoCache<String, String> versions = new ConcurrentFIFOExoCache<String, String>();
+        ClusterVersion node1 = new ClusterVersion(versions, "foo");
+        ClusterVersion node2 = new ClusterVersion(versions, "foo");
+        String version = node1.get();
+        assertNotNull(version);
+        assertEquals(version, node1.get());
+        assertEquals(version, node2.get());
+
+        //
+        String stamped = node2.stamp();
+        assertFalse(version.equals(stamped));
+        assertEquals(stamped, node1.get());
+
+        // Another key has its own version
+        assertFalse(stamped.equals(new ClusterVersion(versions, "bar").get()));
+    }
+
+    public void testEvicted() {
+        ExoCache<String, String> versions = new ConcurrentFIFOExoCache<String, String>();
+        ClusterVersion node = new ClusterVersion(versions, "foo");
+        String version = node.get();
+        versions.clearCache();
+        String next = node.get();
+        assertNotNull(next);
+        assertFalse(version.equals(next));
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright (C) 2013 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.exoplatform.commons.cache.future;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import junit.framework.TestCase;
+
+/**
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
+public class RefreshAheadTestCase extends TestCase {
+
+    /** . */
+    private ExecutorService executor;
+
+    /** . */
+    private FutureMap<String, String, Callable<String>> futureCache;
+
+    @Override
+    protected void setUp() throws Exception {
+        executor = Executors.newSingleThreadExecutor();
+        futureCache = new FutureMap<String, String, Callable<String>>(new StringLoader());
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        executor.shutdownNow();
+    }
+
+    private static Callable<String> value(final String value) {
+        return new Callable<String>() {
+            public String call() throws Exception {
+                return value;
+            }
+        };
+    }
+
+    public void testStatistics() {
+        FutureCacheStatistics statistics = futureCache.getStatistics();
+        assertEquals("foo_value", futureCache.get(value("foo_value"), "foo"));
+        assertEquals("foo_value", futureCache.get(value("bar_value"), "foo"));
+        assertEquals(null, futureCache.get(new Callable<String>() {
+            public String call() throws Exception {
+                throw new Exception("DON'T FREAK OUT");
+            }
+        }, "bar"));
+        assertEquals(1, statistics.getHitCount());
+        assertEquals(2, statistics.getMissCount());
+        assertEquals(1, statistics.getLoadCount());
+        assertEquals(1, statistics.getLoadFailureCount());
+        assertEquals(0, statistics.getWaitCount());
+        assertEquals(0, statistics.getRefreshCount());
+        statistics.reset();
+        assertEquals(0, statistics.getHitCount());
+    }
+
+    public void testNoRefreshByDefault() throws Exception {
+        futureCache.get(value("foo_value_1"), "foo");
+        Thread.sleep(5);
+        assertEquals("foo_value_1", futureCache.get(value("foo_value_2"), "foo"));
+        assertEquals("foo_value_1", futureCache.get(value("foo_value_2"), "foo"));
+        assertEquals(0, futureCache.getStatistics().getRefreshCount());
+    }
+
+    public void testNoCallerBlocksOnRefresh() throws Exception {
+        futureCache.setRefreshAhead(1, TimeUnit.MILLISECONDS, executor);
+        futureCache.get(value("foo_value_1"), "foo");
+        Thread.sleep(5);
+
+        // The reload blocks until it is released
+        final CountDownLatch reloading = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger reloads = new AtomicInteger();
+        final Callable<String> blockingReload = new Callable<String>() {
+            public String call() throws Exception {
+                reloads.incrementAndGet();
+                reloading.countDown();
+                release.await();
+                return "foo_value_2";
+            }
+        };
+        assertEquals("foo_value_1", futureCache.get(blockingReload, "foo"));
+        assertTrue(reloading.await(10, TimeUnit.SECONDS));
+
+        // The hot key keeps being served while it is reloaded
+        final AtomicReference<String> failure = new AtomicReference<String>();
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int i = 0; i < 8; i++) {
+            Thread thread = new Thread() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < 1000; j++) {
+                        String value = futureCache.get(blockingReload, "foo");
+                        if (!"foo_value_1".equals(value)) {
+                            failure.set("Unexpected value " + value);
+                        }
+                    }
+                }
+            };
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join(10000);
+            assertFalse("A caller blocked on the reload", thread.isAlive());
+        }
+        assertNull(failure.get(), failure.get());
+
+        // Release the reload and wait for it
+        release.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(1, reloads.get());
+        assertEquals(1, futureCache.getStatistics().getRefreshCount());
+        assertEquals(0, futureCache.getStatistics().getWaitCount());
+        assertEquals("foo_value_2", futureCache.data.get("foo"));
+    }
+
+    public void testFailedRefreshKeepsValue() throws Exception {
+        futureCache.setRefreshAhead(1, TimeUnit.MILLISECONDS, executor);
+        futureCache.get(value("foo_value_1"), "foo");
+        Thread.sleep(5);
+        assertEquals("foo_value_1", futureCache.get(new Callable<String>() {
+            public String call() throws Exception {
+                throw new Exception("DON'T FREAK OUT");
+            }
+        }, "foo"));
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals("foo_value_1", futureCache.data.get("foo"));
+        assertEquals(1, futureCache.getStatistics().getLoadFailureCount());
+    }
+
+    public void testRefreshAfterDelay() throws Exception {
+        futureCache.setRefreshAhead(1, TimeUnit.HOURS, executor);
+        futureCache.get(value("foo_value_1"), "foo");
+        assertEquals("foo_value_1", futureCache.get(value("foo_value_2"), "foo"));
+        assertEquals(0, futureCache.getStatistics().getRefreshCount());
+    }
+
+    public void testLoadTimesBounded() throws Exception {
+        futureCache.setRefreshAhead(1, TimeUnit.HOURS, executor, 10);
+        for (int i = 0; i < 10; i++) {
+            futureCache.get(value("value_" + i), "key_" + i);
+        }
+        assertEquals(10, futureCache.getLoadTimeCount());
+
+        // The evicted keys are pruned first
+        for (int i = 0; i < 5; i++) {
+            futureCache.data.remove("key_" + i);
+        }
+        futureCache.get(value("value_10"), "key_10");
+        assertEquals(6, futureCache.getLoadTimeCount());
+
+        // The bound holds when the cache keeps more keys
+        for (int i = 11; i < 100; i++) {
+            futureCache.get(value("value_" + i), "key_" + i);
+            assertTrue(futureCache.getLoadTimeCount() <= 10);
+        }
+        assertEquals(95, futureCache.data.size());
+    }
+}
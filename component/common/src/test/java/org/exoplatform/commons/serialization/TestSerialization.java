@@ -20,10 +20,14 @@
 package org.exoplatform.commons.serialization;
 
 import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.InvalidClassException;
 import java.io.NotSerializableException;
+import java.io.StreamCorruptedException;
 
 import org.exoplatform.commons.serialization.model.TypeDomain;
 import org.exoplatform.component.test.AbstractGateInTest;
+import org.gatein.common.io.IOTools;
 
 /**
  * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
@@ -130,4 +134,119 @@ public class TestSerialization extends AbstractGateInTest {
         assertEquals("foo", g.a);
         assertEquals(null, g.b);
     }
+
+    public void testSuperTypeField() throws Exception {
+        TypeDomain domain = new TypeDomain();
+        domain.addTypeModel(C2.class);
+        SerializationContext context = new SerializationContext(domain);
+        C2 c = new C2();
+        c.a = "foo";
+        ((C1) c).a = "bar";
+        c = context.clone(c);
+        assertEquals("foo", c.a);
+        assertEquals("bar", ((C1) c).a);
+    }
+
+    public void testTypeWrittenOnce() throws Exception {
+        TypeDomain domain = new TypeDomain();
+        domain.addTypeModel(B.class);
+        SerializationContext context = new SerializationContext(domain);
+        B b = null;
+        for (int i = 0; i < 100; i++) {
+            b = new B(b);
+        }
+        byte[] bytes = context.write(b);
+        String s = new String(bytes, "ISO-8859-1");
+        int index = s.indexOf(B.class.getName());
+        assertTrue(index != -1);
+        assertEquals(-1, s.indexOf(B.class.getName(), index + 1));
+
+        //
+        b = (B) context.read(bytes);
+        int size = 0;
+        while (b != null) {
+            size++;
+            b = b.ref;
+        }
+        assertEquals(100, size);
+    }
+
+    public void testReadUndescribedType() throws Exception {
+        TypeDomain domain = new TypeDomain();
+        domain.addTypeModel(B.class);
+        byte[] bytes = new SerializationContext(domain).write(new B());
+        try {
+            new SerializationContext(new TypeDomain()).read(bytes);
+            fail();
+        } catch (InvalidClassException e) {
+        }
+    }
+
+    public void testReadWithForeignContextClassLoader() throws Exception {
+        TypeDomain domain = new TypeDomain();
+        domain.addTypeModel(B.class);
+        byte[] bytes = new SerializationContext(domain).write(new B());
+
+        // The context class loader cannot load the class, the reader falls back on its own class loader
+        Thread thread = Thread.currentThread();
+        ClassLoader tccl = thread.getContextClassLoader();
+        thread.setContextClassLoader(new ClassLoader(null) {
+        });
+        try {
+            assertTrue(new SerializationContext(new TypeDomain(true)).read(bytes) instanceof B);
+        } finally {
+            thread.setContextClassLoader(tccl);
+        }
+    }
+
+    public void testFormatVersion() throws Exception {
+        TypeDomain domain = new TypeDomain();
+        domain.addTypeModel(B.class);
+        byte[] bytes = new SerializationContext(domain).write(new B());
+
+        // The stream header is followed by the format marker and the format version
+        assertEquals(0x47, bytes[4]);
+        assertEquals(1, bytes[5]);
+
+        //
+        bytes[5] = 2;
+        try {
+            new SerializationContext(domain).read(bytes);
+            fail();
+        } catch (StreamCorruptedException e) {
+        }
+    }
+
+    public void testReadFormerFormatState() throws Exception {
+        TypeDomain domain = new TypeDomain();
+        domain.addTypeModel(A.class);
+        SerializationContext context = new SerializationContext(domain);
+        A a = (A) context.read(getResource("legacy-state.ser"));
+        assertEquals("foo", a.a);
+        assertEquals(2, a.b);
+        assertEquals(true, a.c);
+    }
+
+    public void testReadFormerFormatReferences() throws Exception {
+        TypeDomain domain = new TypeDomain();
+        domain.addTypeModel(F.class);
+        SerializationContext context = new SerializationContext(domain);
+        F f1 = (F) context.read(getResource("legacy-references.ser"));
+        assertNull(f1.parent);
+        assertEquals(1, f1.children.size());
+        assertSame(f1, f1.children.get(0).parent);
+    }
+
+    /**
+     * Returns a stream written by the former format, before the format version was written in the stream.
+     */
+    private byte[] getResource(String name) throws Exception {
+        InputStream in = TestSerialization.class.getResourceAsStream(name);
+        assertNotNull(in);
+        try {
+            return IOTools.getBytes(in);
+        } finally {
+            in.close();
+        }
+    }
 }
@@ -0,0 +1,156 @@
+/**
+ * Copyright (C) 2013 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.exoplatform.commons.utils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+import org.exoplatform.component.test.AbstractGateInTest;
+
+/**
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
+public class TestChunkedOutputStream extends AbstractGateInTest {
+
+    private ByteArrayOutputStream bytes;
+    private BufferPool pool;
+    private ChunkedOutputStream out;
+
+    @Override
+    protected void setUp() throws Exception {
+        bytes = new ByteArrayOutputStream();
+        pool = new BufferPool(4, 2);
+        out = new ChunkedOutputStream(bytes, pool);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        bytes = null;
+        pool = null;
+        out = null;
+    }
+
+    public void testWrite() throws Exception {
+        out.write(0);
+        out.write(new byte[] { 1, 2, 3, 4, 5, 6, 7, 8, 9 });
+        out.write(10);
+        assertEquals(11, out.size());
+        assertBytes();
+        out.flush();
+        assertBytes(0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10);
+        assertEquals(0, out.size());
+        assertEquals(2, pool.getSize());
+        out.write(11);
+        assertEquals(1, pool.getSize());
+        out.close();
+        assertBytes(11);
+        assertEquals(2, pool.getSize());
+    }
+
+    public void testAppend() throws Exception {
+        byte[] slice = new byte[ChunkedOutputStream.MIN_SLICE_LENGTH + 2];
+        Arrays.fill(slice, (byte) 1);
+        out.write(0);
+        out.append(slice, 1, ChunkedOutputStream.MIN_SLICE_LENGTH);
+        out.write(2);
+
+        // The slice is retained and not copied
+        slice[2] = 3;
+        out.flush();
+        byte[] expected = new byte[ChunkedOutputStream.MIN_SLICE_LENGTH + 2];
+        Arrays.fill(expected, (byte) 1);
+        expected[0] = 0;
+        expected[2] = 3;
+        expected[expected.length - 1] = 2;
+        assertTrue(Arrays.equals(expected, bytes.toByteArray()));
+    }
+
+    public void testAppendShortSlice() throws Exception {
+        byte[] slice = { 0, 1, 2 };
+        out.append(slice, 0, 3);
+        slice[0] = 3;
+        out.flush();
+        assertBytes(0, 1, 2);
+    }
+
+    public void testReleaseOnFailure() throws Exception {
+        out = new ChunkedOutputStream(new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException();
+            }
+        }, pool);
+        out.write(new byte[] { 0, 1, 2, 3, 4 });
+        try {
+            out.flush();
+            fail();
+        } catch (IOException expected) {
+        }
+        assertEquals(0, out.size());
+        assertEquals(2, pool.getSize());
+    }
+
+    public void testStreamClose() throws Exception {
+        out.close();
+        try {
+            out.write(0);
+            fail();
+        } catch (IOException ignore) {
+        }
+        try {
+            out.flush();
+            fail();
+        } catch (IOException ignore) {
+        }
+        try {
+            out.close();
+            fail();
+        } catch (IOException ignore) {
+        }
+    }
+
+    public void testPool() throws Exception {
+        BufferPool pool = new BufferPool(4, 1);
+        byte[] chunk1 = pool.acquire();
+        byte[] chunk2 = pool.acquire();
+        assertEquals(4, chunk1.length);
+        pool.release(chunk1);
+        pool.release(chunk2);
+        assertEquals(1, pool.getSize());
+        assertSame(chunk1, pool.acquire());
+        assertEquals(0, pool.getSize());
+        try {
+            pool.release(new byte[3]);
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    private void assertBytes(int... expectedBytes) {
+        byte[] actualBytes = bytes.toByteArray();
+        assertEquals(expectedBytes.length, actualBytes.length);
+        for (int i = 0; i < expectedBytes.length; i++) {
+            assertEquals("Was expecting byte at index " + i, expectedBytes[i], actualBytes[i]);
+        }
+        bytes.reset();
+    }
+}
@@ -18,8 +18,12 @@
  */
 package org.exoplatform.commons.utils;
 
+import java.io.StringWriter;
+
 import junit.framework.TestCase;
 
+import org.gatein.common.text.CharWriter;
+
 /**
  * @author <a href="trongtt@gmail.com">Trong Tran</a>
  * @version $Revision$
@@ -80,4 +84,43 @@ public class TestHTMLEntityEncoder extends TestCase {
         assertEquals("&lt;h1&gt;HELLO WORLD&lt;&#x2f;h1&gt;", htmlEncoder.encodeIfNotEncoded("&lt;h1&gt;HELLO WORLD&lt;&#x2f;h1&gt;"));
         assertEquals("alert&#x28;&#x27;HELLO WORLD&#x27;&#x29;", htmlEncoder.encodeIfNotEncoded("alert&#x28;&#x27;HELLO WORLD&#x27;&#x29;"));
     }
+
+    public void testNoEncoding() {
+        String s = new String("Site Map");
+        assertSame(s, htmlEncoder.encodeHTML(s));
+        s = new String("Site_Map-1.0");
+        assertSame(s, htmlEncoder.encodeHTMLAttribute(s));
+        assertEquals("", htmlEncoder.encodeHTML(""));
+    }
+
+    public void testNonLatin1Encoding() {
+        assertEquals("&#x4e2d;&#x6587;", htmlEncoder.encodeHTML("\u4e2d\u6587"));
+        assertEquals("a&#x20ac;b", htmlEncoder.encodeHTMLAttribute("a\u20acb").replace("&euro;", "&#x20ac;"));
+    }
+
+    public void testStreamingEncoding() throws Exception {
+        StringWriter writer = new StringWriter();
+        htmlEncoder.encodeHTML("<h1>HELLO WORLD</h1>", writer);
+        writer.write('|');
+        htmlEncoder.encodeHTMLAttribute("HELLO WORLD", writer);
+        writer.write('|');
+        htmlEncoder.encodeHTMLAttribute("plain", writer);
+        assertEquals("&lt;h1&gt;HELLO WORLD&lt;&#x2f;h1&gt;|HELLO&#x20;WORLD|plain", writer.toString());
+    }
+
+    public void testSafeEncodeWithOffset() {
+        final StringBuilder sb = new StringBuilder();
+        htmlEncoder.safeEncode("xx<a>xx".toCharArray(), 2, 3, new CharWriter() {
+            public CharWriter append(char c) {
+                sb.append(c);
+                return this;
+            }
+
+            public CharWriter append(char[] chars, int off, int len) {
+                sb.append(chars, off, len);
+                return this;
+            }
+        });
+        assertEquals("&lt;a&gt;", sb.toString());
+    }
 }
@@ -69,6 +69,9 @@ public class RestResource {
     /** . */
     private final List<RestResourceMethod> methods;
 
+    /** The methods indexed by name. */
+    private final Map<String, List<RestResourceMethod>> methodsByName;
+
     /** . */
     private final ManagedResource managedResource;
 
@@ -93,9 +96,16 @@ public class RestResource {
 
         //
         List<RestResourceMethod> methods = new ArrayList<RestResourceMethod>();
+        Map<String, List<RestResourceMethod>> methodsByName = new HashMap<String, List<RestResourceMethod>>();
         for (ManagedMethodMetaData managedMethod : managedType.getMethods()) {
             RestResourceMethod resourceMethod = new RestResourceMethod(managedMethod);
             methods.add(resourceMethod);
+            List<RestResourceMethod> overloads = methodsByName.get(resourceMethod.getName());
+            if (overloads == null) {
+                overloads = new ArrayList<RestResourceMethod>(1);
+                methodsByName.put(resourceMethod.getName(), overloads);
+            }
+            overloads.add(resourceMethod);
         }
 
         //
@@ -104,6 +114,7 @@ public class RestResource {
         this.managedResource = managedResource;
         this.properties = Collections.unmodifiableMap(properties);
         this.methods = methods;
+        this.methodsByName = methodsByName;
     }
 
     public String getName() {
@@ -195,10 +206,12 @@ public class RestResource {
     }
 
     private RestResourceMethod lookupMethod(String methodName, Set<String> argNames, ImpactType impact) {
-        for (RestResourceMethod method : methods) {
-            if (method.getName().equals(methodName) && method.metaData.getImpact() == impact
-                    && method.parameterNames.equals(argNames)) {
-                return method;
+        List<RestResourceMethod> overloads = methodsByName.get(methodName);
+        if (overloads != null) {
+            for (RestResourceMethod method : overloads) {
+                if (method.metaData.getImpact() == impact && method.parameterNames.equals(argNames)) {
+                    return method;
+                }
             }
         }
         return null;
@@ -234,6 +247,9 @@ public class RestResource {
             }
             /* because e.getMessage() is null in InvocationTargetException, we use cause.getMessage() if available */
             throw new WebApplicationException(Response.serverError().entity(cause != null ? cause.getMessage() : e.getMessage()).build());
+        } catch (IllegalArgumentException e) {
+            // A parameter value could not be converted to the method argument
+            throw new WebApplicationException(Response.status(Response.Status.BAD_REQUEST).entity(e.getMessage()).build());
         } finally {
             managedResource.afterInvoke(resource);
         }
@@ -0,0 +1,307 @@
+/*
+ * Copyright (C) 2013 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.exoplatform.management.invocation;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Converts the request values of a parameter to an argument. A converter is resolved once for a parameter type and then
+ * reused for every invocation.
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
+abstract class ArgumentConverter {
+
+    /** The wrapper of each primitive type. */
+    private static final Map<Class<?>, Class<?>> WRAPPERS = new HashMap<Class<?>, Class<?>>();
+
+    static {
+        WRAPPERS.put(boolean.class, Boolean.class);
+        WRAPPERS.put(byte.class, Byte.class);
+        WRAPPERS.put(short.class, Short.class);
+        WRAPPERS.put(int.class, Integer.class);
+        WRAPPERS.put(long.class, Long.class);
+        WRAPPERS.put(float.class, Float.class);
+        WRAPPERS.put(double.class, Double.class);
+        WRAPPERS.put(char.class, Character.class);
+    }
+
+    /**
+     * Returns the converter for a parameter type.
+     *
+     * @param type the parameter type
+     * @return the converter
+     * @throws UnsupportedOperationException if the type cannot be converted
+     */
+    static ArgumentConverter create(Type type) throws UnsupportedOperationException {
+        if (type instanceof Class<?>) {
+            Class<?> clazz = (Class<?>) type;
+            if (clazz.isArray()) {
+                Class<?> componentType = clazz.getComponentType();
+                return new ArrayConverter(componentType, createScalar(componentType));
+            } else if (clazz == List.class || clazz == Collection.class) {
+                return new ListConverter(false, StringConverter.INSTANCE);
+            } else if (clazz == Set.class) {
+                return new ListConverter(true, StringConverter.INSTANCE);
+            } else {
+                return createScalar(clazz);
+            }
+        } else if (type instanceof ParameterizedType) {
+            ParameterizedType parameterizedType = (ParameterizedType) type;
+            Type rawType = parameterizedType.getRawType();
+            Type elementType = parameterizedType.getActualTypeArguments()[0];
+            if (elementType instanceof Class<?>) {
+                if (rawType == List.class || rawType == Collection.class) {
+                    return new ListConverter(false, createScalar((Class<?>) elementType));
+                } else if (rawType == Set.class) {
+                    return new ListConverter(true, createScalar((Class<?>) elementType));
+                }
+            }
+        }
+        throw new UnsupportedOperationException("Unsupported parameter type " + type);
+    }
+
+    private static ScalarConverter createScalar(Class<?> type) throws UnsupportedOperationException {
+        if (type == String.class || type == Object.class) {
+            return StringConverter.INSTANCE;
+        }
+        boolean primitive = type.isPrimitive();
+        Class<?> boxedType = primitive ? WRAPPERS.get(type) : type;
+        if (boxedType == Character.class) {
+            return new CharacterConverter(primitive);
+        } else if (boxedType.isEnum()) {
+            return new EnumConverter(boxedType);
+        }
+        try {
+            Method valueOf = boxedType.getMethod("valueOf", String.class);
+            if (Modifier.isStatic(valueOf.getModifiers()) && boxedType.isAssignableFrom(valueOf.getReturnType())) {
+                return new ValueOfConverter(valueOf, primitive);
+            }
+        } catch (NoSuchMethodException ignore) {
+        }
+        try {
+            return new ConstructorConverter(boxedType.getConstructor(String.class));
+        } catch (NoSuchMethodException ignore) {
+        }
+        throw new UnsupportedOperationException("Unsupported parameter type " + type);
+    }
+
+    /**
+     * Converts the values of a parameter.
+     *
+     * @param name the parameter name
+     * @param values the values or null when the parameter is absent
+     * @return the argument
+     * @throws IllegalArgumentException if a value cannot be converted
+     */
+    abstract Object convert(String name, List<String> values) throws IllegalArgumentException;
+
+    /**
+     * Converts a single value, the first value of a parameter is used.
+     */
+    abstract static class ScalarConverter extends ArgumentConverter {
+
+        /** . */
+        private final boolean primitive;
+
+        ScalarConverter(boolean primitive) {
+            this.primitive = primitive;
+        }
+
+        @Override
+        final Object convert(String name, List<String> values) throws IllegalArgumentException {
+            if (values == null || values.isEmpty()) {
+                if (primitive) {
+                    throw new IllegalArgumentException("No value for parameter " + name);
+                }
+                return null;
+            } else {
+                return convertValue(name, values.get(0));
+            }
+        }
+
+        abstract Object convertValue(String name, String value) throws IllegalArgumentException;
+
+        final IllegalArgumentException invalidValue(String name, String value, Throwable cause) {
+            IllegalArgumentException e = new IllegalArgumentException("Invalid value " + value + " for parameter " + name);
+            e.initCause(cause);
+            return e;
+        }
+    }
+
+    static class StringConverter extends ScalarConverter {
+
+        /** . */
+        static final StringConverter INSTANCE = new StringConverter();
+
+        private StringConverter() {
+            super(false);
+        }
+
+        @Override
+        Object convertValue(String name, String value) {
+            return value;
+        }
+    }
+
+    static class CharacterConverter extends ScalarConverter {
+
+        CharacterConverter(boolean primitive) {
+            super(primitive);
+        }
+
+        @Override
+        Object convertValue(String name, String value) throws IllegalArgumentException {
+            if (value.length() != 1) {
+                throw invalidValue(name, value, null);
+            }
+            return value.charAt(0);
+        }
+    }
+
+    static class EnumConverter extends ScalarConverter {
+
+        /** . */
+        private final Class enumType;
+
+        EnumConverter(Class<?> enumType) {
+            super(false);
+            this.enumType = enumType;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        Object convertValue(String name, String value) throws IllegalArgumentException {
+            try {
+                return Enum.valueOf(enumType, value);
+            } catch (IllegalArgumentException e) {
+                throw invalidValue(name, value, e);
+            }
+        }
+    }
+
+    static class ValueOfConverter extends ScalarConverter {
+
+        /** . */
+        private final Method valueOf;
+
+        ValueOfConverter(Method valueOf, boolean primitive) {
+            super(primitive);
+            this.valueOf = valueOf;
+        }
+
+        @Override
+        Object convertValue(String name, String value) throws IllegalArgumentException {
+            try {
+                return valueOf.invoke(null, value);
+            } catch (InvocationTargetException e) {
+                throw invalidValue(name, value, e.getCause());
+            } catch (IllegalAccessException e) {
+                throw invalidValue(name, value, e);
+            }
+        }
+    }
+
+    static class ConstructorConverter extends ScalarConverter {
+
+        /** . */
+        private final Constructor<?> constructor;
+
+        ConstructorConverter(Constructor<?> constructor) {
+            super(false);
+            this.constructor = constructor;
+        }
+
+        @Override
+        Object convertValue(String name, String value) throws IllegalArgumentException {
+            try {
+                return constructor.newInstance(value);
+            } catch (InvocationTargetException e) {
+                throw invalidValue(name, value, e.getCause());
+            } catch (Exception e) {
+                throw invalidValue(name, value, e);
+            }
+        }
+    }
+
+    static class ArrayConverter extends ArgumentConverter {
+
+        /** . */
+        private final Class<?> componentType;
+
+        /** . */
+        private final ScalarConverter converter;
+
+        ArrayConverter(Class<?> componentType, ScalarConverter converter) {
+            this.componentType = componentType;
+            this.converter = converter;
+        }
+
+        @Override
+        Object convert(String name, List<String> values) throws IllegalArgumentException {
+            int size = values != null ? values.size() : 0;
+            Object array = Array.newInstance(componentType, size);
+            for (int i = 0; i < size; i++) {
+                Array.set(array, i, converter.convertValue(name, values.get(i)));
+            }
+            return array;
+        }
+    }
+
+    static class ListConverter extends ArgumentConverter {
+
+        /** . */
+        private final boolean set;
+
+        /** . */
+        private final ScalarConverter converter;
+
+        ListConverter(boolean set, ScalarConverter converter) {
+            this.set = set;
+            this.converter = converter;
+        }
+
+        @Override
+        Object convert(String name, List<String> values) throws IllegalArgumentException {
+            if (values == null || values.isEmpty()) {
+                return set ? Collections.emptySet() : Collections.emptyList();
+            }
+            Collection<Object> collection = set ? new LinkedHashSet<Object>() : new ArrayList<Object>(values.size());
+            for (String value : values) {
+                collection.add(converter.convertValue(name, value));
+            }
+            return collection;
+        }
+    }
+}
@@ -21,51 +21,84 @@ package org.exoplatform.management.invocation;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.lang.reflect.Type;
 import java.util.List;
 import java.util.Map;
 
 
 /**
+ * Invokes a method with the arguments converted from the request parameters. The name and the converter of each
+ * argument are resolved on the first invocation and reused afterwards. Strings, primitive types and their wrappers, enums,
+ * types having a static <code>valueOf(String)</code> method or a <code>String</code> constructor are supported as well as
+ * arrays, lists and sets of those types which receive all the values of a parameter.
+ *
  * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
  * @version $Revision$
  */
 public abstract class SimpleMethodInvoker implements MethodInvoker {
 
+    /** . */
+    private static final Object[] NO_ARGS = new Object[0];
+
     /** The method we invoke. */
     private final Method method;
 
+    /** The argument names, lazily resolved. */
+    private volatile String[] argumentNames;
+
+    /** The argument converters, lazily resolved. */
+    private volatile ArgumentConverter[] converters;
+
     public SimpleMethodInvoker(Method method) {
         if (method == null) {
             throw new NullPointerException();
         }
 
+        // Avoid the access check on each invocation
+        try {
+            method.setAccessible(true);
+        } catch (SecurityException ignore) {
+        }
+
         //
         this.method = method;
     }
 
     public Object invoke(Object o, Map<String, List<String>> argMap) throws IllegalAccessException, InvocationTargetException {
-        Class[] paramTypes = method.getParameterTypes();
-        Object[] args = new Object[paramTypes.length];
-        for (int i = 0; i < paramTypes.length; i++) {
-            String argName = getArgumentName(i);
-            List<String> argValues = argMap.get(argName);
-            Class paramType = paramTypes[i];
-            Object arg;
-            if (paramType.isPrimitive()) {
-                throw new UnsupportedOperationException("Todo " + paramType);
-            } else if (paramType.isArray()) {
-                throw new UnsupportedOperationException("Todo " + paramType);
-            } else if (paramType == String.class) {
-                arg = (argValues != null && argValues.size() > 0) ? argValues.get(0) : null;
-            } else {
-                throw new UnsupportedOperationException("Todo " + paramType);
+        ArgumentConverter[] converters = this.converters;
+        if (converters == null) {
+            converters = resolve();
+        }
+        String[] argumentNames = this.argumentNames;
+
+        //
+        Object[] args;
+        if (converters.length == 0) {
+            args = NO_ARGS;
+        } else {
+            args = new Object[converters.length];
+            for (int i = 0; i < converters.length; i++) {
+                String argName = argumentNames[i];
+                args[i] = converters[i].convert(argName, argMap.get(argName));
             }
-            args[i] = arg;
         }
 
         //
         return method.invoke(o, args);
     }
 
+    private ArgumentConverter[] resolve() {
+        Type[] paramTypes = method.getGenericParameterTypes();
+        String[] argumentNames = new String[paramTypes.length];
+        ArgumentConverter[] converters = new ArgumentConverter[paramTypes.length];
+        for (int i = 0; i < paramTypes.length; i++) {
+            argumentNames[i] = getArgumentName(i);
+            converters[i] = ArgumentConverter.create(paramTypes[i]);
+        }
+        this.argumentNames = argumentNames;
+        this.converters = converters;
+        return converters;
+    }
+
     protected abstract String getArgumentName(int index);
 }
@@ -0,0 +1,172 @@
+/*
+ * Copyright (C) 2013 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.exoplatform.management.invocation;
+
+import java.lang.annotation.ElementType;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import junit.framework.TestCase;
+
+/**
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
+public class TestSimpleMethodInvoker extends TestCase {
+
+    public static class Bean {
+
+        public String getName() {
+            return "foo";
+        }
+
+        public String string(String value) {
+            return value;
+        }
+
+        public long primitive(int i, boolean b, char c, double d) {
+            return i + (b ? 1 : 0) + c + (long) d;
+        }
+
+        public Integer wrapper(Integer value) {
+            return value;
+        }
+
+        public ElementType enumeration(ElementType value) {
+            return value;
+        }
+
+        public int sum(int[] values) {
+            int sum = 0;
+            for (int value : values) {
+                sum += value;
+            }
+            return sum;
+        }
+
+        public List<Long> list(List<Long> values) {
+            return values;
+        }
+
+        public Set<String> set(Set<String> values) {
+            return values;
+        }
+
+        public Object unsupported(Runnable runnable) {
+            return runnable;
+        }
+    }
+
+    private Object invoke(String methodName, Object... args) throws Exception {
+        Method method = null;
+        for (Method m : Bean.class.getMethods()) {
+            if (m.getName().equals(methodName)) {
+                method = m;
+            }
+        }
+        final String[] names = new String[method.getParameterTypes().length];
+        Map<String, List<String>> argMap = new HashMap<String, List<String>>();
+        for (int i = 0; i < names.length; i++) {
+            names[i] = "arg" + i;
+            Object arg = args[i];
+            if (arg instanceof String) {
+                argMap.put(names[i], Arrays.asList((String) arg));
+            } else if (arg instanceof String[]) {
+                argMap.put(names[i], Arrays.asList((String[]) arg));
+            }
+        }
+        MethodInvoker invoker = new SimpleMethodInvoker(method) {
+            @Override
+            protected String getArgumentName(int index) {
+                return names[index];
+            }
+        };
+        return invoker.invoke(new Bean(), argMap);
+    }
+
+    public void testGetter() throws Exception {
+        GetterInvoker invoker = new GetterInvoker(Bean.class.getMethod("getName"));
+        assertEquals("foo", invoker.invoke(new Bean(), new HashMap<String, List<String>>()));
+        assertEquals("foo", invoker.invoke(new Bean(), new HashMap<String, List<String>>()));
+    }
+
+    public void testString() throws Exception {
+        assertEquals("foo", invoke("string", "foo"));
+        assertEquals("foo", invoke("string", (Object) new String[] { "foo", "bar" }));
+        assertEquals(null, invoke("string", (Object) null));
+    }
+
+    public void testPrimitive() throws Exception {
+        assertEquals(3L + 1 + 'a' + 2, invoke("primitive", "3", "true", "a", "2.5"));
+        try {
+            invoke("primitive", null, "true", "a", "2.5");
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+        try {
+            invoke("primitive", "three", "true", "a", "2.5");
+            fail();
+        } catch (IllegalArgumentException expected) {
+            assertTrue(expected.getCause() instanceof NumberFormatException);
+        }
+        try {
+            invoke("primitive", "3", "true", "ab", "2.5");
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    public void testWrapper() throws Exception {
+        assertEquals(3, invoke("wrapper", "3"));
+        assertEquals(null, invoke("wrapper", (Object) null));
+    }
+
+    public void testEnum() throws Exception {
+        assertEquals(ElementType.METHOD, invoke("enumeration", "METHOD"));
+        try {
+            invoke("enumeration", "method");
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    public void testArray() throws Exception {
+        assertEquals(6, invoke("sum", (Object) new String[] { "1", "2", "3" }));
+        assertEquals(0, invoke("sum", (Object) null));
+    }
+
+    public void testMultiValued() throws Exception {
+        assertEquals(Arrays.asList(1L, 2L), invoke("list", (Object) new String[] { "1", "2" }));
+        assertEquals(new LinkedHashSet<String>(Arrays.asList("a", "b")), invoke("set", (Object) new String[] { "a", "b", "a" }));
+        assertEquals(0, ((Set<?>) invoke("set", (Object) null)).size());
+    }
+
+    public void testUnsupported() throws Exception {
+        try {
+            invoke("unsupported", "foo");
+            fail();
+        } catch (UnsupportedOperationException expected) {
+        }
+    }
+}
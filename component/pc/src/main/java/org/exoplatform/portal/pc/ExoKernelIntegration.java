@@ -23,6 +23,10 @@ import org.exoplatform.commons.utils.PropertyManager;
 import org.exoplatform.container.ExoContainer;
 import org.exoplatform.container.ExoContainerContext;
 import org.exoplatform.portal.pc.aspects.PortletLifecyclePhaseInterceptor;
+import org.exoplatform.portal.pc.aspects.PublicMarkupCacheInterceptor;
+import org.exoplatform.portal.pc.aspects.TimingInterceptor;
+import org.exoplatform.services.cache.CacheService;
+import org.exoplatform.services.cache.ExoCache;
 import org.exoplatform.services.resources.ResourceBundleService;
 import org.gatein.common.logging.Logger;
 import org.gatein.common.logging.LoggerFactory;
@@ -60,6 +64,9 @@ import org.picocontainer.Startable;
  */
 public class ExoKernelIntegration implements Startable, WebAppListener {
 
+    /** The default threshold in milliseconds above which a portlet invocation is logged. */
+    private static final long DEFAULT_SLOW_THRESHOLD = 1000;
+
     /** . */
     protected PortletApplicationDeployer portletApplicationRegistry;
 
@@ -111,31 +118,35 @@ public class ExoKernelIntegration implements Startable, WebAppListener {
         FederatingPortletInvoker federatingPortletInvoker = new FederatingPortletInvokerService();
 
         EventPayloadInterceptor eventPayloadInterceptor = new EventPayloadInterceptor();
-        eventPayloadInterceptor.setNext(portletContainerDispatcher);
         RequestAttributeConversationInterceptor requestAttributeConversationInterceptor = new RequestAttributeConversationInterceptor();
-        requestAttributeConversationInterceptor.setNext(eventPayloadInterceptor);
         CCPPInterceptor ccppInterceptor = new CCPPInterceptor();
-        ccppInterceptor.setNext(requestAttributeConversationInterceptor);
         BridgeInterceptor bridgepInterceptor = new BridgeInterceptor();
-        bridgepInterceptor.setNext(ccppInterceptor);
         ProducerCacheInterceptor producerCacheInterceptor = new ProducerCacheInterceptor();
-        producerCacheInterceptor.setNext(bridgepInterceptor);
 
         // SessionInvalidatorInterceptor is not needed as we have cross-context logout at WCI level
         // SessionInvalidatorInterceptor sessionInvalidatorInterceptor = new SessionInvalidatorInterceptor();
-        // sessionInvalidatorInterceptor.setNext(producerCacheInterceptor);
         ContextDispatcherInterceptor contextDispatcherInterceptor = new ContextDispatcherInterceptor();
-        contextDispatcherInterceptor.setNext(producerCacheInterceptor);
         PortletLifecyclePhaseInterceptor portletLifecyclePhaseInterceptor = new PortletLifecyclePhaseInterceptor();
-        portletLifecyclePhaseInterceptor.setNext(contextDispatcherInterceptor);
         SecureTransportInterceptor secureTransportInterceptor = new SecureTransportInterceptor();
-        secureTransportInterceptor.setNext(portletLifecyclePhaseInterceptor);
         ValveInterceptor valveInterceptor = new ValveInterceptor();
         valveInterceptor.setPortletApplicationRegistry(portletApplicationRegistry);
-        valveInterceptor.setNext(secureTransportInterceptor);
+
+        // The stack from the first interceptor to the dispatcher
+        PortletInvoker[] stack = { valveInterceptor, secureTransportInterceptor, portletLifecyclePhaseInterceptor,
+                contextDispatcherInterceptor, producerCacheInterceptor, bridgepInterceptor, ccppInterceptor,
+                requestAttributeConversationInterceptor, eventPayloadInterceptor, portletContainerDispatcher };
+
+        // Optionally wraps each stage with a timing interceptor
+        PortletInvocationStatisticService statisticService = createStatisticService(stack,
+                PropertyManager.getProperty("gatein.portlet.statistics.enabled"),
+                PropertyManager.getProperty("gatein.portlet.statistics.slow_threshold"));
+        if (statisticService != null) {
+            container.registerComponentInstance(PortletInvocationStatisticService.class, statisticService);
+        }
+        PortletInvoker first = link(stack, statisticService);
 
         // The portlet container invoker continued
-        containerPortletInvoker.setNext(valveInterceptor);
+        containerPortletInvoker.setNext(first);
 
         // register container invoker so that WSRP can use it, WSRP uses its own ProducerPortletInvoker
         container.registerComponentInstance(ContainerPortletInvoker.class, containerPortletInvoker);
@@ -169,7 +180,21 @@ public class ExoKernelIntegration implements Startable, WebAppListener {
         ConsumerCacheInterceptor consumerCacheInterceptor = new ConsumerCacheInterceptor();
         consumerCacheInterceptor.setNext(portletCustomizationInterceptor);
         PortletInvokerInterceptor consumerPortletInvoker = new PortletInvokerInterceptor();
-        consumerPortletInvoker.setNext(consumerCacheInterceptor);
+
+        // The markup of the public fragments is optionally shared among the anonymous users
+        CacheService cacheService = (CacheService) container.getComponentInstanceOfType(CacheService.class);
+        if (cacheService != null && "true".equals(PropertyManager.getProperty("gatein.portlet.markup.cache.enabled"))) {
+            ExoCache<PublicMarkupCacheInterceptor.Key, PublicMarkupCacheInterceptor.Entry> publicMarkupCache = cacheService
+                    .getCacheInstance("PublicPortletMarkup");
+            ExoCache<String, String> publicMarkupVersions = cacheService.getCacheInstance("PublicPortletMarkupVersion");
+            PublicMarkupCacheInterceptor publicMarkupCacheInterceptor = new PublicMarkupCacheInterceptor(publicMarkupCache,
+                    publicMarkupVersions);
+            publicMarkupCacheInterceptor.setNext(consumerCacheInterceptor);
+            consumerPortletInvoker.setNext(publicMarkupCacheInterceptor);
+            container.registerComponentInstance(PublicMarkupCacheInterceptor.class, publicMarkupCacheInterceptor);
+        } else {
+            consumerPortletInvoker.setNext(consumerCacheInterceptor);
+        }
 
         // register federating portlet and consumerPortletInvoker invoker with container
         container.registerComponentInstance(PortletInvoker.class, consumerPortletInvoker);
@@ -179,6 +204,62 @@ public class ExoKernelIntegration implements Startable, WebAppListener {
         ServletContainerFactory.getServletContainer().addWebAppListener(this);
     }
 
+    /**
+     * Creates the statistic service of the invocation chain when the statistics are enabled.
+     *
+     * @param stack the stages of the chain
+     * @param enabled the value of the <code>gatein.portlet.statistics.enabled</code> property
+     * @param threshold the value of the <code>gatein.portlet.statistics.slow_threshold</code> property
+     * @return the statistic service or null when the statistics are disabled
+     */
+    PortletInvocationStatisticService createStatisticService(PortletInvoker[] stack, String enabled, String threshold) {
+        if (!"true".equals(enabled)) {
+            return null;
+        }
+        String[] stages = new String[stack.length];
+        for (int i = 0; i < stack.length; i++) {
+            stages[i] = stack[i].getClass().getSimpleName();
+        }
+        long slowThreshold = DEFAULT_SLOW_THRESHOLD;
+        if (threshold != null) {
+            try {
+                slowThreshold = Long.parseLong(threshold.trim());
+            } catch (NumberFormatException e) {
+                log.error("Invalid slow invocation threshold " + threshold + ", using " + slowThreshold + "ms instead");
+            }
+        }
+        return new PortletInvocationStatisticService(stages, slowThreshold);
+    }
+
+    /**
+     * Links the stages of the chain, each stage is wrapped with a timing interceptor when a statistic service is provided.
+     *
+     * @param stack the stages, all of them but the last one are interceptors
+     * @param statisticService the statistic service or null
+     * @return the first invoker of the chain
+     */
+    static PortletInvoker link(PortletInvoker[] stack, PortletInvocationStatisticService statisticService) {
+        PortletInvoker first = null;
+        PortletInvokerInterceptor last = null;
+        for (int i = 0; i < stack.length; i++) {
+            PortletInvoker stage = stack[i];
+            if (statisticService != null) {
+                TimingInterceptor timingInterceptor = new TimingInterceptor(statisticService, i);
+                timingInterceptor.setNext(stage);
+                stage = timingInterceptor;
+            }
+            if (last != null) {
+                last.setNext(stage);
+            } else {
+                first = stage;
+            }
+            if (i + 1 < stack.length) {
+                last = (PortletInvokerInterceptor) stack[i];
+            }
+        }
+        return first;
+    }
+
     public void stop() {
         ServletContainerFactory.getServletContainer().removeWebAppListener(this);
         if (!producerPortletInvokerSet || !PropertyManager.isDevelopping()) {
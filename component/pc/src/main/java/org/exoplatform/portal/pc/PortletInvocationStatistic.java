@@ -0,0 +1,165 @@
+/**
+ * Copyright (C) 2013 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.exoplatform.portal.pc;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The timing histogram of a stage of the portlet invocation chain for a portlet and a lifecycle phase. The recorded time
+ * includes the time spent in the following stages of the chain. The histogram uses fixed buckets so recording a value is
+ * a few atomic increments.
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
+public class PortletInvocationStatistic {
+
+    /** The upper bounds of the buckets in milliseconds, the last bucket is unbounded. */
+    static final long[] BUCKETS = { 1, 2, 5, 10, 20, 50, 100, 200, 500, 1000, 2000, 5000 };
+
+    /** . */
+    private final String stage;
+
+    /** . */
+    private final String portletId;
+
+    /** . */
+    private final String phase;
+
+    /** . */
+    private final AtomicLongArray counts;
+
+    /** . */
+    private final AtomicLong count;
+
+    /** The total time in nanoseconds. */
+    private final AtomicLong total;
+
+    /** The maximum time in nanoseconds. */
+    private final AtomicLong max;
+
+    public PortletInvocationStatistic(String stage, String portletId, String phase) {
+        this.stage = stage;
+        this.portletId = portletId;
+        this.phase = phase;
+        this.counts = new AtomicLongArray(BUCKETS.length + 1);
+        this.count = new AtomicLong();
+        this.total = new AtomicLong();
+        this.max = new AtomicLong();
+    }
+
+    public String getStage() {
+        return stage;
+    }
+
+    public String getPortletId() {
+        return portletId;
+    }
+
+    public String getPhase() {
+        return phase;
+    }
+
+    /**
+     * Records a time.
+     *
+     * @param nanos the time in nanoseconds
+     */
+    public void record(long nanos) {
+        long millis = nanos / 1000000L;
+        int bucket = 0;
+        while (bucket < BUCKETS.length && millis > BUCKETS[bucket]) {
+            bucket++;
+        }
+        counts.incrementAndGet(bucket);
+        count.incrementAndGet();
+        total.addAndGet(nanos);
+        for (long current = max.get(); nanos > current; current = max.get()) {
+            if (max.compareAndSet(current, nanos)) {
+                break;
+            }
+        }
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    /**
+     * Returns the average time in milliseconds or -1 when nothing was recorded.
+     *
+     * @return the average time
+     */
+    public double getAverageTime() {
+        long count = this.count.get();
+        return count == 0 ? -1 : total.get() / (count * 1000000D);
+    }
+
+    /**
+     * Returns the maximum time in milliseconds.
+     *
+     * @return the maximum time
+     */
+    public double getMaxTime() {
+        return max.get() / 1000000D;
+    }
+
+    /**
+     * Returns the total time in milliseconds.
+     *
+     * @return the total time
+     */
+    public double getTotalTime() {
+        return total.get() / 1000000D;
+    }
+
+    /**
+     * Returns the counts of the histogram buckets.
+     *
+     * @return the bucket counts
+     */
+    public long[] getHistogram() {
+        long[] histogram = new long[counts.length()];
+        for (int i = 0; i < histogram.length; i++) {
+            histogram[i] = counts.get(i);
+        }
+        return histogram;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(stage).append(" ").append(portletId).append(" ").append(phase);
+        sb.append(" count=").append(getCount());
+        sb.append(" avg=").append(String.format("%.3f", getAverageTime())).append("ms");
+        sb.append(" max=").append(String.format("%.3f", getMaxTime())).append("ms");
+        sb.append(" histogram=[");
+        long[] histogram = getHistogram();
+        for (int i = 0; i < histogram.length; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(i < BUCKETS.length ? "<=" + BUCKETS[i] : ">" + BUCKETS[BUCKETS.length - 1]).append("ms:");
+            sb.append(histogram[i]);
+        }
+        sb.append("]");
+        return sb.toString();
+    }
+}
@@ -0,0 +1,242 @@
+/**
+ * Copyright (C) 2013 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.exoplatform.portal.pc;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.portlet.PortletRequest;
+
+import org.exoplatform.management.annotations.Impact;
+import org.exoplatform.management.annotations.ImpactType;
+import org.exoplatform.management.annotations.Managed;
+import org.exoplatform.management.annotations.ManagedDescription;
+import org.exoplatform.management.annotations.ManagedName;
+import org.exoplatform.management.jmx.annotations.NameTemplate;
+import org.exoplatform.management.jmx.annotations.Property;
+import org.exoplatform.management.rest.annotations.RESTEndpoint;
+import org.gatein.common.logging.Logger;
+import org.gatein.common.logging.LoggerFactory;
+
+/**
+ * Collects the timings of the stages of the portlet container invocation chain, per portlet and per lifecycle phase, and
+ * logs the invocations slower than a configurable threshold with the time spent in each stage.
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
+@Managed
+@ManagedDescription("Portlet invocation statistic service")
+@NameTemplate({ @Property(key = "view", value = "portal"), @Property(key = "service", value = "statistic"),
+        @Property(key = "type", value = "portletinvocation") })
+@RESTEndpoint(path = "portletinvocationstatistic")
+public class PortletInvocationStatisticService {
+
+    /** . */
+    public static final String[] PHASES = { PortletRequest.ACTION_PHASE, PortletRequest.EVENT_PHASE, PortletRequest.RENDER_PHASE,
+            PortletRequest.RESOURCE_PHASE };
+
+    /** . */
+    private static final Logger log = LoggerFactory.getLogger(PortletInvocationStatisticService.class);
+
+    /** The stage names ordered from the first to the last stage of the chain. */
+    private final String[] stages;
+
+    /** The statistics indexed by stage and portlet id, the array is indexed by phase. */
+    private final ConcurrentMap<String, ConcurrentMap<String, PortletInvocationStatistic[]>> statistics;
+
+    /** The threshold in milliseconds. */
+    private volatile long slowThreshold;
+
+    public PortletInvocationStatisticService(String[] stages, long slowThreshold) throws NullPointerException {
+        if (stages == null) {
+            throw new NullPointerException("No null stages accepted");
+        }
+
+        //
+        this.stages = stages.clone();
+        this.statistics = new ConcurrentHashMap<String, ConcurrentMap<String, PortletInvocationStatistic[]>>();
+        this.slowThreshold = slowThreshold;
+    }
+
+    public String getStage(int index) {
+        return stages[index];
+    }
+
+    public int getStageCount() {
+        return stages.length;
+    }
+
+    /**
+     * Returns the statistic of a stage for a portlet and a phase, the statistic is created when it does not exist.
+     *
+     * @param stage the stage name
+     * @param portletId the portlet id
+     * @param phase the phase index in {@link #PHASES}
+     * @return the statistic
+     */
+    public PortletInvocationStatistic getStatistic(String stage, String portletId, int phase) {
+        ConcurrentMap<String, PortletInvocationStatistic[]> portlets = statistics.get(stage);
+        if (portlets == null) {
+            portlets = new ConcurrentHashMap<String, PortletInvocationStatistic[]>();
+            ConcurrentMap<String, PortletInvocationStatistic[]> existing = statistics.putIfAbsent(stage, portlets);
+            if (existing != null) {
+                portlets = existing;
+            }
+        }
+        PortletInvocationStatistic[] phases = portlets.get(portletId);
+        if (phases == null) {
+            phases = new PortletInvocationStatistic[PHASES.length];
+            for (int i = 0; i < PHASES.length; i++) {
+                phases[i] = new PortletInvocationStatistic(stage, portletId, PHASES[i]);
+            }
+            PortletInvocationStatistic[] existing = portlets.putIfAbsent(portletId, phases);
+            if (existing != null) {
+                phases = existing;
+            }
+        }
+        return phases[phase];
+    }
+
+    /**
+     * Signals the end of an invocation with the inclusive time of each stage in nanoseconds.
+     *
+     * @param portletId the portlet id
+     * @param phase the phase index
+     * @param times the stage times
+     */
+    public void invoked(String portletId, int phase, long[] times) {
+        long threshold = slowThreshold;
+        if (threshold >= 0 && times[0] >= threshold * 1000000L) {
+            StringBuilder sb = new StringBuilder("Slow ").append(PHASES[phase]).append(" invocation of portlet ");
+            sb.append(portletId).append(" took ").append(toMillis(times[0])).append("ms:");
+            for (int i = 0; i < times.length; i++) {
+                long self = times[i] - (i + 1 < times.length ? times[i + 1] : 0);
+                sb.append(" ").append(stages[i]).append("=").append(toMillis(self)).append("ms");
+            }
+            logSlowInvocation(sb.toString());
+        }
+    }
+
+    /**
+     * Logs a slow invocation.
+     *
+     * @param message the message with the time of each stage
+     */
+    protected void logSlowInvocation(String message) {
+        log.warn(message);
+    }
+
+    private static String toMillis(long nanos) {
+        return String.format("%.3f", nanos / 1000000D);
+    }
+
+    @Managed
+    @ManagedDescription("The stages of the invocation chain")
+    public String[] getStages() {
+        return stages.clone();
+    }
+
+    @Managed
+    @ManagedDescription("The list of the portlet identifiers sorted alphabetically")
+    public String[] getPortletList() {
+        Set<String> set = new TreeSet<String>();
+        for (ConcurrentMap<String, PortletInvocationStatistic[]> portlets : statistics.values()) {
+            set.addAll(portlets.keySet());
+        }
+        return set.toArray(new String[set.size()]);
+    }
+
+    @Managed
+    @ManagedDescription("The threshold in milliseconds above which an invocation is logged, a negative value disables the log")
+    public long getSlowThreshold() {
+        return slowThreshold;
+    }
+
+    @Managed
+    public void setSlowThreshold(long slowThreshold) {
+        this.slowThreshold = slowThreshold;
+    }
+
+    @Managed
+    @ManagedDescription("The statistic of each stage for a specified portlet and phase")
+    @Impact(ImpactType.READ)
+    public String[] getStatistics(@ManagedDescription("The portlet id") @ManagedName("portletId") String portletId,
+            @ManagedDescription("The phase: ACTION_PHASE, EVENT_PHASE, RENDER_PHASE or RESOURCE_PHASE") @ManagedName("phase") String phase) {
+        int index = findPhase(phase);
+        List<String> list = new ArrayList<String>();
+        for (String stage : stages) {
+            ConcurrentMap<String, PortletInvocationStatistic[]> portlets = statistics.get(stage);
+            PortletInvocationStatistic[] phases = portlets != null ? portlets.get(portletId) : null;
+            if (phases != null) {
+                list.add(phases[index].toString());
+            }
+        }
+        return list.toArray(new String[list.size()]);
+    }
+
+    @Managed
+    @ManagedDescription("The 10 slowest portlet invocations by average time of the whole chain")
+    public String[] getSlowestInvocations() {
+        List<PortletInvocationStatistic> list = new ArrayList<PortletInvocationStatistic>();
+        ConcurrentMap<String, PortletInvocationStatistic[]> portlets = statistics.get(stages[0]);
+        if (portlets != null) {
+            for (PortletInvocationStatistic[] phases : portlets.values()) {
+                for (PortletInvocationStatistic statistic : phases) {
+                    if (statistic.getCount() > 0) {
+                        list.add(statistic);
+                    }
+                }
+            }
+        }
+        Collections.sort(list, new Comparator<PortletInvocationStatistic>() {
+            public int compare(PortletInvocationStatistic o1, PortletInvocationStatistic o2) {
+                return Double.compare(o2.getAverageTime(), o1.getAverageTime());
+            }
+        });
+        List<PortletInvocationStatistic> sub = list.subList(0, Math.min(list.size(), 10));
+        String[] array = new String[sub.size()];
+        for (int i = 0; i < sub.size(); i++) {
+            array[i] = sub.get(i).toString();
+        }
+        return array;
+    }
+
+    @Managed
+    @ManagedDescription("Reset the statistics")
+    @Impact(ImpactType.WRITE)
+    public void reset() {
+        statistics.clear();
+    }
+
+    private int findPhase(String phase) {
+        for (int i = 0; i < PHASES.length; i++) {
+            if (PHASES[i].equals(phase)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Invalid phase " + phase);
+    }
+}
@@ -0,0 +1,398 @@
+/**
+ * Copyright (C) 2013 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.exoplatform.portal.pc.aspects;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.exoplatform.commons.cache.ClusterVersion;
+import org.exoplatform.management.annotations.Impact;
+import org.exoplatform.management.annotations.ImpactType;
+import org.exoplatform.management.annotations.Managed;
+import org.exoplatform.management.annotations.ManagedDescription;
+import org.exoplatform.management.annotations.ManagedName;
+import org.exoplatform.management.jmx.annotations.NameTemplate;
+import org.exoplatform.management.jmx.annotations.Property;
+import org.exoplatform.management.rest.annotations.RESTEndpoint;
+import org.exoplatform.services.cache.ExoCache;
+import org.gatein.pc.api.PortletInvokerException;
+import org.gatein.pc.api.StateString;
+import org.gatein.pc.api.cache.CacheControl;
+import org.gatein.pc.api.cache.CacheScope;
+import org.gatein.pc.api.invocation.ActionInvocation;
+import org.gatein.pc.api.invocation.EventInvocation;
+import org.gatein.pc.api.invocation.PortletInvocation;
+import org.gatein.pc.api.invocation.RenderInvocation;
+import org.gatein.pc.api.invocation.response.ContentResponse;
+import org.gatein.pc.api.invocation.response.PortletInvocationResponse;
+import org.gatein.pc.api.invocation.response.ResponseProperties;
+import org.gatein.pc.api.invocation.response.RevalidateResponse;
+import org.gatein.pc.api.spi.UserContext;
+import org.gatein.pc.api.spi.WindowContext;
+import org.gatein.pc.portlet.PortletInvokerInterceptor;
+
+/**
+ * <p>
+ * A node wide markup cache for the anonymous render invocations. Unlike the
+ * {@link org.gatein.pc.portlet.aspects.ConsumerCacheInterceptor} that keeps the markup of a window in the user session, this
+ * interceptor shares the fragments that the portlet declares with the <code>public</code> cache scope among all the anonymous
+ * visitors.
+ * </p>
+ *
+ * <p>
+ * A fragment is keyed by the window, the portlet context, the mode, the window state, the navigational states and the locale.
+ * It is served until its expiration time, after that it is revalidated with its validation token when it has one. The
+ * fragments of a window are invalidated when an action or an event is dispatched to the window or when
+ * {@link #invalidate(String)} is called, for instance after the preferences of the window are saved.
+ * </p>
+ *
+ * <p>
+ * The fragments are stored in a node local {@link ExoCache} which bounds the number of entries, the hit, miss and
+ * revalidation counters are exposed by the management layer. Each fragment records the {@link ClusterVersion} of its window
+ * when it is cached, the window versions are kept in another bounded {@link ExoCache} that is replicated in a cluster so
+ * the invalidation of a window on a node discards the fragments of the window cached by the other nodes. A window version
+ * evicted from its cache is stamped again, which discards the fragments of the window as well.
+ * </p>
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
+@Managed
+@ManagedDescription("Public portlet markup cache")
+@NameTemplate({ @Property(key = "view", value = "portal"), @Property(key = "service", value = "cache"),
+        @Property(key = "type", value = "publicmarkup") })
+@RESTEndpoint(path = "publicmarkupcache")
+public class PublicMarkupCacheInterceptor extends PortletInvokerInterceptor {
+
+    /** . */
+    private final ExoCache<Key, Entry> cache;
+
+    /** The versions of the windows. */
+    private final ExoCache<String, String> versions;
+
+    /** . */
+    private final AtomicLong hits;
+
+    /** . */
+    private final AtomicLong misses;
+
+    /** . */
+    private final AtomicLong revalidations;
+
+    public PublicMarkupCacheInterceptor(ExoCache<Key, Entry> cache, ExoCache<String, String> versions)
+            throws NullPointerException {
+        if (cache == null) {
+            throw new NullPointerException("No null cache accepted");
+        }
+        if (versions == null) {
+            throw new NullPointerException("No null versions accepted");
+        }
+
+        //
+        this.cache = cache;
+        this.versions = versions;
+        this.hits = new AtomicLong();
+        this.misses = new AtomicLong();
+        this.revalidations = new AtomicLong();
+    }
+
+    @Override
+    public PortletInvocationResponse invoke(PortletInvocation invocation) throws IllegalArgumentException,
+            PortletInvokerException {
+        WindowContext windowContext = invocation.getWindowContext();
+        String windowId = windowContext != null ? windowContext.getId() : null;
+        if (windowId == null) {
+            return super.invoke(invocation);
+        }
+
+        //
+        if (invocation instanceof RenderInvocation) {
+            UserContext userContext = invocation.getUserContext();
+            if (userContext != null && userContext.getId() == null) {
+                return render((RenderInvocation) invocation, windowId, userContext.getLocale());
+            } else {
+                return super.invoke(invocation);
+            }
+        } else {
+            if (invocation instanceof ActionInvocation || invocation instanceof EventInvocation) {
+                invalidate(windowId);
+            }
+            return super.invoke(invocation);
+        }
+    }
+
+    private PortletInvocationResponse render(RenderInvocation invocation, String windowId, Locale locale)
+            throws PortletInvokerException {
+        String version = new ClusterVersion(versions, windowId).get();
+        Key key = new Key(windowId, invocation.getTarget().getId(), invocation.getMode().toString(), invocation
+                .getWindowState().toString(), invocation.getNavigationalState(), invocation.getPublicNavigationalState(), locale);
+
+        //
+        Entry entry = cache.get(key);
+        if (entry != null && !entry.version.equals(version)) {
+            entry = null;
+        }
+
+        //
+        if (entry != null && entry.expirationTimeMillis > System.currentTimeMillis()) {
+            hits.incrementAndGet();
+            return entry.content;
+        }
+
+        // Revalidate the expired fragment when we can
+        if (entry != null && entry.validationToken != null) {
+            invocation.setValidationToken(entry.validationToken);
+        }
+
+        //
+        misses.incrementAndGet();
+        PortletInvocationResponse response = super.invoke(invocation);
+
+        //
+        if (response instanceof ContentResponse) {
+            ContentResponse content = (ContentResponse) response;
+            if (isCacheable(content)) {
+                CacheControl control = content.getCacheControl();
+                cache.put(key, new Entry(content, version, getExpirationTimeMillis(control), control.getValidationToken()));
+            }
+        } else if (response instanceof RevalidateResponse && entry != null) {
+            revalidations.incrementAndGet();
+            CacheControl control = ((RevalidateResponse) response).getCacheControl();
+            String validationToken = entry.validationToken;
+            long expirationTimeMillis = 0;
+            if (control != null) {
+                expirationTimeMillis = getExpirationTimeMillis(control);
+                if (control.getValidationToken() != null) {
+                    validationToken = control.getValidationToken();
+                }
+            }
+            if (expirationTimeMillis > 0) {
+                cache.put(key, new Entry(entry.content, version, expirationTimeMillis, validationToken));
+            }
+            return entry.content;
+        }
+
+        //
+        return response;
+    }
+
+    private boolean isCacheable(ContentResponse content) {
+        CacheControl control = content.getCacheControl();
+        if (control == null || control.getCacheScope() != CacheScope.PUBLIC || control.getExpirationSecs() == 0) {
+            return false;
+        }
+
+        // Cookies are bound to the visitor that triggered the render
+        ResponseProperties properties = content.getProperties();
+        return properties == null || properties.getCookies().isEmpty();
+    }
+
+    private long getExpirationTimeMillis(CacheControl control) {
+        int expirationSecs = control.getExpirationSecs();
+        if (expirationSecs == -1) {
+            return Long.MAX_VALUE;
+        } else if (expirationSecs > 0) {
+            return System.currentTimeMillis() + expirationSecs * 1000L;
+        } else {
+            return 0;
+        }
+    }
+
+    /**
+     * Invalidates the fragments of a window.
+     *
+     * @param windowId the window id
+     * @throws NullPointerException if the window id is null
+     */
+    @Managed
+    @ManagedDescription("Invalidates the fragments of a window")
+    @Impact(ImpactType.WRITE)
+    public void invalidate(@ManagedDescription("The window id") @ManagedName("windowId") String windowId)
+            throws NullPointerException {
+        if (windowId == null) {
+            throw new NullPointerException("No null window id accepted");
+        }
+        new ClusterVersion(versions, windowId).stamp();
+    }
+
+    /**
+     * Invalidates all the fragments.
+     */
+    @Managed
+    @ManagedDescription("Invalidates all the fragments")
+    @Impact(ImpactType.WRITE)
+    public void clear() {
+        cache.clearCache();
+    }
+
+    @Managed
+    @ManagedDescription("The number of renders served from the cache")
+    public long getHits() {
+        return hits.get();
+    }
+
+    @Managed
+    @ManagedDescription("The number of anonymous renders dispatched to the portlet")
+    public long getMisses() {
+        return misses.get();
+    }
+
+    @Managed
+    @ManagedDescription("The number of expired fragments revalidated by the portlet")
+    public long getRevalidations() {
+        return revalidations.get();
+    }
+
+    @Managed
+    @ManagedDescription("The number of cached fragments")
+    public int getSize() {
+        return cache.getCacheSize();
+    }
+
+    @Managed
+    @ManagedDescription("The maximum number of cached fragments")
+    public int getMaxSize() {
+        return cache.getMaxSize();
+    }
+
+    public static final class Key implements Serializable {
+
+        /** . */
+        private final String windowId;
+
+        /** . */
+        private final String portletId;
+
+        /** . */
+        private final String mode;
+
+        /** . */
+        private final String windowState;
+
+        /** . */
+        private final String navigationalState;
+
+        /** . */
+        private final Map<String, String[]> publicNavigationalState;
+
+        /** . */
+        private final String locale;
+
+        /** . */
+        private final int hashCode;
+
+        Key(String windowId, String portletId, String mode, String windowState, StateString navigationalState,
+                Map<String, String[]> publicNavigationalState, Locale locale) {
+            this.windowId = windowId;
+            this.portletId = portletId;
+            this.mode = mode;
+            this.windowState = windowState;
+            this.navigationalState = navigationalState != null ? navigationalState.getStringValue() : null;
+            this.publicNavigationalState = publicNavigationalState != null && publicNavigationalState.size() > 0 ? new TreeMap<String, String[]>(
+                    publicNavigationalState) : null;
+            this.locale = locale != null ? locale.toString() : null;
+
+            //
+            int hashCode = windowId.hashCode();
+            hashCode = hashCode * 31 + (portletId != null ? portletId.hashCode() : 0);
+            hashCode = hashCode * 31 + mode.hashCode();
+            hashCode = hashCode * 31 + windowState.hashCode();
+            hashCode = hashCode * 31 + (this.navigationalState != null ? this.navigationalState.hashCode() : 0);
+            if (this.publicNavigationalState != null) {
+                for (Map.Entry<String, String[]> entry : this.publicNavigationalState.entrySet()) {
+                    hashCode = hashCode * 31 + entry.getKey().hashCode();
+                    hashCode = hashCode * 31 + Arrays.hashCode(entry.getValue());
+                }
+            }
+            hashCode = hashCode * 31 + (this.locale != null ? this.locale.hashCode() : 0);
+            this.hashCode = hashCode;
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) {
+                return true;
+            }
+            if (obj instanceof Key) {
+                Key that = (Key) obj;
+                return hashCode == that.hashCode && windowId.equals(that.windowId) && equals(portletId, that.portletId)
+                        && mode.equals(that.mode) && windowState.equals(that.windowState)
+                        && equals(navigationalState, that.navigationalState) && equals(locale, that.locale)
+                        && equals(publicNavigationalState, that.publicNavigationalState);
+            }
+            return false;
+        }
+
+        private static boolean equals(Object o1, Object o2) {
+            return o1 == null ? o2 == null : o1.equals(o2);
+        }
+
+        private static boolean equals(Map<String, String[]> m1, Map<String, String[]> m2) {
+            if (m1 == null || m2 == null) {
+                return m1 == m2;
+            }
+            if (!m1.keySet().equals(m2.keySet())) {
+                return false;
+            }
+            for (Map.Entry<String, String[]> entry : m1.entrySet()) {
+                if (!Arrays.equals(entry.getValue(), m2.get(entry.getKey()))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public String toString() {
+            return "PublicMarkupCacheInterceptor.Key[window=" + windowId + ",portlet=" + portletId + ",mode=" + mode
+                    + ",windowState=" + windowState + ",locale=" + locale + "]";
+        }
+    }
+
+    public static final class Entry {
+
+        /** . */
+        private final ContentResponse content;
+
+        /** . */
+        private final String version;
+
+        /** . */
+        private final long expirationTimeMillis;
+
+        /** . */
+        private final String validationToken;
+
+        Entry(ContentResponse content, String version, long expirationTimeMillis, String validationToken) {
+            this.content = content;
+            this.version = version;
+            this.expirationTimeMillis = expirationTimeMillis;
+            this.validationToken = validationToken;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+/**
+ * Copyright (C) 2013 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.exoplatform.portal.pc.aspects;
+
+import org.exoplatform.portal.pc.PortletInvocationStatisticService;
+import org.gatein.pc.api.PortletContext;
+import org.gatein.pc.api.PortletInvokerException;
+import org.gatein.pc.api.invocation.ActionInvocation;
+import org.gatein.pc.api.invocation.EventInvocation;
+import org.gatein.pc.api.invocation.PortletInvocation;
+import org.gatein.pc.api.invocation.RenderInvocation;
+import org.gatein.pc.api.invocation.response.PortletInvocationResponse;
+import org.gatein.pc.portlet.PortletInvokerInterceptor;
+
+/**
+ * Measures the time spent in a stage of the invocation chain, the measured time includes the following stages. The
+ * interceptor of the first stage collects the times of all the stages of an invocation and hands them to the statistic
+ * service when the invocation completes.
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
+public class TimingInterceptor extends PortletInvokerInterceptor {
+
+    /** The stage times of the current invocation. */
+    private static final ThreadLocal<long[]> TIMES = new ThreadLocal<long[]>();
+
+    /** . */
+    private final PortletInvocationStatisticService service;
+
+    /** . */
+    private final int index;
+
+    /** . */
+    private final String stage;
+
+    public TimingInterceptor(PortletInvocationStatisticService service, int index) throws NullPointerException,
+            IndexOutOfBoundsException {
+        if (service == null) {
+            throw new NullPointerException("No null service accepted");
+        }
+        if (index < 0 || index >= service.getStageCount()) {
+            throw new IndexOutOfBoundsException("Invalid stage index " + index);
+        }
+
+        //
+        this.service = service;
+        this.index = index;
+        this.stage = service.getStage(index);
+    }
+
+    @Override
+    public PortletInvocationResponse invoke(PortletInvocation invocation) throws IllegalArgumentException,
+            PortletInvokerException {
+        long[] previous = null;
+        long[] times;
+        if (index == 0) {
+            previous = TIMES.get();
+            times = new long[service.getStageCount()];
+            TIMES.set(times);
+        } else {
+            times = TIMES.get();
+        }
+
+        //
+        long start = System.nanoTime();
+        try {
+            return super.invoke(invocation);
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            PortletContext target = invocation.getTarget();
+            String portletId = target != null ? target.getId() : null;
+            int phase = getPhase(invocation);
+            service.getStatistic(stage, String.valueOf(portletId), phase).record(elapsed);
+            if (times != null) {
+                times[index] = elapsed;
+            }
+            if (index == 0) {
+                if (previous != null) {
+                    TIMES.set(previous);
+                } else {
+                    TIMES.remove();
+                }
+                service.invoked(String.valueOf(portletId), phase, times);
+            }
+        }
+    }
+
+    private static int getPhase(PortletInvocation invocation) {
+        if (invocation instanceof ActionInvocation) {
+            return 0;
+        } else if (invocation instanceof EventInvocation) {
+            return 1;
+        } else if (invocation instanceof RenderInvocation) {
+            return 2;
+        } else {
+            return 3;
+        }
+    }
+}
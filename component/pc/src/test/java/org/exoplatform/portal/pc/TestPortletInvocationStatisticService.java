@@ -0,0 +1,178 @@
+/*
+ * Copyright (C) 2013 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.exoplatform.portal.pc;
+
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.portlet.PortletRequest;
+
+import junit.framework.TestCase;
+
+import org.exoplatform.container.ExoContainerContext;
+import org.exoplatform.portal.pc.aspects.TimingInterceptor;
+import org.gatein.pc.api.PortletContext;
+import org.gatein.pc.api.PortletInvoker;
+import org.gatein.pc.api.PortletInvokerException;
+import org.gatein.pc.api.invocation.PortletInvocation;
+import org.gatein.pc.api.invocation.RenderInvocation;
+import org.gatein.pc.api.invocation.response.PortletInvocationResponse;
+import org.gatein.pc.api.spi.PortletInvocationContext;
+import org.gatein.pc.portlet.PortletInvokerInterceptor;
+
+/**
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
+public class TestPortletInvocationStatisticService extends TestCase {
+
+    /** . */
+    private static final String PORTLET_ID = "local./web.portlet";
+
+    /** . */
+    private ExoKernelIntegration integration;
+
+    /** The names of the invoked stages. */
+    private List<String> trace;
+
+    /** . */
+    private PortletInvoker[] stack;
+
+    @Override
+    protected void setUp() throws Exception {
+        integration = new ExoKernelIntegration(mock(ExoContainerContext.class), null);
+        trace = new ArrayList<String>();
+        stack = new PortletInvoker[] { new FirstStage(trace), new SecondStage(trace), new Dispatcher(trace) };
+    }
+
+    public void testDisabled() throws Exception {
+        assertNull(integration.createStatisticService(stack, null, null));
+        assertNull(integration.createStatisticService(stack, "false", "10"));
+
+        // The stages are linked without timing
+        PortletInvoker first = ExoKernelIntegration.link(stack, null);
+        assertSame(stack[0], first);
+        assertSame(stack[1], ((PortletInvokerInterceptor) stack[0]).getNext());
+        assertSame(stack[2], ((PortletInvokerInterceptor) stack[1]).getNext());
+        first.invoke(render());
+        assertEquals(3, trace.size());
+        assertEquals("FirstStage", trace.get(0));
+        assertEquals("SecondStage", trace.get(1));
+        assertEquals("Dispatcher", trace.get(2));
+    }
+
+    public void testEnabled() throws Exception {
+        PortletInvocationStatisticService service = integration.createStatisticService(stack, "true", null);
+        assertNotNull(service);
+        assertEquals(1000, service.getSlowThreshold());
+        String[] stages = service.getStages();
+        assertEquals(3, stages.length);
+        assertEquals("FirstStage", stages[0]);
+        assertEquals("SecondStage", stages[1]);
+        assertEquals("Dispatcher", stages[2]);
+
+        // Each stage is wrapped with a timing interceptor
+        PortletInvoker first = ExoKernelIntegration.link(stack, service);
+        assertTrue(first instanceof TimingInterceptor);
+        assertSame(stack[0], ((PortletInvokerInterceptor) first).getNext());
+        PortletInvoker next = ((PortletInvokerInterceptor) stack[0]).getNext();
+        assertTrue(next instanceof TimingInterceptor);
+        assertSame(stack[1], ((PortletInvokerInterceptor) next).getNext());
+
+        // Each stage is recorded
+        first.invoke(render());
+        first.invoke(render());
+        assertEquals(6, trace.size());
+        String[] statistics = service.getStatistics(PORTLET_ID, PortletRequest.RENDER_PHASE);
+        assertEquals(3, statistics.length);
+        for (int i = 0; i < stages.length; i++) {
+            assertEquals(2, service.getStatistic(stages[i], PORTLET_ID, 2).getCount());
+            assertTrue(statistics[i], statistics[i].startsWith(stages[i] + " " + PORTLET_ID + " RENDER_PHASE count=2 "));
+        }
+        for (String statistic : service.getStatistics(PORTLET_ID, PortletRequest.ACTION_PHASE)) {
+            assertTrue(statistic, statistic.contains(" count=0 "));
+        }
+        assertEquals(1, service.getPortletList().length);
+        assertEquals(PORTLET_ID, service.getPortletList()[0]);
+        assertEquals(1, service.getSlowestInvocations().length);
+
+        // Reset
+        service.reset();
+        assertEquals(0, service.getPortletList().length);
+        assertEquals(0, service.getSlowestInvocations().length);
+    }
+
+    public void testSlowThreshold() throws Exception {
+        assertEquals(250, integration.createStatisticService(stack, "true", " 250 ").getSlowThreshold());
+        assertEquals(-1, integration.createStatisticService(stack, "true", "-1").getSlowThreshold());
+        assertEquals(1000, integration.createStatisticService(stack, "true", "foo").getSlowThreshold());
+    }
+
+    public void testInvalidPhase() throws Exception {
+        PortletInvocationStatisticService service = integration.createStatisticService(stack, "true", null);
+        try {
+            service.getStatistics(PORTLET_ID, "FOO_PHASE");
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    private static RenderInvocation render() {
+        RenderInvocation invocation = new RenderInvocation(mock(PortletInvocationContext.class));
+        invocation.setTarget(PortletContext.createPortletContext(PORTLET_ID));
+        return invocation;
+    }
+
+    private static class Stage extends PortletInvokerInterceptor {
+
+        /** . */
+        private final List<String> trace;
+
+        private Stage(List<String> trace) {
+            this.trace = trace;
+        }
+
+        @Override
+        public PortletInvocationResponse invoke(PortletInvocation invocation) throws IllegalArgumentException,
+                PortletInvokerException {
+            trace.add(getClass().getSimpleName());
+            return getNext() != null ? super.invoke(invocation) : null;
+        }
+    }
+
+    private static class FirstStage extends Stage {
+        private FirstStage(List<String> trace) {
+            super(trace);
+        }
+    }
+
+    private static class SecondStage extends Stage {
+        private SecondStage(List<String> trace) {
+            super(trace);
+        }
+    }
+
+    private static class Dispatcher extends Stage {
+        private Dispatcher(List<String> trace) {
+            super(trace);
+        }
+    }
+}
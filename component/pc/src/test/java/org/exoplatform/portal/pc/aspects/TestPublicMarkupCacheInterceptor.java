@@ -0,0 +1,280 @@
+/*
+ * Copyright (C) 2013 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.exoplatform.portal.pc.aspects;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import javax.servlet.http.Cookie;
+
+import junit.framework.TestCase;
+
+import org.exoplatform.services.cache.ExoCache;
+import org.exoplatform.services.cache.concurrent.ConcurrentFIFOExoCache;
+import org.gatein.pc.api.Mode;
+import org.gatein.pc.api.PortletContext;
+import org.gatein.pc.api.PortletInvokerException;
+import org.gatein.pc.api.WindowState;
+import org.gatein.pc.api.cache.CacheControl;
+import org.gatein.pc.api.cache.CacheScope;
+import org.gatein.pc.api.invocation.ActionInvocation;
+import org.gatein.pc.api.invocation.PortletInvocation;
+import org.gatein.pc.api.invocation.RenderInvocation;
+import org.gatein.pc.api.invocation.response.ContentResponse;
+import org.gatein.pc.api.invocation.response.PortletInvocationResponse;
+import org.gatein.pc.api.invocation.response.ResponseProperties;
+import org.gatein.pc.api.invocation.response.RevalidateResponse;
+import org.gatein.pc.api.spi.PortletInvocationContext;
+import org.gatein.pc.api.spi.UserContext;
+import org.gatein.pc.api.spi.WindowContext;
+import org.gatein.pc.portlet.PortletInvokerInterceptor;
+
+/**
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
+public class TestPublicMarkupCacheInterceptor extends TestCase {
+
+    /** . */
+    private PublicMarkupCacheInterceptor interceptor;
+
+    /** . */
+    private PortletStub portlet;
+
+    /** The window versions, replicated in a cluster. */
+    private ExoCache<String, String> versions;
+
+    @Override
+    protected void setUp() throws Exception {
+        portlet = new PortletStub();
+        versions = new ConcurrentFIFOExoCache<String, String>();
+        interceptor = createInterceptor(portlet);
+    }
+
+    private PublicMarkupCacheInterceptor createInterceptor(PortletStub portlet) {
+        PublicMarkupCacheInterceptor interceptor = new PublicMarkupCacheInterceptor(
+                new ConcurrentFIFOExoCache<PublicMarkupCacheInterceptor.Key, PublicMarkupCacheInterceptor.Entry>(), versions);
+        interceptor.setNext(portlet);
+        return interceptor;
+    }
+
+    public void testHit() throws Exception {
+        ContentResponse content = content(60, CacheScope.PUBLIC, null);
+        portlet.response = content;
+        assertSame(content, interceptor.invoke(render("window", null)));
+        assertSame(content, interceptor.invoke(render("window", null)));
+        assertEquals(1, portlet.invocations);
+        assertEquals(1, interceptor.getHits());
+        assertEquals(1, interceptor.getMisses());
+        assertEquals(1, interceptor.getSize());
+
+        // Another window or another locale is another fragment
+        interceptor.invoke(render("other", null));
+        assertEquals(2, portlet.invocations);
+        RenderInvocation french = render("window", null);
+        when(french.getUserContext().getLocale()).thenReturn(Locale.FRENCH);
+        interceptor.invoke(french);
+        assertEquals(3, portlet.invocations);
+    }
+
+    public void testPrivateScope() throws Exception {
+        portlet.response = content(60, CacheScope.PRIVATE, null);
+        interceptor.invoke(render("window", null));
+        interceptor.invoke(render("window", null));
+        assertEquals(2, portlet.invocations);
+        assertEquals(0, interceptor.getHits());
+    }
+
+    public void testExpiration() throws Exception {
+        ContentResponse content = content(1, CacheScope.PUBLIC, null);
+        portlet.response = content;
+        interceptor.invoke(render("window", null));
+        interceptor.invoke(render("window", null));
+        assertEquals(1, portlet.invocations);
+        Thread.sleep(1100);
+        interceptor.invoke(render("window", null));
+        assertEquals(2, portlet.invocations);
+        assertNull(portlet.validationToken);
+        assertEquals(2, interceptor.getMisses());
+    }
+
+    public void testRevalidation() throws Exception {
+        ContentResponse content = content(1, CacheScope.PUBLIC, "etag");
+        portlet.response = content;
+        interceptor.invoke(render("window", null));
+        Thread.sleep(1100);
+
+        // The portlet revalidates the expired fragment
+        RevalidateResponse revalidate = mock(RevalidateResponse.class);
+        CacheControl control = cacheControl(60, CacheScope.PUBLIC, "etag");
+        when(revalidate.getCacheControl()).thenReturn(control);
+        portlet.response = revalidate;
+        assertSame(content, interceptor.invoke(render("window", null)));
+        assertEquals(2, portlet.invocations);
+        assertEquals("etag", portlet.validationToken);
+        assertEquals(1, interceptor.getRevalidations());
+
+        // The revalidated fragment is served until its new expiration time
+        assertSame(content, interceptor.invoke(render("window", null)));
+        assertEquals(2, portlet.invocations);
+        assertEquals(1, interceptor.getHits());
+    }
+
+    public void testInvalidate() throws Exception {
+        portlet.response = content(60, CacheScope.PUBLIC, null);
+        interceptor.invoke(render("window", null));
+        interceptor.invoke(render("other", null));
+        interceptor.invalidate("window");
+        interceptor.invoke(render("window", null));
+        interceptor.invoke(render("other", null));
+        assertEquals(3, portlet.invocations);
+        try {
+            interceptor.invalidate(null);
+            fail();
+        } catch (NullPointerException ignore) {
+        }
+    }
+
+    public void testInvalidateOnAnotherNode() throws Exception {
+        PortletStub otherPortlet = new PortletStub();
+        PublicMarkupCacheInterceptor other = createInterceptor(otherPortlet);
+        portlet.response = content(60, CacheScope.PUBLIC, null);
+        otherPortlet.response = content(60, CacheScope.PUBLIC, null);
+        interceptor.invoke(render("window", null));
+        other.invoke(render("window", null));
+
+        // The window is invalidated on the other node
+        other.invalidate("window");
+        interceptor.invoke(render("window", null));
+        assertEquals(2, portlet.invocations);
+        assertEquals(0, interceptor.getHits());
+    }
+
+    public void testVersionEvicted() throws Exception {
+        portlet.response = content(60, CacheScope.PUBLIC, null);
+        interceptor.invoke(render("window", null));
+        interceptor.invalidate("window");
+        interceptor.invoke(render("window", null));
+        assertEquals(2, portlet.invocations);
+
+        // A window version removed by the eviction of the cache discards the fragments of the window
+        versions.clearCache();
+        interceptor.invoke(render("window", null));
+        assertEquals(3, portlet.invocations);
+        interceptor.invoke(render("window", null));
+        assertEquals(3, portlet.invocations);
+        assertEquals(1, versions.getCacheSize());
+    }
+
+    public void testInvalidateByAction() throws Exception {
+        ContentResponse content = content(60, CacheScope.PUBLIC, null);
+        portlet.response = content;
+        interceptor.invoke(render("window", null));
+        ActionInvocation action = new ActionInvocation(mock(PortletInvocationContext.class));
+        action.setWindowContext(window("window"));
+        interceptor.invoke(action);
+        assertEquals(2, portlet.invocations);
+        interceptor.invoke(render("window", null));
+        assertEquals(3, portlet.invocations);
+        assertEquals(0, interceptor.getHits());
+    }
+
+    public void testAuthenticated() throws Exception {
+        portlet.response = content(60, CacheScope.PUBLIC, null);
+        interceptor.invoke(render("window", "root"));
+        interceptor.invoke(render("window", "root"));
+        assertEquals(2, portlet.invocations);
+        assertEquals(0, interceptor.getMisses());
+        assertEquals(0, interceptor.getSize());
+    }
+
+    public void testCookies() throws Exception {
+        ContentResponse content = content(60, CacheScope.PUBLIC, null);
+        content.getProperties().getCookies().add(new Cookie("foo", "bar"));
+        portlet.response = content;
+        interceptor.invoke(render("window", null));
+        interceptor.invoke(render("window", null));
+        assertEquals(2, portlet.invocations);
+        assertEquals(0, interceptor.getSize());
+    }
+
+    private static RenderInvocation render(String windowId, String userId) {
+        UserContext userContext = mock(UserContext.class);
+        when(userContext.getId()).thenReturn(userId);
+        when(userContext.getLocale()).thenReturn(Locale.ENGLISH);
+        RenderInvocation invocation = new RenderInvocation(mock(PortletInvocationContext.class));
+        invocation.setTarget(PortletContext.createPortletContext("local./web.portlet"));
+        invocation.setMode(Mode.VIEW);
+        invocation.setWindowState(WindowState.NORMAL);
+        invocation.setUserContext(userContext);
+        invocation.setWindowContext(window(windowId));
+        return invocation;
+    }
+
+    private static WindowContext window(String windowId) {
+        WindowContext windowContext = mock(WindowContext.class);
+        when(windowContext.getId()).thenReturn(windowId);
+        return windowContext;
+    }
+
+    private static CacheControl cacheControl(int expirationSecs, CacheScope scope, String validationToken) {
+        CacheControl control = mock(CacheControl.class);
+        when(control.getExpirationSecs()).thenReturn(expirationSecs);
+        when(control.getCacheScope()).thenReturn(scope);
+        when(control.getValidationToken()).thenReturn(validationToken);
+        return control;
+    }
+
+    private static ContentResponse content(int expirationSecs, CacheScope scope, String validationToken) {
+        List<Cookie> cookies = new ArrayList<Cookie>();
+        ResponseProperties properties = mock(ResponseProperties.class);
+        when(properties.getCookies()).thenReturn(cookies);
+        CacheControl control = cacheControl(expirationSecs, scope, validationToken);
+        ContentResponse content = mock(ContentResponse.class);
+        when(content.getCacheControl()).thenReturn(control);
+        when(content.getProperties()).thenReturn(properties);
+        return content;
+    }
+
+    private static class PortletStub extends PortletInvokerInterceptor {
+
+        /** . */
+        private PortletInvocationResponse response;
+
+        /** . */
+        private int invocations;
+
+        /** The validation token of the last render. */
+        private String validationToken;
+
+        @Override
+        public PortletInvocationResponse invoke(PortletInvocation invocation) throws IllegalArgumentException,
+                PortletInvokerException {
+            invocations++;
+            if (invocation instanceof RenderInvocation) {
+                validationToken = ((RenderInvocation) invocation).getValidationToken();
+            }
+            return response;
+        }
+    }
+}
@@ -0,0 +1,242 @@
+/*
+ * Copyright (C) 2013 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.exoplatform.portal.pc.aspects;
+
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.exoplatform.portal.pc.PortletInvocationStatistic;
+import org.exoplatform.portal.pc.PortletInvocationStatisticService;
+import org.gatein.pc.api.PortletContext;
+import org.gatein.pc.api.PortletInvokerException;
+import org.gatein.pc.api.invocation.ActionInvocation;
+import org.gatein.pc.api.invocation.PortletInvocation;
+import org.gatein.pc.api.invocation.RenderInvocation;
+import org.gatein.pc.api.invocation.response.PortletInvocationResponse;
+import org.gatein.pc.api.spi.PortletInvocationContext;
+import org.gatein.pc.portlet.PortletInvokerInterceptor;
+
+/**
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
+public class TestTimingInterceptor extends TestCase {
+
+    /** . */
+    private static final String PORTLET_ID = "local./web.portlet";
+
+    /** . */
+    private static final long MILLIS = 1000000L;
+
+    /** . */
+    private ServiceStub service;
+
+    /** . */
+    private StageStub[] stages;
+
+    /** . */
+    private TimingInterceptor first;
+
+    @Override
+    protected void setUp() throws Exception {
+        service = new ServiceStub(new String[] { "a", "b", "c" }, 1000);
+        stages = new StageStub[] { new StageStub(0), new StageStub(20), new StageStub(10) };
+
+        // timing(a) -> a -> timing(b) -> b -> timing(c) -> c
+        PortletInvokerInterceptor last = null;
+        for (int i = 0; i < stages.length; i++) {
+            TimingInterceptor timing = new TimingInterceptor(service, i);
+            timing.setNext(stages[i]);
+            if (last != null) {
+                last.setNext(timing);
+            } else {
+                first = timing;
+            }
+            last = stages[i];
+        }
+    }
+
+    public void testStageAccounting() throws Exception {
+        first.invoke(render());
+
+        // The first stage hands the inclusive time of each stage
+        assertEquals(1, service.invocations.size());
+        long[] times = service.invocations.get(0);
+        assertEquals(3, times.length);
+        assertTrue(times[0] >= times[1]);
+        assertTrue(times[1] >= times[2]);
+        assertTrue(times[2] >= 10 * MILLIS);
+        assertTrue(times[1] - times[2] >= 20 * MILLIS);
+
+        // Each stage records its inclusive time for the portlet and the phase
+        PortletInvocationStatistic a = service.getStatistic("a", PORTLET_ID, 2);
+        PortletInvocationStatistic b = service.getStatistic("b", PORTLET_ID, 2);
+        PortletInvocationStatistic c = service.getStatistic("c", PORTLET_ID, 2);
+        assertEquals(1, a.getCount());
+        assertEquals(1, b.getCount());
+        assertEquals(1, c.getCount());
+        assertTrue(b.getTotalTime() >= 30);
+        assertTrue(c.getTotalTime() >= 10);
+        assertTrue(a.getTotalTime() >= b.getTotalTime());
+        assertEquals(0, service.getStatistic("a", PORTLET_ID, 0).getCount());
+    }
+
+    public void testPhase() throws Exception {
+        ActionInvocation action = new ActionInvocation(mock(PortletInvocationContext.class));
+        action.setTarget(PortletContext.createPortletContext(PORTLET_ID));
+        first.invoke(action);
+        assertEquals(1, service.getStatistic("a", PORTLET_ID, 0).getCount());
+        assertEquals(0, service.getStatistic("a", PORTLET_ID, 2).getCount());
+    }
+
+    public void testNestedInvocation() throws Exception {
+        stages[2].nested = first;
+        first.invoke(render());
+
+        // The nested invocation is accounted separately and does not reset the times of the outer invocation
+        assertEquals(2, service.invocations.size());
+        long[] inner = service.invocations.get(0);
+        long[] outer = service.invocations.get(1);
+        assertTrue(outer[2] >= inner[0]);
+        assertTrue(outer[1] - outer[2] >= 20 * MILLIS);
+        assertEquals(2, service.getStatistic("a", PORTLET_ID, 2).getCount());
+    }
+
+    public void testFailure() throws Exception {
+        stages[2].failure = new PortletInvokerException();
+        try {
+            first.invoke(render());
+            fail();
+        } catch (PortletInvokerException expected) {
+        }
+        assertEquals(1, service.invocations.size());
+        assertEquals(1, service.getStatistic("c", PORTLET_ID, 2).getCount());
+
+        // The times of the failed invocation do not leak into the next one
+        stages[2].failure = null;
+        first.invoke(render());
+        assertEquals(2, service.invocations.size());
+    }
+
+    public void testSlowInvocationLogged() throws Exception {
+        service.setSlowThreshold(10);
+        first.invoke(render());
+        assertEquals(1, service.messages.size());
+        String message = service.messages.get(0);
+        assertTrue(message, message.startsWith("Slow RENDER_PHASE invocation of portlet " + PORTLET_ID + " took "));
+        assertTrue(message, message.contains(" a="));
+        assertTrue(message, message.contains(" b="));
+        assertTrue(message, message.contains(" c="));
+    }
+
+    public void testFastInvocationNotLogged() throws Exception {
+        service.setSlowThreshold(10000);
+        first.invoke(render());
+        assertEquals(1, service.invocations.size());
+        assertEquals(0, service.messages.size());
+    }
+
+    public void testSlowLogDisabled() throws Exception {
+        service.setSlowThreshold(-1);
+        first.invoke(render());
+        assertEquals(0, service.messages.size());
+    }
+
+    public void testInvalidIndex() throws Exception {
+        try {
+            new TimingInterceptor(service, 3);
+            fail();
+        } catch (IndexOutOfBoundsException expected) {
+        }
+        try {
+            new TimingInterceptor(null, 0);
+            fail();
+        } catch (NullPointerException expected) {
+        }
+    }
+
+    private static RenderInvocation render() {
+        RenderInvocation invocation = new RenderInvocation(mock(PortletInvocationContext.class));
+        invocation.setTarget(PortletContext.createPortletContext(PORTLET_ID));
+        return invocation;
+    }
+
+    private static class ServiceStub extends PortletInvocationStatisticService {
+
+        /** The stage times of the completed invocations. */
+        private final List<long[]> invocations = new ArrayList<long[]>();
+
+        /** The logged messages. */
+        private final List<String> messages = new ArrayList<String>();
+
+        private ServiceStub(String[] stages, long slowThreshold) {
+            super(stages, slowThreshold);
+        }
+
+        @Override
+        public void invoked(String portletId, int phase, long[] times) {
+            invocations.add(times.clone());
+            super.invoked(portletId, phase, times);
+        }
+
+        @Override
+        protected void logSlowInvocation(String message) {
+            messages.add(message);
+        }
+    }
+
+    private static class StageStub extends PortletInvokerInterceptor {
+
+        /** The time spent by the stage in milliseconds. */
+        private final long sleep;
+
+        /** An invoker called once by the stage. */
+        private PortletInvokerInterceptor nested;
+
+        /** . */
+        private PortletInvokerException failure;
+
+        private StageStub(long sleep) {
+            this.sleep = sleep;
+        }
+
+        @Override
+        public PortletInvocationResponse invoke(PortletInvocation invocation) throws IllegalArgumentException,
+                PortletInvokerException {
+            try {
+                Thread.sleep(sleep);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (nested != null) {
+                PortletInvokerInterceptor invoker = nested;
+                nested = null;
+                invoker.invoke(render());
+            }
+            if (failure != null) {
+                throw failure;
+            }
+            return getNext() != null ? super.invoke(invocation) : null;
+        }
+    }
+}
@@ -150,44 +150,74 @@ public class DataStorageImpl implements DataStorage {
 
         ListAccess<O> execute() throws Exception {
             Query<D> delegateQ = new Query<D>(q, dataType);
-            LazyPageList<D> r = delegate.find(delegateQ, null);
-            List<D> tmp = r.getAll();
-            tmp = sort(tmp, this.cp);
-            final List<D> list = tmp;
-            return new ListAccess<O>() {
-                public int getSize() throws Exception {
-                    return list.size();
-                }
+            final ListAccess<D> access = delegate.find2(delegateQ);
+            if (cp == null) {
+                // Without ordering we page through the storage and only map the requested window
+                return new ListAccess<O>() {
+                    public int getSize() throws Exception {
+                        return access.getSize();
+                    }
 
-                public O[] load(int index, int length) throws Exception {
-                    O[] pages = (O[]) Array.newInstance(q.getClassType(), length);
-                    int i = 0;
-                    for (D data : list.subList(index, index + length)) {
-                        pages[i++] = create(data);
+                    public O[] load(int index, int length) throws Exception {
+                        D[] data = access.load(index, length);
+                        O[] objects = (O[]) Array.newInstance(q.getClassType(), data.length);
+                        for (int i = 0; i < data.length; i++) {
+                            objects[i] = create(data[i]);
+                        }
+                        return objects;
+                    }
+                };
+            } else {
+                final List<D> list = sort(access.load(0, access.getSize()), cp);
+                return new ListAccess<O>() {
+                    public int getSize() throws Exception {
+                        return list.size();
                     }
-                    return pages;
-                }
-            };
-        }
 
-        private List<D> sort(List<D> list, final Comparator<O> comparator) {
-            if (comparator != null) {
-                List<D> tmpList = new ArrayList<D>();
-                for (int i = 0; i < list.size(); i++) {
-                    tmpList.add(list.get(i));
-                }
-                Collections.sort(tmpList, new Comparator<D>() {
-                    public int compare(D d1, D d2) {
-                        O o1 = create(d1);
-                        O o2 = create(d2);
-                        return comparator.compare(o1, o2);
+                    public O[] load(int index, int length) throws Exception {
+                        O[] objects = (O[]) Array.newInstance(q.getClassType(), length);
+                        int i = 0;
+                        for (D data : list.subList(index, index + length)) {
+                            objects[i++] = create(data);
+                        }
+                        return objects;
                     }
+                };
+            }
+        }
 
-                });
-                return tmpList;
-            } else {
-                return list;
+        /**
+         * Sorts the data, each model object is created once to serve as the sort key instead of twice per comparison.
+         */
+        private List<D> sort(D[] data, final Comparator<O> comparator) {
+            List<Entry<O, D>> entries = new ArrayList<Entry<O, D>>(data.length);
+            for (D d : data) {
+                entries.add(new Entry<O, D>(create(d), d));
+            }
+            Collections.sort(entries, new Comparator<Entry<O, D>>() {
+                public int compare(Entry<O, D> e1, Entry<O, D> e2) {
+                    return comparator.compare(e1.key, e2.key);
+                }
+            });
+            List<D> list = new ArrayList<D>(entries.size());
+            for (Entry<O, D> entry : entries) {
+                list.add(entry.data);
             }
+            return list;
+        }
+    }
+
+    private static class Entry<O, D> {
+
+        /** . */
+        final O key;
+
+        /** . */
+        final D data;
+
+        Entry(O key, D data) {
+            this.key = key;
+            this.data = data;
         }
     }
 
@@ -21,16 +21,29 @@ package org.exoplatform.portal.config;
 
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Pattern;
 
 import org.apache.commons.lang.StringEscapeUtils;
 import org.exoplatform.commons.utils.IOUtil;
+import org.exoplatform.container.ExoContainer;
+import org.exoplatform.container.ExoContainerContext;
 import org.exoplatform.container.PortalContainer;
 import org.exoplatform.container.component.BaseComponentPlugin;
 import org.exoplatform.container.component.RequestLifeCycle;
@@ -104,6 +117,9 @@ public class NewPortalConfigListener extends BaseComponentPlugin {
     /** . */
     private boolean isUseTryCatch;
 
+    /** The number of threads importing the sites. */
+    private int importThreads;
+
     /**
      * If true the portal clear portal metadata from data storage and replace it with new data created from .xml files.
      */
@@ -121,7 +137,8 @@ public class NewPortalConfigListener extends BaseComponentPlugin {
     /** . */
     private DescriptionService descriptionService_;
 
-    final Set<String> createdOwners = new HashSet<String>();
+    /** The sites whose portal configuration was created, keyed by owner type and owner. */
+    final Set<String> createdOwners = Collections.synchronizedSet(new HashSet<String>());
 
     private boolean isFirstStartup = false;
 
@@ -169,6 +186,13 @@ public class NewPortalConfigListener extends BaseComponentPlugin {
             isUseTryCatch = true;
         }
 
+        valueParam = params.getValueParam("import.threads");
+        if (valueParam != null) {
+            importThreads = Integer.parseInt(valueParam.getValue().trim());
+        } else {
+            importThreads = Math.min(4, Runtime.getRuntime().availableProcessors());
+        }
+
         valueParam = params.getValueParam("override");
         if (valueParam != null) {
             overrideExistingData = "true".equals(valueParam.getValue());
@@ -234,74 +258,184 @@ public class NewPortalConfigListener extends BaseComponentPlugin {
 
     public void run() throws Exception {
         boolean prepareImport = performImport();
-        if (isUseTryCatch) {
-            RequestLifeCycle.begin(PortalContainer.getInstance());
-            try {
-                for (NewPortalConfig ele : configs) {
-                    try {
-                        if(ele.getOverrideMode() || prepareImport) {
-                            initPortalConfigDB(ele);
-                        }
-                    } catch (Exception e) {
-                        log.error("NewPortalConfig error: " + e.getMessage(), e);
+
+        // Group the configurations by site, the configurations of a site are imported in their declaration order
+        Map<String, List<SiteImport>> sites = new LinkedHashMap<String, List<SiteImport>>();
+        for (NewPortalConfig ele : configs) {
+            if (ele.getOverrideMode() || prepareImport) {
+                for (String owner : ele.getPredefinedOwner()) {
+                    String key = siteKey(ele.getOwnerType(), owner);
+                    List<SiteImport> imports = sites.get(key);
+                    if (imports == null) {
+                        sites.put(key, imports = new ArrayList<SiteImport>());
                     }
+                    imports.add(new SiteImport(ele, owner));
                 }
-            } finally {
-                RequestLifeCycle.end();
             }
-            for (NewPortalConfig ele : configs) {
-                try {
-                    if(ele.getOverrideMode() || prepareImport) {
-                        initPageDB(ele);
-                    }
-                } catch (Exception e) {
-                    log.error("NewPortalConfig error: " + e.getMessage(), e);
+        }
+
+        //
+        if (sites.size() > 0) {
+            importSites(sites.values());
+        }
+
+        //
+        touchImport();
+    }
+
+    /**
+     * Imports the sites in three phases: the portal configurations, then the pages and then the navigations. Each phase
+     * completes for all the sites before the next one starts, so the pages or the navigation of a site can refer to the
+     * objects of another site. Within a phase the sites are independent and are imported in parallel by a bounded pool of
+     * workers, each site by a single worker.
+     *
+     * @param sites the sites to import
+     * @throws Exception any exception when the failures are not ignored
+     */
+    private void importSites(Collection<List<SiteImport>> sites) throws Exception {
+        PortalContainer container = PortalContainer.getInstance();
+        int threads = Math.max(1, Math.min(importThreads, sites.size()));
+        ExecutorService executor = null;
+        if (threads > 1) {
+            executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+                final AtomicInteger count = new AtomicInteger();
+
+                public Thread newThread(Runnable r) {
+                    return new Thread(r, "gatein-portal-import-" + count.incrementAndGet());
                 }
+            });
+        }
+        long[] times = new long[ImportPhase.values().length];
+        long time = -System.currentTimeMillis();
+        try {
+            for (ImportPhase phase : ImportPhase.values()) {
+                times[phase.ordinal()] = -System.nanoTime();
+                importPhase(executor, container, sites, phase);
+                times[phase.ordinal()] += System.nanoTime();
             }
-            RequestLifeCycle.begin(PortalContainer.getInstance());
-            try {
-                for (NewPortalConfig ele : configs) {
-                    try {
-                        if(ele.getOverrideMode() || prepareImport) {
-                            initPageNavigationDB(ele);
+        } finally {
+            if (executor != null) {
+                executor.shutdown();
+            }
+        }
+        time += System.currentTimeMillis();
+        log.info("Imported " + sites.size() + " sites with " + threads + " threads in " + time + " ms (portal configs: "
+                + TimeUnit.NANOSECONDS.toMillis(times[ImportPhase.PORTAL_CONFIG.ordinal()]) + " ms, pages: "
+                + TimeUnit.NANOSECONDS.toMillis(times[ImportPhase.PAGES.ordinal()]) + " ms, navigations: "
+                + TimeUnit.NANOSECONDS.toMillis(times[ImportPhase.NAVIGATION.ordinal()]) + " ms)");
+    }
+
+    /**
+     * Performs a phase of the import for all the sites and returns when all the sites are done.
+     */
+    private void importPhase(ExecutorService executor, final PortalContainer container, Collection<List<SiteImport>> sites,
+            final ImportPhase phase) throws Exception {
+        if (executor == null) {
+            for (List<SiteImport> site : sites) {
+                importSite(container, site, phase);
+            }
+        } else {
+            List<Future<Void>> futures = new ArrayList<Future<Void>>();
+            for (final List<SiteImport> site : sites) {
+                futures.add(executor.submit(new Callable<Void>() {
+                    public Void call() throws Exception {
+                        PortalContainer.setInstance(container);
+                        ExoContainerContext.setCurrentContainer(container);
+                        try {
+                            importSite(container, site, phase);
+                        } finally {
+                            PortalContainer.setInstance(null);
+                            ExoContainerContext.setCurrentContainer(null);
                         }
-                    } catch (Exception e) {
-                        log.error("NewPortalConfig error: " + e.getMessage(), e);
+                        return null;
                     }
-                }
-            } finally {
-                RequestLifeCycle.end();
+                }));
             }
-        } else {
-            RequestLifeCycle.begin(PortalContainer.getInstance());
-            try {
-                for (NewPortalConfig ele : configs) {
-                    if(ele.getOverrideMode() || prepareImport) {
-                        initPortalConfigDB(ele);
+
+            // Wait for all the sites and rethrow the first failure
+            Exception failure = null;
+            for (Future<Void> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    if (failure == null) {
+                        failure = e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
                     }
                 }
-            } finally {
-                RequestLifeCycle.end();
             }
-            for (NewPortalConfig ele : configs) {
-                if(ele.getOverrideMode() || prepareImport) {
-                    initPageDB(ele);
-                }
+            if (failure != null) {
+                throw failure;
             }
-            RequestLifeCycle.begin(PortalContainer.getInstance());
-            try {
-                for (NewPortalConfig ele : configs) {
-                    if(ele.getOverrideMode() || prepareImport) {
-                        initPageNavigationDB(ele);
+        }
+    }
+
+    private void importSite(ExoContainer container, List<SiteImport> site, ImportPhase phase) throws Exception {
+        RequestLifeCycle.begin(container);
+        try {
+            for (SiteImport ele : site) {
+                try {
+                    String key = siteKey(ele.config.getOwnerType(), ele.owner);
+                    switch (phase) {
+                        case PORTAL_CONFIG:
+                            if (createPortalConfig(ele.config, ele.owner)) {
+                                createdOwners.add(key);
+                            }
+                            break;
+                        case PAGES:
+                            if (createdOwners.contains(key)) {
+                                createPage(ele.config, ele.owner);
+                            }
+                            break;
+                        case NAVIGATION:
+                            createPageNavigation(ele.config, ele.owner);
+                            break;
                     }
+                } catch (Exception e) {
+                    handle(e);
                 }
-            } finally {
-                RequestLifeCycle.end();
             }
+        } finally {
+            RequestLifeCycle.end();
         }
+    }
 
-        //
-        touchImport();
+    private void handle(Exception e) throws Exception {
+        if (isUseTryCatch) {
+            log.error("NewPortalConfig error: " + e.getMessage(), e);
+        } else {
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the key identifying a site among the sites of all types.
+     */
+    private static String siteKey(String ownerType, String owner) {
+        return ownerType + "::" + fixOwnerName(ownerType, owner);
+    }
+
+    /**
+     * The phases of the import.
+     */
+    private enum ImportPhase {
+        PORTAL_CONFIG, PAGES, NAVIGATION
+    }
+
+    /**
+     * The import of a site by a configuration.
+     */
+    private static final class SiteImport {
+
+        /** . */
+        final NewPortalConfig config;
+
+        /** . */
+        final String owner;
+
+        SiteImport(NewPortalConfig config, String owner) {
+            this.config = config;
+            this.owner = owner;
+        }
     }
 
     String getDefaultPortal() {
@@ -434,14 +568,14 @@ public class NewPortalConfigListener extends BaseComponentPlugin {
     public void initPortalConfigDB(NewPortalConfig config) throws Exception {
         for (String owner : config.getPredefinedOwner()) {
             if (createPortalConfig(config, owner)) {
-                this.createdOwners.add(owner);
+                this.createdOwners.add(siteKey(config.getOwnerType(), owner));
             }
         }
     }
 
     public void initPageDB(NewPortalConfig config) throws Exception {
         for (String owner : config.getPredefinedOwner()) {
-            if (this.createdOwners.contains(owner)) {
+            if (this.createdOwners.contains(siteKey(config.getOwnerType(), owner))) {
                 createPage(config, owner);
             }
         }
@@ -495,16 +629,15 @@ public class NewPortalConfigListener extends BaseComponentPlugin {
             return;
         }
         ArrayList<Page> list = pageSet.getObject().getPages();
-        for (Page page : list) {
-            RequestLifeCycle.begin(PortalContainer.getInstance());
-            try { //
-                ImportMode importMode = getRightMode(config.getImportMode());
-
+        ImportMode importMode = getRightMode(config.getImportMode());
+        RequestLifeCycle.begin(PortalContainer.getInstance());
+        try {
+            for (Page page : list) {
                 PageImporter importer = new PageImporter(importMode, page, dataStorage_, pageService_);
                 importer.perform();
-            } finally {
-                RequestLifeCycle.end();
             }
+        } finally {
+            RequestLifeCycle.end();
         }
     }
 
@@ -48,17 +48,37 @@ public final class CacheKey extends AbstractScopedKey implements Serializable {
         this.id = id;
     }
 
+    private CacheKey(String id) {
+        if (id == null) {
+            throw new NullPointerException();
+        }
+
+        //
+        this.locale = null;
+        this.id = id;
+    }
+
+    /**
+     * Returns the key of the stamp of an object, the stamp key is not bound to a locale.
+     *
+     * @param id the object id
+     * @return the stamp key
+     */
+    static CacheKey stamp(String id) {
+        return new CacheKey(id);
+    }
+
     @Override
     public boolean equals(Object obj) {
         if (super.equals(obj)) {
             CacheKey that = (CacheKey) obj;
-            return locale.equals(that.locale) && id.equals(that.id);
+            return (locale == null ? that.locale == null : locale.equals(that.locale)) && id.equals(that.id);
         }
         return false;
     }
 
     @Override
     public int hashCode() {
-        return super.hashCode() ^ locale.hashCode() ^ id.hashCode();
+        return super.hashCode() ^ (locale == null ? 0 : locale.hashCode()) ^ id.hashCode();
     }
 }
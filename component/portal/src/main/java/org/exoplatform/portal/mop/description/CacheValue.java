@@ -38,18 +38,23 @@ public class CacheValue implements Serializable {
     /** . */
     final long serial;
 
+    /** The serial of the object stamp when the value was loaded. */
+    final long stamp;
+
     /** . */
     final Described.State state;
 
-    public CacheValue(CacheKey origin, long serial, Described.State state) {
+    public CacheValue(CacheKey origin, long serial, long stamp, Described.State state) {
         this.origin = origin;
         this.serial = serial;
+        this.stamp = stamp;
         this.state = state;
     }
 
-    public CacheValue(Described.State state) {
+    public CacheValue(long stamp, Described.State state) {
         this.origin = null;
         this.serial = SEQUENCE.incrementAndGet();
+        this.stamp = stamp;
         this.state = state;
     }
 }
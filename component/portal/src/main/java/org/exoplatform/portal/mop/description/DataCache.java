@@ -19,6 +19,8 @@
 
 package org.exoplatform.portal.mop.description;
 
+import java.util.Random;
+
 import org.exoplatform.portal.mop.Described;
 import org.exoplatform.portal.mop.i18n.I18NAdapter;
 import org.exoplatform.portal.mop.i18n.Resolution;
@@ -26,34 +28,93 @@ import org.exoplatform.portal.pom.config.POMSession;
 import org.gatein.mop.api.workspace.WorkspaceObject;
 
 /**
+ * <p>
+ * The values of an object are bound to the stamp of the object when they are loaded, a resolution falls back on other
+ * locales or retains the absence of description, so an update of the object can change the values of any locale. The
+ * update removes the stamp of the object and the values bound to the removed stamp are loaded again when they are read.
+ * </p>
+ *
+ * <p>
+ * The stamp is an entry of the cache, its removal is propagated as any other entry, the locales resolved on other nodes
+ * are therefore invalidated as well.
+ * </p>
+ *
  * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
  */
 abstract class DataCache {
 
+    /** . */
+    private static final Random STAMPS = new Random();
+
     protected abstract void removeState(CacheKey key);
 
     protected abstract Described.State getState(POMSession session, CacheKey key);
 
+    /**
+     * Returns the cached value of a key without loading it.
+     *
+     * @param key the key
+     * @return the cached value or null
+     */
+    protected abstract CacheValue peekValue(CacheKey key);
+
+    /**
+     * Invalidates the values of an object for all the locales.
+     *
+     * @param id the object id
+     */
+    protected final void removeStates(String id) {
+        removeState(CacheKey.stamp(id));
+    }
+
+    /**
+     * Returns true when the value is bound to the current stamp of its object.
+     *
+     * @param key the key of the value
+     * @param value the value
+     * @return true when the value is valid
+     */
+    protected final boolean isValid(CacheKey key, CacheValue value) {
+        CacheValue stamp = peekValue(CacheKey.stamp(key.id));
+        return stamp != null && stamp.stamp == value.stamp;
+    }
+
+    private long getStamp(String id) {
+        CacheKey key = CacheKey.stamp(id);
+        CacheValue stamp = peekValue(key);
+        if (stamp == null) {
+            // The stamp is random, a serial could collide with the stamp created by another node
+            stamp = new CacheValue(STAMPS.nextLong(), null);
+            putValue(key, stamp);
+        }
+        return stamp.stamp;
+    }
+
     protected final CacheValue getValue(POMSession session, CacheKey key) {
+        long stamp = getStamp(key.id);
         WorkspaceObject obj = session.findObjectById(key.id);
         I18NAdapter able = obj.adapt(I18NAdapter.class);
         Resolution<Described> res = able.resolveI18NMixin(Described.class, key.locale);
         if (res != null) {
             Described.State state = res.getMixin().getState();
             if (key.locale.equals(res.getLocale())) {
-                CacheValue foo = new CacheValue(state);
+                CacheValue foo = new CacheValue(stamp, state);
                 putValue(key, foo);
                 return foo;
             } else {
-                CacheValue origin = new CacheValue(state);
+                CacheValue origin = new CacheValue(stamp, state);
                 CacheKey originKey = new CacheKey(res.getLocale(), key.id);
                 putValue(originKey, origin);
-                CacheValue foo = new CacheValue(originKey, origin.serial, state);
+                CacheValue foo = new CacheValue(originKey, origin.serial, stamp, state);
                 putValue(key, foo);
                 return foo;
             }
+        } else {
+            // The absence of description is cached as well since most nodes are not described
+            CacheValue foo = new CacheValue(stamp, null);
+            putValue(key, foo);
+            return foo;
         }
-        return null;
     }
 
     protected abstract void putValue(CacheKey key, CacheValue value);
@@ -19,6 +19,8 @@
 
 package org.exoplatform.portal.mop.description;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 
@@ -68,6 +70,26 @@ public interface DescriptionService {
      */
     Described.State resolveDescription(String id, Locale locale2, Locale locale1) throws NullPointerException;
 
+    /**
+     * <p>
+     * Resolve the descriptions of several objects in a single pass, each description is resolved against the
+     * <code>locales</code> argument in order until a locale resolves. The locales argument is a fallback chain such as the
+     * user locale followed by the site locale, null locales in the chain are ignored.
+     * </p>
+     *
+     * <p>
+     * The returned map contains an entry for each object that has a resolved description, the objects without a
+     * description are not present in the map.
+     * </p>
+     *
+     * @param ids the object ids
+     * @param locales the locales to resolve in order
+     * @return the resolved descriptions keyed by object id
+     * @throws NullPointerException if the <code>ids</code> or the <code>locales</code> argument is null or if an id is null
+     */
+    Map<String, Described.State> resolveDescriptions(Collection<String> ids, List<Locale> locales)
+            throws NullPointerException;
+
     /**
      * Returns the default description or null if it does not exist.
      *
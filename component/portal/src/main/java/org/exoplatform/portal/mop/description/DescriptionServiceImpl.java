@@ -21,6 +21,7 @@ package org.exoplatform.portal.mop.description;
 
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 
@@ -76,6 +77,35 @@ public class DescriptionServiceImpl implements DescriptionService {
         return state;
     }
 
+    public Map<String, Described.State> resolveDescriptions(Collection<String> ids, List<Locale> locales)
+            throws NullPointerException {
+        if (ids == null) {
+            throw new NullPointerException("No null ids accepted");
+        }
+        if (locales == null) {
+            throw new NullPointerException("No null locales accepted");
+        }
+
+        //
+        POMSession session = manager.getSession();
+        Map<String, Described.State> states = new HashMap<String, Described.State>(ids.size());
+        for (String id : ids) {
+            if (id == null) {
+                throw new NullPointerException("No null id accepted");
+            }
+            for (Locale locale : locales) {
+                if (locale != null) {
+                    Described.State state = resolveDescription(session, id, locale);
+                    if (state != null) {
+                        states.put(id, state);
+                        break;
+                    }
+                }
+            }
+        }
+        return states;
+    }
+
     private Described.State resolveDescription(POMSession session, String id, Locale locale) throws NullPointerException {
         return cache.getState(session, new CacheKey(locale, id));
     }
@@ -106,6 +136,7 @@ public class DescriptionServiceImpl implements DescriptionService {
         I18NAdapter able = obj.adapt(I18NAdapter.class);
         Described desc = able.getI18NMixin(Described.class, locale, true);
         cache.removeState(new CacheKey(locale, id));
+        cache.removeStates(id);
         desc.setState(description);
     }
 
@@ -164,6 +195,7 @@ public class DescriptionServiceImpl implements DescriptionService {
         for (Locale locale : locales) {
             cache.removeState(new CacheKey(locale, id));
         }
+        cache.removeStates(id);
 
         // Interface specifies it allows a null description map
         if (descriptions != null) {
@@ -64,9 +64,18 @@ public class ExoDataCache extends DataCache {
     @Override
     protected Described.State getState(POMSession session, CacheKey key) {
         CacheValue value = values.get(session, key);
+        if (value != null && !isValid(key, value)) {
+            cache.remove(key);
+            value = values.get(session, key);
+        }
         return value != null ? value.state : null;
     }
 
+    @Override
+    protected CacheValue peekValue(CacheKey key) {
+        return cache.get(key);
+    }
+
     @Override
     protected void putValue(CacheKey key, CacheValue value) {
         cache.put(key, value);
@@ -41,6 +41,10 @@ public class SimpleDataCache extends DataCache {
     protected Described.State getState(POMSession session, CacheKey key) {
         MarshalledObject<CacheKey> marshalledKey = MarshalledObject.marshall(key);
         MarshalledObject<CacheValue> marshalledValue = map.get(marshalledKey);
+        if (marshalledValue != null && !isValid(key, marshalledValue.unmarshall())) {
+            map.remove(marshalledKey);
+            marshalledValue = null;
+        }
         if (marshalledValue == null) {
             CacheValue value = getValue(session, key);
             if (value != null) {
@@ -54,6 +58,12 @@ public class SimpleDataCache extends DataCache {
         }
     }
 
+    @Override
+    protected CacheValue peekValue(CacheKey key) {
+        MarshalledObject<CacheValue> marshalledValue = map.get(MarshalledObject.marshall(key));
+        return marshalledValue != null ? marshalledValue.unmarshall() : null;
+    }
+
     @Override
     protected void removeState(CacheKey key) {
         map.remove(MarshalledObject.marshall(key));
@@ -1,5 +1,10 @@
 package org.exoplatform.portal.mop.page;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.exoplatform.portal.mop.SiteKey;
 import org.exoplatform.portal.mop.Utils;
 import org.exoplatform.portal.pom.config.POMSession;
 import org.gatein.mop.api.workspace.ObjectType;
@@ -11,6 +16,22 @@ abstract class DataCache {
 
     protected abstract PageData getPage(POMSession session, PageKey key);
 
+    /**
+     * Returns the data of several pages, the default implementation retrieves each page individually, subclasses can
+     * override it to retrieve the missing pages with {@link #loadPages(POMSession, Collection)}.
+     *
+     * @param session the session
+     * @param keys the page keys
+     * @return the page data keyed by page key
+     */
+    protected Map<PageKey, PageData> getPages(POMSession session, Collection<PageKey> keys) {
+        Map<PageKey, PageData> result = new HashMap<PageKey, PageData>(keys.size());
+        for (PageKey key : keys) {
+            result.put(key, getPage(session, key));
+        }
+        return result;
+    }
+
     protected abstract void removePage(POMSession session, PageKey key);
 
     protected abstract void putPage(PageData data);
@@ -29,21 +50,65 @@ abstract class DataCache {
         return data;
     }
 
+    final Map<PageKey, PageData> getPagesData(POMSession session, Collection<PageKey> keys) {
+        Map<PageKey, PageData> data;
+        if (session.isModified()) {
+            data = loadPages(session, keys);
+        } else {
+            data = getPages(session, keys);
+        }
+
+        //
+        return data;
+    }
+
     protected final PageData loadPage(POMSession session, PageKey key) {
+        return loadPage(getPagesContainer(session, key.getSite()), key);
+    }
+
+    /**
+     * Load several pages, the pages container of each site is resolved once for all the keys of the same site.
+     *
+     * @param session the session
+     * @param keys the page keys
+     * @return the page data keyed by page key
+     */
+    protected final Map<PageKey, PageData> loadPages(POMSession session, Collection<PageKey> keys) {
+        Map<SiteKey, org.gatein.mop.api.workspace.Page> containers = new HashMap<SiteKey, org.gatein.mop.api.workspace.Page>();
+        Map<PageKey, PageData> result = new HashMap<PageKey, PageData>(keys.size());
+        for (PageKey key : keys) {
+            SiteKey siteKey = key.getSite();
+            org.gatein.mop.api.workspace.Page pages;
+            if (containers.containsKey(siteKey)) {
+                pages = containers.get(siteKey);
+            } else {
+                pages = getPagesContainer(session, siteKey);
+                containers.put(siteKey, pages);
+            }
+            result.put(key, loadPage(pages, key));
+        }
+        return result;
+    }
+
+    private org.gatein.mop.api.workspace.Page getPagesContainer(POMSession session, SiteKey siteKey) {
         Workspace workspace = session.getWorkspace();
-        ObjectType<Site> objectType = Utils.objectType(key.getSite().getType());
-        Site site = workspace.getSite(objectType, key.getSite().getName());
+        ObjectType<Site> objectType = Utils.objectType(siteKey.getType());
+        Site site = workspace.getSite(objectType, siteKey.getName());
         if (site != null) {
             org.gatein.mop.api.workspace.Page root = site.getRootPage();
-            org.gatein.mop.api.workspace.Page pages = root.getChild("pages");
+            return root.getChild("pages");
+        } else {
+            return null;
+        }
+    }
+
+    private PageData loadPage(org.gatein.mop.api.workspace.Page pages, PageKey key) {
+        if (pages != null) {
             org.gatein.mop.api.workspace.Page page = pages.getChild(key.getName());
             if (page != null) {
                 return new PageData(page);
-            } else {
-                return PageData.EMPTY;
             }
-        } else {
-            return PageData.EMPTY;
         }
+        return PageData.EMPTY;
     }
 }
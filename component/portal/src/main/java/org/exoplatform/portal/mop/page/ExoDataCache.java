@@ -1,5 +1,11 @@
 package org.exoplatform.portal.mop.page;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 import org.exoplatform.commons.cache.future.FutureExoCache;
 import org.exoplatform.commons.cache.future.Loader;
 import org.exoplatform.commons.scope.ScopedKey;
@@ -34,6 +40,36 @@ public class ExoDataCache extends DataCache {
         return objects.get(session, ScopedKey.create(key));
     }
 
+    @Override
+    protected Map<PageKey, PageData> getPages(POMSession session, Collection<PageKey> keys) {
+        Map<PageKey, PageData> result = new HashMap<PageKey, PageData>(keys.size());
+        List<PageKey> missing = new ArrayList<PageKey>();
+        for (PageKey key : keys) {
+            PageData data = cache.get(ScopedKey.create(key));
+            if (data != null) {
+                result.put(key, data);
+            } else {
+                missing.add(key);
+            }
+        }
+
+        // Load the missing pages at once and populate the cache
+        if (missing.size() > 0) {
+            for (Map.Entry<PageKey, PageData> entry : loadPages(session, missing).entrySet()) {
+                PageData data = entry.getValue();
+                if (data != PageData.EMPTY) {
+                    cache.put(ScopedKey.create(entry.getKey()), data);
+                    result.put(entry.getKey(), data);
+                } else {
+                    result.put(entry.getKey(), null);
+                }
+            }
+        }
+
+        //
+        return result;
+    }
+
     @Override
     protected void removePage(POMSession session, PageKey key) {
         cache.remove(ScopedKey.create(key));
@@ -1,5 +1,8 @@
 package org.exoplatform.portal.mop.page;
 
+import java.util.Collection;
+import java.util.Map;
+
 import org.exoplatform.portal.mop.QueryResult;
 import org.exoplatform.portal.mop.SiteType;
 
@@ -23,6 +26,17 @@ public interface PageService {
      */
     PageContext loadPage(PageKey key) throws NullPointerException, PageServiceException;
 
+    /**
+     * Find and returns the pages for the specified keys in a single operation, the returned map contains an entry for each key
+     * that matches an existing page.
+     *
+     * @param keys the page keys
+     * @return the matching pages
+     * @throws NullPointerException if the keys argument or any key is null
+     * @throws PageServiceException anything that would prevent the operation to succeed
+     */
+    Map<PageKey, PageContext> loadPages(Collection<PageKey> keys) throws NullPointerException, PageServiceException;
+
     /**
      * Create, update a page. When the page state is not null, the page will be created or updated depending on whether or not
      * the page already exists.
@@ -3,7 +3,9 @@ package org.exoplatform.portal.mop.page;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.exoplatform.portal.mop.Described;
 import org.exoplatform.portal.mop.ProtectedContainer;
@@ -80,6 +82,30 @@ public class PageServiceImpl implements PageService {
         return data != null && data != PageData.EMPTY ? new PageContext(data) : null;
     }
 
+    @Override
+    public Map<PageKey, PageContext> loadPages(Collection<PageKey> keys) {
+        if (keys == null) {
+            throw new NullPointerException();
+        }
+        for (PageKey key : keys) {
+            if (key == null) {
+                throw new NullPointerException("No null page key accepted");
+            }
+        }
+
+        //
+        POMSession session = manager.getSession();
+        Map<PageKey, PageData> datas = dataCache.getPagesData(session, keys);
+        Map<PageKey, PageContext> pages = new HashMap<PageKey, PageContext>(datas.size());
+        for (Map.Entry<PageKey, PageData> entry : datas.entrySet()) {
+            PageData data = entry.getValue();
+            if (data != null && data != PageData.EMPTY) {
+                pages.put(entry.getKey(), new PageContext(data));
+            }
+        }
+        return pages;
+    }
+
     /**
      * <p>
      * Load all the pages of a specific site. Note that this method can potentially raise performance issues if the number of
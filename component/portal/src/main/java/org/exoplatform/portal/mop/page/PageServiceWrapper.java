@@ -1,6 +1,8 @@
 package org.exoplatform.portal.mop.page;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 import javax.transaction.Status;
 
@@ -64,6 +66,11 @@ public class PageServiceWrapper implements PageService {
         return service.loadPage(key);
     }
 
+    @Override
+    public Map<PageKey, PageContext> loadPages(Collection<PageKey> keys) {
+        return service.loadPages(keys);
+    }
+
     public List<PageContext> loadPages(SiteKey siteKey) throws NullPointerException, PageServiceException {
         return service.loadPages(siteKey);
     }
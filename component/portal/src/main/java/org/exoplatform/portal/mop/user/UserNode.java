@@ -171,10 +171,7 @@ public class UserNode {
             ResourceBundle bundle = owner.navigation.getBundle();
             resolvedLabel = ExpressionUtil.getExpressionValue(bundle, context.getState().getLabel());
         } else if (id != null) {
-            Locale userLocale = owner.navigation.portal.context.getUserLocale();
-            Locale portalLocale = owner.navigation.portal.getLocale();
-            DescriptionService descriptionService = owner.navigation.portal.service.getDescriptionService();
-            Described.State description = descriptionService.resolveDescription(id, portalLocale, userLocale);
+            Described.State description = owner.resolveDescription(this);
             if (description != null) {
                 resolvedLabel = description.getName();
             }
@@ -197,6 +194,7 @@ public class UserNode {
         Described.State description = new Described.State(label, null);
 
         descriptionService.setDescription(id, userLocale, description);
+        owner.invalidateDescriptions();
     }
 
     public String getEncodedResolvedLabel() {
@@ -19,6 +19,15 @@
 
 package org.exoplatform.portal.mop.user;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.exoplatform.portal.mop.Described;
+import org.exoplatform.portal.mop.description.DescriptionService;
 import org.exoplatform.portal.mop.navigation.NodeContext;
 import org.exoplatform.portal.mop.navigation.NodeModel;
 
@@ -36,6 +45,12 @@ class UserNodeContext implements NodeModel<UserNode> {
     /** . */
     private UserNodeFilter filter;
 
+    /** The resolved descriptions, an entry with a null value is a node without description. */
+    private Map<String, Described.State> descriptions;
+
+    /** The locales of the resolved descriptions. */
+    private List<Locale> descriptionLocales;
+
     UserNodeContext(UserNavigation navigation, UserNodeFilterConfig filterConfig) {
         this.filterConfig = filterConfig;
         this.navigation = navigation;
@@ -54,7 +69,54 @@ class UserNodeContext implements NodeModel<UserNode> {
             if (filter == null) {
                 filter = new UserNodeFilter(navigation.portal, filterConfig);
             }
-            userNode.context.filter(filter);
+            filter.begin(userNode.context);
+            try {
+                userNode.context.filter(filter);
+            } finally {
+                filter.end();
+            }
+        }
+    }
+
+    /**
+     * Resolves the description of a node, the descriptions of its siblings without label are resolved at the same time
+     * since a node is usually rendered with its siblings.
+     *
+     * @param userNode the node
+     * @return the description
+     */
+    Described.State resolveDescription(UserNode userNode) {
+        List<Locale> locales = Arrays.asList(navigation.portal.context.getUserLocale(), navigation.portal.getLocale());
+        if (descriptions == null || !locales.equals(descriptionLocales)) {
+            descriptions = new HashMap<String, Described.State>();
+            descriptionLocales = locales;
+        }
+        String id = userNode.getId();
+        if (!descriptions.containsKey(id)) {
+            List<String> ids = new ArrayList<String>();
+            ids.add(id);
+            UserNode parent = userNode.getParent();
+            if (parent != null) {
+                for (UserNode sibling : parent.getChildren()) {
+                    String siblingId = sibling.getId();
+                    if (siblingId != null && sibling.getLabel() == null && !descriptions.containsKey(siblingId)) {
+                        ids.add(siblingId);
+                    }
+                }
+            }
+            DescriptionService descriptionService = navigation.portal.service.getDescriptionService();
+            Map<String, Described.State> resolved = descriptionService.resolveDescriptions(ids, locales);
+            for (String resolvedId : ids) {
+                descriptions.put(resolvedId, resolved.get(resolvedId));
+            }
         }
+        return descriptions.get(id);
+    }
+
+    /**
+     * Discards the resolved descriptions, it is invoked when the nodes are updated with the latest state.
+     */
+    void invalidateDescriptions() {
+        descriptions = null;
     }
 }
@@ -19,8 +19,14 @@
 
 package org.exoplatform.portal.mop.user;
 
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
 import org.exoplatform.portal.config.UserACL;
 import org.exoplatform.portal.mop.Visibility;
+import org.exoplatform.portal.mop.navigation.NodeContext;
 import org.exoplatform.portal.mop.navigation.NodeFilter;
 import org.exoplatform.portal.mop.navigation.NodeState;
 import org.exoplatform.portal.mop.page.PageContext;
@@ -38,6 +44,12 @@ class UserNodeFilter implements NodeFilter {
     /** . */
     private final UserNodeFilterConfig config;
 
+    /** The pages resolved by the current batch or null when no batch is active. */
+    private Map<PageKey, PageContext> pages;
+
+    /** The read permissions resolved during the current batch. */
+    private Map<PageKey, Boolean> readPermissions;
+
     public UserNodeFilter(UserPortalImpl userPortal, UserNodeFilterConfig config) {
         if (userPortal == null) {
             throw new NullPointerException();
@@ -51,13 +63,81 @@ class UserNodeFilter implements NodeFilter {
         this.config = config;
     }
 
+    /**
+     * Begins a batch: the pages referenced by the context and its expanded descendants are loaded at once and the pages
+     * and the read permissions are memoized until {@link #end()} is called.
+     *
+     * @param context the context
+     */
+    void begin(NodeContext<?> context) {
+        if (config.authorizationMode != UserNodeFilterConfig.AUTH_NO_CHECK) {
+            Set<PageKey> keys = new HashSet<PageKey>();
+            collect(context, keys);
+            pages = new HashMap<PageKey, PageContext>();
+            if (keys.size() > 0) {
+                try {
+                    pages.putAll(userPortal.service.getPageService().loadPages(keys));
+
+                    // Remember the missing pages as well
+                    for (PageKey key : keys) {
+                        if (!pages.containsKey(key)) {
+                            pages.put(key, null);
+                        }
+                    }
+                } catch (Exception ignore) {
+                    // The pages will be loaded one by one
+                }
+            }
+            readPermissions = new HashMap<PageKey, Boolean>();
+        }
+    }
+
+    /**
+     * Ends the current batch.
+     */
+    void end() {
+        pages = null;
+        readPermissions = null;
+    }
+
+    private void collect(NodeContext<?> context, Set<PageKey> keys) {
+        NodeState state = context.getState();
+        if (state != null && state.getPageRef() != null) {
+            keys.add(state.getPageRef());
+        }
+        if (context.isExpanded()) {
+            for (NodeContext<?> child = context.getFirst(); child != null; child = child.getNext()) {
+                collect(child, keys);
+            }
+        }
+    }
+
+    private PageContext loadPage(PageKey pageRef) {
+        if (pages != null && pages.containsKey(pageRef)) {
+            return pages.get(pageRef);
+        }
+        PageContext page = userPortal.service.getPageService().loadPage(pageRef);
+        if (pages != null) {
+            pages.put(pageRef, page);
+        }
+        return page;
+    }
+
     private boolean canRead(NodeState state) {
         PageKey pageRef = state.getPageRef();
         if (pageRef != null) {
+            Boolean readable = readPermissions != null ? readPermissions.get(pageRef) : null;
+            if (readable != null) {
+                return readable;
+            }
             try {
-                PageContext page = userPortal.service.getPageService().loadPage(pageRef);
+                PageContext page = loadPage(pageRef);
                 if (page != null) {
-                    return userPortal.service.getUserACL().hasPermission(page);
+                    readable = userPortal.service.getUserACL().hasPermission(page);
+                    if (readPermissions != null) {
+                        readPermissions.put(pageRef, readable);
+                    }
+                    return readable;
                 }
             } catch (Exception ignore) {
             }
@@ -69,7 +149,7 @@ class UserNodeFilter implements NodeFilter {
         PageKey pageRef = state.getPageRef();
         if (pageRef != null) {
             try {
-                PageContext page = userPortal.service.getPageService().loadPage(pageRef);
+                PageContext page = loadPage(pageRef);
                 if (page != null) {
                     return userPortal.service.getUserACL().hasEditPermission(page);
                 }
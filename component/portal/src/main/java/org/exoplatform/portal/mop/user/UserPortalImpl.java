@@ -211,6 +211,7 @@ public class UserPortalImpl implements UserPortal {
             throw new NullPointerException("No null node accepted");
         }
         service.getNavigationService().updateNode(node.context, scope, new UserNodeListener(listener));
+        node.owner.invalidateDescriptions();
         node.filter();
     }
 
@@ -220,6 +221,7 @@ public class UserPortalImpl implements UserPortal {
             throw new NullPointerException("No null node accepted");
         }
         service.getNavigationService().rebaseNode(node.context, scope, new UserNodeListener(listener));
+        node.owner.invalidateDescriptions();
         node.filter();
     }
 
@@ -321,10 +323,15 @@ public class UserPortalImpl implements UserPortal {
                 UserNodeFilter filter = new UserNodeFilter(userNavigation.portal, filterConfig);
 
                 // Filter node by node
-                for (UserNode node : root.getChildren()) {
-                    if (node.context.accept(filter)) {
-                        return node;
+                filter.begin(nodeContext);
+                try {
+                    for (UserNode node : root.getChildren()) {
+                        if (node.context.accept(filter)) {
+                            return node;
+                        }
                     }
+                } finally {
+                    filter.end();
                 }
             }
         }
@@ -29,6 +29,8 @@ import javax.transaction.Status;
 import org.chromattic.api.ChromatticSession;
 import org.exoplatform.commons.utils.IOUtil;
 import org.exoplatform.commons.utils.LazyPageList;
+import org.exoplatform.commons.utils.ListAccess;
+import org.exoplatform.commons.utils.ListAccessImpl;
 import org.exoplatform.container.configuration.ConfigurationManager;
 import org.exoplatform.portal.application.PortletPreferences;
 import org.exoplatform.portal.config.NoSuchDataException;
@@ -214,6 +216,20 @@ public class POMDataStorage implements ModelDataStorage {
         }
     }
 
+    public <T> ListAccess<T> find2(Query<T> q) throws Exception {
+        Class<T> type = q.getClassType();
+        if (PortalData.class.equals(type)) {
+            final SearchTask.FindSite task = new SearchTask.FindSite((Query<PortalData>) q);
+            return (ListAccess<T>) pomMgr.execute(new POMTask<ListAccess<PortalData>>() {
+                public ListAccess<PortalData> run(POMSession session) {
+                    return task.access(session);
+                }
+            });
+        } else {
+            return new ListAccessImpl<T>(type, find(q).getAll());
+        }
+    }
+
     /**
      * This is a hack and should be removed, it is only used temporarily. This is because the objects are loaded from files and
      * don't have name.
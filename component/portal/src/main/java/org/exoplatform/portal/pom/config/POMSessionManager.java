@@ -21,19 +21,31 @@ package org.exoplatform.portal.pom.config;
 
 import java.io.Serializable;
 import java.lang.reflect.UndeclaredThrowableException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.exoplatform.commons.chromattic.ChromatticLifeCycle;
 import org.exoplatform.commons.chromattic.ChromatticManager;
 import org.exoplatform.commons.chromattic.SessionContext;
 import org.exoplatform.commons.scope.ScopedKey;
+import org.exoplatform.commons.utils.PropertyManager;
+import org.exoplatform.management.annotations.Managed;
+import org.exoplatform.management.annotations.ManagedDescription;
+import org.exoplatform.management.jmx.annotations.NameTemplate;
+import org.exoplatform.management.jmx.annotations.Property;
+import org.exoplatform.management.rest.annotations.RESTEndpoint;
 import org.exoplatform.portal.pom.config.cache.DataCache;
+import org.exoplatform.portal.pom.config.cache.NearCache;
 import org.exoplatform.portal.pom.config.cache.PortalNamesCache;
 import org.exoplatform.portal.pom.data.OwnerKey;
 import org.exoplatform.portal.pom.data.PortalKey;
+import org.exoplatform.services.cache.CacheListener;
+import org.exoplatform.services.cache.CacheListenerContext;
 import org.exoplatform.services.cache.CacheService;
-import org.exoplatform.services.cache.CachedObjectSelector;
 import org.exoplatform.services.cache.ExoCache;
-import org.exoplatform.services.cache.ObjectCacheInfo;
 import org.exoplatform.services.jcr.RepositoryService;
 import org.gatein.common.logging.Logger;
 import org.gatein.common.logging.LoggerFactory;
@@ -44,6 +56,11 @@ import org.picocontainer.Startable;
  * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
  * @version $Revision$
  */
+@Managed
+@ManagedDescription("MOP session manager")
+@NameTemplate({ @Property(key = "view", value = "portal"), @Property(key = "service", value = "cache"),
+        @Property(key = "type", value = "mop") })
+@RESTEndpoint(path = "mopcache")
 public class POMSessionManager implements Startable {
 
     /** . */
@@ -55,6 +72,16 @@ public class POMSessionManager implements Startable {
     /** . */
     private final ExoCache<ScopedKey<?>, Object> cache;
 
+    /**
+     * The keys of the cached entries indexed by owner, it allows to evict the entries of a site without scanning the cache.
+     * The set of an owner is removed when it becomes empty, the modifications of a set are guarded by the set itself so a
+     * key is never added to a set that was removed.
+     */
+    private final ConcurrentMap<Owner, Set<ScopedKey<?>>> owners;
+
+    /** The optional per node cache in front of the shared cache. */
+    private final NearCache<ScopedKey<?>> nearCache;
+
     /** . */
     final ChromatticManager manager;
 
@@ -72,6 +99,48 @@ public class POMSessionManager implements Startable {
         this.repositoryService = repositoryService;
         this.manager = manager;
         this.cache = cacheService.getCacheInstance("MOPSessionManager");
+        this.owners = new ConcurrentHashMap<Owner, Set<ScopedKey<?>>>();
+
+        //
+        int nearCacheSize = 0;
+        String size = PropertyManager.getProperty("gatein.cache.mop.near.maxsize");
+        if (size != null) {
+            try {
+                nearCacheSize = Integer.parseInt(size.trim());
+            } catch (NumberFormatException e) {
+                log.error("Invalid near cache size " + size + ", the near cache is disabled");
+            }
+        }
+        this.nearCache = nearCacheSize > 0 ? new NearCache<ScopedKey<?>>(nearCacheSize) : null;
+
+        // The listener keeps the index in sync with the cache, this includes the modifications that are replicated
+        // from other cluster nodes and the entries that are evicted by the cache itself
+        this.cache.addCacheListener(new CacheListener<ScopedKey<?>, Object>() {
+            public void onExpire(CacheListenerContext context, ScopedKey<?> key, Object obj) throws Exception {
+                unindex(key);
+                nearRemove(key);
+            }
+
+            public void onRemove(CacheListenerContext context, ScopedKey<?> key, Object obj) throws Exception {
+                unindex(key);
+                nearRemove(key);
+            }
+
+            public void onPut(CacheListenerContext context, ScopedKey<?> key, Object obj) throws Exception {
+                index(key);
+                nearRemove(key);
+            }
+
+            public void onGet(CacheListenerContext context, ScopedKey<?> key, Object obj) throws Exception {
+            }
+
+            public void onClearCache(CacheListenerContext context) throws Exception {
+                owners.clear();
+                if (nearCache != null) {
+                    nearCache.clear();
+                }
+            }
+        });
         this.pomService = null;
         this.executor = new PortalNamesCache(new DataCache(new ExecutorDispatcher()));
     }
@@ -89,6 +158,7 @@ public class POMSessionManager implements Startable {
         }
 
         //
+        index(globalKey);
         cache.put(globalKey, value);
     }
 
@@ -96,7 +166,19 @@ public class POMSessionManager implements Startable {
         ScopedKey globalKey = ScopedKey.create(key);
 
         //
-        Object value = cache.get(globalKey);
+        Object value;
+        if (nearCache != null) {
+            value = nearCache.get(globalKey);
+            if (value == null) {
+                long version = nearCache.getVersion(globalKey);
+                value = cache.get(globalKey);
+                if (value != null) {
+                    nearCache.put(globalKey, value, version);
+                }
+            }
+        } else {
+            value = cache.get(globalKey);
+        }
 
         //
         if (log.isTraceEnabled()) {
@@ -117,36 +199,68 @@ public class POMSessionManager implements Startable {
 
         //
         if (key instanceof PortalKey) {
-            // This code seems complex but actually it tries to find all objects in cache that have the same
-            // owner key than the portal key, for instance if we remove (portal,classic) then all pages
-            // related to (portal,classic) are also evicted
-            final PortalKey portalKey = (PortalKey) key;
-            try {
-                cache.select(new CachedObjectSelector<ScopedKey<?>, Object>() {
-                    public boolean select(ScopedKey<?> selectedGlobalKey, ObjectCacheInfo<?> ocinfo) {
-                        if (globalKey.getScope().equals(selectedGlobalKey.getScope())) {
-                            Serializable selectedLocalKey = selectedGlobalKey.getKey();
-                            if (selectedLocalKey instanceof OwnerKey) {
-                                OwnerKey selectedOwnerKey = (OwnerKey) selectedLocalKey;
-                                if (selectedOwnerKey.getType().equals(portalKey.getType())
-                                        && selectedOwnerKey.getId().equals(portalKey.getId())) {
-                                    return true;
-                                }
-                            }
-                        }
-                        return false;
+            // Evict all objects in cache that have the same owner key than the portal key, for instance if we
+            // remove (portal,classic) then all pages related to (portal,classic) are also evicted
+            PortalKey portalKey = (PortalKey) key;
+            Set<ScopedKey<?>> keys = owners.get(new Owner(globalKey.getScope(), portalKey));
+            if (keys != null) {
+                for (ScopedKey<?> ownedKey : new ArrayList<ScopedKey<?>>(keys)) {
+                    unindex(ownedKey);
+                    nearRemove(ownedKey);
+                    cache.remove(ownedKey);
+                }
+            }
+            unindex(globalKey);
+            nearRemove(globalKey);
+            cache.remove(globalKey);
+        } else {
+            unindex(globalKey);
+            nearRemove(globalKey);
+            cache.remove(globalKey);
+        }
+    }
+
+    private void nearRemove(ScopedKey<?> globalKey) {
+        if (nearCache != null) {
+            nearCache.remove(globalKey);
+        }
+    }
+
+    private void index(ScopedKey<?> globalKey) {
+        if (globalKey.getKey() instanceof OwnerKey) {
+            Owner owner = new Owner(globalKey.getScope(), (OwnerKey) globalKey.getKey());
+            while (true) {
+                Set<ScopedKey<?>> keys = owners.get(owner);
+                if (keys == null) {
+                    keys = Collections.newSetFromMap(new ConcurrentHashMap<ScopedKey<?>, Boolean>());
+                    Set<ScopedKey<?>> previous = owners.putIfAbsent(owner, keys);
+                    if (previous != null) {
+                        keys = previous;
                     }
+                }
+                synchronized (keys) {
+                    // The set may have been removed concurrently when it became empty, retry with a new set
+                    if (owners.get(owner) == keys) {
+                        keys.add(globalKey);
+                        break;
+                    }
+                }
+            }
+        }
+    }
 
-                    public void onSelect(ExoCache<? extends ScopedKey<?>, ?> exoCache, ScopedKey<?> key,
-                            ObjectCacheInfo<?> ocinfo) throws Exception {
-                        cache.remove(key);
+    private void unindex(ScopedKey<?> globalKey) {
+        if (globalKey.getKey() instanceof OwnerKey) {
+            Owner owner = new Owner(globalKey.getScope(), (OwnerKey) globalKey.getKey());
+            Set<ScopedKey<?>> keys = owners.get(owner);
+            if (keys != null) {
+                synchronized (keys) {
+                    keys.remove(globalKey);
+                    if (keys.isEmpty()) {
+                        owners.remove(owner, keys);
                     }
-                });
-            } catch (Exception e) {
-                log.error("Unexpected error when clearing pom cache", e);
+                }
             }
-        } else {
-            cache.remove(globalKey);
         }
     }
 
@@ -177,6 +291,54 @@ public class POMSessionManager implements Startable {
 
         //
         cache.clearCache();
+        owners.clear();
+        if (nearCache != null) {
+            nearCache.clear();
+        }
+    }
+
+    @Managed
+    @ManagedDescription("The number of owners having cached entries")
+    public int getOwnerCount() {
+        return owners.size();
+    }
+
+    @Managed
+    @ManagedDescription("Whether the near cache is enabled")
+    public boolean isNearCacheEnabled() {
+        return nearCache != null;
+    }
+
+    @Managed
+    @ManagedDescription("The number of lookups served by the near cache, i.e the shared cache gets that were avoided")
+    public long getNearCacheHits() {
+        return nearCache != null ? nearCache.getHits() : 0;
+    }
+
+    @Managed
+    @ManagedDescription("The number of lookups delegated to the shared cache")
+    public long getNearCacheMisses() {
+        return nearCache != null ? nearCache.getMisses() : 0;
+    }
+
+    @Managed
+    @ManagedDescription("The ratio of the lookups served by the near cache")
+    public double getNearCacheHitRatio() {
+        long hits = getNearCacheHits();
+        long total = hits + getNearCacheMisses();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    @Managed
+    @ManagedDescription("The number of invalidations of the near cache")
+    public long getNearCacheInvalidations() {
+        return nearCache != null ? nearCache.getInvalidations() : 0;
+    }
+
+    @Managed
+    @ManagedDescription("The number of entries in the near cache")
+    public int getNearCacheSize() {
+        return nearCache != null ? nearCache.getSize() : 0;
     }
 
     public MOPService getPOMService() {
@@ -228,4 +390,43 @@ public class POMSessionManager implements Startable {
         return executor.execute(session, task);
     }
 
+
+    /**
+     * Identifies the owner of cached entries: the scope of the cache key and the type and id of the owner key.
+     */
+    private static final class Owner {
+
+        /** . */
+        private final String scope;
+
+        /** . */
+        private final String type;
+
+        /** . */
+        private final String id;
+
+        private Owner(String scope, OwnerKey key) {
+            this.scope = scope;
+            this.type = key.getType();
+            this.id = key.getId();
+        }
+
+        @Override
+        public int hashCode() {
+            return (scope != null ? scope.hashCode() : 0) ^ type.hashCode() ^ id.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) {
+                return true;
+            }
+            if (obj instanceof Owner) {
+                Owner that = (Owner) obj;
+                return (scope != null ? scope.equals(that.scope) : that.scope == null) && type.equals(that.type)
+                        && id.equals(that.id);
+            }
+            return false;
+        }
+    }
 }
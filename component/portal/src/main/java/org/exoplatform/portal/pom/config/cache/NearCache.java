@@ -0,0 +1,184 @@
+/*
+ * Copyright (C) 2013 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.exoplatform.portal.pom.config.cache;
+
+import java.io.Serializable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * <p>
+ * A per node cache of the immutable data objects held by the shared MOP cache. It avoids the remote gets and the
+ * unmarshalling of the replicated or distributed cache for the hot objects.
+ * </p>
+ *
+ * <p>
+ * The invalidation of a key bumps the version of the key, a value is only retained when the version of its key did not
+ * change between the time it was read from the shared cache and the time it is stored in the near cache. This prevents a
+ * value read before an eviction from being stored after the eviction.
+ * </p>
+ *
+ * <p>
+ * The versions are striped by key hash in a fixed array so they do not grow with the keys, the invalidation of a key only
+ * rejects the concurrent stores of the keys of the same stripe. A clear bumps all the versions.
+ * </p>
+ *
+ * <p>
+ * The cache is bounded, it is cleared when it reaches its maximum size.
+ * </p>
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
+public class NearCache<K extends Serializable> {
+
+    /** . */
+    private final ConcurrentMap<K, Object> entries;
+
+    /** . */
+    private final int maxSize;
+
+    /** The number of version stripes, a power of two. */
+    private static final int VERSION_STRIPES = 1024;
+
+    /** . */
+    private final AtomicLongArray versions;
+
+    /** . */
+    private final AtomicLong hits;
+
+    /** . */
+    private final AtomicLong misses;
+
+    /** . */
+    private final AtomicLong invalidations;
+
+    public NearCache(int maxSize) throws IllegalArgumentException {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Invalid max size " + maxSize);
+        }
+
+        //
+        this.entries = new ConcurrentHashMap<K, Object>();
+        this.maxSize = maxSize;
+        this.versions = new AtomicLongArray(VERSION_STRIPES);
+        this.hits = new AtomicLong();
+        this.misses = new AtomicLong();
+        this.invalidations = new AtomicLong();
+    }
+
+    /**
+     * Returns the current version of a key, it must be obtained before reading the value from the shared cache.
+     *
+     * @param key the key
+     * @return the version
+     */
+    public long getVersion(K key) {
+        return versions.get(stripe(key));
+    }
+
+    /**
+     * Returns a value or null when the value is not cached, a null value counts as a miss.
+     *
+     * @param key the key
+     * @return the value
+     */
+    public Object get(K key) {
+        Object value = entries.get(key);
+        if (value != null) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+        }
+        return value;
+    }
+
+    /**
+     * Stores a value read from the shared cache.
+     *
+     * @param key the key
+     * @param value the value
+     * @param version the version of the key obtained before the value was read
+     */
+    public void put(K key, Object value, long version) {
+        int stripe = stripe(key);
+        if (versions.get(stripe) == version) {
+            if (entries.size() >= maxSize) {
+                entries.clear();
+            }
+            entries.put(key, value);
+
+            // An invalidation happened concurrently
+            if (versions.get(stripe) != version) {
+                entries.remove(key);
+            }
+        }
+    }
+
+    public void remove(K key) {
+        versions.incrementAndGet(stripe(key));
+        invalidations.incrementAndGet();
+        entries.remove(key);
+    }
+
+    public void clear() {
+        for (int i = 0; i < VERSION_STRIPES; i++) {
+            versions.incrementAndGet(i);
+        }
+        invalidations.incrementAndGet();
+        entries.clear();
+    }
+
+    static int stripe(Object key) {
+        int h = key.hashCode();
+        return (h ^ (h >>> 16)) & (VERSION_STRIPES - 1);
+    }
+
+    public int getSize() {
+        return entries.size();
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Returns the number of lookups served by the near cache, i.e the number of shared cache gets that were avoided.
+     *
+     * @return the hit count
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * Returns the number of lookups that were delegated to the shared cache.
+     *
+     * @return the miss count
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getInvalidations() {
+        return invalidations.get();
+    }
+}
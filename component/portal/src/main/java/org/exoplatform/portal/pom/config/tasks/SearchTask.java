@@ -78,18 +78,42 @@ public abstract class SearchTask<T> implements POMTask<LazyPageList<T>> {
         }
 
         public LazyPageList<PortalData> run(final POMSession session) {
+            return new LazyPageList<PortalData>(access(session), 10);
+        }
+
+        /**
+         * Returns a list access over the sites matching the query, the sites are mapped lazily only when the window they
+         * belong to is loaded.
+         *
+         * @param session the session
+         * @return the list access
+         */
+        public ListAccess<PortalData> access(final POMSession session) {
             Workspace workspace = session.getWorkspace();
             String ownerType = q.getOwnerType();
             ObjectType<Site> siteType = ownerType == null ? ObjectType.PORTAL_SITE : Mapper.parseSiteType(ownerType);
             final Collection<? extends Site> portals = workspace.getSites(siteType);
-            final Iterator<? extends Site> iterator = portals.iterator();
-            ListAccess<PortalData> la = new ListAccess<PortalData>() {
+            return new ListAccess<PortalData>() {
+
+                /** . */
+                private Iterator<? extends Site> iterator;
+
+                /** The index of the next site returned by the iterator. */
+                private int cursor;
+
                 public PortalData[] load(int index, int length) throws Exception {
-                    // Iterator<? extends Site> iterator = portals.iterator();
+                    if (iterator == null || index < cursor) {
+                        iterator = portals.iterator();
+                        cursor = 0;
+                    }
+                    for (; cursor < index; cursor++) {
+                        iterator.next();
+                    }
                     Mapper mapper = new Mapper(session);
                     PortalData[] result = new PortalData[length];
                     for (int i = 0; i < length; i++) {
                         result[i] = mapper.load(iterator.next());
+                        cursor++;
                     }
                     return result;
                 }
@@ -98,7 +122,6 @@ public abstract class SearchTask<T> implements POMTask<LazyPageList<T>> {
                     return portals.size();
                 }
             };
-            return new LazyPageList<PortalData>(la, 10);
         }
     }
 
@@ -23,6 +23,7 @@ import java.util.Comparator;
 import java.util.List;
 
 import org.exoplatform.commons.utils.LazyPageList;
+import org.exoplatform.commons.utils.ListAccess;
 import org.exoplatform.portal.config.Query;
 import org.exoplatform.portal.config.model.ApplicationState;
 import org.exoplatform.portal.config.model.ApplicationType;
@@ -67,6 +68,16 @@ public interface ModelDataStorage {
 
     <T> LazyPageList<T> find(Query<T> q, Comparator<T> sortComparator) throws Exception;
 
+    /**
+     * Returns a list access over the query results, unlike {@link #find(Query)} the implementation should only load the
+     * elements of the windows that are requested.
+     *
+     * @param q the query
+     * @return the list access
+     * @throws Exception any exception
+     */
+    <T> ListAccess<T> find2(Query<T> q) throws Exception;
+
     Container getSharedLayout() throws Exception;
 
     DashboardData loadDashboard(String dashboardId) throws Exception;
@@ -0,0 +1,189 @@
+/*
+ * Copyright (C) 2011 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.exoplatform.portal.tree.diff;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Computes a longest common subsequence of two lists in linear space with the divide and conquer algorithm of Eugene Myers
+ * described in <i>An O(ND) Difference Algorithm and Its Variations</i>. The common prefix and suffix are trimmed before
+ * each bisection. The result is provided as two bit sets marking the elements of each list that belong to the common
+ * subsequence, the n-th marked element of the first list is paired with the n-th marked element of the second list.
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
+class LinearDiff<E> {
+
+    /** . */
+    private final ListDiff<?, ?, E> diff;
+
+    /** . */
+    private final E[] elements1;
+
+    /** . */
+    private final E[] elements2;
+
+    /** . */
+    final BitSet common1;
+
+    /** . */
+    final BitSet common2;
+
+    /** The forward furthest reaching paths. */
+    private final int[] v1;
+
+    /** The backward furthest reaching paths. */
+    private final int[] v2;
+
+    LinearDiff(ListDiff<?, ?, E> diff, E[] elements1, E[] elements2) {
+        int max = (elements1.length + elements2.length + 1) / 2;
+
+        //
+        this.diff = diff;
+        this.elements1 = elements1;
+        this.elements2 = elements2;
+        this.common1 = new BitSet(elements1.length);
+        this.common2 = new BitSet(elements2.length);
+        this.v1 = new int[2 * max + 2];
+        this.v2 = new int[2 * max + 2];
+    }
+
+    void perform() {
+        diff(0, elements1.length, 0, elements2.length);
+    }
+
+    private void diff(int from1, int to1, int from2, int to2) {
+        // Trim the common prefix
+        while (from1 < to1 && from2 < to2 && diff.equals(elements1[from1], elements2[from2])) {
+            common1.set(from1++);
+            common2.set(from2++);
+        }
+
+        // Trim the common suffix
+        while (from1 < to1 && from2 < to2 && diff.equals(elements1[to1 - 1], elements2[to2 - 1])) {
+            common1.set(--to1);
+            common2.set(--to2);
+        }
+
+        //
+        if (from1 < to1 && from2 < to2) {
+            bisect(from1, to1, from2, to2);
+        }
+    }
+
+    /**
+     * Find the middle snake of the shortest edit path and recurse on each side of it.
+     */
+    private void bisect(int from1, int to1, int from2, int to2) {
+        int n = to1 - from1;
+        int m = to2 - from2;
+        int max = (n + m + 1) / 2;
+        int offset = max;
+        int length = 2 * max;
+        Arrays.fill(v1, 0, length + 2, -1);
+        Arrays.fill(v2, 0, length + 2, -1);
+        v1[offset + 1] = 0;
+        v2[offset + 1] = 0;
+        int delta = n - m;
+
+        // When delta is odd the paths overlap in the forward pass otherwise in the backward pass
+        boolean front = (delta & 1) != 0;
+
+        // Number of diagonals to skip because they went out of the edit graph
+        int start1 = 0;
+        int end1 = 0;
+        int start2 = 0;
+        int end2 = 0;
+
+        //
+        for (int d = 0; d < max; d++) {
+
+            // Forward path
+            for (int k1 = -d + start1; k1 <= d - end1; k1 += 2) {
+                int index1 = offset + k1;
+                int x1;
+                if (k1 == -d || (k1 != d && v1[index1 - 1] < v1[index1 + 1])) {
+                    x1 = v1[index1 + 1];
+                } else {
+                    x1 = v1[index1 - 1] + 1;
+                }
+                int y1 = x1 - k1;
+                while (x1 < n && y1 < m && diff.equals(elements1[from1 + x1], elements2[from2 + y1])) {
+                    x1++;
+                    y1++;
+                }
+                v1[index1] = x1;
+                if (x1 > n) {
+                    end1 += 2;
+                } else if (y1 > m) {
+                    start1 += 2;
+                } else if (front) {
+                    int index2 = offset + delta - k1;
+                    if (index2 >= 0 && index2 < length && v2[index2] != -1) {
+                        if (x1 >= n - v2[index2]) {
+                            split(from1, to1, from2, to2, x1, y1);
+                            return;
+                        }
+                    }
+                }
+            }
+
+            // Backward path
+            for (int k2 = -d + start2; k2 <= d - end2; k2 += 2) {
+                int index2 = offset + k2;
+                int x2;
+                if (k2 == -d || (k2 != d && v2[index2 - 1] < v2[index2 + 1])) {
+                    x2 = v2[index2 + 1];
+                } else {
+                    x2 = v2[index2 - 1] + 1;
+                }
+                int y2 = x2 - k2;
+                while (x2 < n && y2 < m && diff.equals(elements1[to1 - x2 - 1], elements2[to2 - y2 - 1])) {
+                    x2++;
+                    y2++;
+                }
+                v2[index2] = x2;
+                if (x2 > n) {
+                    end2 += 2;
+                } else if (y2 > m) {
+                    start2 += 2;
+                } else if (!front) {
+                    int index1 = offset + delta - k2;
+                    if (index1 >= 0 && index1 < length && v1[index1] != -1) {
+                        int x1 = v1[index1];
+                        int y1 = offset + x1 - index1;
+                        if (x1 >= n - x2) {
+                            split(from1, to1, from2, to2, x1, y1);
+                            return;
+                        }
+                    }
+                }
+            }
+        }
+
+        // No common element
+    }
+
+    private void split(int from1, int to1, int from2, int to2, int x, int y) {
+        diff(from1, from1 + x, from2, from2 + y);
+        diff(from1 + x, to1, from2 + y, to2);
+    }
+}
@@ -23,13 +23,15 @@ package org.exoplatform.portal.tree.diff;
  * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
  */
 
+import java.util.BitSet;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 
 
 /**
  * Iterates over a list of {@link ListChangeType} computed from two list of objects. The implementation is optimized to use the
- * LCS algorithm only when needed, for trivial list no LCS computation should be required.
+ * LCS algorithm only when needed, for trivial list no LCS computation should be required. When the LCS matrix would be larger
+ * than the {@link ListDiff} matrix threshold, the changes are computed by {@link LinearDiff} in linear space instead.
  *
  * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
  */
@@ -44,6 +46,9 @@ public class ListChangeIterator<L1, L2, E> implements Iterator<ListChangeType> {
     /** . */
     private static final int LCS_MODE = 1;
 
+    /** . */
+    private static final int LINEAR_MODE = 2;
+
     /** . */
     ListDiff<L1, L2, E> diff;
 
@@ -94,6 +99,23 @@ public class ListChangeIterator<L1, L2, E> implements Iterator<ListChangeType> {
     /** . */
     private int n;
 
+    // Linear state
+
+    /** The offset at which the linear diff starts. */
+    private int offset;
+
+    /** The elements of the list 1 that are common, relative to the offset. */
+    private BitSet common1;
+
+    /** The elements of the list 2 that are common, relative to the offset. */
+    private BitSet common2;
+
+    /** . */
+    private int size1;
+
+    /** . */
+    private int size2;
+
     ListChangeIterator(ListDiff<L1, L2, E> diff, L1 elements1, L2 elements2) {
         this.diff = diff;
         this.elements1 = elements1;
@@ -156,8 +178,15 @@ public class ListChangeIterator<L1, L2, E> implements Iterator<ListChangeType> {
                             next1();
                             next2();
                         } else {
-                            lcs(index1, elements1, elements2);
-                            mode = LCS_MODE;
+                            long cells = (1L + diff.adapter1.size(elements1) - index1)
+                                    * (1L + diff.adapter2.size(elements2) - index1);
+                            if (cells <= diff.matrixThreshold) {
+                                lcs(index1, elements1, elements2);
+                                mode = LCS_MODE;
+                            } else {
+                                linear(index1, elements1, elements2);
+                                mode = LINEAR_MODE;
+                            }
                         }
                     } else {
                         type = ListChangeType.REMOVE;
@@ -205,6 +234,30 @@ public class ListChangeIterator<L1, L2, E> implements Iterator<ListChangeType> {
                         break;
                     }
                 }
+            } else if (mode == LINEAR_MODE) {
+                int i = index1 - offset;
+                int j = index2 - offset;
+                if (i < size1 && j < size2 && common1.get(i) && common2.get(j)) {
+                    type = ListChangeType.SAME;
+                    element = next1;
+                    next1();
+                    next2();
+                    buffered = true;
+                } else if (j < size2 && !common2.get(j)) {
+                    // Like the LCS walk, additions are reported before removals
+                    type = ListChangeType.ADD;
+                    element = next2;
+                    next2();
+                    buffered = true;
+                } else if (i < size1 && !common1.get(i)) {
+                    type = ListChangeType.REMOVE;
+                    element = next1;
+                    next1();
+                    buffered = true;
+                } else {
+                    // Force a break with buffered to false
+                    break;
+                }
             } else {
                 throw new AssertionError();
             }
@@ -276,6 +329,42 @@ public class ListChangeIterator<L1, L2, E> implements Iterator<ListChangeType> {
         }
     }
 
+    /**
+     * Compute the common elements from the specified offset with the linear space algorithm. It updates the state of this
+     * object with the relevant state.
+     *
+     * @param offset the offset
+     * @param elements1 the elements 1
+     * @param elements2 the elements 2
+     */
+    private void linear(int offset, L1 elements1, L2 elements2) {
+        E[] remaining1 = remaining(diff.adapter1.iterator(elements1, false), diff.adapter1.size(elements1), offset);
+        E[] remaining2 = remaining(diff.adapter2.iterator(elements2, false), diff.adapter2.size(elements2), offset);
+
+        //
+        LinearDiff<E> linear = new LinearDiff<E>(diff, remaining1, remaining2);
+        linear.perform();
+
+        //
+        this.offset = offset;
+        this.size1 = remaining1.length;
+        this.size2 = remaining2.length;
+        this.common1 = linear.common1;
+        this.common2 = linear.common2;
+    }
+
+    private E[] remaining(Iterator<E> iterator, int size, int offset) {
+        for (int i = 0; i < offset; i++) {
+            iterator.next();
+        }
+        @SuppressWarnings("unchecked")
+        E[] remaining = (E[]) new Object[size - offset];
+        for (int i = 0; i < remaining.length; i++) {
+            remaining[i] = iterator.next();
+        }
+        return remaining;
+    }
+
     // For unit testing purpose
     String getMatrix() {
         StringBuilder sb = new StringBuilder();
@@ -27,6 +27,12 @@ import java.util.Comparator;
  */
 public class ListDiff<L1, L2, E> {
 
+    /**
+     * The default maximum number of cells of the LCS matrix, above it the changes are computed with the linear space
+     * algorithm.
+     */
+    public static final int DEFAULT_MATRIX_THRESHOLD = 64 * 1024;
+
     /** . */
     final Comparator<E> comparator;
 
@@ -36,10 +42,27 @@ public class ListDiff<L1, L2, E> {
     /** . */
     final ListAdapter<L2, E> adapter2;
 
-    public ListDiff(ListAdapter<L1, E> adapter1, ListAdapter<L2, E> adapter2, Comparator<E> comparator) {
+    /** . */
+    final int matrixThreshold;
+
+    /**
+     * Create a list diff. The changes are computed with an LCS matrix as long as the matrix size is lower than the
+     * <code>matrixThreshold</code> argument, otherwise they are computed with the linear space algorithm of Myers.
+     *
+     * @param adapter1 the adapter 1
+     * @param adapter2 the adapter 2
+     * @param comparator the optional comparator
+     * @param matrixThreshold the maximum number of cells of the LCS matrix
+     */
+    public ListDiff(ListAdapter<L1, E> adapter1, ListAdapter<L2, E> adapter2, Comparator<E> comparator, int matrixThreshold) {
         this.adapter1 = adapter1;
         this.adapter2 = adapter2;
         this.comparator = comparator;
+        this.matrixThreshold = matrixThreshold;
+    }
+
+    public ListDiff(ListAdapter<L1, E> adapter1, ListAdapter<L2, E> adapter2, Comparator<E> comparator) {
+        this(adapter1, adapter2, comparator, DEFAULT_MATRIX_THRESHOLD);
     }
 
     public ListDiff(ListAdapter<L1, E> adapter1, ListAdapter<L2, E> adapter2) {
@@ -26,6 +26,7 @@ import org.exoplatform.portal.mop.page.PageKey;
 import org.exoplatform.portal.mop.page.PageService;
 import org.exoplatform.portal.pom.config.POMSession;
 import org.exoplatform.portal.pom.config.POMSessionManager;
+import org.exoplatform.portal.pom.data.PortalKey;
 
 /**
  * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
@@ -95,4 +96,29 @@ public class TestCache extends AbstractConfigTest {
         // End second transaction
         end(true);
     }
+
+    public void testEvictOwner() throws Exception {
+        mgr.clearCache();
+        assertEquals(0, mgr.getOwnerCount());
+
+        //
+        org.exoplatform.portal.pom.data.PageKey foo = new org.exoplatform.portal.pom.data.PageKey("portal", "foo", "home");
+        org.exoplatform.portal.pom.data.PageKey bar = new org.exoplatform.portal.pom.data.PageKey("portal", "bar", "home");
+        mgr.cachePut(new PortalKey("portal", "foo"), "foo");
+        mgr.cachePut(foo, "foo home");
+        mgr.cachePut(bar, "bar home");
+        assertEquals(2, mgr.getOwnerCount());
+
+        // Removing a site evicts the entries it owns and its owner
+        mgr.cacheRemove(new PortalKey("portal", "foo"));
+        assertNull(mgr.cacheGet(new PortalKey("portal", "foo")));
+        assertNull(mgr.cacheGet(foo));
+        assertEquals("bar home", mgr.cacheGet(bar));
+        assertEquals(1, mgr.getOwnerCount());
+
+        // The owner is removed with its last entry
+        mgr.cacheRemove(bar);
+        assertNull(mgr.cacheGet(bar));
+        assertEquals(0, mgr.getOwnerCount());
+    }
 }
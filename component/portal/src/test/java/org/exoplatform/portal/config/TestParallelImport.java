@@ -0,0 +1,108 @@
+/*
+ * Copyright (C) 2013 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.exoplatform.portal.config;
+
+import org.exoplatform.component.test.AbstractGateInTest;
+import org.exoplatform.component.test.ContainerScope;
+import org.exoplatform.component.test.KernelBootstrap;
+import org.exoplatform.container.PortalContainer;
+import org.exoplatform.container.component.RequestLifeCycle;
+import org.exoplatform.portal.config.model.PortalConfig;
+import org.exoplatform.portal.mop.SiteKey;
+import org.exoplatform.portal.mop.SiteType;
+import org.exoplatform.portal.mop.navigation.NavigationContext;
+import org.exoplatform.portal.mop.navigation.NavigationService;
+import org.exoplatform.portal.mop.navigation.Node;
+import org.exoplatform.portal.mop.navigation.NodeContext;
+import org.exoplatform.portal.mop.navigation.Scope;
+import org.exoplatform.portal.mop.page.PageContext;
+import org.exoplatform.portal.mop.page.PageKey;
+import org.exoplatform.portal.mop.page.PageService;
+
+/**
+ * Imports several sites of each type with several threads, the portal <code>root</code> and the user
+ * <code>root</code> share the same owner name.
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
+public class TestParallelImport extends AbstractGateInTest {
+
+    /** . */
+    private KernelBootstrap bootstrap;
+
+    @Override
+    protected void setUp() throws Exception {
+        bootstrap = new KernelBootstrap();
+        bootstrap.addConfiguration(ContainerScope.PORTAL, "conf/exo.portal.component.test.jcr-configuration.xml");
+        bootstrap.addConfiguration(ContainerScope.PORTAL, "conf/exo.portal.component.identity-configuration.xml");
+        bootstrap.addConfiguration(ContainerScope.PORTAL, "conf/exo.portal.component.portal-configuration.xml");
+        bootstrap.addConfiguration(ContainerScope.PORTAL, "org/exoplatform/portal/config/TestParallelImport-configuration.xml");
+        bootstrap.boot();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        bootstrap.dispose();
+    }
+
+    public void testImport() throws Exception {
+        PortalContainer container = bootstrap.getContainer();
+        RequestLifeCycle.begin(container);
+        try {
+            assertSite(container, SiteType.PORTAL, "classic");
+            assertSite(container, SiteType.PORTAL, "root");
+            assertSite(container, SiteType.GROUP, "platform/administrators");
+            assertSite(container, SiteType.GROUP, "platform/users");
+            assertSite(container, SiteType.USER, "root");
+            assertSite(container, SiteType.USER, "john");
+        } finally {
+            RequestLifeCycle.end();
+        }
+    }
+
+    private void assertSite(PortalContainer container, SiteType type, String owner) throws Exception {
+        DataStorage dataStorage = (DataStorage) container.getComponentInstanceOfType(DataStorage.class);
+        PageService pageService = (PageService) container.getComponentInstanceOfType(PageService.class);
+        NavigationService navigationService = (NavigationService) container
+                .getComponentInstanceOfType(NavigationService.class);
+        String name = type == SiteType.GROUP ? "/" + owner : owner;
+        SiteKey key = type.key(name);
+
+        //
+        PortalConfig portalConfig = dataStorage.getPortalConfig(type.getName(), name);
+        assertNotNull("No portal config for " + key, portalConfig);
+
+        //
+        PageContext page = pageService.loadPage(key.page("home"));
+        assertNotNull("No home page for " + key, page);
+        assertEquals(owner + " home", page.getState().getDisplayName());
+
+        //
+        NavigationContext navigation = navigationService.loadNavigation(key);
+        assertNotNull("No navigation for " + key, navigation);
+        NodeContext<?> root = navigationService.loadNode(Node.MODEL, navigation, Scope.ALL, null);
+        NodeContext<?> home = root.get("home");
+        assertNotNull(home);
+        assertEquals(key.page("home"), home.getState().getPageRef());
+        NodeContext<?> administration = root.get("administration");
+        assertNotNull(administration);
+        assertEquals(PageKey.parse("group::/platform/administrators::home"), administration.getState().getPageRef());
+    }
+}
@@ -19,6 +19,7 @@
 
 package org.exoplatform.portal.mop.description;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Locale;
@@ -148,6 +149,67 @@ public class TestDescriptionService extends AbstractPortalTest {
         assertEquals(new Described.State("name_en_GB", null), svc.resolveDescription(id, null, Locale.UK));
     }
 
+    public void testResolveDescriptions() throws Exception {
+        DescriptionService svc = new DescriptionServiceImpl(mgr);
+        MOPService mop = mgr.getPOMService();
+        Site portal = mop.getModel().getWorkspace().addSite(ObjectType.PORTAL_SITE, "foo");
+        Navigation nav = portal.getRootNavigation().addChild("default");
+        Navigation a = nav.addChild("a");
+        Navigation b = nav.addChild("b");
+        Navigation c = nav.addChild("c");
+        a.adapt(I18Nized.class).getMixin(Described.class, Locale.FRENCH, true).setName("a_fr");
+        a.adapt(I18Nized.class).getMixin(Described.class, Locale.ENGLISH, true).setName("a_en");
+        b.adapt(I18Nized.class).getMixin(Described.class, Locale.ENGLISH, true).setName("b_en");
+
+        //
+        Map<String, Described.State> states = svc.resolveDescriptions(
+                Arrays.asList(a.getObjectId(), b.getObjectId(), c.getObjectId()),
+                Arrays.asList(Locale.FRANCE, null, Locale.US));
+        assertEquals(2, states.size());
+        assertEquals(new Described.State("a_fr", null), states.get(a.getObjectId()));
+        assertEquals(new Described.State("b_en", null), states.get(b.getObjectId()));
+        assertFalse(states.containsKey(c.getObjectId()));
+        assertEquals(Collections.emptyMap(),
+                svc.resolveDescriptions(Collections.singleton(c.getObjectId()), Collections.<Locale> emptyList()));
+    }
+
+    public void testResolveAfterUpdate() throws Exception {
+        DescriptionService svc = new DescriptionServiceImpl(mgr);
+        MOPService mop = mgr.getPOMService();
+        Site portal = mop.getModel().getWorkspace().addSite(ObjectType.PORTAL_SITE, "foo");
+        Navigation nav = portal.getRootNavigation().addChild("default");
+        String id = nav.getObjectId();
+
+        // The absence of description is not retained after an update
+        assertEquals(null, svc.resolveDescription(id, Locale.UK));
+        svc.setDescription(id, Locale.ENGLISH, new Described.State("name_en", null));
+        assertEquals(new Described.State("name_en", null), svc.resolveDescription(id, Locale.UK));
+
+        // A description resolved from a fallback locale is not retained after an update
+        svc.setDescription(id, Locale.ENGLISH, new Described.State("name_en_2", null));
+        assertEquals(new Described.State("name_en_2", null), svc.resolveDescription(id, Locale.UK));
+        svc.setDescriptions(id, Collections.singletonMap(Locale.ENGLISH, new Described.State("name_en_3", null)));
+        assertEquals(new Described.State("name_en_3", null), svc.resolveDescription(id, Locale.UK));
+    }
+
+    public void testResolveAfterUpdateByOtherService() throws Exception {
+        // Two services sharing a cache behave as two nodes of a cluster
+        DataCache cache = new SimpleDataCache();
+        DescriptionService svc1 = new DescriptionServiceImpl(mgr, cache);
+        DescriptionService svc2 = new DescriptionServiceImpl(mgr, cache);
+        MOPService mop = mgr.getPOMService();
+        Site portal = mop.getModel().getWorkspace().addSite(ObjectType.PORTAL_SITE, "foo");
+        Navigation nav = portal.getRootNavigation().addChild("default");
+        String id = nav.getObjectId();
+
+        // The locale resolved by the first service was never resolved by the second one
+        assertEquals(null, svc1.resolveDescription(id, Locale.CANADA_FRENCH));
+        svc2.setDescription(id, Locale.FRENCH, new Described.State("name_fr", null));
+        assertEquals(new Described.State("name_fr", null), svc1.resolveDescription(id, Locale.CANADA_FRENCH));
+        svc2.setDescriptions(id, Collections.singletonMap(Locale.FRENCH, new Described.State("name_fr_2", null)));
+        assertEquals(new Described.State("name_fr_2", null), svc1.resolveDescription(id, Locale.CANADA_FRENCH));
+    }
+
     public void testGetDefaultDescription() throws Exception {
         DescriptionService svc = new DescriptionServiceImpl(mgr);
         MOPService mop = mgr.getPOMService();
@@ -4,6 +4,7 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 import org.exoplatform.portal.mop.Described;
 import org.exoplatform.portal.mop.ProtectedContainer;
@@ -155,6 +156,46 @@ public class TestPageService extends AbstractTestPageService {
 
     }
 
+    public void testLoadPagesByKeys() {
+        mgr.getPOMService().getModel().getWorkspace().addSite(ObjectType.PORTAL_SITE, "load_pages_by_keys").getRootPage()
+                .addChild("pages");
+        sync(true);
+
+        //
+        SiteKey site = SiteKey.portal("load_pages_by_keys");
+        SiteKey missing = SiteKey.portal("load_pages_by_keys_missing");
+        List<PageKey> keys = Arrays.asList(site.page("foo"), site.page("bar"), missing.page("foo"));
+        assertEquals(0, service.loadPages(keys).size());
+
+        //
+        Page pages = mgr.getPOMService().getModel().getWorkspace().getSite(ObjectType.PORTAL_SITE, "load_pages_by_keys")
+                .getRootPage().getChild("pages");
+        pages.addChild("foo").adapt(Described.class).setName("foo_name");
+        pages.addChild("juu").adapt(Described.class).setName("juu_name");
+        sync(true);
+
+        //
+        service.clearCache();
+        Map<PageKey, PageContext> result = service.loadPages(keys);
+        assertEquals(1, result.size());
+        PageContext foo = result.get(site.page("foo"));
+        assertNotNull(foo);
+        assertEquals("foo_name", foo.getState().getDisplayName());
+
+        // Now from the cache
+        result = service.loadPages(keys);
+        assertEquals(1, result.size());
+        assertEquals("foo_name", result.get(site.page("foo")).getState().getDisplayName());
+        assertNotNull(service.loadPage(site.page("foo")));
+
+        //
+        try {
+            service.loadPages(Arrays.asList(site.page("foo"), null));
+            fail();
+        } catch (NullPointerException expected) {
+        }
+    }
+
     public void testCreate() {
         mgr.getPOMService().getModel().getWorkspace().addSite(ObjectType.PORTAL_SITE, "create_page").getRootPage()
                 .addChild("pages");
@@ -0,0 +1,135 @@
+/*
+ * Copyright (C) 2013 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.exoplatform.portal.pom.config.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import junit.framework.TestCase;
+
+/**
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
+public class TestNearCache extends TestCase {
+
+    public void testGetPut() {
+        NearCache<String> cache = new NearCache<String>(10);
+        assertNull(cache.get("foo"));
+        cache.put("foo", "foo_value", cache.getVersion("foo"));
+        assertEquals("foo_value", cache.get("foo"));
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    public void testRemove() {
+        NearCache<String> cache = new NearCache<String>(10);
+        cache.put("foo", "foo_value", cache.getVersion("foo"));
+        cache.remove("foo");
+        assertNull(cache.get("foo"));
+        assertEquals(1, cache.getInvalidations());
+    }
+
+    public void testStalePut() {
+        NearCache<String> cache = new NearCache<String>(10);
+
+        // The value is read from the shared cache before an eviction and stored after
+        long version = cache.getVersion("foo");
+        cache.remove("foo");
+        cache.put("foo", "foo_value", version);
+        assertNull(cache.get("foo"));
+        assertEquals(0, cache.getSize());
+    }
+
+    public void testMaxSize() {
+        NearCache<String> cache = new NearCache<String>(2);
+        cache.put("foo", "foo_value", cache.getVersion("foo"));
+        cache.put("bar", "bar_value", cache.getVersion("bar"));
+        cache.put("juu", "juu_value", cache.getVersion("juu"));
+        assertTrue(cache.getSize() <= 2);
+        assertEquals("juu_value", cache.get("juu"));
+    }
+
+    public void testStaleClear() {
+        NearCache<String> cache = new NearCache<String>(10);
+        long version = cache.getVersion("foo");
+        cache.clear();
+        cache.put("foo", "foo_value", version);
+        assertEquals(0, cache.getSize());
+    }
+
+    public void testRemoveUnrelated() {
+        NearCache<String> cache = new NearCache<String>(10);
+        String bar = unrelated("foo", 1).get(0);
+        long version = cache.getVersion("foo");
+        cache.remove(bar);
+        cache.put("foo", "foo_value", version);
+        assertEquals("foo_value", cache.get("foo"));
+    }
+
+    public void testConcurrentUnrelatedWrites() throws Exception {
+        final NearCache<String> cache = new NearCache<String>(100);
+        final List<String> others = unrelated("foo", 50);
+        final AtomicBoolean done = new AtomicBoolean();
+        final CountDownLatch started = new CountDownLatch(1);
+        Thread writer = new Thread() {
+            @Override
+            public void run() {
+                started.countDown();
+                while (!done.get()) {
+                    for (String other : others) {
+                        cache.remove(other);
+                    }
+                }
+            }
+        };
+        writer.start();
+        try {
+            started.await();
+
+            // The value is read and stored while other keys are written
+            for (int i = 0; i < 1000; i++) {
+                long version = cache.getVersion("foo");
+                cache.put("foo", "foo_value", version);
+                assertEquals("foo_value", cache.get("foo"));
+                cache.remove("foo");
+            }
+        } finally {
+            done.set(true);
+            writer.join();
+        }
+        assertTrue(cache.getInvalidations() > 1000);
+    }
+
+    /**
+     * Returns keys that do not share the version of a key.
+     */
+    private static List<String> unrelated(String key, int size) {
+        List<String> keys = new ArrayList<String>();
+        for (int i = 0; keys.size() < size; i++) {
+            String other = key + i;
+            if (NearCache.stripe(other) != NearCache.stripe(key)) {
+                keys.add(other);
+            }
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright (C) 2011 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.exoplatform.portal.tree.diff;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+/**
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
+public class TestListDiff extends TestCase {
+
+    /** Always use the LCS matrix. */
+    private static final ListDiff<String[], String[], String> MATRIX = new ListDiff<String[], String[], String>(
+            Adapters.<String> list(), Adapters.<String> list(), null, Integer.MAX_VALUE);
+
+    /** Never use the LCS matrix. */
+    private static final ListDiff<String[], String[], String> LINEAR = new ListDiff<String[], String[], String>(
+            Adapters.<String> list(), Adapters.<String> list(), null, 0);
+
+    public void testEmpty() {
+        assertChanges(new String[0], new String[0]);
+        assertChanges(new String[0], new String[] { "a", "b" }, ListChangeType.ADD, ListChangeType.ADD);
+        assertChanges(new String[] { "a", "b" }, new String[0], ListChangeType.REMOVE, ListChangeType.REMOVE);
+    }
+
+    public void testSame() {
+        assertChanges(new String[] { "a", "b" }, new String[] { "a", "b" }, ListChangeType.SAME, ListChangeType.SAME);
+    }
+
+    public void testAdd() {
+        assertChanges(new String[] { "a", "c" }, new String[] { "a", "b", "c" }, ListChangeType.SAME, ListChangeType.ADD,
+                ListChangeType.SAME);
+        assertChanges(new String[] { "b", "c" }, new String[] { "a", "b", "c" }, ListChangeType.ADD, ListChangeType.SAME,
+                ListChangeType.SAME);
+    }
+
+    public void testRemove() {
+        assertChanges(new String[] { "a", "b", "c" }, new String[] { "a", "c" }, ListChangeType.SAME,
+                ListChangeType.REMOVE, ListChangeType.SAME);
+        assertChanges(new String[] { "a", "b", "c" }, new String[] { "b", "c" }, ListChangeType.REMOVE,
+                ListChangeType.SAME, ListChangeType.SAME);
+    }
+
+    public void testReplace() {
+        assertChanges(new String[] { "a", "b", "c" }, new String[] { "a", "d", "c" }, ListChangeType.SAME, ListChangeType.ADD,
+                ListChangeType.REMOVE, ListChangeType.SAME);
+    }
+
+    public void testMove() {
+        assertChanges(new String[] { "a", "b", "c", "d" }, new String[] { "a", "c", "d", "b" }, ListChangeType.SAME,
+                ListChangeType.REMOVE, ListChangeType.SAME, ListChangeType.SAME, ListChangeType.ADD);
+    }
+
+    public void testRandom() {
+        Random random = new Random(0);
+        for (int i = 0; i < 500; i++) {
+            String[] elements1 = random(random, random.nextInt(40), 10);
+            String[] elements2 = random(random, random.nextInt(40), 10);
+            int common = replay(MATRIX, elements1, elements2);
+            assertEquals("Wrong LCS for " + Arrays.asList(elements1) + " and " + Arrays.asList(elements2), common,
+                    replay(LINEAR, elements1, elements2));
+        }
+    }
+
+    public void testLargeEdit() {
+        String[] elements1 = new String[3000];
+        for (int i = 0; i < elements1.length; i++) {
+            elements1[i] = "node" + i;
+        }
+
+        // Move a node to the end, remove a node and insert another one
+        List<String> list = new ArrayList<String>(Arrays.asList(elements1));
+        list.add(list.remove(10));
+        list.remove(1500);
+        list.add(2000, "inserted");
+        String[] elements2 = list.toArray(new String[list.size()]);
+
+        //
+        assertEquals(2998, replay(LINEAR, elements1, elements2));
+        assertEquals(2998, replay(new ListDiff<String[], String[], String>(Adapters.<String> list(),
+                Adapters.<String> list()), elements1, elements2));
+    }
+
+    private String[] random(Random random, int size, int range) {
+        String[] elements = new String[size];
+        for (int i = 0; i < size; i++) {
+            elements[i] = Integer.toString(random.nextInt(range));
+        }
+        return elements;
+    }
+
+    /**
+     * Replay the changes from the list 1 and check it produces the list 2.
+     *
+     * @return the number of common elements
+     */
+    private int replay(ListDiff<String[], String[], String> diff, String[] elements1, String[] elements2) {
+        List<String> result = new ArrayList<String>();
+        int common = 0;
+        int index1 = 0;
+        int index2 = 0;
+        ListChangeIterator<String[], String[], String> it = diff.iterator(elements1, elements2);
+        while (it.hasNext()) {
+            switch (it.next()) {
+                case SAME:
+                    assertEquals(elements1[index1++], it.getElement());
+                    assertEquals(elements2[index2++], it.getElement());
+                    result.add(it.getElement());
+                    common++;
+                    break;
+                case ADD:
+                    assertEquals(elements2[index2++], it.getElement());
+                    result.add(it.getElement());
+                    break;
+                case REMOVE:
+                    assertEquals(elements1[index1++], it.getElement());
+                    break;
+            }
+            assertEquals(index1, it.getIndex1());
+            assertEquals(index2, it.getIndex2());
+        }
+        assertEquals(elements1.length, index1);
+        assertEquals(Arrays.asList(elements2), result);
+        return common;
+    }
+
+    private void assertChanges(String[] elements1, String[] elements2, ListChangeType... expected) {
+        for (ListDiff<String[], String[], String> diff : Arrays.asList(MATRIX, LINEAR)) {
+            List<ListChangeType> changes = new ArrayList<ListChangeType>();
+            ListChangeIterator<String[], String[], String> it = diff.iterator(elements1, elements2);
+            while (it.hasNext()) {
+                changes.add(it.next());
+            }
+            assertEquals(Arrays.asList(expected), changes);
+        }
+    }
+}
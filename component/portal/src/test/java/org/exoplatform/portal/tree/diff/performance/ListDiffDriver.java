@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2011 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.exoplatform.portal.tree.diff.performance;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.exoplatform.portal.tree.diff.Adapters;
+import org.exoplatform.portal.tree.diff.ListChangeIterator;
+import org.exoplatform.portal.tree.diff.ListDiff;
+
+import com.sun.japex.JapexDriverBase;
+import com.sun.japex.TestCase;
+
+/**
+ * Compares the LCS matrix and the linear space algorithm on the child lists edits performed when a navigation node is
+ * rebased.
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
+public class ListDiffDriver extends JapexDriverBase {
+
+    /** . */
+    private ListDiff<String[], String[], String> diff;
+
+    /** . */
+    private String[] elements1;
+
+    /** . */
+    private String[] elements2;
+
+    @Override
+    public void initializeDriver() {
+        String algorithm = getParam("algorithm");
+        int threshold;
+        if (algorithm.equals("matrix")) {
+            threshold = Integer.MAX_VALUE;
+        } else if (algorithm.equals("linear")) {
+            threshold = 0;
+        } else {
+            throw new AssertionError("Unknown algorithm " + algorithm);
+        }
+        diff = new ListDiff<String[], String[], String>(Adapters.<String> list(), Adapters.<String> list(), null, threshold);
+    }
+
+    @Override
+    public void prepare(TestCase testCase) {
+        int size = testCase.getIntParam("size");
+        String edit = testCase.getParam("edit");
+
+        //
+        List<String> children = new ArrayList<String>(size);
+        for (int i = 0; i < size; i++) {
+            children.add("node" + i);
+        }
+        elements1 = children.toArray(new String[size]);
+
+        //
+        Random random = new Random(size);
+        if (edit.equals("append")) {
+            children.add("appended");
+        } else if (edit.equals("move")) {
+            children.add(children.remove(random.nextInt(size / 10)));
+        } else if (edit.equals("mixed")) {
+            for (int i = 0; i < 10; i++) {
+                children.remove(random.nextInt(children.size()));
+                children.add(random.nextInt(children.size()), "inserted" + i);
+                children.add(random.nextInt(children.size()), children.remove(random.nextInt(children.size())));
+            }
+        } else {
+            throw new AssertionError("Unknown edit " + edit);
+        }
+        elements2 = children.toArray(new String[children.size()]);
+    }
+
+    @Override
+    public void run(TestCase testCase) {
+        ListChangeIterator<String[], String[], String> it = diff.iterator(elements1, elements2);
+        while (it.hasNext()) {
+            it.next();
+        }
+    }
+
+    @Override
+    public void finish(TestCase testCase) {
+        elements1 = null;
+        elements2 = null;
+    }
+
+    @Override
+    public void terminateDriver() {
+        diff = null;
+    }
+}
@@ -0,0 +1,325 @@
+/**
+ * Copyright (C) 2013 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.exoplatform.services.resources;
+
+import java.io.Serializable;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.MissingResourceException;
+import java.util.NoSuchElementException;
+import java.util.ResourceBundle;
+import java.util.Set;
+
+import org.exoplatform.commons.utils.HTMLEntityEncoder;
+
+/**
+ * <p>
+ * An immutable resource bundle with the entries of a bundle and of its parents flattened in a single open addressing
+ * hash table, a lookup is a single probe sequence over an array, it never walks the parent chain. The keys are interned
+ * so the lookup of a literal key is usually resolved by an identity comparison.
+ * </p>
+ *
+ * <p>
+ * The bundle also provides the values escaped for HTML and for JavaScript string literals, the escaped values are
+ * computed on the first access and retained by the bundle.
+ * </p>
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
+public class CompiledResourceBundle extends ResourceBundle implements Serializable {
+
+    /** . */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Compiles a bundle, the bundle is returned when it is null or already compiled.
+     *
+     * @param bundle the bundle to compile
+     * @param locale the locale of the compiled bundle or null to use the locale of the bundle
+     * @return the compiled bundle
+     */
+    public static ResourceBundle compile(ResourceBundle bundle, Locale locale) {
+        if (bundle == null || bundle instanceof CompiledResourceBundle || bundle instanceof IdentityResourceBundle) {
+            return bundle;
+        }
+        return new CompiledResourceBundle(bundle, locale != null ? locale : bundle.getLocale());
+    }
+
+    /** . */
+    private final Locale locale;
+
+    /** . */
+    private final String[] keys;
+
+    /** . */
+    private final Object[] values;
+
+    /** . */
+    private final int size;
+
+    /** The lazily escaped values for HTML. */
+    private transient volatile String[] html;
+
+    /** The lazily escaped values for JavaScript. */
+    private transient volatile String[] js;
+
+    public CompiledResourceBundle(ResourceBundle bundle, Locale locale) throws NullPointerException {
+        if (bundle == null) {
+            throw new NullPointerException("No null bundle accepted");
+        }
+
+        // The keys of the bundle and of its parents
+        Set<String> set = new HashSet<String>();
+        for (Enumeration<String> e = bundle.getKeys(); e.hasMoreElements();) {
+            String key = e.nextElement();
+            if (key != null) {
+                set.add(key);
+            }
+        }
+
+        // Keep the load factor under 0.5
+        int capacity = 4;
+        while (capacity < set.size() * 2) {
+            capacity <<= 1;
+        }
+
+        //
+        String[] keys = new String[capacity];
+        Object[] values = new Object[capacity];
+        int mask = capacity - 1;
+        int size = 0;
+        for (String key : set) {
+            Object value;
+            try {
+                value = bundle.getObject(key);
+            } catch (MissingResourceException ignore) {
+                continue;
+            }
+            if (value != null) {
+                int index = hash(key) & mask;
+                while (keys[index] != null) {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = key.intern();
+                values[index] = value;
+                size++;
+            }
+        }
+
+        //
+        this.locale = locale;
+        this.keys = keys;
+        this.values = values;
+        this.size = size;
+    }
+
+    private static int hash(String key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private int indexOf(String key) {
+        int mask = keys.length - 1;
+        int index = hash(key) & mask;
+        for (String current = keys[index]; current != null; current = keys[index]) {
+            if (current == key || current.equals(key)) {
+                return index;
+            }
+            index = (index + 1) & mask;
+        }
+        return -1;
+    }
+
+    @Override
+    public Locale getLocale() {
+        return locale;
+    }
+
+    @Override
+    protected Object handleGetObject(String key) {
+        if (key == null) {
+            throw new NullPointerException();
+        }
+        int index = indexOf(key);
+        return index == -1 ? null : values[index];
+    }
+
+    @Override
+    public boolean containsKey(String key) {
+        if (key == null) {
+            throw new NullPointerException();
+        }
+        return indexOf(key) != -1;
+    }
+
+    @Override
+    protected Set<String> handleKeySet() {
+        Set<String> set = new HashSet<String>();
+        for (String key : keys) {
+            if (key != null) {
+                set.add(key);
+            }
+        }
+        return set;
+    }
+
+    @Override
+    public Enumeration<String> getKeys() {
+        return new Enumeration<String>() {
+            int index = next(0);
+
+            public boolean hasMoreElements() {
+                return index < keys.length;
+            }
+
+            public String nextElement() {
+                if (index >= keys.length) {
+                    throw new NoSuchElementException();
+                }
+                String key = keys[index];
+                index = next(index + 1);
+                return key;
+            }
+        };
+    }
+
+    private int next(int index) {
+        while (index < keys.length && keys[index] == null) {
+            index++;
+        }
+        return index;
+    }
+
+    /**
+     * Returns the number of entries.
+     *
+     * @return the size
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns a value encoded for HTML.
+     *
+     * @param key the key
+     * @return the encoded value
+     * @throws NullPointerException if the key is null
+     * @throws MissingResourceException if no string is found for the key
+     */
+    public String getHTMLString(String key) throws NullPointerException, MissingResourceException {
+        String[] html = this.html;
+        if (html == null) {
+            this.html = html = new String[keys.length];
+        }
+        int index = indexOfString(key);
+        String encoded = html[index];
+        if (encoded == null) {
+            html[index] = encoded = HTMLEntityEncoder.getInstance().encodeHTML((String) values[index]);
+        }
+        return encoded;
+    }
+
+    /**
+     * Returns a value escaped for a JavaScript string literal, the value can be enclosed by single or double quotes.
+     *
+     * @param key the key
+     * @return the escaped value
+     * @throws NullPointerException if the key is null
+     * @throws MissingResourceException if no string is found for the key
+     */
+    public String getJavaScriptString(String key) throws NullPointerException, MissingResourceException {
+        String[] js = this.js;
+        if (js == null) {
+            this.js = js = new String[keys.length];
+        }
+        int index = indexOfString(key);
+        String escaped = js[index];
+        if (escaped == null) {
+            js[index] = escaped = escapeJavaScript((String) values[index]);
+        }
+        return escaped;
+    }
+
+    private int indexOfString(String key) {
+        if (key == null) {
+            throw new NullPointerException();
+        }
+        int index = indexOf(key);
+        if (index == -1 || !(values[index] instanceof String)) {
+            throw new MissingResourceException("Can't find resource for bundle " + getClass().getName() + ", key " + key,
+                    getClass().getName(), key);
+        }
+        return index;
+    }
+
+    static String escapeJavaScript(String s) {
+        StringBuilder sb = null;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            String replacement;
+            switch (c) {
+                case '\\':
+                    replacement = "\\\\";
+                    break;
+                case '\'':
+                    replacement = "\\'";
+                    break;
+                case '"':
+                    replacement = "\\\"";
+                    break;
+                case '\n':
+                    replacement = "\\n";
+                    break;
+                case '\r':
+                    replacement = "\\r";
+                    break;
+                case '\t':
+                    replacement = "\\t";
+                    break;
+                case '<':
+                    // Prevents a </script> sequence
+                    replacement = "\\u003C";
+                    break;
+                case '>':
+                    replacement = "\\u003E";
+                    break;
+                case '\u2028':
+                    replacement = "\\u2028";
+                    break;
+                case '\u2029':
+                    replacement = "\\u2029";
+                    break;
+                default:
+                    replacement = null;
+            }
+            if (replacement != null) {
+                if (sb == null) {
+                    sb = new StringBuilder(s.length() + 16).append(s, 0, i);
+                }
+                sb.append(replacement);
+            } else if (sb != null) {
+                sb.append(c);
+            }
+        }
+        return sb != null ? sb.toString() : s;
+    }
+}
@@ -30,6 +30,10 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.ResourceBundle;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 
 import org.exoplatform.commons.cache.future.FutureCache;
 import org.exoplatform.commons.cache.future.FutureExoCache;
@@ -39,8 +43,12 @@ import org.exoplatform.commons.utils.MapResourceBundle;
 import org.exoplatform.commons.utils.PageList;
 import org.exoplatform.commons.utils.PropertyManager;
 import org.exoplatform.container.xml.InitParams;
+import org.exoplatform.container.xml.ValueParam;
+import org.exoplatform.management.ManagementAware;
+import org.exoplatform.management.ManagementContext;
 import org.exoplatform.services.cache.ExoCache;
 import org.exoplatform.services.log.Log;
+import org.exoplatform.services.resources.CompiledResourceBundle;
 import org.exoplatform.services.resources.ExoResourceBundle;
 import org.exoplatform.services.resources.IdentityResourceBundle;
 import org.exoplatform.services.resources.LocaleConfig;
@@ -54,7 +62,7 @@ import org.picocontainer.Startable;
 /**
  * Created by The eXo Platform SAS Mar 9, 2007
  */
-public abstract class BaseResourceBundleService implements ResourceBundleService, Startable {
+public abstract class BaseResourceBundleService implements ResourceBundleService, Startable, ManagementAware {
 
     protected Log log_;
 
@@ -68,12 +76,19 @@ public abstract class BaseResourceBundleService implements ResourceBundleService
 
     private volatile FutureCache<String, ResourceBundle, ResourceBundleContext> futureCache_;
 
+    /** The delay in seconds after which a cached bundle is reloaded in the background, 0 when it is never. */
+    private long refreshAheadDelay_;
+
+    /** The executor of the background reloads. */
+    private ExecutorService refreshExecutor_;
+
     private final Loader<String, ResourceBundle, ResourceBundleContext> loader_ = new Loader<String, ResourceBundle, ResourceBundleContext>() {
         /**
          * {@inheritDoc}
          */
         public ResourceBundle retrieve(ResourceBundleContext context, String key) throws Exception {
-            return context.get(key);
+            // The cached bundles are flattened once so a lookup does not walk the parent chain
+            return CompiledResourceBundle.compile(context.get(key), context.locale);
         }
     };
 
@@ -91,6 +106,13 @@ public abstract class BaseResourceBundleService implements ResourceBundleService
         }
 
         initResources_ = params.getValuesParam("init.resources").getValues();
+
+        // The bundles are loaded from the class path or from the service, their loading context remains usable after the
+        // lookup so they can be reloaded in the background
+        ValueParam refreshAheadDelay = params.getValueParam("refresh.ahead.delay");
+        if (refreshAheadDelay != null) {
+            refreshAheadDelay_ = Long.parseLong(refreshAheadDelay.getValue().trim());
+        }
     }
 
     /**
@@ -148,7 +170,17 @@ public abstract class BaseResourceBundleService implements ResourceBundleService
     /**
      * @see org.picocontainer.Startable#stop()
      */
-    public void stop() {
+    public synchronized void stop() {
+        if (refreshExecutor_ != null) {
+            refreshExecutor_.shutdownNow();
+            refreshExecutor_ = null;
+        }
+    }
+
+    public void setContext(ManagementContext context) {
+        if (context != null) {
+            context.register(getFutureCache().getStatistics());
+        }
     }
 
     public ResourceBundle getResourceBundle(String[] name, Locale locale) {
@@ -399,7 +431,20 @@ public abstract class BaseResourceBundleService implements ResourceBundleService
         if (futureCache_ == null) {
             synchronized (this) {
                 if (futureCache_ == null) {
-                    futureCache_ = new FutureExoCache<String, ResourceBundle, ResourceBundleContext>(loader_, cache_);
+                    FutureCache<String, ResourceBundle, ResourceBundleContext> futureCache;
+                    futureCache = new FutureExoCache<String, ResourceBundle, ResourceBundleContext>(loader_, cache_);
+                    futureCache.getStatistics().setName("resource-bundle");
+                    if (refreshAheadDelay_ > 0) {
+                        refreshExecutor_ = Executors.newSingleThreadExecutor(new ThreadFactory() {
+                            public Thread newThread(Runnable r) {
+                                Thread thread = new Thread(r, "gatein-resource-bundle-refresh");
+                                thread.setDaemon(true);
+                                return thread;
+                            }
+                        });
+                        futureCache.setRefreshAhead(refreshAheadDelay_, TimeUnit.SECONDS, refreshExecutor_);
+                    }
+                    futureCache_ = futureCache;
                 }
             }
         }
@@ -412,6 +457,14 @@ public abstract class BaseResourceBundleService implements ResourceBundleService
      * Generic class defining a context needed to get a ResourceBundle
      */
     private abstract static class ResourceBundleContext {
+
+        /** . */
+        final Locale locale;
+
+        ResourceBundleContext(Locale locale) {
+            this.locale = locale;
+        }
+
         /**
          * Get the resource bundle corresponding to the context
          */
@@ -424,15 +477,13 @@ public abstract class BaseResourceBundleService implements ResourceBundleService
     private  class ResourceBundleFromCPContext extends ResourceBundleContext {
         private final String name;
 
-        private final Locale locale;
-
         private final ClassLoader cl;
 
         private RuntimeException e;
 
         public ResourceBundleFromCPContext(String name, Locale locale, ClassLoader cl) {
+            super(locale);
             this.name = name;
-            this.locale = locale;
             this.cl = cl;
         }
 
@@ -482,11 +533,9 @@ public abstract class BaseResourceBundleService implements ResourceBundleService
     private class GetResourceBundleFromDbContext extends ResourceBundleContext {
         private final String name;
 
-        private final Locale locale;
-
         public GetResourceBundleFromDbContext(String name, Locale locale) {
+            super(locale);
             this.name = name;
-            this.locale = locale;
         }
 
         /**
@@ -516,13 +565,11 @@ public abstract class BaseResourceBundleService implements ResourceBundleService
     private class GetResourceBundleContext extends ResourceBundleContext {
         private final String[] name;
 
-        private final Locale locale;
-
         private final ClassLoader cl;
 
         public GetResourceBundleContext(String[] name, Locale locale, ClassLoader cl) {
+            super(locale);
             this.name = name;
-            this.locale = locale;
             this.cl = cl;
         }
 
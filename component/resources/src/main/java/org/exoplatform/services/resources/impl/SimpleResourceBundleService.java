@@ -33,6 +33,10 @@ import org.exoplatform.commons.utils.ListAccess;
 import org.exoplatform.commons.utils.MapResourceBundle;
 import org.exoplatform.commons.utils.PageList;
 import org.exoplatform.container.xml.InitParams;
+import org.exoplatform.management.annotations.Managed;
+import org.exoplatform.management.annotations.ManagedDescription;
+import org.exoplatform.management.jmx.annotations.NameTemplate;
+import org.exoplatform.management.jmx.annotations.Property;
 import org.exoplatform.services.cache.CacheService;
 import org.exoplatform.services.log.ExoLogger;
 import org.exoplatform.services.resources.ExoResourceBundle;
@@ -43,6 +47,9 @@ import org.exoplatform.services.resources.ResourceBundleData;
 /**
  * Created by The eXo Platform SARL Author : Tung Pham thanhtungty@gmail.com Dec 1, 2007
  */
+@Managed
+@NameTemplate({ @Property(key = "view", value = "portal"), @Property(key = "service", value = "resourcebundle") })
+@ManagedDescription("Resource bundle service")
 public class SimpleResourceBundleService extends BaseResourceBundleService {
 
     private final ConcurrentMap<String, ResourceBundleData> bundles = new ConcurrentHashMap<String, ResourceBundleData>();
@@ -0,0 +1,126 @@
+/**
+ * Copyright (C) 2013 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.exoplatform.services.resources;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.ListResourceBundle;
+import java.util.Locale;
+import java.util.MissingResourceException;
+import java.util.ResourceBundle;
+import java.util.Set;
+
+import junit.framework.TestCase;
+
+/**
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
+public class TestCompiledResourceBundle extends TestCase {
+
+    private static ResourceBundle bundle(Object[][] contents, ResourceBundle parent) {
+        return new TestBundle(contents, parent);
+    }
+
+    private static class TestBundle extends ListResourceBundle {
+
+        /** . */
+        private final Object[][] contents;
+
+        TestBundle(Object[][] contents, ResourceBundle parent) {
+            this.contents = contents;
+            if (parent != null) {
+                setParent(parent);
+            }
+        }
+
+        @Override
+        protected Object[][] getContents() {
+            return contents;
+        }
+    }
+
+    public void testFlattenParent() {
+        ResourceBundle parent = bundle(new Object[][] { { "a", "parent_a" }, { "b", "parent_b" } }, null);
+        ResourceBundle child = bundle(new Object[][] { { "a", "child_a" }, { "c", "child_c" } }, parent);
+        CompiledResourceBundle compiled = new CompiledResourceBundle(child, Locale.FRENCH);
+        assertEquals(Locale.FRENCH, compiled.getLocale());
+        assertEquals(3, compiled.size());
+        assertEquals("child_a", compiled.getString("a"));
+        assertEquals("parent_b", compiled.getString("b"));
+        assertEquals("child_c", compiled.getString("c"));
+        assertTrue(compiled.containsKey("b"));
+        assertFalse(compiled.containsKey("d"));
+        try {
+            compiled.getString("d");
+            fail();
+        } catch (MissingResourceException expected) {
+        }
+
+        //
+        Set<String> keys = new HashSet<String>();
+        for (Enumeration<String> e = compiled.getKeys(); e.hasMoreElements();) {
+            keys.add(e.nextElement());
+        }
+        assertEquals(new HashSet<String>(Arrays.asList("a", "b", "c")), keys);
+    }
+
+    public void testLookupWithNonInternedKey() {
+        CompiledResourceBundle compiled = new CompiledResourceBundle(bundle(new Object[][] { { "foo.bar", "value" } }, null),
+                Locale.ENGLISH);
+        assertEquals("value", compiled.getString(new String("foo.bar")));
+    }
+
+    public void testCollisions() {
+        Object[][] contents = new Object[1000][];
+        for (int i = 0; i < contents.length; i++) {
+            contents[i] = new Object[] { "key" + i, "value" + i };
+        }
+        CompiledResourceBundle compiled = new CompiledResourceBundle(bundle(contents, null), Locale.ENGLISH);
+        assertEquals(1000, compiled.size());
+        for (int i = 0; i < contents.length; i++) {
+            assertEquals("value" + i, compiled.getString("key" + i));
+        }
+        assertEquals(1000, Collections.list(compiled.getKeys()).size());
+    }
+
+    public void testCompile() {
+        assertNull(CompiledResourceBundle.compile(null, Locale.ENGLISH));
+        CompiledResourceBundle compiled = new CompiledResourceBundle(bundle(new Object[][] {}, null), Locale.ENGLISH);
+        assertSame(compiled, CompiledResourceBundle.compile(compiled, Locale.FRENCH));
+        assertEquals(0, compiled.size());
+        assertFalse(compiled.getKeys().hasMoreElements());
+    }
+
+    public void testJavaScriptString() {
+        CompiledResourceBundle compiled = new CompiledResourceBundle(bundle(new Object[][] { { "plain", "abc" },
+                { "quotes", "it's \"quoted\"" }, { "script", "</script>\n" } }, null), Locale.ENGLISH);
+        assertSame(compiled.getString("plain"), compiled.getJavaScriptString("plain"));
+        assertEquals("it\\'s \\\"quoted\\\"", compiled.getJavaScriptString("quotes"));
+        assertEquals("\\u003C/script\\u003E\\n", compiled.getJavaScriptString("script"));
+        assertSame(compiled.getJavaScriptString("script"), compiled.getJavaScriptString("script"));
+        try {
+            compiled.getJavaScriptString("missing");
+            fail();
+        } catch (MissingResourceException expected) {
+        }
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (C) 2013 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.exoplatform.services.resources;
+
+import java.util.Locale;
+import java.util.ResourceBundle;
+
+import org.exoplatform.component.test.AbstractKernelTest;
+import org.exoplatform.component.test.ConfigurationUnit;
+import org.exoplatform.component.test.ConfiguredBy;
+import org.exoplatform.component.test.ContainerScope;
+import org.exoplatform.container.PortalContainer;
+
+/**
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
+@ConfiguredBy({ @ConfigurationUnit(scope = ContainerScope.PORTAL, path = "bundles/resource-bundle-refresh-configuration.xml") })
+public class TestResourceBundleRefreshAhead extends AbstractKernelTest {
+
+    /** . */
+    private ResourceBundleService service;
+
+    @Override
+    protected void setUp() throws Exception {
+        service = (ResourceBundleService) PortalContainer.getInstance().getComponentInstanceOfType(
+                ResourceBundleService.class);
+    }
+
+    public void testMergedBundleRefreshed() throws Exception {
+        saveResourceBundle("refresh.test", "value=1");
+        String[] names = { "refresh.test" };
+        assertEquals("1", service.getResourceBundle(names, Locale.ENGLISH).getString("value"));
+
+        // Saving the bundle does not discard the merged bundle
+        saveResourceBundle("refresh.test", "value=2");
+        assertEquals("2", service.getResourceBundle("refresh.test", Locale.ENGLISH).getString("value"));
+        assertEquals("1", service.getResourceBundle(names, Locale.ENGLISH).getString("value"));
+
+        // After the delay the current merged bundle is returned and reloaded in the background
+        Thread.sleep(1100);
+        assertEquals("1", service.getResourceBundle(names, Locale.ENGLISH).getString("value"));
+        ResourceBundle bundle = null;
+        for (long timeout = System.currentTimeMillis() + 10000; System.currentTimeMillis() < timeout;) {
+            bundle = service.getResourceBundle(names, Locale.ENGLISH);
+            if ("2".equals(bundle.getString("value"))) {
+                break;
+            }
+            Thread.sleep(10);
+        }
+        assertEquals("2", bundle.getString("value"));
+    }
+
+    private void saveResourceBundle(String name, String data) {
+        ResourceBundleData bundleData = service.createResourceBundleDataInstance();
+        bundleData.setName(name);
+        bundleData.setData(data);
+        bundleData.setLanguage(Locale.ENGLISH.getLanguage());
+        service.saveResourceBundle(bundleData);
+    }
+}
@@ -29,6 +29,8 @@ import org.exoplatform.commons.cache.future.Loader;
 import org.exoplatform.commons.utils.IOUtil;
 import org.exoplatform.groovyscript.GroovyTemplate;
 import org.exoplatform.groovyscript.GroovyTemplateEngine;
+import org.exoplatform.management.ManagementAware;
+import org.exoplatform.management.ManagementContext;
 import org.exoplatform.management.annotations.Impact;
 import org.exoplatform.management.annotations.ImpactType;
 import org.exoplatform.management.annotations.Managed;
@@ -56,7 +58,7 @@ import groovy.text.Template;
         @Property(key = "type", value = "template") })
 @ManagedDescription("Template management service")
 @RESTEndpoint(path = "templateservice")
-public class TemplateService {
+public class TemplateService implements ManagementAware {
 
     private GroovyTemplateEngine engine_;
 
@@ -102,6 +104,13 @@ public class TemplateService {
         this.statisticService = statisticService;
         this.templatesCache_ = cservice.getCacheInstance(TemplateService.class.getSimpleName());
         this.futureCache = new FutureExoCache<ResourceKey, GroovyTemplate, ResourceResolver>(loader, templatesCache_);
+        this.futureCache.getStatistics().setName("template");
+    }
+
+    public void setContext(ManagementContext context) {
+        if (context != null) {
+            context.register(futureCache.getStatistics());
+        }
     }
 
     public void merge(String name, BindingContext context) throws Exception {
@@ -43,6 +43,8 @@ import org.exoplatform.container.ExoContainerContext;
 import org.exoplatform.container.component.RequestLifeCycle;
 import org.exoplatform.container.xml.InitParams;
 import org.exoplatform.container.xml.ValueParam;
+import org.exoplatform.management.ManagementAware;
+import org.exoplatform.management.ManagementContext;
 import org.exoplatform.management.annotations.Impact;
 import org.exoplatform.management.annotations.ImpactType;
 import org.exoplatform.management.annotations.Managed;
@@ -69,7 +71,7 @@ import org.picocontainer.Startable;
 @ManagedDescription("The portal controller")
 @NameTemplate({ @Property(key = "view", value = "portal"), @Property(key = "service", value = "controller") })
 @RESTEndpoint(path = "portalcontroller")
-public class WebAppController implements Startable {
+public class WebAppController implements Startable, ManagementAware {
 
     /** . */
     public static final QualifiedName HANDLER_PARAM = QualifiedName.create("gtn", "handler");
@@ -92,6 +94,9 @@ public class WebAppController implements Startable {
     /** . */
     private final AtomicReference<String> configurationPathRef;
 
+    /** The management context, handed to the handlers that are management aware. */
+    private ManagementContext managementContext;
+
     /**
      * Must have 'controller.config' as init parameter configuration (in xml)
      * that point to the controller.xml used to initialize navigation controller
@@ -250,8 +255,22 @@ public class WebAppController implements Startable {
      * @param handler the handler
      * @throws Exception any exception
      */
-    public void register(WebRequestHandler handler) {
+    public synchronized void register(WebRequestHandler handler) {
         handlers.put(handler.getHandlerName(), handler);
+        if (managementContext != null && handler instanceof ManagementAware) {
+            ((ManagementAware) handler).setContext(managementContext);
+        }
+    }
+
+    public synchronized void setContext(ManagementContext context) {
+        this.managementContext = context;
+        if (context != null) {
+            for (WebRequestHandler handler : handlers.values()) {
+                if (handler instanceof ManagementAware) {
+                    ((ManagementAware) handler).setContext(context);
+                }
+            }
+        }
     }
 
     public void unregister(String[] paths) {
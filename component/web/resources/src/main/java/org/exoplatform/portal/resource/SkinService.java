@@ -44,6 +44,8 @@ import org.exoplatform.commons.utils.ByteArrayOutput;
 import org.exoplatform.commons.utils.PropertyManager;
 import org.exoplatform.commons.utils.Safe;
 import org.exoplatform.container.ExoContainerContext;
+import org.exoplatform.management.ManagementAware;
+import org.exoplatform.management.ManagementContext;
 import org.exoplatform.management.annotations.Impact;
 import org.exoplatform.management.annotations.ImpactType;
 import org.exoplatform.management.annotations.Managed;
@@ -72,7 +74,7 @@ import org.picocontainer.Startable;
         @Property(key = "type", value = "skin") })
 @ManagedDescription("Skin service")
 @RESTEndpoint(path = "skinservice")
-public class SkinService extends AbstractResourceService implements Startable {
+public class SkinService extends AbstractResourceService implements Startable, ManagementAware {
 
     protected static Log log = ExoLogger.getLogger("portal.SkinService");
 
@@ -182,6 +184,8 @@ public class SkinService extends AbstractResourceService implements Startable {
         availableSkins_ = new HashSet<String>(5);
         ltCache = new FutureMap<String, CachedStylesheet, SkinContext>(loader);
         rtCache = new FutureMap<String, CachedStylesheet, SkinContext>(loader);
+        ltCache.getStatistics().setName("skin-lt");
+        rtCache.getStatistics().setName("skin-rt");
         portletThemes_ = new HashMap<String, Set<String>>();
         portalContainerName = context.getPortalContainerName();
         deployer = new GateInSkinConfigDeployer(portalContainerName, this);
@@ -874,6 +878,13 @@ public class SkinService extends AbstractResourceService implements Startable {
         rtCache.remove(skinId);
     }
 
+    public void setContext(ManagementContext context) {
+        if (context != null) {
+            context.register(ltCache.getStatistics());
+            context.register(rtCache.getStatistics());
+        }
+    }
+
     /**
      * Start service. Registry org.exoplatform.portal.resource.GateInSkinConfigDeployer and
      * org.exoplatform.portal.resource.GateInSkinConfigRemoval into ServletContainer.
@@ -35,6 +35,8 @@ import org.exoplatform.commons.cache.future.FutureMap;
 import org.exoplatform.commons.utils.I18N;
 import org.exoplatform.commons.utils.PropertyManager;
 import org.exoplatform.commons.utils.Safe;
+import org.exoplatform.management.ManagementAware;
+import org.exoplatform.management.ManagementContext;
 import org.exoplatform.portal.application.ResourceRequestFilter;
 import org.exoplatform.portal.resource.AbstractResourceDeployer;
 import org.exoplatform.web.ControllerContext;
@@ -52,7 +54,7 @@ import org.gatein.wci.WebAppListener;
 /**
  * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
  */
-public class ResourceRequestHandler extends WebRequestHandler implements WebAppListener {
+public class ResourceRequestHandler extends WebRequestHandler implements WebAppListener, ManagementAware {
 
     public static final String IF_MODIFIED_SINCE = "If-Modified-Since";
 
@@ -169,6 +171,13 @@ public class ResourceRequestHandler extends WebRequestHandler implements WebAppL
 
     public ResourceRequestHandler() {
         this.cache = new FutureMap<ScriptKey, ScriptResult, ControllerContext>(new ScriptLoader());
+        this.cache.getStatistics().setName("script");
+    }
+
+    public void setContext(ManagementContext context) {
+        if (context != null) {
+            context.register(cache.getStatistics());
+        }
     }
 
     @Override
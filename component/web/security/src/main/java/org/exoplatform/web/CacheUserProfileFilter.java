@@ -42,6 +42,11 @@ public class CacheUserProfileFilter extends AbstractFilter {
      */
     public static final String USER_PROFILE = "UserProfile";
 
+    /**
+     * The {@link org.exoplatform.services.organization.UserProfile} of the user cached for the conversation.
+     */
+    public static final String PORTAL_USER_PROFILE = "PortalUserProfile";
+
     /**
      * Logger.
      */
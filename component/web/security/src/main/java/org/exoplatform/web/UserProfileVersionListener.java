@@ -0,0 +1,70 @@
+/**
+ * Copyright (C) 2013 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.exoplatform.web;
+
+import java.util.UUID;
+
+import org.exoplatform.services.cache.CacheService;
+import org.exoplatform.services.cache.ExoCache;
+import org.exoplatform.services.organization.UserProfile;
+import org.exoplatform.services.organization.UserProfileEventListener;
+
+/**
+ * Stamps a new version for a user each time the profile of the user is saved or removed. The user profiles cached on the
+ * conversation states record the version they were loaded with and are reloaded when it does not match the current one.
+ * The versions are kept in the {@link #CACHE_NAME} cache which is replicated in a cluster, so a profile modified on a
+ * node is reloaded on the other nodes as well.
+ */
+public class UserProfileVersionListener extends UserProfileEventListener {
+
+    /** The name of the cache holding the versions. */
+    public static final String CACHE_NAME = "UserProfileVersion";
+
+    /** . */
+    private final ExoCache<String, String> versions;
+
+    public UserProfileVersionListener(CacheService cacheService) {
+        this.versions = cacheService.getCacheInstance(CACHE_NAME);
+    }
+
+    @Override
+    public void postSave(UserProfile profile, boolean isNew) throws Exception {
+        stamp(versions, profile.getUserName());
+    }
+
+    @Override
+    public void postDelete(UserProfile profile) throws Exception {
+        stamp(versions, profile.getUserName());
+    }
+
+    /**
+     * Stamps a new version for a user, it must be called when a profile is saved without broadcasting the event.
+     *
+     * @param cacheService the cache service
+     * @param userName the user name
+     */
+    public static void stamp(CacheService cacheService, String userName) {
+        stamp(cacheService.<String, String> getCacheInstance(CACHE_NAME), userName);
+    }
+
+    private static void stamp(ExoCache<String, String> versions, String userName) {
+        versions.put(userName, UUID.randomUUID().toString());
+    }
+}
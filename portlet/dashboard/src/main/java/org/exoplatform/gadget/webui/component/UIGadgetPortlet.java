@@ -29,7 +29,6 @@ import org.exoplatform.commons.utils.PropertyManager;
 import org.exoplatform.container.ExoContainer;
 import org.exoplatform.container.ExoContainerContext;
 import org.exoplatform.portal.webui.application.GadgetUtil;
-import org.exoplatform.portal.webui.application.UIGadget;
 import org.exoplatform.portal.webui.util.Util;
 import org.exoplatform.web.application.ApplicationMessage;
 import org.exoplatform.webui.application.WebuiApplication;
@@ -44,7 +43,6 @@ import org.exoplatform.webui.event.Event;
 import org.exoplatform.webui.event.EventListener;
 import org.gatein.common.logging.Logger;
 import org.gatein.common.logging.LoggerFactory;
-import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
@@ -172,8 +170,10 @@ public class UIGadgetPortlet extends UIPortletApplication {
     private JSONObject fetchMetadata(String url) {
         JSONObject metadata_ = null;
         try {
-            String strMetadata = GadgetUtil.fetchGagdetRpcMetadata(url);
-            metadata_ = new JSONArray(strMetadata).getJSONObject(0).getJSONObject(UIGadget.RPC_RESULT).getJSONObject(url);
+            metadata_ = GadgetUtil.getRpcMetadata(url);
+            if (metadata_ == null) {
+                throw new JSONException("No metadata for url " + url);
+            }
             String token = GadgetUtil.createToken(url, new Long(hashCode()));
             metadata_.put("secureToken", token);
         } catch (JSONException e) {
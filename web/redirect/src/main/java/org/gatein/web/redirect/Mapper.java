@@ -22,8 +22,13 @@
  ******************************************************************************/
 package org.gatein.web.redirect;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+import org.exoplatform.commons.cache.ClusterVersion;
 import org.exoplatform.portal.config.model.RedirectMappings;
 import org.exoplatform.portal.mop.SiteKey;
 import org.exoplatform.portal.mop.navigation.GenericScope;
@@ -32,12 +37,17 @@ import org.exoplatform.portal.mop.navigation.NavigationService;
 import org.exoplatform.portal.mop.navigation.NodeContext;
 import org.exoplatform.portal.mop.navigation.NodeModel;
 import org.exoplatform.portal.mop.navigation.Scope;
+import org.exoplatform.services.cache.ExoCache;
 import org.gatein.common.logging.Logger;
 import org.gatein.common.logging.LoggerFactory;
 
 /**
  * Handles the mapping between the nodes when performing a redirect
  *
+ * The node names of the navigation of a redirect site are indexed when node name matching is performed against the site,
+ * only the children of the nodes along the matched paths are loaded and indexed. The index is bound to a version shared by
+ * the nodes of a cluster, {@link #invalidate(String)} must be called when the navigation of the site changes.
+ *
  * TODO: create an interface for this and configure the service using the kernel
  *
  * @author <a href="mailto:mwringe@redhat.com">Matt Wringe</a>
@@ -48,8 +58,15 @@ public class Mapper {
 
     NavigationService navService;
 
-    public Mapper(NavigationService navService) {
+    // The versions of the redirect sites navigations, shared by the nodes of a cluster
+    final ExoCache<String, String> versions;
+
+    // The node name index of the redirect sites navigations along with the version it was created from
+    final ConcurrentHashMap<String, NavigationIndex> navigations = new ConcurrentHashMap<String, NavigationIndex>();
+
+    public Mapper(NavigationService navService, ExoCache<String, String> versions) {
         this.navService = navService;
+        this.versions = versions;
     }
 
     public String getRedirectPath(String originSite, String redirectSite, String originalRequestPath,
@@ -57,40 +74,55 @@ public class Mapper {
         return getRequestPath(originSite, redirectSite, originalRequestPath, redirectMappings);
     }
 
+    public String getRedirectPath(String originSite, String redirectSite, String originalRequestPath,
+            NodeMappings nodeMappings) {
+        return getRequestPath(originSite, redirectSite, originalRequestPath, nodeMappings);
+    }
+
+    /**
+     * Returns the version of the navigation of a redirect site.
+     *
+     * @param redirectSite the redirect site name
+     * @return the version
+     */
+    ClusterVersion getVersion(String redirectSite) {
+        return new ClusterVersion(versions, Mapper.class.getName() + "/" + redirectSite);
+    }
+
+    /**
+     * Discards the node name index of a redirect site on all the nodes of the cluster, it will be built again on the next
+     * access.
+     *
+     * @param redirectSite the redirect site name
+     */
+    public void invalidate(String redirectSite) {
+        navigations.remove(redirectSite);
+        getVersion(redirectSite).stamp();
+    }
+
     protected String getRequestPath(String originSite, String redirectSite, String requestPath,
             RedirectMappings redirectMappings) {
         if (redirectMappings == null) {
             return null;
         }
+        return getRequestPath(originSite, redirectSite, requestPath, new NodeMappings(redirectMappings));
+    }
 
-        Map<String, String> mappings = redirectMappings.getMap();
-        // first check if we have explicit mappings for this requestPath, always blindly follow any explicit mappings
-        if (mappings != null) {
-            String redirectRequestPath = mappings.get(requestPath);
-
-            if (redirectRequestPath == null) {
-                if (requestPath.startsWith("/")) {
-                    // it has a leading / so check without the '/'
-                    redirectRequestPath = mappings.get(requestPath.substring(1));
-                } else {
-                    // otherwise it doesn't have a leading '/' check with one.
-                    redirectRequestPath = mappings.get("/" + requestPath);
-                }
-            }
+    protected String getRequestPath(String originSite, String redirectSite, String requestPath, NodeMappings nodeMappings) {
+        if (nodeMappings == null) {
+            return null;
+        }
 
-            if (redirectRequestPath != null) {
-                if (redirectRequestPath.startsWith("/")) {
-                    return redirectRequestPath;
-                } else {
-                    return "/" + redirectRequestPath;
-                }
-            }
+        // first check if we have explicit mappings for this requestPath, always blindly follow any explicit mappings
+        String redirectRequestPath = nodeMappings.getMapping(requestPath);
+        if (redirectRequestPath != null) {
+            return redirectRequestPath;
         }
 
         // next check if we use node name matching
-        if (redirectMappings.isUseNodeNameMatching()) {
-            String redirectRequestPath = getNodeIfExists(redirectSite, requestPath,
-                    redirectMappings.getUnresolvedNode() == RedirectMappings.UnknownNodeMapping.COMMON_ANCESTOR_NAME_MATCH);
+        if (nodeMappings.isUseNodeNameMatching()) {
+            redirectRequestPath = getNodeIfExists(redirectSite, requestPath,
+                    nodeMappings.getUnresolvedNode() == RedirectMappings.UnknownNodeMapping.COMMON_ANCESTOR_NAME_MATCH);
             {
                 if (redirectRequestPath != null) {
                     if (redirectRequestPath.startsWith("/")) {
@@ -103,37 +135,37 @@ public class Mapper {
         }
 
         // if no explicit mapping, no name matching and not using common ancestor
-        if (redirectMappings.getUnresolvedNode() == RedirectMappings.UnknownNodeMapping.NO_REDIRECT) {
+        if (nodeMappings.getUnresolvedNode() == RedirectMappings.UnknownNodeMapping.NO_REDIRECT) {
             return null;
-        } else if (redirectMappings.getUnresolvedNode() == RedirectMappings.UnknownNodeMapping.REDIRECT) {
+        } else if (nodeMappings.getUnresolvedNode() == RedirectMappings.UnknownNodeMapping.REDIRECT) {
             if (requestPath.startsWith("/")) {
                 return requestPath;
             } else {
                 return "/" + requestPath;
             }
-        } else if (redirectMappings.getUnresolvedNode() == RedirectMappings.UnknownNodeMapping.ROOT) {
+        } else if (nodeMappings.getUnresolvedNode() == RedirectMappings.UnknownNodeMapping.ROOT) {
             return "/";
         } else {
-            log.warn("Unknown redirect configuration option for an unknown node [" + redirectMappings.getUnresolvedNode()
+            log.warn("Unknown redirect configuration option for an unknown node [" + nodeMappings.getUnresolvedNode()
                     + "]. Will not perform redirect.");
             return null;
         }
     }
 
     protected String getNodeIfExists(String redirectSite, String requestPath, Boolean useCommonAncestor) {
-        log.info("GetNodeExits called [" + redirectSite + "] : [" + requestPath + "]");
+        log.debug("GetNodeExits called [" + redirectSite + "] : [" + requestPath + "]");
 
-        NavigationContext navContext = null;
+        PathNode root = null;
 
         if (redirectSite == null || navService == null) {
             log.warn("Redirect site name [" + redirectSite + "] or the navigation service object [" + navService
                     + "] is null. Cannot perform redirect.");
             return null;
         } else {
-            navContext = navService.loadNavigation(SiteKey.portal(redirectSite));
+            root = getNavigation(redirectSite);
         }
 
-        if (navContext == null) // if the navContext is null, the redirectSite doesn't exist and we can't redirect to it.
+        if (root == PathNode.NO_NAVIGATION) // the redirectSite doesn't exist and we can't redirect to it.
         {
             log.warn("Cannot preform redirect since can't retrieve navigation for site : " + redirectSite);
             return null;
@@ -149,22 +181,29 @@ public class Mapper {
             path = requestPath.split("/");
         }
 
-        NodeContext nodeContext = navService.loadNode(NodeModel.SELF_MODEL, navContext,
-                GenericScope.branchShape(path, Scope.ALL), null);
-
+        PathNode node = root;
         boolean found = true;
         String lastCommonAncestor = "/";
 
         for (String nodeName : path) {
-            nodeContext = nodeContext.get(nodeName);
-            if (nodeContext == null) {
+            Map<String, PathNode> children = node.children;
+            if (children == null) {
+                expand(redirectSite, root, path);
+                children = node.children;
+                if (children == null) {
+                    // the navigation changed since the index was created
+                    children = Collections.emptyMap();
+                }
+            }
+            node = children.get(nodeName);
+            if (node == null) {
                 found = false;
                 break;
             } else {
                 if (lastCommonAncestor.equals("/")) {
-                    lastCommonAncestor += nodeContext.getName();
+                    lastCommonAncestor += nodeName;
                 } else {
-                    lastCommonAncestor += "/" + nodeContext.getName();
+                    lastCommonAncestor += "/" + nodeName;
                 }
             }
         }
@@ -182,4 +221,102 @@ public class Mapper {
         }
     }
 
+    /**
+     * Returns the root of the node name index of the navigation of a redirect site, a new index is created when the site
+     * is not yet indexed or when the version of its navigation changed. The version is read before the navigation is
+     * loaded, so an index created concurrently with a navigation change is created again on the next access.
+     *
+     * @param redirectSite the redirect site name
+     * @return the root of the index or {@link PathNode#NO_NAVIGATION} if the site has no navigation
+     */
+    protected PathNode getNavigation(String redirectSite) {
+        String version = getVersion(redirectSite).get();
+        NavigationIndex index = navigations.get(redirectSite);
+        if (index == null || !index.version.equals(version)) {
+            NavigationContext navContext = navService.loadNavigation(SiteKey.portal(redirectSite));
+            index = new NavigationIndex(version, navContext == null ? PathNode.NO_NAVIGATION : new PathNode());
+            navigations.put(redirectSite, index);
+        }
+        return index.root;
+    }
+
+    /**
+     * Loads the children of the nodes along a path of the navigation of a redirect site and indexes the children of the
+     * nodes that are not yet indexed.
+     *
+     * @param redirectSite the redirect site name
+     * @param root the root of the index
+     * @param path the path
+     */
+    protected void expand(String redirectSite, PathNode root, String[] path) {
+        NavigationContext navContext = navService.loadNavigation(SiteKey.portal(redirectSite));
+        if (navContext != null) {
+            NodeContext<NodeContext<?>> context = navService.loadNode(NodeModel.SELF_MODEL, navContext,
+                    GenericScope.branchShape(path, Scope.SINGLE), null);
+            PathNode node = root;
+            for (int i = 0; i <= path.length && context != null && context.isExpanded(); i++) {
+                if (node.children == null) {
+                    node.children = PathNode.children(context);
+                }
+                if (i < path.length) {
+                    context = context.get(path[i]);
+                    node = node.children.get(path[i]);
+                    if (node == null) {
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * The node name index of the navigation of a redirect site and the version it was created from.
+     */
+    static class NavigationIndex {
+
+        /** . */
+        final String version;
+
+        /** . */
+        final PathNode root;
+
+        NavigationIndex(String version, PathNode root) {
+            this.version = version;
+            this.root = root;
+        }
+    }
+
+    /**
+     * A node of the node name index of a navigation, the children of a node are indexed the first time a path goes
+     * through the node.
+     */
+    protected static class PathNode {
+
+        /** Marker for a site without navigation. */
+        static final PathNode NO_NAVIGATION = new PathNode(Collections.<String, PathNode> emptyMap());
+
+        /** The indexed children or null when they are not yet loaded. */
+        volatile Map<String, PathNode> children;
+
+        private PathNode() {
+            this.children = null;
+        }
+
+        private PathNode(Map<String, PathNode> children) {
+            this.children = children;
+        }
+
+        private static Map<String, PathNode> children(NodeContext<NodeContext<?>> context) {
+            Collection<NodeContext<?>> nodes = context.getNodes();
+            if (nodes == null || nodes.isEmpty()) {
+                return Collections.emptyMap();
+            } else {
+                Map<String, PathNode> children = new HashMap<String, PathNode>(nodes.size());
+                for (NodeContext<?> child : nodes) {
+                    children.put(child.getName(), new PathNode());
+                }
+                return children;
+            }
+        }
+    }
 }
@@ -0,0 +1,95 @@
+/******************************************************************************
+ * JBoss, a division of Red Hat                                               *
+ * Copyright 2013, Red Hat Middleware, LLC, and individual                    *
+ * contributors as indicated by the @authors tag. See the                     *
+ * copyright.txt in the distribution for a full listing of                    *
+ * individual contributors.                                                   *
+ *                                                                            *
+ * This is free software; you can redistribute it and/or modify it            *
+ * under the terms of the GNU Lesser General Public License as                *
+ * published by the Free Software Foundation; either version 2.1 of           *
+ * the License, or (at your option) any later version.                        *
+ *                                                                            *
+ * This software is distributed in the hope that it will be useful,           *
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of             *
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU           *
+ * Lesser General Public License for more details.                            *
+ *                                                                            *
+ * You should have received a copy of the GNU Lesser General Public           *
+ * License along with this software; if not, write to the Free                *
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA         *
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.                   *
+ ******************************************************************************/
+package org.gatein.web.redirect;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.exoplatform.portal.config.model.NodeMap;
+import org.exoplatform.portal.config.model.RedirectMappings;
+
+/**
+ * The precomputed node mappings of a redirect from an origin site to a redirect site. The explicit mappings are indexed
+ * once with their normalized redirect path so that resolving an explicit mapping is a hash lookup.
+ *
+ * @author <a href="mailto:mwringe@redhat.com">Matt Wringe</a>
+ * @version $Revision$
+ */
+public class NodeMappings {
+
+    /** . */
+    private final Map<String, String> mappings;
+
+    /** . */
+    private final boolean useNodeNameMatching;
+
+    /** . */
+    private final RedirectMappings.UnknownNodeMapping unresolvedNode;
+
+    public NodeMappings(RedirectMappings redirectMappings) {
+        Map<String, String> mappings = new HashMap<String, String>();
+        if (redirectMappings.getMappings() != null) {
+            for (NodeMap nodeMap : redirectMappings.getMappings()) {
+                String redirectNode = nodeMap.getRedirectNode();
+                if (redirectNode != null && !redirectNode.startsWith("/")) {
+                    redirectNode = "/" + redirectNode;
+                }
+                mappings.put(nodeMap.getOriginNode(), redirectNode);
+            }
+        }
+
+        //
+        this.mappings = Collections.unmodifiableMap(mappings);
+        this.useNodeNameMatching = redirectMappings.isUseNodeNameMatching();
+        this.unresolvedNode = redirectMappings.getUnresolvedNode();
+    }
+
+    /**
+     * Returns the explicit mapping of an origin request path, the path is matched with and without its leading '/'.
+     *
+     * @param requestPath the origin request path
+     * @return the redirect path starting with a '/' or null if the request path is not explicitly mapped
+     */
+    public String getMapping(String requestPath) {
+        String redirectRequestPath = mappings.get(requestPath);
+        if (redirectRequestPath == null) {
+            if (requestPath.startsWith("/")) {
+                // it has a leading / so check without the '/'
+                redirectRequestPath = mappings.get(requestPath.substring(1));
+            } else {
+                // otherwise it doesn't have a leading '/' check with one.
+                redirectRequestPath = mappings.get("/" + requestPath);
+            }
+        }
+        return redirectRequestPath;
+    }
+
+    public boolean isUseNodeNameMatching() {
+        return useNodeNameMatching;
+    }
+
+    public RedirectMappings.UnknownNodeMapping getUnresolvedNode() {
+        return unresolvedNode;
+    }
+}
@@ -0,0 +1,455 @@
+/******************************************************************************
+ * JBoss, a division of Red Hat                                               *
+ * Copyright 2013, Red Hat Middleware, LLC, and individual                    *
+ * contributors as indicated by the @authors tag. See the                     *
+ * copyright.txt in the distribution for a full listing of                    *
+ * individual contributors.                                                   *
+ *                                                                            *
+ * This is free software; you can redistribute it and/or modify it            *
+ * under the terms of the GNU Lesser General Public License as                *
+ * published by the Free Software Foundation; either version 2.1 of           *
+ * the License, or (at your option) any later version.                        *
+ *                                                                            *
+ * This software is distributed in the hope that it will be useful,           *
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of             *
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU           *
+ * Lesser General Public License for more details.                            *
+ *                                                                            *
+ * You should have received a copy of the GNU Lesser General Public           *
+ * License along with this software; if not, write to the Free                *
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA         *
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.                   *
+ ******************************************************************************/
+package org.gatein.web.redirect;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import org.exoplatform.portal.config.model.DevicePropertyCondition;
+import org.exoplatform.portal.config.model.PortalRedirect;
+import org.exoplatform.portal.config.model.RedirectCondition;
+import org.exoplatform.portal.config.model.UserAgentConditions;
+import org.gatein.common.logging.Logger;
+import org.gatein.common.logging.LoggerFactory;
+import org.gatein.web.redirect.api.RedirectKey;
+import org.gatein.web.redirect.api.RedirectType;
+
+/**
+ * The compiled, immutable form of the redirects of a site. All the patterns of the redirect conditions are compiled once
+ * when the rules are created, and the redirect decisions that only depend on the user agent string are kept in a bounded
+ * cache, so that evaluating the rules for a known user agent is a simple hash lookup.
+ *
+ * @author <a href="mailto:mwringe@redhat.com">Matt Wringe</a>
+ * @version $Revision$
+ */
+public class RedirectRules {
+
+    protected static Logger log = LoggerFactory.getLogger(RedirectRules.class);
+
+    /** The default maximum number of user agent decisions kept per site. */
+    public static final int DEFAULT_MAX_DECISIONS = 1000;
+
+    /** . */
+    private final List<PortalRedirect> redirects;
+
+    /** . */
+    private final Map<String, PortalRedirect> redirectsBySite;
+
+    /** . */
+    private final Map<String, NodeMappings> mappingsBySite;
+
+    /** . */
+    private final List<Rule> rules;
+
+    /** . */
+    private final int maxDecisions;
+
+    /** . */
+    private final ConcurrentHashMap<String, RedirectKey> decisions;
+
+    public RedirectRules(List<PortalRedirect> portalRedirects) {
+        this(portalRedirects, DEFAULT_MAX_DECISIONS);
+    }
+
+    public RedirectRules(List<PortalRedirect> portalRedirects, int maxDecisions) {
+        List<PortalRedirect> redirects = new ArrayList<PortalRedirect>();
+        Map<String, PortalRedirect> redirectsBySite = new LinkedHashMap<String, PortalRedirect>();
+        Map<String, NodeMappings> mappingsBySite = new HashMap<String, NodeMappings>();
+        List<Rule> rules = new ArrayList<Rule>();
+        if (portalRedirects != null) {
+            for (PortalRedirect redirect : portalRedirects) {
+                redirects.add(redirect);
+                if (redirect.getRedirectSite() != null && !redirectsBySite.containsKey(redirect.getRedirectSite())) {
+                    redirectsBySite.put(redirect.getRedirectSite(), redirect);
+                    if (redirect.getMappings() != null) {
+                        mappingsBySite.put(redirect.getRedirectSite(), new NodeMappings(redirect.getMappings()));
+                    }
+                }
+                if (redirect.isEnabled()) {
+                    rules.add(new Rule(redirect));
+                }
+            }
+        }
+
+        //
+        this.redirects = Collections.unmodifiableList(redirects);
+        this.redirectsBySite = Collections.unmodifiableMap(redirectsBySite);
+        this.mappingsBySite = Collections.unmodifiableMap(mappingsBySite);
+        this.rules = Collections.unmodifiableList(rules);
+        this.maxDecisions = maxDecisions;
+        this.decisions = new ConcurrentHashMap<String, RedirectKey>();
+    }
+
+    /**
+     * Returns all the redirects of the site, enabled or not, in their configured order.
+     *
+     * @return the redirects
+     */
+    public List<PortalRedirect> getRedirects() {
+        return redirects;
+    }
+
+    /**
+     * Returns the first redirect configured for the specified redirect site.
+     *
+     * @param redirectSite the redirect site name
+     * @return the redirect or null if the site does not redirect to the specified site
+     */
+    public PortalRedirect getRedirect(String redirectSite) {
+        return redirectsBySite.get(redirectSite);
+    }
+
+    /**
+     * Returns the precomputed node mappings of the first redirect configured for the specified redirect site.
+     *
+     * @param redirectSite the redirect site name
+     * @return the node mappings or null if the site does not redirect to the specified site or the redirect has no mappings
+     */
+    public NodeMappings getNodeMappings(String redirectSite) {
+        return mappingsBySite.get(redirectSite);
+    }
+
+    /**
+     * Determines the redirect to perform for a user agent and the optional device properties.
+     *
+     * @param userAgentString the user agent string
+     * @param deviceProperties the device properties or null when no device detection was performed
+     * @return the redirect key
+     */
+    public RedirectKey getRedirectSite(String userAgentString, Map<String, String> deviceProperties) {
+        if (userAgentString == null) {
+            // if the uas is null, then just transform it into 'null'. This allows the admin to configure how to handle the
+            // 'null' the null case easily.
+            // since the uas is user modifiable, setting it to whatever we want here will not cause any problems.
+            userAgentString = "null";
+        }
+
+        // Without device properties the decision only depends on the user agent string and can be cached
+        if (deviceProperties == null && maxDecisions > 0) {
+            RedirectKey decision = decisions.get(userAgentString);
+            if (decision == null) {
+                decision = evaluate(userAgentString, null);
+                if (decisions.size() >= maxDecisions) {
+                    decisions.clear();
+                }
+                decisions.put(userAgentString, decision);
+            }
+            return decision;
+        } else {
+            return evaluate(userAgentString, deviceProperties);
+        }
+    }
+
+    private RedirectKey evaluate(String userAgentString, Map<String, String> deviceProperties) {
+        boolean needsBrowserDetection = false;
+
+        for (Rule rule : rules) {
+            RedirectType redirectCondition = rule.check(userAgentString, deviceProperties);
+            if (redirectCondition == RedirectType.REDIRECT) {
+                log.debug("Found a match with UAS " + userAgentString + " and DeviceProperties " + deviceProperties
+                        + ". Setting redirect to : " + rule.redirectSite);
+
+                return RedirectKey.redirect(rule.redirectSite);
+            } else if (redirectCondition == RedirectType.NEEDDEVICEINFO) {
+                needsBrowserDetection = true;
+            }
+        }
+
+        if (needsBrowserDetection == false) {
+            log.debug("Could not find a match with the specified uas and device properties. Returning NO_REDIRECT_DETECTED");
+            return RedirectKey.noRedirect();
+        } else {
+            log.debug("Found a match with the specified uas but it requires device properties. Returning NO_REDIRECT_DETECTED");
+            return RedirectKey.needDeviceInfo();
+        }
+    }
+
+    private static RedirectType check(List<Condition> conditions, String userAgentString,
+            Map<String, String> deviceProperties) {
+        for (Condition condition : conditions) {
+            if (condition.matchesUserAgent(userAgentString)) {
+                if (condition.properties.isEmpty()) {
+                    log.debug("UserAgentStringMatch and no device detection has been specified. Using Redirect");
+                    return RedirectType.REDIRECT;
+                } else if (deviceProperties == null) {
+                    log.debug("Conditional device properties exists, but no deviceProperties available. Using Browser Detection");
+                    return RedirectType.NEEDDEVICEINFO;
+                } else if (condition.matchesDeviceProperties(deviceProperties)) {
+                    log.debug("UserAgentStringMatch and device properties match. Using Redirect");
+                    return RedirectType.REDIRECT;
+                } else {
+                    return RedirectType.NOREDIRECT;
+                }
+            }
+        }
+        return RedirectType.NOREDIRECT;
+    }
+
+    /**
+     * Checks redirect conditions without compiling them into rules, see {@link Redirector#checkConditions}.
+     */
+    static RedirectType checkConditions(String userAgentString, Map<String, String> deviceProperties,
+            List<RedirectCondition> conditions) {
+        List<Condition> compiled = new ArrayList<Condition>();
+        if (conditions != null) {
+            for (RedirectCondition condition : conditions) {
+                compiled.add(new Condition(condition.getUserAgentConditions(), condition.getDeviceProperties()));
+            }
+        }
+        return check(compiled, userAgentString, deviceProperties);
+    }
+
+    /**
+     * Checks device property conditions without compiling them into rules, see {@link Redirector#checkDeviceProperties}.
+     */
+    static boolean checkDeviceProperties(Map<String, String> deviceProperties, List<DevicePropertyCondition> conditions) {
+        if (conditions == null || conditions.isEmpty()) {
+            return true;
+        } else if (deviceProperties == null) {
+            return false;
+        } else {
+            return new Condition(null, conditions).matchesDeviceProperties(deviceProperties);
+        }
+    }
+
+    /**
+     * Checks a device property condition without compiling it into rules, see {@link Redirector#checkProperty}.
+     */
+    static boolean checkProperty(String propertyValue, DevicePropertyCondition deviceProperty) {
+        return new PropertyCondition(deviceProperty).matches(propertyValue);
+    }
+
+    /**
+     * Checks user agent conditions without compiling them into rules, see {@link Redirector#checkUserAgentStrings}.
+     */
+    static boolean checkUserAgentStrings(String userAgentString, UserAgentConditions condition) {
+        return userAgentString != null && new Condition(condition, null).matchesUserAgent(userAgentString);
+    }
+
+    /**
+     * Checks user agent patterns without compiling them into rules, see {@link Redirector#userAgentContains}.
+     */
+    static boolean userAgentContains(String userAgentString, List<String> contains) {
+        return userAgentString != null && find(compile(contains), userAgentString);
+    }
+
+    private static List<Pattern> compile(List<String> regexes) {
+        List<Pattern> patterns = new ArrayList<Pattern>();
+        if (regexes != null) {
+            for (String regex : regexes) {
+                Pattern pattern = compile(regex);
+                if (pattern != null) {
+                    patterns.add(pattern);
+                }
+            }
+        }
+        return patterns;
+    }
+
+    private static Pattern compile(String regex) {
+        try {
+            return Pattern.compile(regex);
+        } catch (PatternSyntaxException pse) {
+            log.warn("Encountered a PatternSyntaxException trying to compile a redirect condition pattern (" + regex
+                    + ") which should be a valid string for a pattern. The pattern is ignored.");
+            return null;
+        }
+    }
+
+    private static boolean find(List<Pattern> patterns, String value) {
+        for (Pattern pattern : patterns) {
+            if (pattern.matcher(value).find()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * A compiled enabled redirect.
+     */
+    private static class Rule {
+
+        /** . */
+        private final String redirectSite;
+
+        /** . */
+        private final List<Condition> conditions;
+
+        private Rule(PortalRedirect redirect) {
+            List<Condition> conditions = new ArrayList<Condition>();
+            if (redirect.getConditions() != null) {
+                for (RedirectCondition condition : redirect.getConditions()) {
+                    conditions.add(new Condition(condition.getUserAgentConditions(), condition.getDeviceProperties()));
+                }
+            }
+
+            //
+            this.redirectSite = redirect.getRedirectSite();
+            this.conditions = conditions;
+        }
+
+        private RedirectType check(String userAgentString, Map<String, String> deviceProperties) {
+            return RedirectRules.check(conditions, userAgentString, deviceProperties);
+        }
+    }
+
+    /**
+     * A compiled redirect condition.
+     */
+    private static class Condition {
+
+        /** . */
+        private final List<Pattern> contains;
+
+        /** . */
+        private final List<Pattern> doesNotContain;
+
+        /** . */
+        private final List<PropertyCondition> properties;
+
+        private Condition(UserAgentConditions userAgentConditions, List<DevicePropertyCondition> deviceProperties) {
+            List<PropertyCondition> properties = new ArrayList<PropertyCondition>();
+            if (deviceProperties != null) {
+                for (DevicePropertyCondition property : deviceProperties) {
+                    properties.add(new PropertyCondition(property));
+                }
+            }
+
+            //
+            this.contains = compile(userAgentConditions != null ? userAgentConditions.getContains() : null);
+            this.doesNotContain = compile(userAgentConditions != null ? userAgentConditions.getDoesNotContain() : null);
+            this.properties = properties;
+        }
+
+        private boolean matchesUserAgent(String userAgentString) {
+            // Check the black list first for user agent string matches, fail immediately if any match
+            if (find(doesNotContain, userAgentString)) {
+                return false;
+            }
+
+            // if we have no contains or contains is empty, we can never match to this
+            return find(contains, userAgentString);
+        }
+
+        private boolean matchesDeviceProperties(Map<String, String> deviceProperties) {
+            for (PropertyCondition property : properties) {
+                if (deviceProperties.containsKey(property.name)) {
+                    if (!property.matches(deviceProperties.get(property.name))) {
+                        return false;
+                    }
+                } else {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * A compiled device property condition.
+     */
+    private static class PropertyCondition {
+
+        /** . */
+        private final String name;
+
+        /** . */
+        private final Float greaterThan;
+
+        /** . */
+        private final Float lessThan;
+
+        /** . */
+        private final String equals;
+
+        /** The compiled pattern, null when no pattern is configured. */
+        private final Pattern matches;
+
+        /** True when a configured pattern could not be compiled, such a condition never matches. */
+        private final boolean invalid;
+
+        private PropertyCondition(DevicePropertyCondition condition) {
+            Pattern matches = null;
+            if (condition.getMatches() != null) {
+                matches = compile(condition.getMatches());
+            }
+
+            //
+            this.name = condition.getPropertyName();
+            this.greaterThan = condition.getGreaterThan();
+            this.lessThan = condition.getLessThan();
+            this.equals = condition.getEquals();
+            this.matches = matches;
+            this.invalid = condition.getMatches() != null && matches == null;
+        }
+
+        private boolean matches(String propertyValue) {
+            if (greaterThan != null || lessThan != null) {
+                if (propertyValue == null) {
+                    return false;
+                }
+                float propertyValueFloat;
+                try {
+                    propertyValueFloat = Float.parseFloat(propertyValue);
+                } catch (NumberFormatException nfe) {
+                    log.debug("Encountered a NumberFormatException trying to parse a property value (" + propertyValue
+                            + ") which should be a float.");
+                    return false;
+                }
+                if (greaterThan != null && propertyValueFloat <= greaterThan) {
+                    return false;
+                }
+                if (lessThan != null && propertyValueFloat >= lessThan) {
+                    return false;
+                }
+            }
+
+            if (equals != null) {
+                if (!equals.equals(propertyValue)) {
+                    return false;
+                }
+            }
+
+            if (invalid) {
+                return false;
+            } else if (matches != null) {
+                if (propertyValue == null) {
+                    propertyValue = "";
+                }
+                if (!matches.matcher(propertyValue).find()) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+    }
+}
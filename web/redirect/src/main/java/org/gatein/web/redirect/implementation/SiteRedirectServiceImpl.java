@@ -25,14 +25,25 @@ package org.gatein.web.redirect.implementation;
 import java.io.IOException;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+import org.exoplatform.commons.cache.ClusterVersion;
 import org.exoplatform.portal.config.DataStorage;
 import org.exoplatform.portal.config.model.PortalConfig;
 import org.exoplatform.portal.config.model.PortalRedirect;
+import org.exoplatform.portal.mop.EventType;
+import org.exoplatform.portal.mop.SiteKey;
+import org.exoplatform.portal.mop.SiteType;
 import org.exoplatform.portal.mop.navigation.NavigationService;
+import org.exoplatform.services.cache.CacheService;
+import org.exoplatform.services.cache.ExoCache;
+import org.exoplatform.services.listener.Event;
+import org.exoplatform.services.listener.Listener;
+import org.exoplatform.services.listener.ListenerService;
 import org.gatein.common.logging.Logger;
 import org.gatein.common.logging.LoggerFactory;
 import org.gatein.web.redirect.Mapper;
+import org.gatein.web.redirect.RedirectRules;
 import org.gatein.web.redirect.Redirector;
 import org.gatein.web.redirect.api.RedirectKey;
 import org.gatein.web.redirect.api.SiteRedirectService;
@@ -54,19 +65,101 @@ public class SiteRedirectServiceImpl implements SiteRedirectService, Startable {
     // Used for retrieving the stored portal configuration
     DataStorage dataStorage;
 
-    public SiteRedirectServiceImpl(DataStorage dataStorage, NavigationService navService) throws IOException {
+    // The versions of the redirect rules of the sites, shared by the nodes of a cluster
+    final ExoCache<String, String> versions;
+
+    // The compiled redirect rules of the sites along with the version they were compiled from, the rules of a site are
+    // compiled again when its version changes
+    final ConcurrentHashMap<String, VersionedRules> rules = new ConcurrentHashMap<String, VersionedRules>();
+
+    public SiteRedirectServiceImpl(DataStorage dataStorage, NavigationService navService, ListenerService listenerService,
+            CacheService cacheService) throws IOException {
         this.dataStorage = dataStorage;
+        this.versions = cacheService.getCacheInstance(ClusterVersion.CACHE_NAME);
         this.redirector = new Redirector();
-        this.mapper = new Mapper(navService);
+        this.mapper = new Mapper(navService, versions);
+
+        // Invalidate the compiled rules of a site when its portal configuration changes
+        Listener<DataStorage, PortalConfig> invalidator = new Listener<DataStorage, PortalConfig>() {
+            @Override
+            public void onEvent(Event<DataStorage, PortalConfig> event) throws Exception {
+                PortalConfig config = event.getData();
+                if (config != null && PortalConfig.PORTAL_TYPE.equals(config.getType())) {
+                    invalidate(config.getName());
+                }
+            }
+        };
+        listenerService.addListener(DataStorage.PORTAL_CONFIG_CREATED, invalidator);
+        listenerService.addListener(DataStorage.PORTAL_CONFIG_UPDATED, invalidator);
+        listenerService.addListener(DataStorage.PORTAL_CONFIG_REMOVED, invalidator);
+
+        // Discard the node name index of a redirect site when its navigation changes
+        Listener<NavigationService, SiteKey> navigationInvalidator = new Listener<NavigationService, SiteKey>() {
+            @Override
+            public void onEvent(Event<NavigationService, SiteKey> event) throws Exception {
+                SiteKey key = event.getData();
+                if (key != null && key.getType() == SiteType.PORTAL) {
+                    mapper.invalidate(key.getName());
+                }
+            }
+        };
+        listenerService.addListener(EventType.NAVIGATION_CREATED, navigationInvalidator);
+        listenerService.addListener(EventType.NAVIGATION_UPDATED, navigationInvalidator);
+        listenerService.addListener(EventType.NAVIGATION_DESTROYED, navigationInvalidator);
+    }
+
+    /**
+     * Returns the version of the redirect rules of a site.
+     *
+     * @param site the site name
+     * @return the version
+     */
+    ClusterVersion getVersion(String site) {
+        return new ClusterVersion(versions, SiteRedirectService.class.getName() + "/" + site);
+    }
+
+    /**
+     * Discards the compiled redirect rules of a site on all the nodes of the cluster, they will be compiled again on the
+     * next access.
+     *
+     * @param site the site name
+     */
+    public void invalidate(String site) {
+        rules.remove(site);
+        getVersion(site).stamp();
+    }
+
+    /**
+     * Returns the compiled redirect rules of a site, compiling them from the stored portal configuration when they are
+     * missing or when their version is not the current version. The version is read before the portal configuration, so
+     * rules compiled concurrently with an update are compiled again on the next access.
+     *
+     * @param site the site name
+     * @return the rules or null if the site does not exist
+     * @throws Exception any exception thrown while loading the portal configuration
+     */
+    protected RedirectRules getRules(String site) throws Exception {
+        String version = getVersion(site).get();
+        VersionedRules siteRules = rules.get(site);
+        if (siteRules == null || !siteRules.version.equals(version)) {
+            PortalConfig pConfig = dataStorage.getPortalConfig(site);
+            if (pConfig == null) {
+                rules.remove(site);
+                return null;
+            }
+            siteRules = new VersionedRules(version, redirector.compile(pConfig.getPortalRedirects()));
+            rules.put(site, siteRules);
+        }
+        return siteRules.rules;
     }
 
     @Override
     public RedirectKey getRedirectSite(String origin, String userAgentString, Map<String, String> deviceProperties) {
         try {
             if (redirector != null && dataStorage != null) {
-                PortalConfig pConfig = dataStorage.getPortalConfig(origin);
-                if (pConfig != null) {
-                    return redirector.getRedirectSite(pConfig.getPortalRedirects(), userAgentString, deviceProperties);
+                RedirectRules siteRules = getRules(origin);
+                if (siteRules != null) {
+                    return siteRules.getRedirectSite(userAgentString, deviceProperties);
                 } else {
                     log.warn("No PortalConfig found for site : " + origin + ". Site redirection cannot be peformed.");
                     return null;
@@ -89,29 +182,19 @@ public class SiteRedirectServiceImpl implements SiteRedirectService, Startable {
                 if (originRequestPath == null || originRequestPath.isEmpty()) {
                     originRequestPath = "/";
                 }
-                PortalConfig pConfig = dataStorage.getPortalConfig(origin);
+                RedirectRules siteRules = getRules(origin);
 
-                if (pConfig == null || pConfig.getPortalRedirects() == null) {
+                if (siteRules == null) {
                     log.warn("No PortalConfig found for site : " + origin + ". Site redirection cannot be peformed.");
                     return null;
                 }
 
-                // TODO: determine how portalredirects should be properly stored in the portal config.
-                // We should not be looping over all the portal redirects to find the right one, but using something
-                // like a LinkedHashMap (we need order + mapability) is awkward and more difficult to setup in xml bindings
-                // and jcr configuration.
-                // NOTE: should be a minor issue, there should only ever really be 2-3 redirects for any portal configuration so
-                // looping over all of them should not be a big problem. But its still a bad design which should be fixed.
-                PortalRedirect pRedirect = null;
-                for (PortalRedirect portalRedirect : pConfig.getPortalRedirects()) {
-                    if (portalRedirect.getRedirectSite().equals(redirect)) {
-                        pRedirect = portalRedirect;
-                        break;
-                    }
-                }
+                // The compiled rules index the redirects by redirect site, the portal config keeps them as an ordered list
+                PortalRedirect pRedirect = siteRules.getRedirect(redirect);
 
                 if (pRedirect != null) {
-                    String redirectPath = mapper.getRedirectPath(origin, redirect, originRequestPath, pRedirect.getMappings());
+                    String redirectPath = mapper.getRedirectPath(origin, redirect, originRequestPath,
+                            siteRules.getNodeMappings(redirect));
                     if (redirectPath != null) {
                         if (redirectPath.startsWith("/")) {
                             return redirectPath;
@@ -140,9 +223,9 @@ public class SiteRedirectServiceImpl implements SiteRedirectService, Startable {
         Map<String, String> siteKeys = new LinkedHashMap<String, String>();
         try {
             if (dataStorage != null) {
-                PortalConfig portalConfig = dataStorage.getPortalConfig(site);
-                if (portalConfig != null && portalConfig.getPortalRedirects() != null) {
-                    for (PortalRedirect portalRedirect : portalConfig.getPortalRedirects()) {
+                RedirectRules siteRules = getRules(site);
+                if (siteRules != null) {
+                    for (PortalRedirect portalRedirect : siteRules.getRedirects()) {
                         if (onlyEnabled && !portalRedirect.isEnabled()) {
                             continue;
                         }
@@ -167,4 +250,21 @@ public class SiteRedirectServiceImpl implements SiteRedirectService, Startable {
     public void stop() {
         // only needed because exo kernel requires this method (really its the underlying picocontianer that needs it)
     }
+
+    /**
+     * The compiled redirect rules of a site and the version they were compiled from.
+     */
+    static class VersionedRules {
+
+        /** . */
+        final String version;
+
+        /** . */
+        final RedirectRules rules;
+
+        VersionedRules(String version, RedirectRules rules) {
+            this.version = version;
+            this.rules = rules;
+        }
+    }
 }
@@ -22,8 +22,16 @@
  ******************************************************************************/
 package org.gatein.web.redirect;
 
+import org.exoplatform.commons.cache.ClusterVersion;
 import org.exoplatform.container.PortalContainer;
 import org.exoplatform.container.component.RequestLifeCycle;
+import org.exoplatform.portal.mop.SiteKey;
+import org.exoplatform.portal.mop.navigation.GenericScope;
+import org.exoplatform.portal.mop.navigation.NavigationContext;
+import org.exoplatform.portal.mop.navigation.NavigationService;
+import org.exoplatform.portal.mop.navigation.NodeContext;
+import org.exoplatform.portal.mop.navigation.NodeModel;
+import org.exoplatform.services.cache.CacheService;
 import org.gatein.web.redirect.api.SiteRedirectService;
 
 /**
@@ -60,6 +68,7 @@ public class TestMapper extends TestConfig {
         atestSiteI();
         atestEmptyRedirects();
         atestNoRedirects();
+        atestNavigationUpdated();
     }
 
     public void atestSiteA() {
@@ -526,6 +535,40 @@ public class TestMapper extends TestConfig {
         RequestLifeCycle.end();
     }
 
+    public void atestNavigationUpdated() {
+        PortalContainer container = getContainer();
+        RequestLifeCycle.begin(container);
+        SiteRedirectService redirectService = (SiteRedirectService) container
+                .getComponentInstanceOfType(SiteRedirectService.class);
+        NavigationService navService = (NavigationService) container.getComponentInstanceOfType(NavigationService.class);
+        CacheService cacheService = (CacheService) container.getComponentInstanceOfType(CacheService.class);
+
+        // a mapper of another node of the cluster, it does not receive the navigation events of this node
+        Mapper other = new Mapper(navService, cacheService.<String, String> getCacheInstance(ClusterVersion.CACHE_NAME));
+        assertNull(redirectService.getRedirectPath("origin", "redirectE", "foo/qux"));
+        assertNull(other.getNodeIfExists("redirectE", "foo/qux", false));
+        assertEquals("/foo/bar/baz", other.getNodeIfExists("redirectE", "foo/bar/baz", false));
+
+        // add a node
+        NavigationContext navigation = navService.loadNavigation(SiteKey.portal("redirectE"));
+        NodeContext<NodeContext<?>> root = navService.loadNode(NodeModel.SELF_MODEL, navigation,
+                GenericScope.branchShape(new String[] { "foo" }), null);
+        root.get("foo").add(null, "qux");
+        navService.saveNode(root, null);
+        assertEquals("/foo/qux", redirectService.getRedirectPath("origin", "redirectE", "foo/qux"));
+        assertEquals("/foo/qux", other.getNodeIfExists("redirectE", "foo/qux", false));
+        assertEquals("/foo/bar/baz", other.getNodeIfExists("redirectE", "foo/bar/baz", false));
+
+        // remove it
+        root = navService.loadNode(NodeModel.SELF_MODEL, navigation, GenericScope.branchShape(new String[] { "foo" }), null);
+        root.get("foo").removeNode("qux");
+        navService.saveNode(root, null);
+        assertNull(redirectService.getRedirectPath("origin", "redirectE", "foo/qux"));
+        assertNull(other.getNodeIfExists("redirectE", "foo/qux", false));
+
+        RequestLifeCycle.end();
+    }
+
     public PortalContainer getContainer() {
         String configurationFile = "org/exoplatform/portal/config/TestMappings-configuration.xml";
         String origin = "testMappings";
@@ -23,12 +23,15 @@
 package org.gatein.web.redirect;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 
 import junit.framework.TestCase;
 
+import org.exoplatform.portal.config.model.DevicePropertyCondition;
 import org.exoplatform.portal.config.model.PortalRedirect;
+import org.exoplatform.portal.config.model.RedirectCondition;
 import org.gatein.web.redirect.api.RedirectKey;
 import org.gatein.web.redirect.api.RedirectType;
 
@@ -74,6 +77,67 @@ public class TestRedirector extends TestCase {
         checkIsNoRedirect(userAgentA, null, portalRedirect);
     }
 
+    public void testCompiledRules() {
+        PortalRedirect acceptTestBrowser = PortalRedirectsFactory.createSimpleRedirectAcceptTestBrowserExactUAS();
+        RedirectRules rules = new Redirector().compile(Arrays.asList(acceptTestBrowser));
+        assertSame(acceptTestBrowser, rules.getRedirect(acceptTestBrowser.getRedirectSite()));
+        assertNull(rules.getRedirect("doesNotExist"));
+
+        // Decisions made only on the user agent are cached
+        RedirectKey redirectKey = rules.getRedirectSite(userAgentA, null);
+        assertEquals(RedirectType.REDIRECT, redirectKey.getType());
+        assertSame(redirectKey, rules.getRedirectSite(userAgentA, null));
+        assertEquals(RedirectType.NOREDIRECT, rules.getRedirectSite(userAgentB, null).getType());
+        assertEquals(RedirectType.NOREDIRECT, rules.getRedirectSite(null, null).getType());
+
+        // Decisions depending on device properties are never cached
+        redirectKey = rules.getRedirectSite(userAgentA, getSimplePropertyMap());
+        assertEquals(RedirectType.REDIRECT, redirectKey.getType());
+        assertNotSame(redirectKey, rules.getRedirectSite(userAgentA, getSimplePropertyMap()));
+
+        // Disabling the cache
+        rules = new Redirector().compile(Arrays.asList(acceptTestBrowser), 0);
+        redirectKey = rules.getRedirectSite(userAgentA, null);
+        assertEquals(RedirectType.REDIRECT, redirectKey.getType());
+        assertNotSame(redirectKey, rules.getRedirectSite(userAgentA, null));
+    }
+
+    @SuppressWarnings("deprecation")
+    public void testDeprecatedChecks() {
+        Redirector redirector = new Redirector();
+        RedirectCondition condition = PortalRedirectsFactory.createSimpleRedirectAcceptTestBrowserExactUAS().getConditions()
+                .get(0);
+
+        // User agent conditions
+        assertTrue(redirector.checkUserAgentStrings(userAgentA, condition.getUserAgentConditions()));
+        assertFalse(redirector.checkUserAgentStrings(userAgentB, condition.getUserAgentConditions()));
+        assertFalse(redirector.checkUserAgentStrings(null, condition.getUserAgentConditions()));
+        assertTrue(redirector.userAgentContains(userAgentA, Arrays.asList("TestBrowser")));
+        assertFalse(redirector.userAgentContains(userAgentA, Arrays.asList("Unknown")));
+        assertFalse(redirector.userAgentContains(null, Arrays.asList(".*")));
+        assertEquals(RedirectType.REDIRECT, redirector.checkConditions(userAgentA, null, Arrays.asList(condition)));
+        assertEquals(RedirectType.NOREDIRECT, redirector.checkConditions(userAgentB, null, Arrays.asList(condition)));
+        assertEquals(RedirectType.NOREDIRECT, redirector.checkConditions(userAgentA, null, null));
+
+        // Device property conditions
+        DevicePropertyCondition property = PortalRedirectsFactory.createDevicePropertyCondition("foo", "bar", null, null,
+                null);
+        condition = PortalRedirectsFactory.createSimpleDevicePropertiesRedirect(property).getConditions().get(0);
+        assertEquals(RedirectType.NEEDDEVICEINFO, redirector.checkConditions(userAgentA, null, Arrays.asList(condition)));
+        assertEquals(RedirectType.REDIRECT,
+                redirector.checkConditions(userAgentA, getSimplePropertyMap(), Arrays.asList(condition)));
+        assertTrue(redirector.checkDeviceProperties(getSimplePropertyMap(), Arrays.asList(property)));
+        assertFalse(redirector.checkDeviceProperties(null, Arrays.asList(property)));
+        assertFalse(redirector.checkDeviceProperties(new HashMap<String, String>(), Arrays.asList(property)));
+        assertTrue(redirector.checkDeviceProperties(null, null));
+        assertTrue(redirector.checkProperty("bar", property));
+        assertFalse(redirector.checkProperty("baz", property));
+        property = PortalRedirectsFactory.createDevicePropertyCondition("width", null, null, 100f, 200f);
+        assertTrue(redirector.checkProperty("150", property));
+        assertFalse(redirector.checkProperty("250", property));
+        assertFalse(redirector.checkProperty("wide", property));
+    }
+
     public void testSimpleConfigurationAcceptAllUAS() {
         PortalRedirect portalRedirect = PortalRedirectsFactory.createSimpleRedirectAcceptAllUAS();
         checkAcceptAllUAS(portalRedirect);
@@ -0,0 +1,124 @@
+/*
+ * Copyright (C) 2013 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.gatein.web.redirect.implementation;
+
+import java.util.Collections;
+import java.util.Map;
+
+import org.exoplatform.container.PortalContainer;
+import org.exoplatform.container.component.RequestLifeCycle;
+import org.exoplatform.portal.config.DataStorage;
+import org.exoplatform.portal.config.model.PortalConfig;
+import org.exoplatform.portal.pom.data.ModelDataStorage;
+import org.gatein.web.redirect.RedirectRules;
+import org.gatein.web.redirect.TestConfig;
+import org.gatein.web.redirect.api.SiteRedirectService;
+
+/**
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
+public class TestSiteRedirectService extends TestConfig {
+
+    /** . */
+    private static final String SITE = "simpleUserAgentRedirect";
+
+    /** . */
+    private SiteRedirectServiceImpl redirectService;
+
+    /** . */
+    private DataStorage dataStorage;
+
+    /** . */
+    private ModelDataStorage modelStorage;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        PortalContainer container = getContainer("org/exoplatform/portal/config/TestRedirects-configuration.xml",
+                "testRedirects");
+        redirectService = (SiteRedirectServiceImpl) container.getComponentInstanceOfType(SiteRedirectService.class);
+        dataStorage = (DataStorage) container.getComponentInstanceOfType(DataStorage.class);
+        modelStorage = (ModelDataStorage) container.getComponentInstanceOfType(ModelDataStorage.class);
+        RequestLifeCycle.begin(container);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        RequestLifeCycle.end();
+        super.tearDown();
+    }
+
+    // Hack since there is a memory leak somewhere with bootstrap.dispose and we are using an old
+    // version of junit which doesn't support @beforeClass and @afterClass annotations
+    public void testAll() throws Exception {
+        atestCached();
+        atestUpdated();
+        atestUpdatedByAnotherNode();
+    }
+
+    public void atestCached() throws Exception {
+        RedirectRules rules = redirectService.getRules(SITE);
+        assertNotNull(rules);
+        assertSame(rules, redirectService.getRules(SITE));
+        assertNull(redirectService.getRules("doesNotExist"));
+    }
+
+    public void atestUpdated() throws Exception {
+        Map<String, String> expected = Collections.singletonMap("Redirect Site A", "redirectA");
+        assertEquals(expected, redirectService.getAlternativeSites(SITE, true));
+        RedirectRules rules = redirectService.getRules(SITE);
+        RedirectRules other = redirectService.getRules("userAgentRedirect");
+
+        // The update of the portal config is notified by the data storage
+        setEnabled(false, true);
+        assertNotSame(rules, redirectService.getRules(SITE));
+        assertSame(other, redirectService.getRules("userAgentRedirect"));
+        assertEquals(Collections.<String, String> emptyMap(), redirectService.getAlternativeSites(SITE, true));
+
+        //
+        setEnabled(true, true);
+        assertEquals(expected, redirectService.getAlternativeSites(SITE, true));
+    }
+
+    public void atestUpdatedByAnotherNode() throws Exception {
+        Map<String, String> expected = Collections.singletonMap("Redirect Site A", "redirectA");
+        assertEquals(expected, redirectService.getAlternativeSites(SITE, true));
+
+        // The update is not notified on this node, the rules are stale until the version changes
+        setEnabled(false, false);
+        assertEquals(expected, redirectService.getAlternativeSites(SITE, true));
+        redirectService.getVersion(SITE).stamp();
+        assertEquals(Collections.<String, String> emptyMap(), redirectService.getAlternativeSites(SITE, true));
+
+        //
+        setEnabled(true, true);
+        assertEquals(expected, redirectService.getAlternativeSites(SITE, true));
+    }
+
+    private void setEnabled(boolean enabled, boolean notify) throws Exception {
+        PortalConfig config = dataStorage.getPortalConfig(SITE);
+        config.getPortalRedirects().get(0).setEnabled(enabled);
+        if (notify) {
+            dataStorage.save(config);
+        } else {
+            modelStorage.save(config.build());
+        }
+    }
+}
@@ -158,7 +158,9 @@ public class UIForm extends UIContainer {
         Writer writer = context.getWriter();
         writer.append("<form class=\"UIForm\" id=\"").append(getId()).append("\" action=\"").append(b).append('\"');
         if (getSubmitAction() != null) {
-            writer.append(" onsubmit=\"").append(HTMLEntityEncoder.getInstance().encodeHTMLAttribute(getSubmitAction())).append("\"");
+            writer.append(" onsubmit=\"");
+            HTMLEntityEncoder.getInstance().encodeHTMLAttribute(getSubmitAction(), writer);
+            writer.append("\"");
         }
         if (multipart_) {
             writer.append(" enctype=\"multipart/form-data\"");
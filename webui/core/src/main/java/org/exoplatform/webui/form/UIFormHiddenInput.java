@@ -58,8 +58,7 @@ public class UIFormHiddenInput extends UIFormInputBase<String> {
         String value = getValue();
         if (value != null && value.length() > 0) {
             w.write(" value='");
-            value = HTMLEntityEncoder.getInstance().encodeHTMLAttribute(value);
-            w.write(value);
+            HTMLEntityEncoder.getInstance().encodeHTMLAttribute(value, w);
             w.write("'");
         }
 
@@ -309,9 +309,10 @@ public abstract class UIFormInputBase<T> extends UIContainer implements UIFormIn
     protected void renderHTMLAttributes(Writer w) throws IOException {
         if (attributes != null) {
             w.append(" ");
-            for (String name : attributes.keySet()) {
-                String value = HTMLEntityEncoder.getInstance().encodeHTMLAttribute(attributes.get(name));
-                w.append(name + "=\"" + value + "\"");
+            for (Map.Entry<String, String> attribute : attributes.entrySet()) {
+                w.append(attribute.getKey()).append("=\"");
+                HTMLEntityEncoder.getInstance().encodeHTMLAttribute(attribute.getValue(), w);
+                w.append("\"");
             }
             w.append(" ");
         }
@@ -225,11 +225,9 @@ public class UIFormSelectBox extends UIFormStringInput {
             } catch (MissingResourceException ex) {
             }
 
-            String value = item.getValue();
-            value = HTMLEntityEncoder.getInstance().encodeHTMLAttribute(value);
             if (item.isSelected()) {
                 w.write("<option selected=\"selected\" value=\"");
-                w.write(value);
+                HTMLEntityEncoder.getInstance().encodeHTMLAttribute(item.getValue(), w);
                 w.write("\">");
             } else {
                 w.write("<option value=\"");
@@ -101,9 +101,8 @@ public class UIFormStringInput extends UIFormInputBase<String> {
         w.write(getId());
         w.write("\"");
         if (value != null && value.length() > 0) {
-            value = HTMLEntityEncoder.getInstance().encodeHTMLAttribute(value);
             w.write(" value=\"");
-            w.write(value);
+            HTMLEntityEncoder.getInstance().encodeHTMLAttribute(value, w);
             w.write("\"");
         }
         if (maxLength > 0)
@@ -21,7 +21,9 @@ package org.exoplatform.dashboard.webui.component;
 
 import java.io.ByteArrayInputStream;
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 import org.exoplatform.application.registry.Application;
 import org.exoplatform.application.registry.ApplicationRegistryService;
@@ -31,6 +33,7 @@ import org.exoplatform.portal.config.model.Container;
 import org.exoplatform.portal.config.model.Dashboard;
 import org.exoplatform.portal.config.model.TransientApplicationState;
 import org.exoplatform.portal.pom.spi.gadget.Gadget;
+import org.exoplatform.portal.webui.application.GadgetUtil;
 import org.exoplatform.portal.webui.application.UIGadget;
 import org.exoplatform.portal.webui.application.UIPortlet;
 import org.exoplatform.portal.webui.container.UIContainer;
@@ -149,6 +152,17 @@ public class UIDashboardContainer extends org.exoplatform.webui.core.UIContainer
             PortalDataMapper.toUIContainer(uiRoot, dashboard);
         }
 
+        // Fetch the metadata of all the gadgets at once
+        Set<String> urls = new LinkedHashSet<String>();
+        for (UIContainer column : getColumns()) {
+            for (UIComponent child : column.getChildren()) {
+                if (child instanceof UIGadget) {
+                    urls.add(((UIGadget) child).getUrl());
+                }
+            }
+        }
+        GadgetUtil.prefetchRpcMetadata(urls);
+
         //
         super.processRender(context);
     }
@@ -0,0 +1,319 @@
+/**
+ * Copyright (C) 2013 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.exoplatform.webui.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <p>
+ * An index of the components of a container subtree by id and by type, the components are kept in the order of a depth
+ * first traversal so the lookups return the same components than a traversal.
+ * </p>
+ *
+ * <p>
+ * A component whose class overrides one of the lookup methods may find components that are not its children, it is not
+ * traversed and is called when it is met during a lookup instead, it is opaque. The index is valid as long as the children
+ * of the indexed containers and the ids of the indexed components are not modified, the {@link UIContainer} discards it
+ * when it happens. The index binds each component to the container it was found in, so a modification reaches the index
+ * even when the component was added to a children list without being given a parent.
+ * </p>
+ *
+ * <p>
+ * A component whose class overrides {@link UIComponent#getId()} derives its id from a state the index is not notified of,
+ * such as the storage name of a portlet, its id is not indexed and is compared when it is met during a lookup by id.
+ * </p>
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
+final class ComponentIndex {
+
+    /** . */
+    private static final int[] NONE = new int[0];
+
+    /** Whether a component class is opaque, the classes are weakly referenced so their class loader can be unloaded. */
+    private static final Map<Class<?>, Boolean> opaqueTypes = Collections
+            .synchronizedMap(new WeakHashMap<Class<?>, Boolean>());
+
+    /** Whether a component class derives its id, the classes are weakly referenced. */
+    private static final Map<Class<?>, Boolean> derivedIdTypes = Collections
+            .synchronizedMap(new WeakHashMap<Class<?>, Boolean>());
+
+    static boolean isOpaque(UIComponent component) {
+        Class<?> type = component.getClass();
+        Boolean opaque = opaqueTypes.get(type);
+        if (opaque == null) {
+            opaque = overrides(type, "findComponentById", String.class)
+                    || overrides(type, "findFirstComponentOfType", Class.class)
+                    || overrides(type, "findComponentOfType", List.class, Class.class);
+            opaqueTypes.put(type, opaque);
+        }
+        return opaque;
+    }
+
+    static boolean hasDerivedId(UIComponent component) {
+        Class<?> type = component.getClass();
+        Boolean derived = derivedIdTypes.get(type);
+        if (derived == null) {
+            derived = overrides(type, "getId");
+            derivedIdTypes.put(type, derived);
+        }
+        return derived;
+    }
+
+    private static boolean overrides(Class<?> type, String name, Class<?>... parameterTypes) {
+        try {
+            Class<?> declarer = type.getMethod(name, parameterTypes).getDeclaringClass();
+            return declarer != UIComponent.class && declarer != UIContainer.class;
+        } catch (NoSuchMethodException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    /**
+     * Find a component by id without building an index.
+     */
+    static UIComponent findComponentById(UIContainer container, String id) {
+        if (matches(container, id)) {
+            return container;
+        }
+        List<UIComponent> children = container.children;
+        if (children != null) {
+            for (UIComponent child : children) {
+                UIComponent found;
+                if (child instanceof UIContainer && !isOpaque(child)) {
+                    found = findComponentById((UIContainer) child, id);
+                } else {
+                    found = child.findComponentById(id);
+                }
+                if (found != null) {
+                    return found;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static boolean matches(UIComponent component, String id) {
+        String componentId = component.getId();
+        return componentId != null && componentId.equals(id);
+    }
+
+    /**
+     * Find the first component of a type without building an index.
+     */
+    static <T extends UIComponent> T findFirstComponentOfType(UIContainer container, Class<T> type) {
+        if (type.isInstance(container)) {
+            return type.cast(container);
+        }
+        List<UIComponent> children = container.children;
+        if (children != null) {
+            for (UIComponent child : children) {
+                T found;
+                if (child instanceof UIContainer && !isOpaque(child)) {
+                    found = findFirstComponentOfType((UIContainer) child, type);
+                } else {
+                    found = child.findFirstComponentOfType(type);
+                }
+                if (found != null) {
+                    return found;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Find the components of a type without building an index.
+     */
+    static <T> void findComponentOfType(UIContainer container, List<T> list, Class<T> type) {
+        if (type.isInstance(container) && !list.contains(container)) {
+            list.add(type.cast(container));
+        }
+        List<UIComponent> children = container.children;
+        if (children != null) {
+            for (UIComponent child : children) {
+                if (child instanceof UIContainer && !isOpaque(child)) {
+                    findComponentOfType((UIContainer) child, list, type);
+                } else {
+                    child.findComponentOfType(list, type);
+                }
+            }
+        }
+    }
+
+    /** The components in traversal order. */
+    private final UIComponent[] components;
+
+    /** The positions of the opaque components. */
+    private final int[] opaques;
+
+    /** The positions of the opaque components and of the transparent components deriving their id. */
+    private final int[] unindexedIds;
+
+    /** The position of the first transparent component having an indexed id. */
+    private final Map<String, Integer> ids;
+
+    /** The positions of the transparent components of a type, lazily computed. */
+    private final Map<Class<?>, int[]> types;
+
+    ComponentIndex(UIContainer root) {
+        List<UIComponent> components = new ArrayList<UIComponent>();
+        List<Integer> opaques = new ArrayList<Integer>();
+        List<Integer> unindexedIds = new ArrayList<Integer>();
+        Map<String, Integer> ids = new HashMap<String, Integer>();
+        add(root, components, opaques, unindexedIds, ids);
+
+        //
+        this.components = components.toArray(new UIComponent[components.size()]);
+        this.opaques = toArray(opaques);
+        this.unindexedIds = toArray(unindexedIds);
+        this.ids = ids;
+        this.types = new ConcurrentHashMap<Class<?>, int[]>();
+    }
+
+    private static int[] toArray(List<Integer> list) {
+        int[] array = new int[list.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = list.get(i);
+        }
+        return array;
+    }
+
+    private static void add(UIContainer container, List<UIComponent> components, List<Integer> opaques,
+            List<Integer> unindexedIds, Map<String, Integer> ids) {
+        register(container, components, unindexedIds, ids);
+        List<UIComponent> children = container.children;
+        if (children instanceof UIContainer.ChildList) {
+            // The owner of a deserialized list is bound now as the list must discard this index when it is modified
+            ((UIContainer.ChildList) children).owner = container;
+        }
+        if (children != null) {
+            for (UIComponent child : children) {
+                child.indexParent = container;
+                if (isOpaque(child)) {
+                    opaques.add(components.size());
+                    unindexedIds.add(components.size());
+                    components.add(child);
+                } else if (child instanceof UIContainer) {
+                    add((UIContainer) child, components, opaques, unindexedIds, ids);
+                } else {
+                    register(child, components, unindexedIds, ids);
+                }
+            }
+        }
+    }
+
+    private static void register(UIComponent component, List<UIComponent> components, List<Integer> unindexedIds,
+            Map<String, Integer> ids) {
+        if (hasDerivedId(component)) {
+            unindexedIds.add(components.size());
+        } else {
+            String id = component.getId();
+            if (id != null && !ids.containsKey(id)) {
+                ids.put(id, components.size());
+            }
+        }
+        components.add(component);
+    }
+
+    int size() {
+        return components.length;
+    }
+
+    UIComponent findComponentById(String id) {
+        Integer position = ids.get(id);
+        int limit = position != null ? position : components.length;
+        for (int unindexed : unindexedIds) {
+            if (unindexed > limit) {
+                break;
+            }
+            UIComponent component = components[unindexed];
+            if (isOpaque(component)) {
+                UIComponent found = component.findComponentById(id);
+                if (found != null) {
+                    return found;
+                }
+            } else if (matches(component, id)) {
+                return component;
+            }
+        }
+        return position != null ? components[position] : null;
+    }
+
+    <T extends UIComponent> T findFirstComponentOfType(Class<T> type) {
+        int[] positions = getPositions(type);
+        int limit = positions.length > 0 ? positions[0] : components.length;
+        for (int opaque : opaques) {
+            if (opaque > limit) {
+                break;
+            }
+            T found = components[opaque].findFirstComponentOfType(type);
+            if (found != null) {
+                return found;
+            }
+        }
+        return positions.length > 0 ? type.cast(components[limit]) : null;
+    }
+
+    <T> void findComponentOfType(List<T> list, Class<T> type) {
+        int[] positions = getPositions(type);
+        int i = 0;
+        int j = 0;
+        while (i < positions.length || j < opaques.length) {
+            if (j == opaques.length || (i < positions.length && positions[i] < opaques[j])) {
+                UIComponent component = components[positions[i++]];
+                if (!(component instanceof UIContainer) || !list.contains(component)) {
+                    list.add(type.cast(component));
+                }
+            } else {
+                components[opaques[j++]].findComponentOfType(list, type);
+            }
+        }
+    }
+
+    private int[] getPositions(Class<?> type) {
+        int[] positions = types.get(type);
+        if (positions == null) {
+            int count = 0;
+            int[] tmp = new int[components.length];
+            for (int i = 0, j = 0; i < components.length; i++) {
+                if (j < opaques.length && opaques[j] == i) {
+                    j++;
+                } else if (type.isInstance(components[i])) {
+                    tmp[count++] = i;
+                }
+            }
+            if (count == 0) {
+                positions = NONE;
+            } else {
+                positions = new int[count];
+                System.arraycopy(tmp, 0, positions, 0, count);
+            }
+            types.put(type, positions);
+        }
+        return positions;
+    }
+}
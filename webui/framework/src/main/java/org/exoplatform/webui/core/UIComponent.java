@@ -56,6 +56,12 @@ public abstract class UIComponent {
 
     protected UIComponent uiparent;
 
+    /**
+     * The container the component was found in when an index was last built, the index is discarded through it as the
+     * components added to a children list are not always given a parent.
+     */
+    transient UIContainer indexParent;
+
     protected Component config;
 
     private static final Lifecycle<UIComponent> DEFAULT_LIFECYCLE = new Lifecycle<UIComponent>();
@@ -74,6 +80,7 @@ public abstract class UIComponent {
                 this.id = id;
             }
         }
+        UIContainer.invalidateIndex(this);
         return this;
     }
 
@@ -19,6 +19,8 @@
 
 package org.exoplatform.webui.core;
 
+import java.util.AbstractList;
+import java.util.Collection;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
 
@@ -35,26 +37,68 @@ import org.exoplatform.webui.event.EventListener;
 @Serialized
 public class UIContainer extends UIComponent {
 
-    private List<UIComponent> children;
+    /**
+     * The number of lookups done by traversal before the subtree gets indexed. Building the index costs more than the
+     * lookups it saves up to about a dozen lookups, a subtree modified between a few lookups is never indexed and a subtree
+     * looked up many times is indexed.
+     */
+    static final int INDEX_THRESHOLD = 16;
+
+    List<UIComponent> children;
+
+    /** The index of the subtree, discarded when the subtree is modified. */
+    private transient volatile ComponentIndex index;
+
+    /** The number of lookups since the subtree was modified. */
+    private transient int lookups;
+
+    /**
+     * Discards the index of the containers the component belongs to, it must be called when the children of the indexed
+     * containers or the ids of the indexed components are modified.
+     *
+     * @param component the modified component
+     */
+    static void invalidateIndex(UIComponent component) {
+        for (UIComponent current = component; current != null; current = current.uiparent) {
+            if (current instanceof UIContainer) {
+                UIContainer container = (UIContainer) current;
+                container.index = null;
+                container.lookups = 0;
+            }
+            UIContainer indexParent = current.indexParent;
+            if (indexParent != null && indexParent != current.uiparent) {
+                invalidateIndex(indexParent);
+            }
+        }
+    }
+
+    private ComponentIndex getIndex() {
+        ComponentIndex index = this.index;
+        if (index == null && ++lookups >= INDEX_THRESHOLD) {
+            this.index = index = new ComponentIndex(this);
+        }
+        return index;
+    }
 
     public boolean hasChildren() {
         return children != null && children.size() > 0;
     }
 
     public void setChildren(List<UIComponent> ls) {
-        this.children = new CopyOnWriteArrayList<UIComponent>(ls);
+        this.children = new ChildList(this, ls);
+        invalidateIndex(this);
     }
 
     public List<UIComponent> getChildren() {
         if (children == null) {
-            children = new CopyOnWriteArrayList<UIComponent>();
+            children = new ChildList(this);
         }
         return children;
     }
 
     public void addChild(UIComponent uicomponent) {
         if (children == null) {
-            children = new CopyOnWriteArrayList<UIComponent>();
+            children = new ChildList(this);
         }
         uicomponent.setParent(this);
         children.add(uicomponent);
@@ -171,21 +215,8 @@ public class UIContainer extends UIComponent {
 
     @SuppressWarnings("unchecked")
     public <T extends UIComponent> T findComponentById(String id) {
-        if (getId() != null) {
-            if (getId().equals(id)) {
-                return (T) this;
-            }
-        }
-        if (children == null) {
-            return null;
-        }
-        for (UIComponent uichild : children) {
-            UIComponent found = uichild.findComponentById(id);
-            if (found != null) {
-                return (T) found;
-            }
-        }
-        return null;
+        ComponentIndex index = getIndex();
+        return (T) (index != null ? index.findComponentById(id) : ComponentIndex.findComponentById(this, id));
     }
 
     /*
@@ -195,30 +226,16 @@ public class UIContainer extends UIComponent {
      */
 
     public <T extends UIComponent> T findFirstComponentOfType(Class<T> type) {
-        if (type.isInstance(this)) {
-            return type.cast(this);
-        }
-        if (children == null) {
-            return null;
-        }
-        for (UIComponent uichild : children) {
-            T found = uichild.findFirstComponentOfType(type);
-            if (found != null) {
-                return found;
-            }
-        }
-        return null;
+        ComponentIndex index = getIndex();
+        return index != null ? index.findFirstComponentOfType(type) : ComponentIndex.findFirstComponentOfType(this, type);
     }
 
     public <T> void findComponentOfType(List<T> list, Class<T> type) {
-        if (type.isInstance(this) && !list.contains(this)) {
-            list.add(type.cast(this));
-        }
-        if (children == null) {
-            return;
-        }
-        for (UIComponent uichild : children) {
-            uichild.findComponentOfType(list, type);
+        ComponentIndex index = getIndex();
+        if (index != null) {
+            index.findComponentOfType(list, type);
+        } else {
+            ComponentIndex.findComponentOfType(this, list, type);
         }
     }
 
@@ -310,4 +327,142 @@ public class UIContainer extends UIComponent {
             }
         }
     }
+
+    /**
+     * The children list, it discards the index of the containers when it is modified.
+     */
+    static class ChildList extends CopyOnWriteArrayList<UIComponent> {
+
+        /** . */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The container of the list, it is not serialized as it would be a reference to a container not yet created when
+         * the list is deserialized. The index binds it again when it indexes the container, a list without owner belongs
+         * to a container that is not indexed yet.
+         */
+        transient UIContainer owner;
+
+        ChildList(UIContainer owner) {
+            this.owner = owner;
+        }
+
+        ChildList(UIContainer owner, Collection<? extends UIComponent> c) {
+            super(c);
+            this.owner = owner;
+        }
+
+        @Override
+        public UIComponent set(int index, UIComponent element) {
+            UIComponent previous = super.set(index, element);
+            invalidateIndex(owner);
+            return previous;
+        }
+
+        @Override
+        public boolean add(UIComponent e) {
+            super.add(e);
+            invalidateIndex(owner);
+            return true;
+        }
+
+        @Override
+        public void add(int index, UIComponent element) {
+            super.add(index, element);
+            invalidateIndex(owner);
+        }
+
+        @Override
+        public UIComponent remove(int index) {
+            UIComponent removed = super.remove(index);
+            invalidateIndex(owner);
+            return removed;
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            return changed(super.remove(o));
+        }
+
+        @Override
+        public boolean addIfAbsent(UIComponent e) {
+            return changed(super.addIfAbsent(e));
+        }
+
+        @Override
+        public boolean removeAll(Collection<?> c) {
+            return changed(super.removeAll(c));
+        }
+
+        @Override
+        public boolean retainAll(Collection<?> c) {
+            return changed(super.retainAll(c));
+        }
+
+        @Override
+        public int addAllAbsent(Collection<? extends UIComponent> c) {
+            int added = super.addAllAbsent(c);
+            changed(added > 0);
+            return added;
+        }
+
+        @Override
+        public void clear() {
+            super.clear();
+            invalidateIndex(owner);
+        }
+
+        @Override
+        public boolean addAll(Collection<? extends UIComponent> c) {
+            return changed(super.addAll(c));
+        }
+
+        @Override
+        public boolean addAll(int index, Collection<? extends UIComponent> c) {
+            return changed(super.addAll(index, c));
+        }
+
+        @Override
+        public List<UIComponent> subList(int fromIndex, int toIndex) {
+            final List<UIComponent> view = super.subList(fromIndex, toIndex);
+            return new AbstractList<UIComponent>() {
+                @Override
+                public UIComponent get(int index) {
+                    return view.get(index);
+                }
+
+                @Override
+                public int size() {
+                    return view.size();
+                }
+
+                @Override
+                public UIComponent set(int index, UIComponent element) {
+                    UIComponent previous = view.set(index, element);
+                    invalidateIndex(owner);
+                    return previous;
+                }
+
+                @Override
+                public void add(int index, UIComponent element) {
+                    view.add(index, element);
+                    invalidateIndex(owner);
+                }
+
+                @Override
+                public UIComponent remove(int index) {
+                    UIComponent removed = view.remove(index);
+                    invalidateIndex(owner);
+                    return removed;
+                }
+            };
+        }
+
+        private boolean changed(boolean changed) {
+            if (changed) {
+                invalidateIndex(owner);
+            }
+            return changed;
+        }
+    }
 }
@@ -19,11 +19,17 @@
 
 package org.exoplatform.webui.core;
 
+import org.exoplatform.commons.serialization.api.annotations.Serialized;
+
 /**
  * @author <a href="trongtt@gmail.com">Trong Tran</a>
  * @version $Revision$
  */
+@Serialized
 public class MockUIComponent extends UIComponent {
+    public MockUIComponent() {
+    }
+
     public MockUIComponent(String id) {
         setId(id);
     }
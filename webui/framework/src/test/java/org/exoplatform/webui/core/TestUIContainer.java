@@ -6,6 +6,10 @@ import java.util.List;
 
 import junit.framework.TestCase;
 
+import org.exoplatform.commons.serialization.SerializationContext;
+import org.exoplatform.commons.serialization.model.TypeDomain;
+import org.exoplatform.commons.serialization.model.metadata.DomainMetaData;
+
 /**
  * @author <a href="trongtt@gmail.com">Trong Tran</a>
  * @version $Revision$
@@ -91,6 +95,149 @@ public class TestUIContainer extends TestCase {
         assertNotNull(container.getChildById("c_foo"));
     }
 
+    public void testFindComponentById() throws Exception {
+        UIContainer root = createTree();
+        for (int i = 0; i < UIContainer.INDEX_THRESHOLD; i++) {
+            assertSame(root, root.findComponentById("root"));
+            assertEquals("c2", root.findComponentById("c2").getId());
+            assertEquals("c3", root.findComponentById("c3").getId());
+            assertNull(root.findComponentById("foo"));
+        }
+
+        // The index is updated after a modification of the subtree
+        UIContainer sub = root.findComponentById("sub");
+        sub.addChild(new MockUIComponent("foo"));
+        assertNotNull(indexed(root).findComponentById("foo"));
+        sub.getChildren().remove(sub.getChildById("foo"));
+        assertNull(indexed(root).findComponentById("foo"));
+        sub.replaceChild("c3", new MockUIComponent("bar"));
+        assertNull(indexed(root).findComponentById("c3"));
+        assertNotNull(root.findComponentById("bar"));
+        sub.findComponentById("bar").setId("juu");
+        assertNull(indexed(root).findComponentById("bar"));
+        assertNotNull(root.findComponentById("juu"));
+    }
+
+    public void testAddWithoutParent() {
+        UIContainer root = createTree();
+        UIContainer orphan = new UIContainer();
+        orphan.setId("orphan");
+        root.<UIContainer> findComponentById("sub").getChildren().add(orphan);
+        assertSame(orphan, indexed(root).findComponentById("orphan"));
+
+        // The container has no parent, its modifications discard the index of the root
+        assertNull(orphan.getParent());
+        orphan.getChildren().add(new MockUIComponent("foo"));
+        assertNotNull(indexed(root).findComponentById("foo"));
+        orphan.findComponentById("foo").setId("bar");
+        assertNull(indexed(root).findComponentById("foo"));
+        assertNotNull(root.findComponentById("bar"));
+    }
+
+    public void testSetChildren() {
+        UIContainer root = createTree();
+        UIContainer sub = indexed(root).findComponentById("sub");
+        List<UIComponent> children = new ArrayList<UIComponent>();
+        UIContainer orphan = new UIContainer();
+        orphan.setId("orphan");
+        children.add(orphan);
+        sub.setChildren(children);
+        assertNull(indexed(root).findComponentById("c3"));
+        assertSame(orphan, root.findComponentById("orphan"));
+        orphan.addChild(new MockUIComponent("foo"));
+        assertNotNull(indexed(root).findComponentById("foo"));
+    }
+
+    public void testModifySubList() {
+        UIContainer root = indexed(createTree());
+        root.getChildren().subList(0, 2).clear();
+        assertNull(indexed(root).findComponentById("c1"));
+        assertNull(root.findComponentById("c3"));
+        root.getChildren().subList(0, 1).add(new MockUIComponent("foo"));
+        assertNotNull(indexed(root).findComponentById("foo"));
+        assertEquals(2, root.getChildren().size());
+    }
+
+    public void testFindComponentByNullId() {
+        UIContainer root = createTree();
+        root.addChild(new UIContainer());
+        for (int i = 0; i < UIContainer.INDEX_THRESHOLD; i++) {
+            assertNull(root.findComponentById(null));
+        }
+    }
+
+    public void testFindComponentByDerivedId() {
+        UIContainer root = createTree();
+        final StringBuilder name = new StringBuilder("foo");
+        UIComponent derived = new MockUIComponent("derived") {
+            @Override
+            public String getId() {
+                return name.toString();
+            }
+        };
+        root.<UIContainer> findComponentById("sub").addChild(derived);
+        assertSame(derived, indexed(root).findComponentById("foo"));
+
+        // The index is not notified when a derived id changes
+        name.replace(0, name.length(), "bar");
+        assertNull(root.findComponentById("foo"));
+        assertSame(derived, root.findComponentById("bar"));
+    }
+
+    public void testFindComponentOfType() {
+        UIContainer root = createTree();
+        for (int i = 0; i < UIContainer.INDEX_THRESHOLD; i++) {
+            assertSame(root, root.findFirstComponentOfType(UIContainer.class));
+            assertEquals("c1", root.findFirstComponentOfType(MockUIComponent.class).getId());
+            List<MockUIComponent> found = new ArrayList<MockUIComponent>();
+            root.findComponentOfType(found, MockUIComponent.class);
+            assertEquals(3, found.size());
+            assertEquals("c1", found.get(0).getId());
+            assertEquals("c3", found.get(1).getId());
+            assertEquals("c2", found.get(2).getId());
+        }
+        root.getChildren().clear();
+        assertNull(indexed(root).findFirstComponentOfType(MockUIComponent.class));
+    }
+
+    public void testFindInDecorator() {
+        UIContainer root = createTree();
+        final MockUIComponent decorated = new MockUIComponent("decorated");
+        UIComponent decorator = new MockUIComponent("decorator") {
+            @Override
+            public <T extends UIComponent> T findComponentById(String lookupId) {
+                T found = super.findComponentById(lookupId);
+                return found != null ? found : decorated.<T> findComponentById(lookupId);
+            }
+        };
+        root.getChildren().add(0, decorator);
+        for (int i = 0; i < UIContainer.INDEX_THRESHOLD; i++) {
+            assertSame(decorated, root.findComponentById("decorated"));
+            assertEquals("c2", root.findComponentById("c2").getId());
+        }
+
+        // The decorated component is looked up each time
+        decorated.setId("c2");
+        assertSame(decorated, root.findComponentById("c2"));
+    }
+
+    public void testSerialization() throws Exception {
+        UIContainer root = indexed(createTree());
+        SerializationContext context = new SerializationContext(new TypeDomain(new DomainMetaData(), true));
+        UIContainer copy = context.clone(root);
+        assertNotSame(root, copy);
+        for (int i = 0; i < UIContainer.INDEX_THRESHOLD; i++) {
+            assertEquals("c3", copy.findComponentById("c3").getId());
+        }
+
+        // The deserialized children lists discard the index when they are modified
+        UIContainer sub = copy.findComponentById("sub");
+        sub.addChild(new MockUIComponent("foo"));
+        assertSame(sub, indexed(copy).findComponentById("foo").getParent());
+        sub.getChildren().clear();
+        assertNull(indexed(copy).findComponentById("c3"));
+    }
+
     private void assertChildren(String[] ids, UIContainer container) {
         assertEquals(ids.length, container.getChildren().size());
         for (String id : ids) {
@@ -98,6 +245,31 @@ public class TestUIContainer extends TestCase {
         }
     }
 
+    /**
+     * Does enough lookups for the container to be indexed.
+     */
+    private static UIContainer indexed(UIContainer container) {
+        for (int i = 0; i < UIContainer.INDEX_THRESHOLD; i++) {
+            container.findComponentById("indexed");
+        }
+        return container;
+    }
+
+    /**
+     * Creates root(c1, sub(c3), c2).
+     */
+    private UIContainer createTree() {
+        UIContainer root = new UIContainer();
+        root.setId("root");
+        UIContainer sub = new UIContainer();
+        sub.setId("sub");
+        sub.addChild(new MockUIComponent("c3"));
+        root.addChild(new MockUIComponent("c1"));
+        root.addChild(sub);
+        root.addChild(new MockUIComponent("c2"));
+        return root;
+    }
+
     private UIContainer createUIContainer(int number) {
         UIContainer container = new UIContainer();
         for (int i = 1; i <= number; i++) {
@@ -0,0 +1,410 @@
+/**
+ * Copyright (C) 2013 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.exoplatform.portal.application;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.exoplatform.commons.utils.I18N;
+import org.exoplatform.container.ExoContainer;
+import org.exoplatform.container.ExoContainerContext;
+import org.exoplatform.container.PortalContainer;
+import org.exoplatform.container.component.RequestLifeCycle;
+import org.exoplatform.container.xml.InitParams;
+import org.exoplatform.container.xml.ValueParam;
+import org.exoplatform.container.xml.ValuesParam;
+import org.exoplatform.groovyscript.text.TemplateService;
+import org.exoplatform.portal.config.DataStorage;
+import org.exoplatform.portal.config.UserPortalConfigService;
+import org.exoplatform.portal.mop.SiteKey;
+import org.exoplatform.portal.mop.description.DescriptionService;
+import org.exoplatform.portal.mop.navigation.GenericScope;
+import org.exoplatform.portal.mop.navigation.NavigationContext;
+import org.exoplatform.portal.mop.navigation.NavigationService;
+import org.exoplatform.portal.mop.navigation.NodeContext;
+import org.exoplatform.portal.mop.navigation.NodeModel;
+import org.exoplatform.portal.mop.navigation.NodeState;
+import org.exoplatform.portal.mop.page.PageKey;
+import org.exoplatform.portal.mop.page.PageService;
+import org.exoplatform.resolver.ResourceResolver;
+import org.exoplatform.services.resources.ResourceBundleService;
+import org.gatein.common.io.IOTools;
+import org.gatein.common.logging.Logger;
+import org.gatein.common.logging.LoggerFactory;
+import org.picocontainer.Startable;
+
+/**
+ * <p>
+ * Preloads the caches of the portal before the node serves its first requests, so a restarted node does not serve its
+ * first minutes with cold caches. The hot set is made of:
+ * <ul>
+ * <li>the configured sites and the portals that were the most viewed during the previous run: site configuration,
+ * navigation nodes up to a configurable depth, pages and node labels for the configured locales</li>
+ * <li>the configured resource bundles for the configured locales</li>
+ * <li>the configured webui templates, they are loaded when the portal application is initialized since they are
+ * resolved against the portal web application</li>
+ * </ul>
+ * </p>
+ *
+ * <p>
+ * The warm-up is performed by a pool of threads during the start of the service and is bounded by a timeout, the
+ * portals viewed during the run are saved in a file when the service is stopped.
+ * </p>
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
+public class CacheWarmupService implements Startable {
+
+    /** . */
+    private static final Logger log = LoggerFactory.getLogger(CacheWarmupService.class);
+
+    /** . */
+    private final ExoContainer container;
+
+    /** . */
+    private final DataStorage dataStorage;
+
+    /** . */
+    private final NavigationService navigationService;
+
+    /** . */
+    private final PageService pageService;
+
+    /** . */
+    private final DescriptionService descriptionService;
+
+    /** . */
+    private final ResourceBundleService resourceBundleService;
+
+    /** . */
+    private final TemplateService templateService;
+
+    /** . */
+    private final PortalStatisticService statisticService;
+
+    /** . */
+    private final Set<SiteKey> sites;
+
+    /** . */
+    private final List<Locale> locales;
+
+    /** . */
+    private final String[] resourceBundles;
+
+    /** . */
+    private final List<String> templates;
+
+    /** . */
+    private final int depth;
+
+    /** . */
+    private final int threads;
+
+    /** The timeout in seconds. */
+    private final long timeout;
+
+    /** The maximum number of portals saved for the next run. */
+    private final int hotSites;
+
+    /** The file that retains the most viewed portals between two runs. */
+    private final File hotSitesFile;
+
+    public CacheWarmupService(ExoContainerContext context, UserPortalConfigService configService,
+            ResourceBundleService resourceBundleService, TemplateService templateService,
+            PortalStatisticService statisticService, InitParams params) {
+        this.container = context.getContainer();
+        this.dataStorage = configService.getDataStorage();
+        this.navigationService = configService.getNavigationService();
+        this.pageService = configService.getPageService();
+        this.descriptionService = configService.getDescriptionService();
+        this.resourceBundleService = resourceBundleService;
+        this.templateService = templateService;
+        this.statisticService = statisticService;
+
+        //
+        Set<SiteKey> sites = new LinkedHashSet<SiteKey>();
+        for (String site : getValues(params, "sites")) {
+            int pos = site.indexOf("::");
+            if (pos == -1) {
+                throw new IllegalArgumentException("Invalid site " + site + ", the expected format is type::name");
+            }
+            sites.add(new SiteKey(site.substring(0, pos), site.substring(pos + 2)));
+        }
+
+        //
+        List<Locale> locales = new ArrayList<Locale>();
+        for (String locale : getValues(params, "locales")) {
+            locales.add(I18N.parseTagIdentifier(locale));
+        }
+
+        //
+        List<String> resourceBundles = getValues(params, "resource.bundles");
+
+        //
+        String hotSitesFile = getValue(params, "hot.sites.file", null);
+
+        //
+        this.sites = sites;
+        this.locales = locales;
+        this.resourceBundles = resourceBundles.toArray(new String[resourceBundles.size()]);
+        this.templates = getValues(params, "templates");
+        this.depth = Integer.parseInt(getValue(params, "navigation.depth", "2"));
+        this.threads = Integer.parseInt(getValue(params, "threads", "4"));
+        this.timeout = Long.parseLong(getValue(params, "timeout", "60"));
+        this.hotSites = Integer.parseInt(getValue(params, "hot.sites", "10"));
+        this.hotSitesFile = hotSitesFile != null && hotSitesFile.length() > 0 ? new File(hotSitesFile) : null;
+    }
+
+    public void start() {
+        Set<SiteKey> sites = new LinkedHashSet<SiteKey>(this.sites);
+        for (String name : loadHotSites()) {
+            sites.add(SiteKey.portal(name));
+        }
+
+        //
+        List<Runnable> tasks = new ArrayList<Runnable>();
+        for (final SiteKey site : sites) {
+            tasks.add(new Runnable() {
+                public void run() {
+                    warmupSite(site);
+                }
+            });
+        }
+        if (resourceBundles.length > 0) {
+            for (final Locale locale : locales) {
+                tasks.add(new Runnable() {
+                    public void run() {
+                        resourceBundleService.getResourceBundle(resourceBundles, locale);
+                    }
+                });
+            }
+        }
+
+        //
+        execute("sites and resource bundles", tasks);
+    }
+
+    /**
+     * Loads the configured templates, this is called by the portal application when it is initialized.
+     *
+     * @param resolver the resolver of the portal application
+     */
+    public void warmupTemplates(final ResourceResolver resolver) {
+        List<Runnable> tasks = new ArrayList<Runnable>();
+        for (final String template : templates) {
+            tasks.add(new Runnable() {
+                public void run() {
+                    try {
+                        templateService.getTemplate(template, resolver);
+                    } catch (Exception e) {
+                        throw new RuntimeException("Could not load template " + template, e);
+                    }
+                }
+            });
+        }
+        execute("templates", tasks);
+    }
+
+    private void warmupSite(SiteKey site) {
+        try {
+            dataStorage.getPortalConfig(site.getTypeName(), site.getName());
+        } catch (Exception e) {
+            throw new RuntimeException("Could not load site " + site, e);
+        }
+        NavigationContext navigation = navigationService.loadNavigation(site);
+        if (navigation != null) {
+            NodeContext<NodeContext<?>> root = navigationService.loadNode(NodeModel.SELF_MODEL, navigation,
+                    GenericScope.treeShape(depth), null);
+            if (root != null) {
+                List<String> ids = new ArrayList<String>();
+                Set<PageKey> pageRefs = new HashSet<PageKey>();
+                collect(root, ids, pageRefs);
+                if (pageRefs.size() > 0) {
+                    pageService.loadPages(pageRefs);
+                }
+                for (Locale locale : locales) {
+                    for (String id : ids) {
+                        descriptionService.resolveDescription(id, locale);
+                    }
+                }
+            }
+        }
+    }
+
+    private void collect(NodeContext<?> context, List<String> ids, Set<PageKey> pageRefs) {
+        ids.add(context.getId());
+        NodeState state = context.getState();
+        if (state != null && state.getPageRef() != null) {
+            pageRefs.add(state.getPageRef());
+        }
+        if (context.isExpanded()) {
+            for (NodeContext<?> child = context.getFirst(); child != null; child = child.getNext()) {
+                collect(child, ids, pageRefs);
+            }
+        }
+    }
+
+    private void execute(String phase, List<Runnable> tasks) {
+        if (tasks.isEmpty()) {
+            return;
+        }
+
+        //
+        final AtomicInteger failures = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, tasks.size()), new ThreadFactory() {
+            final AtomicInteger count = new AtomicInteger();
+
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "gatein-cache-warmup-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        long time = -System.currentTimeMillis();
+        for (final Runnable task : tasks) {
+            executor.execute(new Runnable() {
+                public void run() {
+                    // The services look up the container of the thread as they do during a request, the pool
+                    // threads have none
+                    if (container instanceof PortalContainer) {
+                        PortalContainer.setInstance((PortalContainer) container);
+                    }
+                    ExoContainerContext.setCurrentContainer(container);
+                    try {
+                        RequestLifeCycle.begin(container);
+                        try {
+                            task.run();
+                        } catch (Exception e) {
+                            failures.incrementAndGet();
+                            log.warn("Cache warm-up task failed", e);
+                        } finally {
+                            RequestLifeCycle.end();
+                        }
+                    } finally {
+                        PortalContainer.setInstance(null);
+                        ExoContainerContext.setCurrentContainer(null);
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(timeout, TimeUnit.SECONDS)) {
+                log.warn("Warm-up of the " + phase + " did not complete within " + timeout + " seconds");
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        time += System.currentTimeMillis();
+        log.info("Warmed up the " + phase + " with " + tasks.size() + " tasks in " + time + " ms, " + failures.get()
+                + " failed");
+    }
+
+    private List<String> loadHotSites() {
+        if (hotSitesFile == null || !hotSitesFile.exists()) {
+            return Collections.emptyList();
+        }
+        List<String> names = new ArrayList<String>();
+        BufferedReader reader = null;
+        try {
+            reader = new BufferedReader(new InputStreamReader(new FileInputStream(hotSitesFile), "UTF-8"));
+            for (String line = reader.readLine(); line != null && names.size() < hotSites; line = reader.readLine()) {
+                line = line.trim();
+                if (line.length() > 0) {
+                    names.add(line);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Could not read the hot sites from " + hotSitesFile.getAbsolutePath(), e);
+        } finally {
+            IOTools.safeClose(reader);
+        }
+        return names;
+    }
+
+    public void stop() {
+        if (hotSitesFile == null || hotSites <= 0) {
+            return;
+        }
+        List<String> names = statisticService.getMostViewedPortals(hotSites);
+        if (names.isEmpty()) {
+            // Keep the previous hot set when nothing was viewed
+            return;
+        }
+        Writer writer = null;
+        try {
+            File parent = hotSitesFile.getParentFile();
+            if (parent != null && !parent.exists()) {
+                parent.mkdirs();
+            }
+            writer = new OutputStreamWriter(new FileOutputStream(hotSitesFile), "UTF-8");
+            for (String name : names) {
+                writer.write(name);
+                writer.write('\n');
+            }
+        } catch (IOException e) {
+            log.warn("Could not save the hot sites to " + hotSitesFile.getAbsolutePath(), e);
+        } finally {
+            IOTools.safeClose(writer);
+        }
+    }
+
+    private static List<String> getValues(InitParams params, String name) {
+        ValuesParam param = params != null ? params.getValuesParam(name) : null;
+        List<String> values = new ArrayList<String>();
+        if (param != null) {
+            for (Object value : param.getValues()) {
+                String s = ((String) value).trim();
+                if (s.length() > 0) {
+                    values.add(s);
+                }
+            }
+        }
+        return values;
+    }
+
+    private static String getValue(InitParams params, String name, String defaultValue) {
+        ValueParam param = params != null ? params.getValueParam(name) : null;
+        if (param != null && param.getValue() != null && param.getValue().trim().length() > 0) {
+            return param.getValue().trim();
+        }
+        return defaultValue;
+    }
+}
@@ -73,7 +73,8 @@ public class PortalApplication extends WebuiApplication {
      * This method first calls the super.onInit() of the WebuiApplication. That super method parse the XML file and stores its
      * content in the ConfigurationManager object. It also set up he StateManager and init the application lifecycle phases.
      *
-     * Then we get all the properties file that will be used to create ResourceBundles
+     * Then we get all the properties file that will be used to create ResourceBundles and we load the templates configured
+     * in the {@link CacheWarmupService}
      */
     public void onInit() throws Exception {
         super.onInit();
@@ -82,6 +83,13 @@ public class PortalApplication extends WebuiApplication {
         for (int i = 0; i < applicationResourceBundleNames_.length; i++) {
             applicationResourceBundleNames_[i] = applicationResourceBundleNames_[i].trim();
         }
+
+        // Load the hot templates before the first request
+        CacheWarmupService warmupService = (CacheWarmupService) getApplicationServiceContainer().getComponentInstanceOfType(
+                CacheWarmupService.class);
+        if (warmupService != null) {
+            warmupService.warmupTemplates(getResourceResolver());
+        }
     }
 
     public ServletConfig getServletConfig() {
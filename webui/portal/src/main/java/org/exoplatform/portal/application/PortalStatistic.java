@@ -67,6 +67,10 @@ public class PortalStatistic {
         countRequest++;
     }
 
+    public String getAppId() {
+        return appId;
+    }
+
     public double getMaxTime() {
         long maxTime = this.maxTime.get();
         if (maxTime == -1) {
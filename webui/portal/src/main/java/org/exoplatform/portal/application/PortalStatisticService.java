@@ -19,6 +19,9 @@
 
 package org.exoplatform.portal.application;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
@@ -104,6 +107,33 @@ public class PortalStatisticService implements Startable {
         return app;
     }
 
+    /**
+     * Returns the names of the portals that were viewed sorted by decreasing view count.
+     *
+     * @param max the maximum number of names to return
+     * @return the portal names
+     */
+    public List<String> getMostViewedPortals(int max) {
+        List<PortalStatistic> statistics = new ArrayList<PortalStatistic>(apps.values());
+        Collections.sort(statistics, new Comparator<PortalStatistic>() {
+            public int compare(PortalStatistic o1, PortalStatistic o2) {
+                long c1 = o1.viewCount();
+                long c2 = o2.viewCount();
+                return c1 < c2 ? 1 : (c1 > c2 ? -1 : 0);
+            }
+        });
+        List<String> names = new ArrayList<String>();
+        for (PortalStatistic statistic : statistics) {
+            if (names.size() >= max) {
+                break;
+            }
+            if (statistic.viewCount() > 0) {
+                names.add(statistic.getAppId());
+            }
+        }
+        return names;
+    }
+
     /*
      * Returns the max time of a specified portal
      */
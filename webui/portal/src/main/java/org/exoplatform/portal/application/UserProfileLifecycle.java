@@ -20,8 +20,13 @@
 package org.exoplatform.portal.application;
 
 import org.exoplatform.container.ExoContainer;
+import org.exoplatform.services.cache.CacheService;
+import org.exoplatform.services.cache.ExoCache;
 import org.exoplatform.services.organization.OrganizationService;
 import org.exoplatform.services.organization.UserProfile;
+import org.exoplatform.services.security.ConversationState;
+import org.exoplatform.web.CacheUserProfileFilter;
+import org.exoplatform.web.UserProfileVersionListener;
 import org.exoplatform.web.application.Application;
 import org.exoplatform.web.application.ApplicationLifecycle;
 import org.exoplatform.web.application.RequestFailure;
@@ -30,6 +35,13 @@ import org.exoplatform.webui.application.WebuiRequestContext;
 public class UserProfileLifecycle implements ApplicationLifecycle<WebuiRequestContext> {
     public static final String USER_PROFILE_ATTRIBUTE_NAME = "PortalUserProfile";
 
+    /**
+     * The maximum age of a profile cached on the conversation state in milliseconds, it must not exceed the life time of
+     * the versions in the {@link UserProfileVersionListener#CACHE_NAME} cache otherwise an expired version could hide a
+     * modification.
+     */
+    private static final long MAX_AGE = 10 * 60 * 1000;
+
     public void onInit(Application app) {
         // do nothing for now
     }
@@ -40,15 +52,100 @@ public class UserProfileLifecycle implements ApplicationLifecycle<WebuiRequestCo
         if (user != null) {
             ExoContainer exoContainer = app.getApplicationServiceContainer();
             if (exoContainer != null) {
-                OrganizationService organizationService = (OrganizationService) exoContainer
-                        .getComponentInstanceOfType(OrganizationService.class);
-                userProfile = organizationService.getUserProfileHandler().findUserProfileByName(user);
+                userProfile = getUserProfile(exoContainer, user);
             }
         }
 
         context.setAttribute(UserProfileLifecycle.USER_PROFILE_ATTRIBUTE_NAME, userProfile);
     }
 
+    /**
+     * Returns the profile cached on the conversation state of the user when it is still valid, otherwise the profile is
+     * loaded and cached.
+     */
+    UserProfile getUserProfile(ExoContainer exoContainer, String user) throws Exception {
+        ConversationState state = ConversationState.getCurrent();
+        if (state == null || !user.equals(state.getIdentity().getUserId())) {
+            return loadUserProfile(exoContainer, user);
+        }
+
+        //
+        CacheService cacheService = (CacheService) exoContainer.getComponentInstanceOfType(CacheService.class);
+        ExoCache<String, String> versions = cacheService.getCacheInstance(UserProfileVersionListener.CACHE_NAME);
+        String version = versions.get(user);
+        CachedUserProfile cached = (CachedUserProfile) state.getAttribute(CacheUserProfileFilter.PORTAL_USER_PROFILE);
+        long now = System.currentTimeMillis();
+        if (cached != null && cached.isValid(version, now)) {
+            return cached.profile;
+        }
+
+        // The version is read before loading so a concurrent modification is detected on the next request
+        UserProfile userProfile = loadUserProfile(exoContainer, user);
+        state.setAttribute(CacheUserProfileFilter.PORTAL_USER_PROFILE, new CachedUserProfile(userProfile, version, now));
+        return userProfile;
+    }
+
+    private UserProfile loadUserProfile(ExoContainer exoContainer, String user) throws Exception {
+        OrganizationService organizationService = (OrganizationService) exoContainer
+                .getComponentInstanceOfType(OrganizationService.class);
+        return organizationService.getUserProfileHandler().findUserProfileByName(user);
+    }
+
+    /**
+     * Returns the profile of the current user cached on its conversation state or null.
+     *
+     * @return the cached profile
+     */
+    public static UserProfile getCachedUserProfile() {
+        ConversationState state = ConversationState.getCurrent();
+        if (state != null) {
+            CachedUserProfile cached = (CachedUserProfile) state.getAttribute(CacheUserProfileFilter.PORTAL_USER_PROFILE);
+            if (cached != null) {
+                return cached.profile;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Invalidates the profile of a user cached on the conversation states, it must be called after a profile is saved
+     * without broadcasting the event. The profile cached on the current conversation state is removed and a new version is
+     * stamped, so the profiles cached on the other conversation states of the user are reloaded as well.
+     *
+     * @param exoContainer the container
+     * @param user the user name
+     */
+    public static void invalidateUserProfile(ExoContainer exoContainer, String user) {
+        CacheService cacheService = (CacheService) exoContainer.getComponentInstanceOfType(CacheService.class);
+        UserProfileVersionListener.stamp(cacheService, user);
+        ConversationState state = ConversationState.getCurrent();
+        if (state != null && user.equals(state.getIdentity().getUserId())) {
+            state.removeAttribute(CacheUserProfileFilter.PORTAL_USER_PROFILE);
+        }
+    }
+
+    private static class CachedUserProfile {
+
+        /** . */
+        private final UserProfile profile;
+
+        /** . */
+        private final String version;
+
+        /** . */
+        private final long timestamp;
+
+        private CachedUserProfile(UserProfile profile, String version, long timestamp) {
+            this.profile = profile;
+            this.version = version;
+            this.timestamp = timestamp;
+        }
+
+        private boolean isValid(String version, long now) {
+            return (this.version == null ? version == null : this.version.equals(version)) && now - timestamp < MAX_AGE;
+        }
+    }
+
     public void onFailRequest(Application app, WebuiRequestContext context, RequestFailure failureType) {
 
     }
@@ -221,8 +221,8 @@ public class LocalizationLifecycle implements ApplicationRequestPhaseLifecycle<W
     }
 
     /**
-     * Use {@link UserProfile} already loaded by {@link org.exoplatform.portal.application.UserProfileLifecycle} or load one
-     * ourselves.
+     * Use {@link UserProfile} already loaded by {@link org.exoplatform.portal.application.UserProfileLifecycle} or the one
+     * cached on the conversation state.
      *
      * @param context current PortalRequestContext
      * @return Locale from user's profile or null
@@ -258,7 +258,11 @@ public class LocalizationLifecycle implements ApplicationRequestPhaseLifecycle<W
     }
 
     private UserProfile getLoadedProfile(PortalRequestContext context) {
-        return (UserProfile) context.getAttribute(UserProfileLifecycle.USER_PROFILE_ATTRIBUTE_NAME);
+        UserProfile userProfile = (UserProfile) context.getAttribute(UserProfileLifecycle.USER_PROFILE_ATTRIBUTE_NAME);
+        if (userProfile == null && context.getRemoteUser() != null) {
+            userProfile = UserProfileLifecycle.getCachedUserProfile();
+        }
+        return userProfile;
     }
 
     public static List<Locale> getCookieLocales(HttpServletRequest request) {
@@ -350,6 +354,7 @@ public class LocalizationLifecycle implements ApplicationRequestPhaseLifecycle<W
             userProfile.getUserInfoMap().put(Constants.USER_LANGUAGE, LocaleContextInfo.getLocaleAsString(loc));
             try {
                 svc.getUserProfileHandler().saveUserProfile(userProfile, false);
+                UserProfileLifecycle.invalidateUserProfile(container, user);
             } catch (Exception ignored) {
                 log.error("IGNORED: Failed to save profile for user: " + user, ignored);
                 userProfile = null;
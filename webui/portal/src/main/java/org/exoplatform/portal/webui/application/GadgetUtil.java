@@ -23,15 +23,20 @@ import java.io.IOException;
 import java.io.OutputStreamWriter;
 import java.net.URL;
 import java.net.URLConnection;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import javax.servlet.http.HttpServletRequest;
 
 import org.apache.commons.io.IOUtils;
 import org.exoplatform.application.gadget.Gadget;
 import org.exoplatform.application.gadget.GadgetRegistryService;
+import org.exoplatform.commons.utils.PropertyManager;
 import org.exoplatform.container.ExoContainer;
 import org.exoplatform.container.ExoContainerContext;
 import org.exoplatform.container.PortalContainer;
@@ -49,6 +54,21 @@ public class GadgetUtil {
 
     private static final Logger log = LoggerFactory.getLogger(GadgetUtil.class);
 
+    /** The maximum number of cached metadata, the cache is cleared when it is reached. */
+    private static final int METADATA_CACHE_MAX_SIZE = 1000;
+
+    /** The time to live of a cached metadata, it bounds the staleness of the metadata of a remote gadget. */
+    private static final long METADATA_CACHE_TTL = TimeUnit.MINUTES.toMillis(5);
+
+    /** The cached rpc metadata keyed by gadget url. */
+    private static final RpcMetadataCache metadataCache = new RpcMetadataCache(METADATA_CACHE_MAX_SIZE,
+            METADATA_CACHE_TTL) {
+        @Override
+        protected String fetch(List<String> urls) {
+            return fetchGadgetRpcMetadata(urls);
+        }
+    };
+
     public static Gadget toGadget(String name, String path, boolean isLocal) throws Exception {
         Gadget gadget = new Gadget();
         gadget.setName(name);
@@ -106,20 +126,37 @@ public class GadgetUtil {
     }
 
     /**
-     * Fetchs Metatada of gadget application, create the connection to shindig server to get the metadata TODO cache the
-     * informations for better performance
+     * Fetchs Metatada of gadget application, create the connection to shindig server to get the metadata. The metadata is not
+     * cached, see {@link #getRpcMetadata(String)}.
      *
      * @return the string represents metadata of gadget application
      */
     public static String fetchGagdetRpcMetadata(String urlStr) {
+        return fetchGadgetRpcMetadata(Collections.singletonList(urlStr));
+    }
+
+    /**
+     * Fetches the metadata of several gadgets with a single request to the shindig server.
+     *
+     * @param urls the gadget urls
+     * @return the string represents the metadata of the gadgets
+     */
+    private static String fetchGadgetRpcMetadata(List<String> urls) {
         String result = null;
 
         ExoContainer container = ExoContainerContext.getCurrentContainer();
         GadgetRegistryService gadgetService = (GadgetRegistryService) container
                 .getComponentInstanceOfType(GadgetRegistryService.class);
         try {
-            String data = "[{method:\"gadgets.metadata\", id:\"test\", params: {ids:[\"" + urlStr
-                    + "\"], container:\"default\", language:\"" + gadgetService.getLanguage() + "\", country:\""
+            StringBuilder ids = new StringBuilder();
+            for (String url : urls) {
+                if (ids.length() > 0) {
+                    ids.append(',');
+                }
+                ids.append(JSONObject.quote(url));
+            }
+            String data = "[{method:\"gadgets.metadata\", id:\"test\", params: {ids:[" + ids
+                    + "], container:\"default\", language:\"" + gadgetService.getLanguage() + "\", country:\""
                     + gadgetService.getCountry() + "\", view:\"home\"}}]";
 
             // Send data
@@ -141,6 +178,63 @@ public class GadgetUtil {
         return result;
     }
 
+    /**
+     * Returns the rpc metadata of a gadget, see {@link #getRpcMetadata(Collection)}.
+     *
+     * @param url the gadget url
+     * @return the metadata or null when the gadget server does not provide it
+     * @throws JSONException if the response of the gadget server cannot be parsed
+     */
+    public static JSONObject getRpcMetadata(String url) throws JSONException {
+        return getRpcMetadata(Collections.singletonList(url)).get(url);
+    }
+
+    /**
+     * <p>
+     * Returns the rpc metadata of several gadgets. The metadata are cached until the gadget registry is modified or until
+     * their time to live expires, the metadata that are not cached are fetched with a single request to the gadget server.
+     * Nothing is cached in developing mode.
+     * </p>
+     *
+     * <p>
+     * The returned objects are copies that can be modified by the caller.
+     * </p>
+     *
+     * @param urls the gadget urls
+     * @return the metadata keyed by gadget url, a gadget without metadata is absent from the map
+     * @throws JSONException if the response of the gadget server cannot be parsed
+     */
+    public static Map<String, JSONObject> getRpcMetadata(Collection<String> urls) throws JSONException {
+        if (PropertyManager.isDevelopping()) {
+            return metadataCache.fetchMetadata(urls);
+        } else {
+            return metadataCache.get(urls, getGadgetRegistryVersion(), System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * Fetches the metadata of the gadgets that are not cached with a single request, it should be called before rendering a
+     * set of gadgets such as the gadgets of a dashboard. The cached metadata are only looked up, they are parsed when a
+     * gadget is rendered. Nothing is fetched in developing mode since nothing is cached.
+     *
+     * @param urls the gadget urls
+     */
+    public static void prefetchRpcMetadata(Collection<String> urls) {
+        if (!PropertyManager.isDevelopping() && urls.size() > 1) {
+            try {
+                metadataCache.prefetch(urls, getGadgetRegistryVersion(), System.currentTimeMillis());
+            } catch (JSONException e) {
+                log.warn("Unable to prefetch the gadget metadata", e);
+            }
+        }
+    }
+
+    private static String getGadgetRegistryVersion() {
+        GadgetRegistryService gadgetService = (GadgetRegistryService) ExoContainerContext.getCurrentContainer()
+                .getComponentInstanceOfType(GadgetRegistryService.class);
+        return gadgetService.getVersion();
+    }
+
     public static String createToken(String gadgetURL, Long moduleId) {
         SecurityTokenGenerator tokenGenerator = (SecurityTokenGenerator) ExoContainerContext.getCurrentContainer()
                 .getComponentInstanceOfType(SecurityTokenGenerator.class);
@@ -0,0 +1,181 @@
+/*
+ * Copyright (C) 2013 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.exoplatform.portal.webui.application;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * The rpc metadata of gadgets keyed by gadget url. An entry is valid as long as the version of the gadget registry it was
+ * fetched with is the current version and its time to live is not expired. The metadata are kept serialized, so the
+ * entries cannot be modified by the callers.
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
+abstract class RpcMetadataCache {
+
+    /** . */
+    private final int maxSize;
+
+    /** . */
+    private final long timeToLive;
+
+    /** . */
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<String, Entry>();
+
+    RpcMetadataCache(int maxSize, long timeToLive) {
+        this.maxSize = maxSize;
+        this.timeToLive = timeToLive;
+    }
+
+    /**
+     * Fetches the metadata of several gadgets from the gadget server.
+     *
+     * @param urls the gadget urls
+     * @return the rpc response of the gadget server
+     */
+    protected abstract String fetch(List<String> urls);
+
+    /**
+     * Returns the metadata of several gadgets, the metadata that are not cached are fetched with a single request.
+     *
+     * @param urls the gadget urls
+     * @param version the current version of the gadget registry
+     * @param now the current time
+     * @return copies of the metadata keyed by gadget url, a gadget without metadata is absent from the map
+     * @throws JSONException if the response of the gadget server cannot be parsed
+     */
+    Map<String, JSONObject> get(Collection<String> urls, String version, long now) throws JSONException {
+        Map<String, JSONObject> metadata = new HashMap<String, JSONObject>();
+        Set<String> missing = new LinkedHashSet<String>();
+        for (String url : urls) {
+            Entry entry = lookup(url, version, now);
+            if (entry != null) {
+                metadata.put(url, new JSONObject(entry.metadata));
+            } else {
+                missing.add(url);
+            }
+        }
+        if (missing.size() > 0) {
+            metadata.putAll(load(missing, version, now));
+        }
+        return metadata;
+    }
+
+    /**
+     * Fetches with a single request the metadata of the gadgets that are not cached, the cached metadata are not parsed.
+     *
+     * @param urls the gadget urls
+     * @param version the current version of the gadget registry
+     * @param now the current time
+     * @return the number of fetched gadgets
+     * @throws JSONException if the response of the gadget server cannot be parsed
+     */
+    int prefetch(Collection<String> urls, String version, long now) throws JSONException {
+        Set<String> missing = new LinkedHashSet<String>();
+        for (String url : urls) {
+            if (lookup(url, version, now) == null) {
+                missing.add(url);
+            }
+        }
+        if (missing.size() > 0) {
+            load(missing, version, now);
+        }
+        return missing.size();
+    }
+
+    /**
+     * Fetches the metadata of several gadgets without caching them.
+     *
+     * @param urls the gadget urls
+     * @return the metadata keyed by gadget url, a gadget without metadata is absent from the map
+     * @throws JSONException if the response of the gadget server cannot be parsed
+     */
+    Map<String, JSONObject> fetchMetadata(Collection<String> urls) throws JSONException {
+        Map<String, JSONObject> metadata = new HashMap<String, JSONObject>();
+        List<String> ids = new ArrayList<String>(new LinkedHashSet<String>(urls));
+        JSONObject result = new JSONArray(fetch(ids)).getJSONObject(0).optJSONObject(UIGadget.RPC_RESULT);
+        if (result != null) {
+            for (String url : ids) {
+                JSONObject gadgetMetadata = result.optJSONObject(url);
+                if (gadgetMetadata != null) {
+                    metadata.put(url, gadgetMetadata);
+                }
+            }
+        }
+        return metadata;
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    void clear() {
+        entries.clear();
+    }
+
+    private Entry lookup(String url, String version, long now) {
+        Entry entry = entries.get(url);
+        return entry != null && entry.version.equals(version) && entry.expiration > now ? entry : null;
+    }
+
+    private Map<String, JSONObject> load(Collection<String> urls, String version, long now) throws JSONException {
+        Map<String, JSONObject> metadata = fetchMetadata(urls);
+        for (Map.Entry<String, JSONObject> fetched : metadata.entrySet()) {
+            JSONObject gadgetMetadata = fetched.getValue();
+            if (!gadgetMetadata.has(UIGadget.METADATA_ERROR)) {
+                if (entries.size() >= maxSize) {
+                    entries.clear();
+                }
+                entries.put(fetched.getKey(), new Entry(gadgetMetadata.toString(), version, now + timeToLive));
+            }
+        }
+        return metadata;
+    }
+
+    private static class Entry {
+
+        /** The serialized metadata. */
+        final String metadata;
+
+        /** The version of the gadget registry when the metadata was fetched. */
+        final String version;
+
+        /** . */
+        final long expiration;
+
+        private Entry(String metadata, String version, long expiration) {
+            this.metadata = metadata;
+            this.version = version;
+            this.expiration = expiration;
+        }
+    }
+}
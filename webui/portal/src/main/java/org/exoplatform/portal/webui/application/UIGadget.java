@@ -246,12 +246,7 @@ public class UIGadget extends UIComponent {
 
     private JSONObject fetchRpcMetadata() {
         try {
-            String gadgetUrl = getUrl();
-            String strMetadata = GadgetUtil.fetchGagdetRpcMetadata(gadgetUrl);
-            JSONObject metadata = new JSONArray(strMetadata).getJSONObject(0).getJSONObject(UIGadget.RPC_RESULT)
-                    .getJSONObject(gadgetUrl);
-
-            return metadata;
+            return GadgetUtil.getRpcMetadata(getUrl());
         } catch (JSONException e) {
             return null;
         }
@@ -28,6 +28,7 @@ import org.exoplatform.portal.application.state.ContextualPropertyManager;
 import org.exoplatform.portal.config.DataStorage;
 import org.exoplatform.portal.config.NoSuchDataException;
 import org.exoplatform.portal.config.model.ApplicationType;
+import org.exoplatform.portal.pc.aspects.PublicMarkupCacheInterceptor;
 import org.exoplatform.portal.pom.spi.portlet.Portlet;
 import org.exoplatform.portal.pom.spi.wsrp.WSRP;
 import org.exoplatform.portal.portlet.PortletExceptionHandleService;
@@ -146,6 +147,7 @@ public class UIPortlet<S, C extends Serializable> extends UIApplication {
             "javax.portlet.markup.head.element.support", "true"));
 
     private static final String GTN_PREFIX = "gtn";
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
 
     /** . */
     private String storageId;
@@ -972,6 +974,12 @@ public class UIPortlet<S, C extends Serializable> extends UIApplication {
         ExoContainer container = context.getApplication().getApplicationServiceContainer();
         state.setApplicationState(adapter.update(container, updateState, state.getApplicationState()));
         setState(state);
+
+        // The shared markup rendered with the previous preferences is not valid anymore
+        PublicMarkupCacheInterceptor markupCache = getApplicationComponent(PublicMarkupCacheInterceptor.class);
+        if (markupCache != null) {
+            markupCache.invalidate(storageName);
+        }
     }
 
     /**
@@ -1088,7 +1096,7 @@ public class UIPortlet<S, C extends Serializable> extends UIApplication {
                     markup = Text.create(fragmentResponse.getContent());
                     break;
                 case FragmentResponse.TYPE_BYTES:
-                    markup = Text.create(fragmentResponse.getBytes(), Charset.forName("UTF-8"));
+                    markup = Text.create(fragmentResponse.getBytes(), UTF_8);
                     break;
                 case FragmentResponse.TYPE_EMPTY:
                     markup = Text.create("");
@@ -31,6 +31,7 @@ import org.exoplatform.container.ExoContainer;
 import org.exoplatform.container.ExoContainerContext;
 import org.exoplatform.portal.Constants;
 import org.exoplatform.portal.application.PortalRequestContext;
+import org.exoplatform.portal.application.UserProfileLifecycle;
 import org.exoplatform.portal.webui.util.Util;
 import org.exoplatform.portal.webui.workspace.UIMaskWorkspace;
 import org.exoplatform.portal.webui.workspace.UIPortalApplication;
@@ -190,6 +191,7 @@ public class UILanguageSelector extends UIContainer {
                     userProfile.getUserInfoMap().put(Constants.USER_LANGUAGE,
                             LocaleContextInfo.getLocaleAsString(context.getLocale()));
                     svc.getUserProfileHandler().saveUserProfile(userProfile, false);
+                    UserProfileLifecycle.invalidateUserProfile(container, context.getRemoteUser());
                 }
             }
         }
@@ -0,0 +1,143 @@
+/*
+ * Copyright (C) 2013 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.exoplatform.portal.application;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.ResourceBundle;
+import java.util.concurrent.ConcurrentHashMap;
+
+import junit.framework.TestCase;
+
+import org.exoplatform.container.ExoContainerContext;
+import org.exoplatform.container.PortalContainer;
+import org.exoplatform.container.xml.InitParams;
+import org.exoplatform.container.xml.ValuesParam;
+import org.exoplatform.groovyscript.text.TemplateService;
+import org.exoplatform.portal.config.DataStorage;
+import org.exoplatform.portal.config.UserPortalConfigService;
+import org.exoplatform.portal.config.model.PortalConfig;
+import org.exoplatform.portal.mop.description.DescriptionService;
+import org.exoplatform.portal.mop.navigation.NavigationService;
+import org.exoplatform.portal.mop.page.PageService;
+import org.exoplatform.services.resources.ResourceBundleService;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+/**
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
+public class TestCacheWarmupService extends TestCase {
+
+    /** . */
+    private PortalContainer container;
+
+    /** The containers seen by the loads of the warm-up threads. */
+    private List<PortalContainer> containers;
+
+    /** The resource bundle cache the warm-up populates. */
+    private Map<Locale, ResourceBundle> bundles;
+
+    /** The sites the warm-up loaded. */
+    private Map<String, PortalConfig> sites;
+
+    /** . */
+    private CacheWarmupService service;
+
+    @Override
+    protected void setUp() throws Exception {
+        container = mock(PortalContainer.class);
+        containers = Collections.synchronizedList(new ArrayList<PortalContainer>());
+        bundles = new ConcurrentHashMap<Locale, ResourceBundle>();
+        sites = new ConcurrentHashMap<String, PortalConfig>();
+
+        //
+        ExoContainerContext context = mock(ExoContainerContext.class);
+        when(context.getContainer()).thenReturn(container);
+        DataStorage dataStorage = mock(DataStorage.class);
+        when(dataStorage.getPortalConfig(anyString(), anyString())).thenAnswer(new Answer<PortalConfig>() {
+            public PortalConfig answer(InvocationOnMock invocation) throws Throwable {
+                containers.add(PortalContainer.getInstanceIfPresent());
+                Object[] args = invocation.getArguments();
+                PortalConfig config = new PortalConfig((String) args[0], (String) args[1]);
+                sites.put(args[0] + "::" + args[1], config);
+                return config;
+            }
+        });
+        UserPortalConfigService configService = mock(UserPortalConfigService.class);
+        when(configService.getDataStorage()).thenReturn(dataStorage);
+        when(configService.getNavigationService()).thenReturn(mock(NavigationService.class));
+        when(configService.getPageService()).thenReturn(mock(PageService.class));
+        when(configService.getDescriptionService()).thenReturn(mock(DescriptionService.class));
+        ResourceBundleService resourceBundleService = mock(ResourceBundleService.class);
+        when(resourceBundleService.getResourceBundle(any(String[].class), any(Locale.class))).thenAnswer(
+                new Answer<ResourceBundle>() {
+                    public ResourceBundle answer(InvocationOnMock invocation) throws Throwable {
+                        containers.add(PortalContainer.getInstanceIfPresent());
+                        ResourceBundle bundle = mock(ResourceBundle.class);
+                        bundles.put((Locale) invocation.getArguments()[1], bundle);
+                        return bundle;
+                    }
+                });
+
+        //
+        InitParams params = new InitParams();
+        params.addParameter(values("sites", "portal::classic", "group::/platform/users"));
+        params.addParameter(values("locales", "en", "fr", "vi"));
+        params.addParameter(values("resource.bundles", "locale.portal.webui"));
+        service = new CacheWarmupService(context, configService, resourceBundleService, mock(TemplateService.class),
+                mock(PortalStatisticService.class), params);
+    }
+
+    private static ValuesParam values(String name, String... values) {
+        ValuesParam param = new ValuesParam();
+        param.setName(name);
+        param.setValues(new ArrayList<String>(Arrays.asList(values)));
+        return param;
+    }
+
+    public void testWarmup() throws Exception {
+        service.start();
+
+        // The caches are populated
+        assertEquals(3, bundles.size());
+        assertTrue(bundles.containsKey(Locale.ENGLISH));
+        assertTrue(bundles.containsKey(Locale.FRENCH));
+        assertTrue(bundles.containsKey(new Locale("vi")));
+        assertEquals(2, sites.size());
+        assertTrue(sites.containsKey("portal::classic"));
+        assertTrue(sites.containsKey("group::/platform/users"));
+
+        // Each load was performed with the portal container as current container
+        assertEquals(5, containers.size());
+        for (PortalContainer current : containers) {
+            assertSame(container, current);
+        }
+    }
+}
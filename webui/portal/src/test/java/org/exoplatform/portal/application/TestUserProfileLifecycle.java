@@ -0,0 +1,144 @@
+/*
+ * Copyright (C) 2013 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.exoplatform.portal.application;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+import org.exoplatform.container.ExoContainer;
+import org.exoplatform.portal.Constants;
+import org.exoplatform.services.cache.CacheService;
+import org.exoplatform.services.cache.ExoCache;
+import org.exoplatform.services.cache.concurrent.ConcurrentFIFOExoCache;
+import org.exoplatform.services.organization.OrganizationService;
+import org.exoplatform.services.organization.UserProfile;
+import org.exoplatform.services.organization.UserProfileHandler;
+import org.exoplatform.services.security.ConversationState;
+import org.exoplatform.services.security.Identity;
+import org.exoplatform.web.UserProfileVersionListener;
+
+/**
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
+public class TestUserProfileLifecycle extends TestCase {
+
+    /** . */
+    private ExoContainer container;
+
+    /** . */
+    private UserProfileHandler handler;
+
+    /** . */
+    private CacheService cacheService;
+
+    /** . */
+    private UserProfileLifecycle lifecycle;
+
+    @Override
+    protected void setUp() throws Exception {
+        ExoCache<String, String> versions = new ConcurrentFIFOExoCache<String, String>();
+        cacheService = mock(CacheService.class);
+        when(cacheService.<String, String> getCacheInstance(UserProfileVersionListener.CACHE_NAME)).thenReturn(versions);
+        handler = mock(UserProfileHandler.class);
+        OrganizationService organizationService = mock(OrganizationService.class);
+        when(organizationService.getUserProfileHandler()).thenReturn(handler);
+        container = mock(ExoContainer.class);
+        when(container.getComponentInstanceOfType(CacheService.class)).thenReturn(cacheService);
+        when(container.getComponentInstanceOfType(OrganizationService.class)).thenReturn(organizationService);
+        lifecycle = new UserProfileLifecycle();
+        ConversationState.setCurrent(new ConversationState(new Identity("root")));
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        ConversationState.setCurrent(null);
+    }
+
+    private UserProfile profile(String language) {
+        Map<String, String> info = new HashMap<String, String>();
+        info.put(Constants.USER_LANGUAGE, language);
+        UserProfile profile = mock(UserProfile.class);
+        when(profile.getUserName()).thenReturn("root");
+        when(profile.getUserInfoMap()).thenReturn(info);
+        return profile;
+    }
+
+    /**
+     * Performs a request of the root user and returns the language of the profile provided to the request.
+     */
+    private String request() throws Exception {
+        return lifecycle.getUserProfile(container, "root").getUserInfoMap().get(Constants.USER_LANGUAGE);
+    }
+
+    public void testCached() throws Exception {
+        UserProfile profile = profile("en");
+        when(handler.findUserProfileByName("root")).thenReturn(profile);
+        assertEquals("en", request());
+        assertEquals("en", request());
+        verify(handler, times(1)).findUserProfileByName("root");
+        assertSame(profile, UserProfileLifecycle.getCachedUserProfile());
+    }
+
+    public void testChangeLanguage() throws Exception {
+        when(handler.findUserProfileByName("root")).thenReturn(profile("en"));
+        assertEquals("en", request());
+
+        // The language is saved without broadcast as the localization lifecycle and the language selector do
+        when(handler.findUserProfileByName("root")).thenReturn(profile("fr"));
+        UserProfileLifecycle.invalidateUserProfile(container, "root");
+        assertNull(UserProfileLifecycle.getCachedUserProfile());
+
+        // The next request uses the new language
+        assertEquals("fr", request());
+        assertEquals("fr", request());
+        verify(handler, times(2)).findUserProfileByName("root");
+    }
+
+    public void testChangeLanguageFromAnotherConversation() throws Exception {
+        when(handler.findUserProfileByName("root")).thenReturn(profile("en"));
+        assertEquals("en", request());
+        ConversationState state = ConversationState.getCurrent();
+
+        // Another conversation of the user changes the language
+        ConversationState.setCurrent(new ConversationState(new Identity("root")));
+        when(handler.findUserProfileByName("root")).thenReturn(profile("fr"));
+        UserProfileLifecycle.invalidateUserProfile(container, "root");
+
+        // The profile cached on the first conversation is stale
+        ConversationState.setCurrent(state);
+        assertEquals("fr", request());
+    }
+
+    public void testBroadcastSave() throws Exception {
+        when(handler.findUserProfileByName("root")).thenReturn(profile("en"));
+        assertEquals("en", request());
+        UserProfile modified = profile("fr");
+        when(handler.findUserProfileByName("root")).thenReturn(modified);
+        new UserProfileVersionListener(cacheService).postSave(modified, false);
+        assertEquals("fr", request());
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright (C) 2013 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.exoplatform.portal.webui.application;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+/**
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
+public class TestRpcMetadataCache extends TestCase {
+
+    /** . */
+    private static final long TTL = 1000;
+
+    /** . */
+    private static final String FOO = "http://localhost/foo.xml";
+
+    /** . */
+    private static final String BAR = "http://localhost/bar.xml";
+
+    /** . */
+    private static final String BROKEN = "http://localhost/broken.xml";
+
+    /** A gadget server returning a title for each url and an error for the broken url. */
+    private static class Server extends RpcMetadataCache {
+
+        /** The urls of each request. */
+        final List<List<String>> requests = new ArrayList<List<String>>();
+
+        private Server(int maxSize) {
+            super(maxSize, TTL);
+        }
+
+        @Override
+        protected String fetch(List<String> urls) {
+            requests.add(new ArrayList<String>(urls));
+            try {
+                JSONObject result = new JSONObject();
+                for (String url : urls) {
+                    JSONObject metadata = new JSONObject();
+                    if (url.equals(BROKEN)) {
+                        metadata.put(UIGadget.METADATA_ERROR, "not found");
+                    } else {
+                        metadata.put("title", url);
+                    }
+                    result.put(url, metadata);
+                }
+                JSONObject response = new JSONObject();
+                response.put("id", "test");
+                response.put(UIGadget.RPC_RESULT, result);
+                return new JSONArray().put(response).toString();
+            } catch (Exception e) {
+                throw new AssertionError(e);
+            }
+        }
+    }
+
+    public void testBatch() throws Exception {
+        Server server = new Server(10);
+        Map<String, JSONObject> metadata = server.get(Arrays.asList(FOO, BAR, FOO), "1", 0);
+        assertEquals(2, metadata.size());
+        assertEquals(FOO, metadata.get(FOO).getString("title"));
+        assertEquals(BAR, metadata.get(BAR).getString("title"));
+        assertEquals(Arrays.asList(Arrays.asList(FOO, BAR)), server.requests);
+
+        // Only the missing metadata are fetched
+        server.get(Arrays.asList(FOO, "http://localhost/juu.xml"), "1", 0);
+        assertEquals(Arrays.asList("http://localhost/juu.xml"), server.requests.get(1));
+    }
+
+    public void testCopy() throws Exception {
+        Server server = new Server(10);
+        server.get(Arrays.asList(FOO), "1", 0).get(FOO).put("secureToken", "token");
+        JSONObject metadata = server.get(Arrays.asList(FOO), "1", 0).get(FOO);
+        assertFalse(metadata.has("secureToken"));
+        assertEquals(1, server.requests.size());
+    }
+
+    public void testVersion() throws Exception {
+        Server server = new Server(10);
+        server.get(Arrays.asList(FOO), "1", 0);
+        server.get(Arrays.asList(FOO), "1", 0);
+        assertEquals(1, server.requests.size());
+
+        // The gadget registry was modified
+        server.get(Arrays.asList(FOO), "2", 0);
+        assertEquals(2, server.requests.size());
+        server.get(Arrays.asList(FOO), "2", 0);
+        assertEquals(2, server.requests.size());
+    }
+
+    public void testExpiration() throws Exception {
+        Server server = new Server(10);
+        server.get(Arrays.asList(FOO), "1", 0);
+        server.get(Arrays.asList(FOO), "1", TTL - 1);
+        assertEquals(1, server.requests.size());
+        server.get(Arrays.asList(FOO), "1", TTL);
+        assertEquals(2, server.requests.size());
+    }
+
+    public void testError() throws Exception {
+        Server server = new Server(10);
+        Map<String, JSONObject> metadata = server.get(Arrays.asList(BROKEN), "1", 0);
+        assertTrue(metadata.get(BROKEN).has(UIGadget.METADATA_ERROR));
+        assertEquals(0, server.size());
+        server.get(Arrays.asList(BROKEN), "1", 0);
+        assertEquals(2, server.requests.size());
+    }
+
+    public void testPrefetch() throws Exception {
+        Server server = new Server(10);
+        assertEquals(2, server.prefetch(Arrays.asList(FOO, BAR), "1", 0));
+        assertEquals(1, server.requests.size());
+        assertEquals(2, server.size());
+
+        // Cached metadata are not fetched again
+        assertEquals(0, server.prefetch(Arrays.asList(FOO, BAR), "1", 0));
+        assertEquals(1, server.requests.size());
+        server.get(Arrays.asList(FOO, BAR), "1", 0);
+        assertEquals(1, server.requests.size());
+
+        // Stale metadata are fetched again
+        assertEquals(2, server.prefetch(Arrays.asList(FOO, BAR), "2", 0));
+        assertEquals(2, server.requests.size());
+    }
+
+    public void testFetchMetadata() throws Exception {
+        Server server = new Server(10);
+        server.fetchMetadata(Arrays.asList(FOO));
+        server.fetchMetadata(Arrays.asList(FOO));
+        assertEquals(2, server.requests.size());
+        assertEquals(0, server.size());
+    }
+
+    public void testMaxSize() throws Exception {
+        Server server = new Server(2);
+        server.get(Arrays.asList(FOO, BAR), "1", 0);
+        assertEquals(2, server.size());
+        server.get(Arrays.asList("http://localhost/juu.xml"), "1", 0);
+        assertEquals(1, server.size());
+    }
+}